@@ -45,6 +45,7 @@ import com.aceql.jdbc.commons.main.advanced.caller.DatabaseMetaDataGetter;
 import com.aceql.jdbc.commons.main.advanced.caller.PrepareCallGetter;
 import com.aceql.jdbc.commons.main.http.AceQLHttpApi;
 import com.aceql.jdbc.commons.main.util.AceQLConnectionUtil;
+import com.aceql.jdbc.commons.main.util.AsyncCallUtil;
 import com.aceql.jdbc.commons.main.util.framework.Tag;
 import com.aceql.jdbc.commons.main.version.Version;
 import com.aceql.jdbc.commons.metadata.RemoteDatabaseMetaData;
@@ -168,6 +169,9 @@ public class AceQLConnection extends AbstractConnection implements Connection, C
     /** The Connections Advanced Options */
     private ConnectionInfo connectionInfo;
 
+    /** The executor of the asynchronous statement calls, null for default */
+    private Executor asyncExecutor;
+
     /**
      * Login on the AceQL server and connect to a database.
      * 
@@ -453,6 +457,18 @@ public class AceQLConnection extends AbstractConnection implements Connection, C
 	return aceQLHttpApi.getSchema();
     }
 
+    /**
+     * Forgets the locally kept connection state: the next calls to
+     * {@link #getAutoCommit()}, {@link #isReadOnly()}, {@link #getHoldability()},
+     * {@link #getTransactionIsolation()}, {@link #getCatalog()} and
+     * {@link #getSchema()} will ask the server. <br>
+     * To be called after the state has been changed with SQL statements, such as
+     * <code>SET TRANSACTION ISOLATION LEVEL</code> or <code>USE</code>.
+     */
+    public void invalidateConnectionState() {
+	aceQLHttpApi.invalidateConnectionState();
+    }
+
 
     /**
      * Creates a {@code CallableServerQuery} object for calling a remote {@code ServerQueryExecutor} implementation.
@@ -462,6 +478,16 @@ public class AceQLConnection extends AbstractConnection implements Connection, C
 	CallableServerQuery callableServerQuery = new CallableServerQuery(this);
 	return callableServerQuery;
     }
+
+    /**
+     * Creates an {@code AceQLPipeline} object for sending several updates,
+     * queries, commit and savepoint calls in one request.
+     * @return a new empty {@code AceQLPipeline} object
+     */
+    public AceQLPipeline pipeline() {
+	AceQLPipeline aceQLPipeline = new AceQLPipeline(this);
+	return aceQLPipeline;
+    }
     
     /*
      * (non-Javadoc)
@@ -612,6 +638,7 @@ public class AceQLConnection extends AbstractConnection implements Connection, C
     public Connection clone() {
 	AceQLHttpApi aceQLHttpApi = this.aceQLHttpApi.clone();
 	AceQLConnection aceQLConnection = new AceQLConnection(aceQLHttpApi);
+	aceQLConnection.asyncExecutor = asyncExecutor;
 	return aceQLConnection;
     }
 
@@ -710,6 +737,35 @@ public class AceQLConnection extends AbstractConnection implements Connection, C
 	aceQLHttpApi.setProgress(progress);
     }
 
+    /**
+     * Returns the executor that runs the {@code executeQueryAsync} and
+     * {@code executeUpdateAsync} calls of the statements of this Connection.
+     *
+     * @return the executor set with {@link #setAsyncExecutor(Executor)}, or the
+     *         default shared pool of daemon threads
+     */
+    public Executor getAsyncExecutor() {
+	return asyncExecutor != null ? asyncExecutor : AsyncCallUtil.getDefaultExecutor();
+    }
+
+    /**
+     * Sets the executor that runs the {@code executeQueryAsync} and
+     * {@code executeUpdateAsync} calls of the statements of this Connection.
+     * <br>
+     * The calls of a Connection are run one after the other, as they share its
+     * server connection and transaction: each call blocks a thread of the
+     * executor while waiting for the server or for the previous calls. On Java
+     * 21+, a virtual thread executor such as
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} makes these waits
+     * cheap. The executor is not shut down by this Connection.
+     *
+     * @param asyncExecutor the executor to use, null for the default shared pool
+     *                      of daemon threads
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+	this.asyncExecutor = asyncExecutor;
+    }
+
     /*
      * (non-Javadoc)
      *
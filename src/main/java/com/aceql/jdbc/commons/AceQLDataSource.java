@@ -0,0 +1,621 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons;
+
+import java.io.Closeable;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.ConnectionPoolDataSource;
+import javax.sql.DataSource;
+import javax.sql.PooledConnection;
+
+import com.aceql.jdbc.commons.main.util.framework.Tag;
+import com.aceql.jdbc.driver.free.AceQLDriver;
+
+/**
+ * A {@code DataSource} that keeps a pool of opened AceQL connections. <br>
+ * <br>
+ * Each {@code DriverManager.getConnection()} call does a login round trip to
+ * the AceQL server. {@link #getConnection()} instead returns a connection of
+ * the pool, and its {@code close()} call gives it back to the pool: the AceQL
+ * session is closed only when the connection is evicted. <br>
+ * <br>
+ * Pool properties:
+ * <ul>
+ * <li><b>minPoolSize</b>: Number of connections kept opened, even if idle.
+ * Defaults to 0.</li>
+ * <li><b>maxPoolSize</b>: Max number of opened connections. When all are in
+ * use, {@code getConnection()} waits for a connection to be closed. Defaults to
+ * 10.</li>
+ * <li><b>maxIdleTime</b>: Time in seconds after which an idle connection is
+ * closed, while more than minPoolSize connections are opened. 0 means that idle
+ * connections are never closed. Defaults to 600.</li>
+ * <li><b>borrowTimeout</b>: Max time in milliseconds {@code getConnection()}
+ * waits for a connection when the pool is full. Defaults to 30000.</li>
+ * <li><b>validateOnBorrow</b>: Boolean to say if an idle connection is checked
+ * with {@link HealthCheck#ping()} before being returned. Defaults to
+ * <code>true</code>.</li>
+ * </ul>
+ * The connections are created with {@link AceQLDriver} from the url, the
+ * database, the user, the password and the other driver properties. This class
+ * is also a {@code ConnectionPoolDataSource}, for the pools of application
+ * servers.
+ *
+ * <pre>
+ * AceQLDataSource dataSource = new AceQLDataSource();
+ * dataSource.setUrl("https://www.acme.com:9443/aceql");
+ * dataSource.setDatabase("sampledb");
+ * dataSource.setUser("user1");
+ * dataSource.setPassword("password1");
+ * dataSource.setMaxPoolSize(20);
+ *
+ * try (Connection connection = dataSource.getConnection()) {
+ *     // Use the connection as usual
+ * }
+ * </pre>
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class AceQLDataSource implements DataSource, ConnectionPoolDataSource, Closeable {
+
+    private String url;
+    private String database;
+    private String user;
+    private String password;
+    private Properties properties = new Properties();
+
+    private int minPoolSize = 0;
+    private int maxPoolSize = 10;
+    private int maxIdleTime = 600;
+    private long borrowTimeout = 30000;
+    private boolean validateOnBorrow = true;
+
+    private int loginTimeout = 0;
+    private PrintWriter logWriter;
+
+    /** The idle connections, the last returned first */
+    private final Deque<IdleConnection> idleConnections = new ArrayDeque<IdleConnection>();
+
+    /** The number of opened connections, idle, in use, or being created */
+    private int totalConnections = 0;
+
+    private boolean closed = false;
+
+    /** The idle connections eviction task, created on first use */
+    private ScheduledExecutorService housekeeper;
+
+    private final ConnectionEventListener connectionEventListener = new ConnectionEventListener() {
+
+	@Override
+	public void connectionClosed(ConnectionEvent event) {
+	    release((AceQLPooledConnection) event.getSource());
+	}
+
+	@Override
+	public void connectionErrorOccurred(ConnectionEvent event) {
+	    // The connection is closed when released, as it is broken
+	}
+    };
+
+    /**
+     * An idle connection with the time it was returned to the pool.
+     */
+    private static class IdleConnection {
+	private final AceQLPooledConnection pooledConnection;
+	private final long idleSince;
+
+	IdleConnection(AceQLPooledConnection pooledConnection) {
+	    this.pooledConnection = pooledConnection;
+	    this.idleSince = System.currentTimeMillis();
+	}
+    }
+
+    /**
+     * Default constructor. The url, database, user and password must be set
+     * before the first {@code getConnection()} call.
+     */
+    public AceQLDataSource() {
+
+    }
+
+    /**
+     * Returns a connection of the pool, or a new one if none is idle and the
+     * pool is not full.
+     *
+     * @return a connection to be closed after use, to give it back to the pool
+     * @throws SQLException if the pool is closed, if no connection is available
+     *                      after borrowTimeout, or if a new connection can not
+     *                      be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+	startHousekeeper();
+
+	long deadline = System.currentTimeMillis() + borrowTimeout;
+	while (true) {
+	    AceQLPooledConnection pooledConnection = borrow(deadline);
+	    if (pooledConnection == null) {
+		// A slot has been reserved
+		pooledConnection = createPooledConnection();
+	    } else if (validateOnBorrow && !isValid(pooledConnection)) {
+		destroy(pooledConnection);
+		continue;
+	    }
+
+	    try {
+		return pooledConnection.getConnection();
+	    } catch (SQLException e) {
+		destroy(pooledConnection);
+		throw e;
+	    }
+	}
+    }
+
+    /**
+     * Returns a new connection opened with other credentials. It is not pooled:
+     * its {@code close()} call closes the AceQL session.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+	return connect(username, password);
+    }
+
+    /**
+     * Returns a new physical connection, for the pools of application servers.
+     */
+    @Override
+    public PooledConnection getPooledConnection() throws SQLException {
+	return getPooledConnection(user, password);
+    }
+
+    /**
+     * Returns a new physical connection opened with other credentials, for the
+     * pools of application servers.
+     */
+    @Override
+    public PooledConnection getPooledConnection(String username, String password) throws SQLException {
+	Connection connection = connect(username, password);
+	try {
+	    return new AceQLPooledConnection(connection);
+	} catch (SQLException | RuntimeException e) {
+	    connection.close();
+	    throw e;
+	}
+    }
+
+    /**
+     * Opens a new physical connection with {@link AceQLDriver}.
+     *
+     * @param username the user
+     * @param password the password
+     * @return the new connection
+     * @throws SQLException if the connection can not be opened
+     */
+    protected Connection connect(String username, String password) throws SQLException {
+	if (url == null) {
+	    throw new SQLException(Tag.PRODUCT + " url not set. Please provide an url.");
+	}
+
+	Properties info = new Properties();
+	info.putAll(properties);
+	if (database != null) {
+	    info.setProperty("database", database);
+	}
+	if (username != null) {
+	    info.setProperty("user", username);
+	}
+	if (password != null) {
+	    info.setProperty("password", password);
+	}
+	if (loginTimeout > 0 && info.getProperty("connectTimeout") == null) {
+	    info.setProperty("connectTimeout", Integer.toString(loginTimeout * 1000));
+	}
+
+	Connection connection = new AceQLDriver().connect(url, info);
+	if (connection == null) {
+	    throw new SQLException(Tag.PRODUCT + " url is not an AceQL url: " + url);
+	}
+	return connection;
+    }
+
+    /**
+     * Says if an idle connection can be returned. Calls
+     * {@link AceQLPooledConnection#ping()}.
+     *
+     * @param pooledConnection the idle connection
+     * @return true if the connection can be used
+     */
+    protected boolean isValid(AceQLPooledConnection pooledConnection) {
+	return pooledConnection.ping();
+    }
+
+    /**
+     * Takes an idle connection, or reserves a slot for a new one.
+     *
+     * @param deadline the time to wait until if the pool is full
+     * @return an idle connection, or null if a new one must be created
+     */
+    private synchronized AceQLPooledConnection borrow(long deadline) throws SQLException {
+	while (true) {
+	    if (closed) {
+		throw new SQLException(Tag.PRODUCT + " Can not get a Connection because DataSource is closed.");
+	    }
+
+	    IdleConnection idleConnection = idleConnections.pollFirst();
+	    if (idleConnection != null) {
+		return idleConnection.pooledConnection;
+	    }
+
+	    if (totalConnections < maxPoolSize) {
+		totalConnections++;
+		return null;
+	    }
+
+	    long waitTime = deadline - System.currentTimeMillis();
+	    if (waitTime <= 0) {
+		throw new SQLException(Tag.PRODUCT + " No Connection available after " + borrowTimeout
+			+ " ms. All the " + maxPoolSize + " connections of the pool are in use.");
+	    }
+
+	    try {
+		wait(waitTime);
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new SQLException(Tag.PRODUCT + " Interrupted while waiting for a Connection.", e);
+	    }
+	}
+    }
+
+    /**
+     * Creates a new pooled connection in a reserved slot. The slot is freed if
+     * the creation fails.
+     */
+    private AceQLPooledConnection createPooledConnection() throws SQLException {
+	try {
+	    AceQLPooledConnection pooledConnection = (AceQLPooledConnection) getPooledConnection();
+	    pooledConnection.addConnectionEventListener(connectionEventListener);
+	    return pooledConnection;
+	} catch (SQLException | RuntimeException e) {
+	    freeSlot();
+	    throw e;
+	}
+    }
+
+    /**
+     * Gives back a connection whose logical Connection has been closed.
+     */
+    private void release(AceQLPooledConnection pooledConnection) {
+	synchronized (this) {
+	    if (!closed && !pooledConnection.isBroken()) {
+		idleConnections.addFirst(new IdleConnection(pooledConnection));
+		notifyAll();
+		return;
+	    }
+	}
+	destroy(pooledConnection);
+    }
+
+    /**
+     * Closes a connection and frees its slot.
+     */
+    private void destroy(AceQLPooledConnection pooledConnection) {
+	freeSlot();
+	try {
+	    pooledConnection.close();
+	} catch (SQLException ignore) {
+	    // The server closes the session at timeout
+	}
+    }
+
+    private synchronized void freeSlot() {
+	totalConnections--;
+	notifyAll();
+    }
+
+    /**
+     * Starts the eviction of the idle connections on first use, and opens the
+     * minPoolSize connections.
+     */
+    private void startHousekeeper() {
+	synchronized (this) {
+	    if (housekeeper != null || closed) {
+		return;
+	    }
+
+	    housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+		    Thread thread = new Thread(runnable, "AceQL-pool-housekeeper");
+		    thread.setDaemon(true);
+		    return thread;
+		}
+	    });
+
+	    long period = maxIdleTime > 0 ? Math.max(1, Math.min(maxIdleTime / 2, 30)) : 30;
+	    housekeeper.scheduleWithFixedDelay(new Runnable() {
+
+		@Override
+		public void run() {
+		    evictIdleConnections();
+		    fillPool();
+		}
+	    }, 0, period, TimeUnit.SECONDS);
+	}
+    }
+
+    /**
+     * Closes the connections idle for more than maxIdleTime, while more than
+     * minPoolSize connections are opened.
+     */
+    void evictIdleConnections() {
+	if (maxIdleTime <= 0) {
+	    return;
+	}
+
+	List<AceQLPooledConnection> evicted = new ArrayList<AceQLPooledConnection>();
+	synchronized (this) {
+	    long idleLimit = System.currentTimeMillis() - maxIdleTime * 1000L;
+	    // The oldest idle connections are at the end
+	    Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+	    while (iterator.hasNext() && totalConnections - evicted.size() > minPoolSize) {
+		IdleConnection idleConnection = iterator.next();
+		if (idleConnection.idleSince > idleLimit) {
+		    break;
+		}
+		iterator.remove();
+		evicted.add(idleConnection.pooledConnection);
+	    }
+	}
+
+	for (AceQLPooledConnection pooledConnection : evicted) {
+	    destroy(pooledConnection);
+	}
+    }
+
+    /**
+     * Opens connections until minPoolSize connections are opened.
+     */
+    void fillPool() {
+	while (true) {
+	    synchronized (this) {
+		if (closed || totalConnections >= minPoolSize) {
+		    return;
+		}
+		totalConnections++;
+	    }
+
+	    try {
+		release(createPooledConnection());
+	    } catch (SQLException | RuntimeException e) {
+		// Server not available: retried at next run
+		log("Can not open a pool connection: " + e.getMessage());
+		return;
+	    }
+	}
+    }
+
+    private void log(String message) {
+	PrintWriter printWriter = logWriter;
+	if (printWriter != null) {
+	    printWriter.println(Tag.PRODUCT + " " + message);
+	}
+    }
+
+    /**
+     * Closes the idle connections and stops the pool. The connections in use
+     * are closed when they are given back.
+     */
+    @Override
+    public void close() {
+	List<IdleConnection> toClose;
+	synchronized (this) {
+	    if (closed) {
+		return;
+	    }
+	    closed = true;
+	    if (housekeeper != null) {
+		housekeeper.shutdownNow();
+	    }
+	    toClose = new ArrayList<IdleConnection>(idleConnections);
+	    idleConnections.clear();
+	    notifyAll();
+	}
+
+	for (IdleConnection idleConnection : toClose) {
+	    destroy(idleConnection.pooledConnection);
+	}
+    }
+
+    /**
+     * @return true if {@link #close()} has been called
+     */
+    public synchronized boolean isClosed() {
+	return closed;
+    }
+
+    /**
+     * @return the number of opened connections, idle or in use
+     */
+    public synchronized int getTotalConnections() {
+	return totalConnections;
+    }
+
+    /**
+     * @return the number of idle connections
+     */
+    public synchronized int getIdleConnections() {
+	return idleConnections.size();
+    }
+
+    public String getUrl() {
+	return url;
+    }
+
+    public void setUrl(String url) {
+	this.url = url;
+    }
+
+    public String getDatabase() {
+	return database;
+    }
+
+    public void setDatabase(String database) {
+	this.database = database;
+    }
+
+    public String getUser() {
+	return user;
+    }
+
+    public void setUser(String user) {
+	this.user = user;
+    }
+
+    public void setPassword(String password) {
+	this.password = password;
+    }
+
+    /**
+     * @return the other driver properties
+     */
+    public Properties getProperties() {
+	return properties;
+    }
+
+    /**
+     * Sets the other driver properties, as passed to
+     * {@code DriverManager.getConnection(String, Properties)}.
+     *
+     * @param properties the driver properties
+     */
+    public void setProperties(Properties properties) {
+	this.properties = properties != null ? properties : new Properties();
+    }
+
+    public int getMinPoolSize() {
+	return minPoolSize;
+    }
+
+    public void setMinPoolSize(int minPoolSize) {
+	if (minPoolSize < 0) {
+	    throw new IllegalArgumentException("minPoolSize must be >= 0!");
+	}
+	this.minPoolSize = minPoolSize;
+    }
+
+    public int getMaxPoolSize() {
+	return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+	if (maxPoolSize < 1) {
+	    throw new IllegalArgumentException("maxPoolSize must be >= 1!");
+	}
+	this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getMaxIdleTime() {
+	return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(int maxIdleTime) {
+	this.maxIdleTime = maxIdleTime;
+    }
+
+    public long getBorrowTimeout() {
+	return borrowTimeout;
+    }
+
+    public void setBorrowTimeout(long borrowTimeout) {
+	this.borrowTimeout = borrowTimeout;
+    }
+
+    public boolean isValidateOnBorrow() {
+	return validateOnBorrow;
+    }
+
+    public void setValidateOnBorrow(boolean validateOnBorrow) {
+	this.validateOnBorrow = validateOnBorrow;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+	return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+	this.logWriter = out;
+    }
+
+    /**
+     * Sets the connect timeout of the new physical connections, used if the
+     * connectTimeout driver property is not set. The timeout does not apply to
+     * the wait for a connection of a full pool: see
+     * {@link #setBorrowTimeout(long)}.
+     *
+     * @param seconds the connect timeout in seconds, 0 for none
+     */
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+	this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+	return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+	throw new SQLFeatureNotSupportedException(Tag.PRODUCT + " getParentLogger is not supported.");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+	if (iface.isInstance(this)) {
+	    return iface.cast(this);
+	}
+	throw new SQLException(Tag.PRODUCT + " Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+	return iface.isInstance(this);
+    }
+
+}
@@ -0,0 +1,385 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.io.IOUtils;
+
+import com.aceql.jdbc.commons.main.AceQLPreparedStatement;
+import com.aceql.jdbc.commons.main.AceQLResultSet;
+import com.aceql.jdbc.commons.main.AceQLSavepoint;
+import com.aceql.jdbc.commons.main.http.AceQLHttpApi;
+import com.aceql.jdbc.commons.main.http.HttpResponse;
+import com.aceql.jdbc.commons.main.http.ResultAnalyzer;
+import com.aceql.jdbc.commons.main.http.SavepointDto;
+import com.aceql.jdbc.commons.main.metadata.util.GsonWsUtil;
+import com.aceql.jdbc.commons.main.pipeline.PipelineCommandDto;
+import com.aceql.jdbc.commons.main.pipeline.PipelineDto;
+import com.aceql.jdbc.commons.main.util.framework.Tag;
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.ScanningOutputStream;
+import com.aceql.jdbc.commons.main.util.json.StreamResultAnalyzer;
+
+/**
+ * Queues updates, queries, commit, rollback and savepoint calls, and sends them
+ * in one request with {@link #execute()}. A short transactional unit of work
+ * then takes a single round trip. <br>
+ * The commands are run in order by the server, which stops at the first
+ * failing one. The AceQL server must support the /execute_pipeline API. <br>
+ * <br>
+ * Code sample:
+ * 
+ * <pre>
+ * <code>
+ connection.setAutoCommit(false);
+ try (AceQLPipeline pipeline = ((AceQLConnection) connection).pipeline()) {
+
+     PreparedStatement preparedStatement = connection
+	     .prepareStatement("update customer set fname = ? where customer_id = ?");
+     preparedStatement.setString(1, "Jim");
+     preparedStatement.setInt(2, 1);
+
+     pipeline.addUpdate(preparedStatement)
+	     .addQuery("select * from customer where customer_id = 1")
+	     .addCommit();
+
+     List&lt;Object&gt; results = pipeline.execute();
+     int updateCount = (Integer) results.get(0);
+     try (ResultSet rs = (ResultSet) results.get(1)) {
+	 while (rs.next()) {
+	     out.println("fname: " + rs.getString("fname"));
+	 }
+     }
+ }
+ * </code>
+ * </pre>
+ * 
+ * The {@code ResultSet} of the queries are kept in memory: the pipeline is
+ * intended for short units of work. Their {@code Statement} is closed with the
+ * pipeline.
+ * 
+ * @author Nicolas de Pomereu
+ *
+ */
+public class AceQLPipeline implements AutoCloseable {
+
+    private AceQLConnection aceQLConnection;
+
+    /** The queued commands */
+    private List<PipelineCommandDto> commands = new ArrayList<>();
+
+    /** The statement of the returned ResultSets, closed with the pipeline */
+    private Statement statement;
+
+    /**
+     * Package protected constructor
+     * 
+     * @param aceQLConnection the AceQL Connection to the remote AceQL server
+     */
+    AceQLPipeline(AceQLConnection aceQLConnection) {
+	this.aceQLConnection = Objects.requireNonNull(aceQLConnection, "aceQlConnection can not be null!");
+    }
+
+    /**
+     * Queues an SQL <code>INSERT</code>, <code>UPDATE</code> or
+     * <code>DELETE</code> statement, or an SQL statement that returns nothing.
+     * Its result is the row count, as an {@code Integer}.
+     * 
+     * @param sql the SQL statement
+     * @return this pipeline
+     */
+    public AceQLPipeline addUpdate(String sql) {
+	Objects.requireNonNull(sql, "sql cannot be null!");
+	commands.add(new PipelineCommandDto(PipelineCommandDto.UPDATE, sql, false, null, null));
+	return this;
+    }
+
+    /**
+     * Queues a prepared update statement, with the parameters set at the time of
+     * the call. Its result is the row count, as an {@code Integer}.
+     * 
+     * @param preparedStatement a {@code PreparedStatement} of this connection
+     * @return this pipeline
+     * @throws SQLException if the statement is not an AceQL one, or has a BLOB
+     *                      parameter
+     */
+    public AceQLPipeline addUpdate(PreparedStatement preparedStatement) throws SQLException {
+	commands.add(buildCommand(PipelineCommandDto.UPDATE, preparedStatement));
+	return this;
+    }
+
+    /**
+     * Queues an SQL <code>SELECT</code> statement. Its result is a
+     * {@code ResultSet}.
+     * 
+     * @param sql the SQL statement
+     * @return this pipeline
+     */
+    public AceQLPipeline addQuery(String sql) {
+	Objects.requireNonNull(sql, "sql cannot be null!");
+	commands.add(new PipelineCommandDto(PipelineCommandDto.QUERY, sql, false, null, null));
+	return this;
+    }
+
+    /**
+     * Queues a prepared query statement, with the parameters set at the time of
+     * the call. Its result is a {@code ResultSet}.
+     * 
+     * @param preparedStatement a {@code PreparedStatement} of this connection
+     * @return this pipeline
+     * @throws SQLException if the statement is not an AceQL one, or has a BLOB
+     *                      parameter
+     */
+    public AceQLPipeline addQuery(PreparedStatement preparedStatement) throws SQLException {
+	commands.add(buildCommand(PipelineCommandDto.QUERY, preparedStatement));
+	return this;
+    }
+
+    /**
+     * Queues a commit. Its result is {@code null}.
+     * 
+     * @return this pipeline
+     */
+    public AceQLPipeline addCommit() {
+	commands.add(new PipelineCommandDto(PipelineCommandDto.COMMIT, null, false, null, null));
+	return this;
+    }
+
+    /**
+     * Queues a rollback. Its result is {@code null}.
+     * 
+     * @return this pipeline
+     */
+    public AceQLPipeline addRollback() {
+	commands.add(new PipelineCommandDto(PipelineCommandDto.ROLLBACK, null, false, null, null));
+	return this;
+    }
+
+    /**
+     * Queues the creation of a named savepoint. Its result is the
+     * {@code Savepoint}.
+     * 
+     * @param name the savepoint name
+     * @return this pipeline
+     */
+    public AceQLPipeline addSetSavepoint(String name) {
+	commands.add(buildSavepointCommand(PipelineCommandDto.SET_SAVEPOINT, name));
+	return this;
+    }
+
+    /**
+     * Queues the rollback to a named savepoint. Its result is {@code null}.
+     * 
+     * @param name the savepoint name
+     * @return this pipeline
+     */
+    public AceQLPipeline addRollbackToSavepoint(String name) {
+	commands.add(buildSavepointCommand(PipelineCommandDto.ROLLBACK_SAVEPOINT, name));
+	return this;
+    }
+
+    /**
+     * Queues the release of a named savepoint. Its result is {@code null}.
+     * 
+     * @param name the savepoint name
+     * @return this pipeline
+     */
+    public AceQLPipeline addReleaseSavepoint(String name) {
+	commands.add(buildSavepointCommand(PipelineCommandDto.RELEASE_SAVEPOINT, name));
+	return this;
+    }
+
+    /**
+     * @return the number of queued commands
+     */
+    public int size() {
+	return commands.size();
+    }
+
+    /**
+     * Removes all the queued commands.
+     */
+    public void clear() {
+	commands.clear();
+    }
+
+    /**
+     * Sends the queued commands in one request, and empties the queue.
+     * 
+     * @return the results, in the order of the commands: an {@code Integer} row
+     *         count per update, a {@code ResultSet} per query, a
+     *         {@code Savepoint} per savepoint creation, and {@code null} for the
+     *         other commands. Empty if no command is queued.
+     * @throws SQLException if a command fails, or if any other Exception occurs
+     */
+    public List<Object> execute() throws SQLException {
+	List<Object> results = new ArrayList<>();
+	if (commands.isEmpty()) {
+	    return results;
+	}
+
+	List<PipelineCommandDto> sentCommands = commands;
+	commands = new ArrayList<>();
+
+	AceQLHttpApi aceQLHttpApi = this.aceQLConnection.aceQLHttpApi;
+	try {
+	    String jsonString = GsonWsUtil.getJSonStringNotPretty(new PipelineDto(sentCommands));
+	    HttpResponse response = aceQLHttpApi.executePipeline(jsonString);
+
+	    // The response is scanned once while read: each result is then a slice
+	    JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	    byte[] content = null;
+	    if (response.getBody() != null) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = response.getBody();
+			OutputStream scanningOut = new ScanningOutputStream(out, jsonResultScanner)) {
+		    IOUtils.copy(in, scanningOut);
+		}
+		content = out.toByteArray();
+	    }
+
+	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(content, jsonResultScanner,
+		    response);
+	    if (!streamResultAnalyzer.isStatusOk()) {
+		throw new AceQLException(streamResultAnalyzer.getErrorMessage(), streamResultAnalyzer.getErrorId(),
+			null, streamResultAnalyzer.getStackTrace(), streamResultAnalyzer.getHttpStatusCode());
+	    }
+
+	    List<JsonResultScanner> resultScanners = jsonResultScanner.getResultScanners();
+	    if (resultScanners.size() != sentCommands.size()) {
+		throw new AceQLException(Tag.PRODUCT + " Invalid pipeline response: " + resultScanners.size()
+			+ " results for " + sentCommands.size() + " commands.", 0, null, null,
+			response.getStatusCode());
+	    }
+
+	    for (int i = 0; i < sentCommands.size(); i++) {
+		JsonResultScanner resultScanner = resultScanners.get(i);
+		int offset = (int) jsonResultScanner.getResultOffset(i);
+		byte[] jsonResult = Arrays.copyOfRange(content, offset, offset + (int) resultScanner.getPosition());
+		results.add(buildResult(sentCommands.get(i), jsonResult, resultScanner, response));
+	    }
+	    return results;
+
+	} catch (AceQLException aceQlException) {
+	    throw aceQlException;
+	} catch (Exception e) {
+	    throw new AceQLException(e.getMessage(), 0, e, null, aceQLHttpApi.getHttpStatusCode());
+	}
+    }
+
+    /**
+     * Empties the queue, and closes the {@code Statement} of the
+     * {@code ResultSet} returned by {@link #execute()}.
+     * 
+     * @throws SQLException if the {@code Statement} can not be closed
+     */
+    @Override
+    public void close() throws SQLException {
+	commands = new ArrayList<>();
+	if (statement != null) {
+	    Statement toClose = statement;
+	    statement = null;
+	    toClose.close();
+	}
+    }
+
+    private PipelineCommandDto buildCommand(String type, PreparedStatement preparedStatement)
+	    throws SQLException {
+	Objects.requireNonNull(preparedStatement, "preparedStatement cannot be null!");
+	AceQLPreparedStatement aceQLPreparedStatement;
+	if (preparedStatement instanceof AceQLPreparedStatement) {
+	    aceQLPreparedStatement = (AceQLPreparedStatement) preparedStatement;
+	} else if (preparedStatement.isWrapperFor(AceQLPreparedStatement.class)) {
+	    // A PreparedStatement of a logical Connection of an AceQLPooledConnection
+	    aceQLPreparedStatement = preparedStatement.unwrap(AceQLPreparedStatement.class);
+	} else {
+	    throw new SQLException(
+		    Tag.PRODUCT + " Only a PreparedStatement of an AceQL Connection can be pipelined.");
+	}
+	Map<String, String> statementParameters = aceQLPreparedStatement.getHttpStatementParameters();
+	return new PipelineCommandDto(type, aceQLPreparedStatement.getSql(), true, statementParameters, null);
+    }
+
+    private static PipelineCommandDto buildSavepointCommand(String type, String name) {
+	Objects.requireNonNull(name, "Savepoint name cannot be null!");
+	return new PipelineCommandDto(type, null, false, null, name.trim());
+    }
+
+    /**
+     * Builds the result of a command from its JSON result.
+     */
+    private Object buildResult(PipelineCommandDto command, byte[] jsonResult, JsonResultScanner jsonResultScanner,
+	    HttpResponse response) throws SQLException {
+	String type = command.getType();
+
+	if (type.equals(PipelineCommandDto.QUERY)) {
+	    return buildResultSet(jsonResult, jsonResultScanner, response);
+	}
+
+	String json = new String(jsonResult, StandardCharsets.UTF_8);
+	ResultAnalyzer resultAnalyzer = new ResultAnalyzer(json, response);
+	if (!resultAnalyzer.isStatusOk()) {
+	    throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
+		    resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
+	}
+
+	if (type.equals(PipelineCommandDto.UPDATE)) {
+	    return resultAnalyzer.getIntvalue("row_count");
+	} else if (type.equals(PipelineCommandDto.SET_SAVEPOINT)) {
+	    SavepointDto savepointDto = GsonWsUtil.fromJson(json, SavepointDto.class);
+	    return new AceQLSavepoint(savepointDto.getId(), savepointDto.getName());
+	} else {
+	    return null;
+	}
+    }
+
+    /**
+     * Builds the in memory {@code ResultSet} of a query from its JSON result.
+     */
+    private ResultSet buildResultSet(byte[] jsonContent, JsonResultScanner jsonResultScanner,
+	    HttpResponse response) throws SQLException {
+	StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(jsonContent, jsonResultScanner,
+		response);
+	if (!streamResultAnalyzer.isStatusOk()) {
+	    throw new AceQLException(streamResultAnalyzer.getErrorMessage(), streamResultAnalyzer.getErrorId(), null,
+		    streamResultAnalyzer.getStackTrace(), streamResultAnalyzer.getHttpStatusCode());
+	}
+
+	if (statement == null) {
+	    statement = aceQLConnection.createStatement();
+	}
+
+	int rowCount = streamResultAnalyzer.getRowCount();
+	return new AceQLResultSet(jsonContent, statement, rowCount, jsonResultScanner);
+    }
+
+}
@@ -0,0 +1,521 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.PooledConnection;
+import javax.sql.StatementEventListener;
+
+import com.aceql.jdbc.commons.main.util.framework.Tag;
+
+/**
+ * A physical AceQL {@code Connection} that may be kept by a connection pool.
+ * <br>
+ * {@link #getConnection()} returns a logical {@code Connection}: its
+ * {@code close()} call does not close the AceQL session, but notifies the
+ * registered {@code ConnectionEventListener}s that the physical connection can
+ * be reused. The physical connection is closed by {@link #close()}. <br>
+ * <br>
+ * The underlying {@code AceQLConnection} of a logical {@code Connection} is
+ * available with {@code connection.unwrap(AceQLConnection.class)}. <br>
+ * When the logical {@code Connection} is closed:
+ * <ul>
+ * <li>Its statements that are still opened are closed.</li>
+ * <li>If {@code setAutoCommit(false)} has been called, the transaction is
+ * rolled back.</li>
+ * <li>The auto commit, read only, transaction isolation, holdability, catalog
+ * and schema properties that have been changed are restored to their values at
+ * the creation of the physical connection.</li>
+ * </ul>
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class AceQLPooledConnection implements PooledConnection {
+
+    private final Connection physicalConnection;
+    private final List<ConnectionEventListener> listeners = new CopyOnWriteArrayList<ConnectionEventListener>();
+
+    /** The setters of the properties restored when a logical Connection is closed */
+    private static final Set<String> STATE_SETTERS = new HashSet<String>(Arrays.asList("setAutoCommit",
+	    "setReadOnly", "setTransactionIsolation", "setHoldability", "setCatalog", "setSchema"));
+
+    // The state of the physical connection at creation
+    private final boolean initialAutoCommit;
+    private final boolean initialReadOnly;
+    private final int initialTransactionIsolation;
+    private final int initialHoldability;
+    private final String initialCatalog;
+    private final String initialSchema;
+
+    /** The last logical Connection returned, null if none */
+    private LogicalConnectionHandler currentHandler;
+
+    private volatile boolean closed = false;
+
+    /** Set if an I/O error has occurred: the connection must not be reused */
+    private volatile boolean broken = false;
+
+    /**
+     * Constructor.
+     *
+     * @param physicalConnection the physical connection, usually an
+     *                           {@code AceQLConnection}
+     * @throws SQLException if the state of the physical connection can not be
+     *                      read
+     */
+    public AceQLPooledConnection(Connection physicalConnection) throws SQLException {
+	this.physicalConnection = Objects.requireNonNull(physicalConnection, "physicalConnection cannot be null!");
+
+	initialAutoCommit = physicalConnection.getAutoCommit();
+	initialReadOnly = physicalConnection.isReadOnly();
+	initialTransactionIsolation = physicalConnection.getTransactionIsolation();
+	initialHoldability = physicalConnection.getHoldability();
+	initialCatalog = physicalConnection.getCatalog();
+	initialSchema = physicalConnection.getSchema();
+    }
+
+    /**
+     * Returns a new logical {@code Connection} on the physical connection. A
+     * logical {@code Connection} previously returned is closed, without
+     * notification.
+     *
+     * @return a new logical {@code Connection}
+     * @throws SQLException if this pooled connection is closed
+     */
+    @Override
+    public synchronized Connection getConnection() throws SQLException {
+	if (closed) {
+	    throw new SQLException(Tag.PRODUCT + " Can not get a Connection because PooledConnection is closed.");
+	}
+
+	if (currentHandler != null) {
+	    currentHandler.closed = true;
+	    currentHandler.closeStatements();
+	}
+
+	currentHandler = new LogicalConnectionHandler();
+	currentHandler.logicalConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+		new Class<?>[] { Connection.class }, currentHandler);
+	return currentHandler.logicalConnection;
+    }
+
+    /**
+     * Closes the physical connection.
+     */
+    @Override
+    public synchronized void close() throws SQLException {
+	if (closed) {
+	    return;
+	}
+	closed = true;
+	if (currentHandler != null) {
+	    currentHandler.closed = true;
+	    currentHandler.closeStatements();
+	}
+	physicalConnection.close();
+    }
+
+    /**
+     * Says if the AceQL server can be reached with a {@link HealthCheck#ping()}.
+     * Other physical connections are checked with {@code isValid(0)}.
+     *
+     * @return true if the physical connection can be used
+     */
+    public boolean ping() {
+	if (closed || broken) {
+	    return false;
+	}
+
+	try {
+	    if (physicalConnection instanceof AceQLConnection) {
+		return new HealthCheck((AceQLConnection) physicalConnection).ping();
+	    }
+	    return physicalConnection.isValid(0);
+	} catch (SQLException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * Says if an I/O error has occurred on the physical connection, that must
+     * then be closed.
+     *
+     * @return true if the physical connection must not be reused
+     */
+    public boolean isBroken() {
+	return broken;
+    }
+
+    /**
+     * @return the physical connection
+     */
+    public Connection getPhysicalConnection() {
+	return physicalConnection;
+    }
+
+    @Override
+    public void addConnectionEventListener(ConnectionEventListener listener) {
+	listeners.add(listener);
+    }
+
+    @Override
+    public void removeConnectionEventListener(ConnectionEventListener listener) {
+	listeners.remove(listener);
+    }
+
+    /**
+     * Does nothing: statements are not pooled.
+     */
+    @Override
+    public void addStatementEventListener(StatementEventListener listener) {
+	// Statements are not pooled
+    }
+
+    /**
+     * Does nothing: statements are not pooled.
+     */
+    @Override
+    public void removeStatementEventListener(StatementEventListener listener) {
+	// Statements are not pooled
+    }
+
+    private void fireConnectionClosed() {
+	ConnectionEvent event = new ConnectionEvent(this);
+	for (ConnectionEventListener listener : listeners) {
+	    listener.connectionClosed(event);
+	}
+    }
+
+    private void fireConnectionErrorOccurred(SQLException exception) {
+	ConnectionEvent event = new ConnectionEvent(this, exception);
+	for (ConnectionEventListener listener : listeners) {
+	    listener.connectionErrorOccurred(event);
+	}
+    }
+
+    /**
+     * Calls a method of the physical connection or of one of its statements.
+     * Marks the connection as broken if the call fails with an I/O error.
+     */
+    private Object invokePhysical(Object target, Method method, Object[] args) throws Throwable {
+	try {
+	    return method.invoke(target, args);
+	} catch (InvocationTargetException e) {
+	    Throwable cause = e.getCause();
+	    if (cause instanceof SQLException && isIOError(cause)) {
+		broken = true;
+		fireConnectionErrorOccurred((SQLException) cause);
+	    }
+	    throw cause;
+	}
+    }
+
+    /**
+     * Says if an exception has been caused by an I/O error, after which the
+     * AceQL session state is unknown.
+     */
+    private static boolean isIOError(Throwable throwable) {
+	for (Throwable cause = throwable.getCause(); cause != null; cause = cause.getCause()) {
+	    if (cause instanceof IOException) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    /**
+     * The handler of a logical Connection: delegates all calls to the physical
+     * connection, except close(). The statements, result sets and metadata
+     * returned are wrapped, so that they give back the logical Connection.
+     */
+    private class LogicalConnectionHandler implements InvocationHandler {
+
+	/** The proxy of this handler */
+	private Connection logicalConnection;
+
+	private volatile boolean closed = false;
+	private boolean transactionStarted = false;
+
+	/** The setters called, whose properties must be restored on close */
+	private final Set<String> changedStateSetters = new HashSet<String>();
+
+	/** The statements not yet closed, with their proxy */
+	private final Map<Statement, Object> statements = new IdentityHashMap<Statement, Object>();
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+	    String methodName = method.getName();
+
+	    if (method.getDeclaringClass() == Object.class) {
+		if (methodName.equals("equals")) {
+		    return proxy == args[0];
+		} else if (methodName.equals("hashCode")) {
+		    return System.identityHashCode(proxy);
+		} else {
+		    return "Logical " + physicalConnection.toString();
+		}
+	    }
+
+	    if (methodName.equals("isClosed")) {
+		return closed;
+	    }
+
+	    if (methodName.equals("close")) {
+		close();
+		return null;
+	    }
+
+	    if (methodName.equals("unwrap") && ((Class<?>) args[0]).isInstance(physicalConnection)) {
+		checkOpen();
+		// The state may be changed directly on the physical connection
+		synchronized (this) {
+		    changedStateSetters.addAll(STATE_SETTERS);
+		}
+		return physicalConnection;
+	    }
+
+	    if (methodName.equals("isWrapperFor") && ((Class<?>) args[0]).isInstance(physicalConnection)) {
+		return true;
+	    }
+
+	    checkOpen();
+
+	    if (STATE_SETTERS.contains(methodName)) {
+		synchronized (this) {
+		    changedStateSetters.add(methodName);
+		    if (methodName.equals("setAutoCommit") && !((Boolean) args[0])) {
+			transactionStarted = true;
+		    }
+		}
+	    }
+
+	    Object result = invokePhysical(physicalConnection, method, args);
+	    return wrap(result, method.getReturnType(), null, null);
+	}
+
+	/**
+	 * Wraps a value returned by the physical connection or one of its objects.
+	 * The physical connection is replaced by the logical Connection, the
+	 * calling object by its proxy. Statements, result sets and metadata are
+	 * wrapped in a proxy of the returned interface, and statements are kept to
+	 * be closed with the logical Connection.
+	 *
+	 * @param result       the returned value
+	 * @param returnType   the declared type of the returned value
+	 * @param caller       the object of the physical connection that returned
+	 *                     the value, null if the physical connection
+	 * @param callerProxy  the proxy of caller, null if none
+	 * @return the value to return to the caller
+	 */
+	private Object wrap(Object result, Class<?> returnType, Object caller, Object callerProxy) {
+	    if (result == null) {
+		return null;
+	    }
+	    if (result == physicalConnection) {
+		return logicalConnection;
+	    }
+	    if (result == caller) {
+		return callerProxy;
+	    }
+	    if (!returnType.isInterface()
+		    || !(result instanceof Statement || result instanceof ResultSet || result instanceof DatabaseMetaData)) {
+		return result;
+	    }
+
+	    if (!(result instanceof Statement)) {
+		return Proxy.newProxyInstance(returnType.getClassLoader(), new Class<?>[] { returnType },
+			new LogicalObjectHandler(this, result));
+	    }
+
+	    // A statement returned again, e.g. by ResultSet.getStatement(), keeps its proxy
+	    synchronized (this) {
+		Object statementProxy = statements.get(result);
+		if (statementProxy == null) {
+		    statementProxy = Proxy.newProxyInstance(returnType.getClassLoader(), new Class<?>[] { returnType },
+			    new LogicalObjectHandler(this, result));
+		    statements.put((Statement) result, statementProxy);
+		}
+		return statementProxy;
+	    }
+	}
+
+	private synchronized void removeStatement(Statement statement) {
+	    statements.remove(statement);
+	}
+
+	/**
+	 * Closes the statements not yet closed. Errors are ignored, as the
+	 * statements are not used anymore.
+	 */
+	private void closeStatements() {
+	    List<Statement> toClose;
+	    synchronized (this) {
+		toClose = new ArrayList<Statement>(statements.keySet());
+		statements.clear();
+	    }
+
+	    for (Statement statement : toClose) {
+		try {
+		    statement.close();
+		} catch (SQLException | RuntimeException ignore) {
+		    // Ignore
+		}
+	    }
+	}
+
+	private void checkOpen() throws SQLException {
+	    if (closed) {
+		throw new SQLException(Tag.PRODUCT + " Connection is closed.");
+	    }
+	}
+
+	private void close() {
+	    synchronized (AceQLPooledConnection.this) {
+		if (closed) {
+		    return;
+		}
+		closed = true;
+		if (currentHandler == this) {
+		    currentHandler = null;
+		}
+	    }
+
+	    closeStatements();
+
+	    if (!broken) {
+		try {
+		    restoreState();
+		} catch (SQLException e) {
+		    broken = true;
+		}
+	    }
+
+	    fireConnectionClosed();
+	}
+
+	/**
+	 * Rolls back the transaction started, and restores the changed properties
+	 * to their values at the creation of the physical connection.
+	 */
+	private void restoreState() throws SQLException {
+	    Set<String> changed;
+	    boolean rollback;
+	    synchronized (this) {
+		changed = new HashSet<String>(changedStateSetters);
+		rollback = transactionStarted;
+	    }
+
+	    if (rollback) {
+		physicalConnection.rollback();
+	    }
+	    if (changed.contains("setAutoCommit")) {
+		physicalConnection.setAutoCommit(initialAutoCommit);
+	    }
+	    if (changed.contains("setReadOnly")) {
+		physicalConnection.setReadOnly(initialReadOnly);
+	    }
+	    if (changed.contains("setTransactionIsolation")) {
+		physicalConnection.setTransactionIsolation(initialTransactionIsolation);
+	    }
+	    if (changed.contains("setHoldability")) {
+		physicalConnection.setHoldability(initialHoldability);
+	    }
+	    if (changed.contains("setCatalog")) {
+		physicalConnection.setCatalog(initialCatalog);
+	    }
+	    if (changed.contains("setSchema")) {
+		physicalConnection.setSchema(initialSchema);
+	    }
+	}
+    }
+
+    /**
+     * The handler of a statement, result set or metadata obtained from a logical
+     * Connection: delegates all calls to the object of the physical connection.
+     * The returned connection, statements, result sets and metadata are
+     * wrapped, so that the physical connection is never returned.
+     */
+    private class LogicalObjectHandler implements InvocationHandler {
+
+	private final LogicalConnectionHandler connectionHandler;
+	private final Object target;
+
+	LogicalObjectHandler(LogicalConnectionHandler connectionHandler, Object target) {
+	    this.connectionHandler = connectionHandler;
+	    this.target = target;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+	    String methodName = method.getName();
+
+	    if (method.getDeclaringClass() == Object.class) {
+		if (methodName.equals("equals")) {
+		    return proxy == args[0];
+		} else if (methodName.equals("hashCode")) {
+		    return System.identityHashCode(proxy);
+		} else {
+		    return target.toString();
+		}
+	    }
+
+	    if (methodName.equals("close") && target instanceof Statement) {
+		connectionHandler.removeStatement((Statement) target);
+	    }
+
+	    if (methodName.equals("unwrap") && ((Class<?>) args[0]).isInstance(target)) {
+		return target;
+	    }
+
+	    if (methodName.equals("isWrapperFor") && ((Class<?>) args[0]).isInstance(target)) {
+		return true;
+	    }
+
+	    if (!methodName.equals("close") && !methodName.equals("isClosed")) {
+		connectionHandler.checkOpen();
+	    }
+
+	    Object result = invokePhysical(target, method, args);
+	    return connectionHandler.wrap(result, method.getReturnType(), target, proxy);
+	}
+    }
+
+}
@@ -36,7 +36,10 @@ import org.apache.commons.io.IOUtils;
 import com.aceql.jdbc.commons.main.AceQLResultSet;
 import com.aceql.jdbc.commons.main.AceQLStatement;
 import com.aceql.jdbc.commons.main.http.AceQLHttpApi;
+import com.aceql.jdbc.commons.main.http.HttpResponse;
 import com.aceql.jdbc.commons.main.util.AceQLStatementUtil;
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.ScanningOutputStream;
 import com.aceql.jdbc.commons.main.util.json.StreamResultAnalyzer;
 
 /**
@@ -118,8 +121,11 @@ public class CallableServerQuery {
 
 	    File file = AceQLStatementUtil.buildtResultSetFile();
 
-	    try (InputStream in = aceQLHttpApi.executeServerQuery(serverQueryExecutorClassName, params);
-		    OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+	    JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	    HttpResponse response = aceQLHttpApi.executeServerQuery(serverQueryExecutorClassName, params);
+	    try (InputStream in = response.getBody();
+		    OutputStream out = new ScanningOutputStream(new BufferedOutputStream(new FileOutputStream(file)),
+			    jsonResultScanner)) {
 
 		if (in != null) {
 		    // Do not use resource try {} ==> We don't want to create an
@@ -137,17 +143,15 @@ public class CallableServerQuery {
 		System.out.println("STATEMENT_FILE_END");
 	    }
 
-	    int httpStatusCode = aceQLHttpApi.getHttpStatusCode();
-
-	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(file, httpStatusCode,
-		    aceQLHttpApi.getHttpStatusMessage());
+	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(file, jsonResultScanner, response);
 	    if (!streamResultAnalyzer.isStatusOk()) {
 		throw new AceQLException(streamResultAnalyzer.getErrorMessage(), streamResultAnalyzer.getErrorId(),
-			null, streamResultAnalyzer.getStackTrace(), httpStatusCode);
+			null, streamResultAnalyzer.getStackTrace(), streamResultAnalyzer.getHttpStatusCode());
 	    }
 
 	    int rowCount = streamResultAnalyzer.getRowCount();
-	    AceQLResultSet aceQLResultSet = new AceQLResultSet(file, this.aceQLConnection, rowCount);
+	    AceQLResultSet aceQLResultSet = new AceQLResultSet(file, this.aceQLConnection, rowCount,
+		    jsonResultScanner);
 	    return aceQLResultSet;
 
 	} catch (AceQLException aceQlException) {
@@ -67,6 +67,20 @@ public class ConnectionInfo {
     private Map<String, String> requestProperties = new HashMap<>();
     private String clobReadCharset;
     private String clobWriteCharset;
+    private boolean resultSetStreaming = false;
+    private boolean pipelinedResultSet = false;
+    private boolean pagedResultSet = false;
+    private boolean memoryMappedResultSet = false;
+    private int resultSetMemoryThreshold = 0;
+    private boolean compactResultSet = true;
+    private boolean binaryResultSet = false;
+    private boolean httpCompression = true;
+    private boolean uploadCompression = false;
+    private int compressionThreshold = 1024;
+    private HttpTransportType httpTransportType = HttpTransportType.urlConnection;
+    private boolean connectionStateCache = true;
+    private boolean deferredConnectionState = false;
+    private volatile ServerCapabilities serverCapabilities = null;
 
     /**
      * Package protected constructor, Driver users can not instantiate the class.
@@ -241,6 +255,231 @@ public class ConnectionInfo {
 	return clobWriteCharset;
     }
 
+    /**
+     * Says if the {@code ResultSet} rows of {@code executeQuery()} calls are read
+     * directly from the HTTP response stream instead of being downloaded first in
+     * a local file. A streaming {@code ResultSet} is forward only: only
+     * {@code next()} is supported for moving the cursor.
+     * 
+     * @return {@code true} if the {@code ResultSet} rows are streamed, else
+     *         {@code false}. Defaults to {@code false}.
+     */
+    public boolean isResultSetStreaming() {
+	return resultSetStreaming;
+    }
+
+    void setResultSetStreaming(boolean resultSetStreaming) {
+	this.resultSetStreaming = resultSetStreaming;
+    }
+
+    /**
+     * Says if the {@code ResultSet} rows of {@code executeQuery()} calls are
+     * available while the result is still downloading. The HTTP response is then
+     * read in advance by a background thread, and the {@code ResultSet} is
+     * forward only, as with {@link #isResultSetStreaming()}.
+     * 
+     * @return {@code true} if the download and the reading of the rows are
+     *         pipelined, else {@code false}. Defaults to {@code false}.
+     */
+    public boolean isPipelinedResultSet() {
+	return pipelinedResultSet;
+    }
+
+    void setPipelinedResultSet(boolean pipelinedResultSet) {
+	this.pipelinedResultSet = pipelinedResultSet;
+    }
+
+    /**
+     * Says if the {@code ResultSet} rows of {@code executeQuery()} calls are
+     * fetched from a server cursor by pages of {@code Statement.getFetchSize()}
+     * rows, when the fetch size is set. The {@code ResultSet} is then forward
+     * only. Servers without cursor support return all the rows at once.
+     * 
+     * @return {@code true} if the rows are fetched by pages, else {@code false}.
+     *         Defaults to {@code false}.
+     */
+    public boolean isPagedResultSet() {
+	return pagedResultSet;
+    }
+
+    void setPagedResultSet(boolean pagedResultSet) {
+	this.pagedResultSet = pagedResultSet;
+    }
+
+    /**
+     * Says if the downloaded {@code ResultSet} files are memory mapped and
+     * tokenized in place, instead of being parsed with a JSON stream parser.
+     * Column values are then decoded only when accessed. Files larger than 2 GB
+     * are always parsed with the JSON stream parser.
+     * 
+     * @return {@code true} if the {@code ResultSet} files are memory mapped, else
+     *         {@code false}. Defaults to {@code false}.
+     */
+    public boolean isMemoryMappedResultSet() {
+	return memoryMappedResultSet;
+    }
+
+    void setMemoryMappedResultSet(boolean memoryMappedResultSet) {
+	this.memoryMappedResultSet = memoryMappedResultSet;
+    }
+
+    /**
+     * Gets the max size in KB of a result kept in memory. Results of a bigger
+     * size are written to a local file.
+     * 
+     * @return the max size in KB of a result kept in memory. 0 means that all
+     *         results are written to a local file. Defaults to 0.
+     */
+    public int getResultSetMemoryThreshold() {
+	return resultSetMemoryThreshold;
+    }
+
+    void setResultSetMemoryThreshold(int resultSetMemoryThreshold) {
+	this.resultSetMemoryThreshold = resultSetMemoryThreshold;
+    }
+
+    /**
+     * Says if the compact row format is asked to the server: column names are
+     * sent once and each row is an array of values, without pretty printing.
+     * Servers that do not support it return the default row format.
+     * 
+     * @return {@code true} if the compact row format is asked, else
+     *         {@code false}. Defaults to {@code true}.
+     */
+    public boolean isCompactResultSet() {
+	return compactResultSet;
+    }
+
+    void setCompactResultSet(boolean compactResultSet) {
+	this.compactResultSet = compactResultSet;
+    }
+
+    /**
+     * Says if the binary columnar result format is asked to the server for the
+     * {@code ResultSet} that are not streamed. Servers that do not support it
+     * return a JSON result.
+     * 
+     * @return {@code true} if the binary result format is asked, else
+     *         {@code false}. Defaults to {@code false}.
+     */
+    public boolean isBinaryResultSet() {
+	return binaryResultSet;
+    }
+
+    void setBinaryResultSet(boolean binaryResultSet) {
+	this.binaryResultSet = binaryResultSet;
+    }
+
+    /**
+     * Says if compressed responses are accepted for all the API calls, with the
+     * {@code Accept-Encoding} HTTP header. The server compresses only the
+     * responses that are worth it.
+     * 
+     * @return {@code true} if compressed responses are accepted, else
+     *         {@code false}. Defaults to {@code true}.
+     */
+    public boolean isHttpCompression() {
+	return httpCompression;
+    }
+
+    void setHttpCompression(boolean httpCompression) {
+	this.httpCompression = httpCompression;
+    }
+
+    /**
+     * Says if the request bodies and the Blob/Clob uploads bigger than
+     * {@link #getCompressionThreshold()} are sent gzip compressed, with the
+     * {@code Content-Encoding} HTTP header.
+     * 
+     * @return {@code true} if uploads are compressed, else {@code false}.
+     *         Defaults to {@code false}.
+     */
+    public boolean isUploadCompression() {
+	return uploadCompression;
+    }
+
+    void setUploadCompression(boolean uploadCompression) {
+	this.uploadCompression = uploadCompression;
+    }
+
+    /**
+     * Gets the min size in bytes of a request body or of an upload to be
+     * compressed when {@link #isUploadCompression()} is true.
+     * 
+     * @return the min size in bytes of a compressed upload. Defaults to 1024.
+     */
+    public int getCompressionThreshold() {
+	return compressionThreshold;
+    }
+
+    void setCompressionThreshold(int compressionThreshold) {
+	this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Gets the HTTP client layer used to call the server.
+     * 
+     * @return the HTTP client layer. Defaults to
+     *         {@link HttpTransportType#urlConnection}.
+     */
+    public HttpTransportType getHttpTransportType() {
+	return httpTransportType;
+    }
+
+    void setHttpTransportType(HttpTransportType httpTransportType) {
+	this.httpTransportType = httpTransportType;
+    }
+
+    /**
+     * Says if the connection state (auto-commit, read-only, holdability,
+     * transaction isolation, catalog and schema) is kept locally, so that the
+     * {@code Connection} getters do not call the server after the first call or
+     * after a setter call.
+     * 
+     * @return {@code true} if the connection state is kept locally, else
+     *         {@code false}. Defaults to {@code true}.
+     */
+    public boolean isConnectionStateCache() {
+	return connectionStateCache;
+    }
+
+    void setConnectionStateCache(boolean connectionStateCache) {
+	this.connectionStateCache = connectionStateCache;
+    }
+
+    /**
+     * Says if the {@code Connection} setters of auto-commit, read-only,
+     * holdability and transaction isolation are deferred: the changes are sent
+     * as extra parameters of the next statement or commit call, instead of with
+     * a call per setter. Used only if the server version supports it, see
+     * {@link ServerCapabilities#isDeferredConnectionStateSupported()}, and once
+     * the server has confirmed with the first setter call that it applies them.
+     * A call whose changes are not confirmed fails.
+     * 
+     * @return {@code true} if the connection state changes are deferred, else
+     *         {@code false}. Defaults to {@code false}.
+     */
+    public boolean isDeferredConnectionState() {
+	return deferredConnectionState;
+    }
+
+    void setDeferredConnectionState(boolean deferredConnectionState) {
+	this.deferredConnectionState = deferredConnectionState;
+    }
+
+    /**
+     * Gets the capabilities of the AceQL server, negotiated once per server URL.
+     * 
+     * @return the capabilities of the AceQL server, or null if not yet negotiated
+     */
+    public ServerCapabilities getServerCapabilities() {
+	return serverCapabilities;
+    }
+
+    void setServerCapabilities(ServerCapabilities serverCapabilities) {
+	this.serverCapabilities = serverCapabilities;
+    }
+
     void setCreationDateTime(Instant instant) {
 	this.creationDateTime = instant;
     }
@@ -265,7 +504,15 @@ public class ConnectionInfo {
 		+ proxy + ", proxyAuthentication=" + proxyUsername + ", connectTimeout=" + connectTimeout
 		+ ", readTimeout=" + readTimeout + ", gzipResult=" + gzipResult 
 		+ ", resultSetMetaDataPolicy=" + resultSetMetaDataPolicy + ", requestProperties=" + requestProperties
-		+ ", clobReadCharset=" + clobReadCharset + ", clobWriteCharset=" + clobWriteCharset + "]";
+		+ ", clobReadCharset=" + clobReadCharset + ", clobWriteCharset=" + clobWriteCharset
+		+ ", resultSetStreaming=" + resultSetStreaming + ", pipelinedResultSet=" + pipelinedResultSet
+		+ ", pagedResultSet=" + pagedResultSet
+		+ ", memoryMappedResultSet=" + memoryMappedResultSet
+		+ ", resultSetMemoryThreshold=" + resultSetMemoryThreshold + ", compactResultSet="
+		+ compactResultSet + ", binaryResultSet=" + binaryResultSet + ", httpCompression=" + httpCompression
+		+ ", uploadCompression=" + uploadCompression + ", compressionThreshold=" + compressionThreshold
+		+ ", httpTransportType=" + httpTransportType + ", connectionStateCache=" + connectionStateCache
+		+ ", deferredConnectionState=" + deferredConnectionState + "]";
     }
 
 }
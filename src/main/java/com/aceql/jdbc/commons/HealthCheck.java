@@ -24,6 +24,7 @@ import java.util.Objects;
 
 import com.aceql.jdbc.commons.main.http.AceQLHttpApi;
 import com.aceql.jdbc.commons.main.http.HttpManager;
+import com.aceql.jdbc.commons.main.http.HttpResponse;
 import com.aceql.jdbc.commons.main.http.ResultAnalyzer;
 import com.aceql.jdbc.commons.main.metadata.dto.HealthCheckInfoDto;
 
@@ -63,14 +64,14 @@ public class HealthCheck {
 
 	try {
 
-	    String result = httpManager.callWithGet(url);
+	    HttpResponse response = httpManager.get(url);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 	} catch (Exception e) {
 	    this.aceQLException = new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
@@ -0,0 +1,43 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons;
+
+/**
+ * The HTTP client layer used to call the AceQL server, set with the
+ * <code>httpTransport</code> Driver property. Default value is
+ * {@code HttpTransportType.urlConnection}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public enum HttpTransportType {
+
+    /**
+     * A {@code java.net.HttpURLConnection} is opened per request, over HTTP/1.1.
+     * Available on all Java versions.
+     */
+    urlConnection,
+
+    /**
+     * The requests of all the connections to a server share a
+     * {@code java.net.http.HttpClient}, which multiplexes them over HTTP/2 when
+     * the server supports it. Requires Java 11 or higher.
+     */
+    httpClient
+}
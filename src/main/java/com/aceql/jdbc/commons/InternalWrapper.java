@@ -92,6 +92,67 @@ public class InternalWrapper {
 	connectionInfo.setCreationDateTime(instant);
     }
 
+    public static void setResultSetStreaming(ConnectionInfo connectionInfo, boolean resultSetStreaming) {
+	connectionInfo.setResultSetStreaming(resultSetStreaming);
+    }
+
+    public static void setPipelinedResultSet(ConnectionInfo connectionInfo, boolean pipelinedResultSet) {
+	connectionInfo.setPipelinedResultSet(pipelinedResultSet);
+    }
+
+    public static void setPagedResultSet(ConnectionInfo connectionInfo, boolean pagedResultSet) {
+	connectionInfo.setPagedResultSet(pagedResultSet);
+    }
+
+    public static void setMemoryMappedResultSet(ConnectionInfo connectionInfo, boolean memoryMappedResultSet) {
+	connectionInfo.setMemoryMappedResultSet(memoryMappedResultSet);
+    }
+
+    public static ServerCapabilities serverCapabilitiesBuilder(String serverVersion) {
+	return new ServerCapabilities(serverVersion);
+    }
+
+    public static void setServerCapabilities(ConnectionInfo connectionInfo, ServerCapabilities serverCapabilities) {
+	connectionInfo.setServerCapabilities(serverCapabilities);
+    }
+
+    public static void setResultSetMemoryThreshold(ConnectionInfo connectionInfo, int resultSetMemoryThreshold) {
+	connectionInfo.setResultSetMemoryThreshold(resultSetMemoryThreshold);
+    }
+
+    public static void setCompactResultSet(ConnectionInfo connectionInfo, boolean compactResultSet) {
+	connectionInfo.setCompactResultSet(compactResultSet);
+    }
+
+    public static void setBinaryResultSet(ConnectionInfo connectionInfo, boolean binaryResultSet) {
+	connectionInfo.setBinaryResultSet(binaryResultSet);
+    }
+
+    public static void setHttpCompression(ConnectionInfo connectionInfo, boolean httpCompression) {
+	connectionInfo.setHttpCompression(httpCompression);
+    }
+
+    public static void setConnectionStateCache(ConnectionInfo connectionInfo, boolean connectionStateCache) {
+	connectionInfo.setConnectionStateCache(connectionStateCache);
+    }
+
+    public static void setDeferredConnectionState(ConnectionInfo connectionInfo,
+	    boolean deferredConnectionState) {
+	connectionInfo.setDeferredConnectionState(deferredConnectionState);
+    }
+
+    public static void setUploadCompression(ConnectionInfo connectionInfo, boolean uploadCompression) {
+	connectionInfo.setUploadCompression(uploadCompression);
+    }
+
+    public static void setCompressionThreshold(ConnectionInfo connectionInfo, int compressionThreshold) {
+	connectionInfo.setCompressionThreshold(compressionThreshold);
+    }
+
+    public static void setHttpTransportType(ConnectionInfo connectionInfo, HttpTransportType httpTransportType) {
+	connectionInfo.setHttpTransportType(httpTransportType);
+    }
+
     public static DatabaseInfo databaseInfoBuilder(AceQLHttpApi aceQLHttpApi) throws AceQLException {
 	DatabaseInfoDto databaseInfoDto = aceQLHttpApi.getDatabaseInfoDto();
 	DatabaseInfo databaseInfo = new DatabaseInfo(databaseInfoDto);
@@ -0,0 +1,151 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons;
+
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The capabilities of an AceQL HTTP server, negotiated once per server URL.
+ * <br>
+ * Available with {@link ConnectionInfo#getServerCapabilities()}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ServerCapabilities {
+
+    /** The minimum server version supported by the Driver */
+    public static final String SERVER_VERSION_12_2 = "12.2";
+
+    /**
+     * The minimum server version that applies the connection state changes sent
+     * as extra parameters of the statement and commit calls
+     */
+    public static final String SERVER_VERSION_DEFERRED_CONNECTION_STATE = "12.3";
+
+    private final String serverVersion;
+    private final String versionNumber;
+    private final int majorVersion;
+    private final int minorVersion;
+    private final boolean version12_2OrHigher;
+    private final boolean deferredConnectionStateSupported;
+
+    /**
+     * Constructor.
+     *
+     * @param serverVersion the server version, as returned by the /get_version
+     *                      API.
+     */
+    ServerCapabilities(String serverVersion) {
+	this.serverVersion = Objects.requireNonNull(serverVersion, "serverVersion cannot be null!");
+
+	// The version number is between "v" and "-"
+	String versionNumber = StringUtils.substringBetween(serverVersion, "v", "-");
+	this.versionNumber = versionNumber != null ? versionNumber.trim() : "";
+
+	int[] majorMinor = parseVersionNumber(this.versionNumber);
+	this.majorVersion = majorMinor[0];
+	this.minorVersion = majorMinor[1];
+	this.version12_2OrHigher = isVersionOrHigher(SERVER_VERSION_12_2);
+	this.deferredConnectionStateSupported = isVersionOrHigher(SERVER_VERSION_DEFERRED_CONNECTION_STATE);
+    }
+
+    /**
+     * Parses a "major.minor" version number.
+     *
+     * @return the major and minor numbers, 0 if not numeric
+     */
+    private static int[] parseVersionNumber(String versionNumber) {
+	String major = StringUtils.substringBefore(versionNumber, ".");
+	String minor = StringUtils.substringBefore(StringUtils.substringAfter(versionNumber, "."), ".");
+	return new int[] { toInt(major), toInt(minor) };
+    }
+
+    private static int toInt(String value) {
+	try {
+	    return Integer.parseInt(value.trim());
+	} catch (NumberFormatException e) {
+	    return 0;
+	}
+    }
+
+    /**
+     * Says if the server version is greater or equal to a version.
+     *
+     * @param minVersion the minimum version in "major.minor" format
+     * @return true if the server version is greater or equal to minVersion
+     */
+    public boolean isVersionOrHigher(String minVersion) {
+	int[] min = parseVersionNumber(Objects.requireNonNull(minVersion, "minVersion cannot be null!"));
+	if (majorVersion != min[0]) {
+	    return majorVersion > min[0];
+	}
+	return minorVersion >= min[1];
+    }
+
+    /**
+     * Gets the server version, as returned by the /get_version API.
+     *
+     * @return the server version
+     */
+    public String getServerVersion() {
+	return serverVersion;
+    }
+
+    /**
+     * Gets the server version number in "major.minor" format.
+     *
+     * @return the server version number
+     */
+    public String getVersionNumber() {
+	return versionNumber;
+    }
+
+    /**
+     * Says if the server version is 12.2 or higher, which is required by the
+     * Driver.
+     *
+     * @return true if the server version is 12.2 or higher
+     */
+    public boolean isVersion12_2OrHigher() {
+	return version12_2OrHigher;
+    }
+
+    /**
+     * Says if the server applies the connection state changes sent as extra
+     * parameters of the statement and commit calls, as asked by the
+     * deferredConnectionState Driver property.
+     *
+     * @return true if the server version is
+     *         {@link #SERVER_VERSION_DEFERRED_CONNECTION_STATE} or higher
+     */
+    public boolean isDeferredConnectionStateSupported() {
+	return deferredConnectionStateSupported;
+    }
+
+    @Override
+    public String toString() {
+	return "ServerCapabilities [serverVersion=" + serverVersion + ", versionNumber=" + versionNumber
+		+ ", version12_2OrHigher=" + version12_2OrHigher + ", deferredConnectionStateSupported="
+		+ deferredConnectionStateSupported + "]";
+    }
+
+}
@@ -8,6 +8,12 @@ import java.util.Properties;
 
 public class DriverPropertyInfoBuilder {
 
+    public static final String HTTP_TRANSPORT = "HTTP client layer: \"urlConnection\" for a HttpURLConnection per request over HTTP/1.1, \"httpClient\" for a shared java.net.http.HttpClient with HTTP/2 multiplexing (Java 11+). Defaults to \"urlConnection\".";
+    public static final String COMPRESSION_THRESHOLD = "Min size in bytes of a request body or of an upload to be compressed when uploadCompression is true. Defaults to 1024.";
+    public static final String UPLOAD_COMPRESSION = "Boolean to say if the request bodies and the Blob/Clob uploads are sent compressed with the Content-Encoding HTTP header. The AceQL server must support it. Defaults to false.";
+    public static final String CONNECTION_STATE_CACHE = "Boolean to say if the auto-commit, read-only, holdability, transaction isolation, catalog and schema values are kept locally, so that the Connection getters do not call the server. Defaults to true.";
+    public static final String DEFERRED_CONNECTION_STATE = "Boolean to say if the auto-commit, read-only, holdability and transaction isolation changes are sent as extra parameters of the next statement or commit call, instead of with a call per setter. Used only with AceQL servers 12.3 or higher, once the server has confirmed with the first setter call that it applies them: else, the setters call the server immediately. A call whose changes are not confirmed fails. Defaults to false.";
+    public static final String HTTP_COMPRESSION = "Boolean to say if compressed responses are accepted for all the API calls, with the Accept-Encoding HTTP header. Defaults to true.";
     public static final String USERNAME_TO_CONNECT_TO_THE_REMOTE_DATABASE_AS = "Username to connect to the remote database as";
     public static final String PASSWORD_TO_USE_WHEN_AUTHENTICATING = "Password to use when authenticating";
     public static final String NAME_OF_THE_REMOTE_DATABASE_TO_USE = "Name of the remote database to use";
@@ -23,6 +29,13 @@ public class DriverPropertyInfoBuilder {
 
     
     public static final String DEFINES_THE_RESULT_SET_META_DATA_POLICY = "Defines the ResultSet MetaData policy. Says if the ResultSet MetaData is to be downloaded along with the ResultSet. Possible values are \"on\" and \"off\". Defaults to \"on\".";
+    public static final String RESULT_SET_STREAMING = "Boolean to say if the ResultSet rows of executeQuery() are read directly from the HTTP response instead of being first downloaded in a local file. A streaming ResultSet is forward only. Defaults to false.";
+    public static final String PIPELINED_RESULT_SET = "Boolean to say if the ResultSet rows of executeQuery() are available while the result is downloaded by a background thread. A pipelined ResultSet is forward only. Defaults to false.";
+    public static final String PAGED_RESULT_SET = "Boolean to say if the ResultSet rows of executeQuery() are fetched from a server cursor by pages of Statement.getFetchSize() rows, when the fetch size is set. A paged ResultSet is forward only. Defaults to false.";
+    public static final String MEMORY_MAPPED_RESULT_SET = "Boolean to say if the downloaded ResultSet files are memory mapped and column values decoded only when accessed. Files larger than 2 GB are not mapped, and files are never mapped on Windows. Defaults to false.";
+    public static final String COMPACT_RESULT_SET = "Boolean to say if the compact row format is asked to the server: column names are sent once, rows are arrays of values and the JSON is not pretty printed. Defaults to true.";
+    public static final String BINARY_RESULT_SET = "Boolean to say if the binary columnar result format is asked to the server for the ResultSet that are not streamed. Servers that do not support it return a JSON result. Defaults to false.";
+    public static final String RESULT_SET_MEMORY_THRESHOLD = "Max size in KB of a result kept in memory. Bigger results are written to a local file. 0 means that all results are written to a local file. Defaults to 0.";
     private static final String CLOB_WRITE_CHARSET = "Name of the charset to use when writing a CLOB content with the PreparedStatement streaming methods. Defaults to \"UTF-8\".";
 
     /**
@@ -100,6 +113,85 @@ public class DriverPropertyInfoBuilder {
 	driverPropertyInfo.required = false;
 	driverPropertyInfoList.add(driverPropertyInfo);
 
+	driverPropertyInfo = getNewDriverPropertyInfo("resultSetStreaming", info);
+	driverPropertyInfo.description = RESULT_SET_STREAMING;
+	driverPropertyInfo.value = "false";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("pipelinedResultSet", info);
+	driverPropertyInfo.description = PIPELINED_RESULT_SET;
+	driverPropertyInfo.value = "false";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("pagedResultSet", info);
+	driverPropertyInfo.description = PAGED_RESULT_SET;
+	driverPropertyInfo.value = "false";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("memoryMappedResultSet", info);
+	driverPropertyInfo.description = MEMORY_MAPPED_RESULT_SET;
+	driverPropertyInfo.value = "false";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("resultSetMemoryThreshold", info);
+	driverPropertyInfo.description = RESULT_SET_MEMORY_THRESHOLD;
+	driverPropertyInfo.value = "0";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("compactResultSet", info);
+	driverPropertyInfo.description = COMPACT_RESULT_SET;
+	driverPropertyInfo.value = "true";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("binaryResultSet", info);
+	driverPropertyInfo.description = BINARY_RESULT_SET;
+	driverPropertyInfo.value = "false";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("httpCompression", info);
+	driverPropertyInfo.description = HTTP_COMPRESSION;
+	driverPropertyInfo.value = "true";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("uploadCompression", info);
+	driverPropertyInfo.description = UPLOAD_COMPRESSION;
+	driverPropertyInfo.value = "false";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("compressionThreshold", info);
+	driverPropertyInfo.description = COMPRESSION_THRESHOLD;
+	driverPropertyInfo.value = "1024";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("httpTransport", info);
+	driverPropertyInfo.description = HTTP_TRANSPORT;
+	driverPropertyInfo.choices = new String[] { "urlConnection", "httpClient" };
+	driverPropertyInfo.value = "urlConnection";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("connectionStateCache", info);
+	driverPropertyInfo.description = CONNECTION_STATE_CACHE;
+	driverPropertyInfo.value = "true";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
+	driverPropertyInfo = getNewDriverPropertyInfo("deferredConnectionState", info);
+	driverPropertyInfo.description = DEFERRED_CONNECTION_STATE;
+	driverPropertyInfo.value = "false";
+	driverPropertyInfo.required = false;
+	driverPropertyInfoList.add(driverPropertyInfo);
+
 	driverPropertyInfo = getNewDriverPropertyInfo("connectTimeout", info);
 	driverPropertyInfo.description = TIMEOUT_VALUE_IN_MILLISECONDS;
 	driverPropertyInfo.value = "0";
@@ -35,6 +35,8 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.aceql.jdbc.commons.HttpTransportType;
+import com.aceql.jdbc.commons.main.http.HttpClientTransport;
 import com.aceql.jdbc.commons.main.util.framework.FrameworkDebug;
 import com.aceql.jdbc.commons.main.util.framework.JdbcUrlHeader;
 import com.aceql.jdbc.commons.main.util.framework.Tag;
@@ -144,6 +146,236 @@ public class DriverUtil {
 	return compression;
     }
 
+    /**
+     * Says if the ResultSet rows are read directly from the HTTP response stream.
+     *
+     * @param info
+     * @return the resultSetStreaming property value. Defaults to false.
+     */
+    public static boolean getResultSetStreaming(Properties info) {
+	String resultSetStreamingStr = info.getProperty("resultSetStreaming");
+	if (resultSetStreamingStr == null) {
+	    return false;
+	}
+	return Boolean.parseBoolean(resultSetStreamingStr);
+    }
+
+    /**
+     * Says if the ResultSet rows are available while the result is downloading.
+     *
+     * @param info
+     * @return the pipelinedResultSet property value. Defaults to false.
+     */
+    public static boolean getPipelinedResultSet(Properties info) {
+	String pipelinedResultSetStr = info.getProperty("pipelinedResultSet");
+	if (pipelinedResultSetStr == null) {
+	    return false;
+	}
+	return Boolean.parseBoolean(pipelinedResultSetStr);
+    }
+
+    /**
+     * Says if the ResultSet rows are fetched by pages from a server cursor.
+     *
+     * @param info
+     * @return the pagedResultSet property value. Defaults to false.
+     */
+    public static boolean getPagedResultSet(Properties info) {
+	String pagedResultSetStr = info.getProperty("pagedResultSet");
+	if (pagedResultSetStr == null) {
+	    return false;
+	}
+	return Boolean.parseBoolean(pagedResultSetStr);
+    }
+
+    /**
+     * Says if the downloaded ResultSet files are memory mapped.
+     *
+     * @param info
+     * @return the memoryMappedResultSet property value. Defaults to false.
+     */
+    public static boolean getMemoryMappedResultSet(Properties info) {
+	String memoryMappedResultSetStr = info.getProperty("memoryMappedResultSet");
+	if (memoryMappedResultSetStr == null) {
+	    return false;
+	}
+	return Boolean.parseBoolean(memoryMappedResultSetStr);
+    }
+
+    /**
+     * Gets the max size in KB of a result kept in memory.
+     *
+     * @param info
+     * @return the resultSetMemoryThreshold property value. Defaults to 0.
+     * @throws SQLException if the value is not a positive integer
+     */
+    public static int getResultSetMemoryThreshold(Properties info) throws SQLException {
+	String resultSetMemoryThresholdStr = info.getProperty("resultSetMemoryThreshold");
+	if (resultSetMemoryThresholdStr == null) {
+	    return 0;
+	}
+
+	int resultSetMemoryThreshold = 0;
+	try {
+	    resultSetMemoryThreshold = Integer.parseInt(resultSetMemoryThresholdStr);
+	} catch (NumberFormatException e) {
+	    throw new SQLException(
+		    Tag.PRODUCT + " Invalid resultSetMemoryThreshold, is not numeric: " + resultSetMemoryThresholdStr);
+	}
+
+	if (resultSetMemoryThreshold < 0 || resultSetMemoryThreshold > Integer.MAX_VALUE / 1024) {
+	    throw new SQLException(
+		    Tag.PRODUCT + " Invalid resultSetMemoryThreshold, is out of range: " + resultSetMemoryThresholdStr);
+	}
+
+	return resultSetMemoryThreshold;
+    }
+
+    /**
+     * Says if the compact row format is asked to the server.
+     *
+     * @param info
+     * @return the compactResultSet property value. Defaults to true.
+     */
+    public static boolean getCompactResultSet(Properties info) {
+	String compactResultSetStr = info.getProperty("compactResultSet");
+	if (compactResultSetStr == null) {
+	    return true;
+	}
+	return Boolean.parseBoolean(compactResultSetStr);
+    }
+
+    /**
+     * Says if the binary columnar result format is asked to the server.
+     *
+     * @param info
+     * @return the binaryResultSet property value. Defaults to false.
+     */
+    public static boolean getBinaryResultSet(Properties info) {
+	String binaryResultSetStr = info.getProperty("binaryResultSet");
+	if (binaryResultSetStr == null) {
+	    return false;
+	}
+	return Boolean.parseBoolean(binaryResultSetStr);
+    }
+
+    /**
+     * Says if compressed responses are accepted for all the API calls.
+     *
+     * @param info
+     * @return the httpCompression property value. Defaults to true.
+     */
+    public static boolean getHttpCompression(Properties info) {
+	String httpCompressionStr = info.getProperty("httpCompression");
+	if (httpCompressionStr == null) {
+	    return true;
+	}
+	return Boolean.parseBoolean(httpCompressionStr);
+    }
+
+    /**
+     * Says if the request bodies and the Blob/Clob uploads are compressed.
+     *
+     * @param info
+     * @return the uploadCompression property value. Defaults to false.
+     */
+    public static boolean getUploadCompression(Properties info) {
+	String uploadCompressionStr = info.getProperty("uploadCompression");
+	if (uploadCompressionStr == null) {
+	    return false;
+	}
+	return Boolean.parseBoolean(uploadCompressionStr);
+    }
+
+    /**
+     * Gets the min size in bytes of a request body or of an upload to be
+     * compressed.
+     *
+     * @param info
+     * @return the compressionThreshold property value. Defaults to 1024.
+     * @throws SQLException if the value is not a positive integer
+     */
+    public static int getCompressionThreshold(Properties info) throws SQLException {
+	String compressionThresholdStr = info.getProperty("compressionThreshold");
+	if (compressionThresholdStr == null) {
+	    return 1024;
+	}
+
+	int compressionThreshold = 0;
+	try {
+	    compressionThreshold = Integer.parseInt(compressionThresholdStr);
+	} catch (NumberFormatException e) {
+	    throw new SQLException(
+		    Tag.PRODUCT + " Invalid compressionThreshold, is not numeric: " + compressionThresholdStr);
+	}
+
+	if (compressionThreshold < 0) {
+	    throw new SQLException(
+		    Tag.PRODUCT + " Invalid compressionThreshold, is negative: " + compressionThresholdStr);
+	}
+
+	return compressionThreshold;
+    }
+
+    /**
+     * Says if the connection state is kept locally to answer the
+     * {@code Connection} getters.
+     *
+     * @param info
+     * @return the connectionStateCache property value. Defaults to true.
+     */
+    public static boolean getConnectionStateCache(Properties info) {
+	String connectionStateCacheStr = info.getProperty("connectionStateCache");
+	if (connectionStateCacheStr == null) {
+	    return true;
+	}
+	return Boolean.parseBoolean(connectionStateCacheStr);
+    }
+
+    /**
+     * Says if the connection state changes are sent with the next statement or
+     * commit call.
+     *
+     * @param info
+     * @return the deferredConnectionState property value. Defaults to false.
+     */
+    public static boolean getDeferredConnectionState(Properties info) {
+	String deferredConnectionStateStr = info.getProperty("deferredConnectionState");
+	if (deferredConnectionStateStr == null) {
+	    return false;
+	}
+	return Boolean.parseBoolean(deferredConnectionStateStr);
+    }
+
+    /**
+     * Gets the HTTP client layer used to call the server.
+     *
+     * @param info
+     * @return the httpTransport property value. Defaults to urlConnection.
+     * @throws SQLException if the value is invalid, or if httpClient is asked
+     *                      on a Java version older than 11
+     */
+    public static HttpTransportType getHttpTransportType(Properties info) throws SQLException {
+	String httpTransportStr = info.getProperty("httpTransport");
+	if (httpTransportStr == null) {
+	    return HttpTransportType.urlConnection;
+	}
+
+	HttpTransportType httpTransportType = null;
+	try {
+	    httpTransportType = HttpTransportType.valueOf(httpTransportStr);
+	} catch (IllegalArgumentException e) {
+	    throw new SQLException(Tag.PRODUCT + " Invalid httpTransport: " + httpTransportStr
+		    + ". Possible values are \"urlConnection\", \"httpClient\".");
+	}
+
+	if (httpTransportType == HttpTransportType.httpClient && !HttpClientTransport.isAvailable()) {
+	    throw new SQLException(Tag.PRODUCT + " httpTransport=httpClient requires Java 11 or higher.");
+	}
+
+	return httpTransportType;
+    }
+
     /**
      * get the read timeout.
      *
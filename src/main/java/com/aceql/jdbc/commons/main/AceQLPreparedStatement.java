@@ -18,10 +18,8 @@
  */
 package com.aceql.jdbc.commons.main;
 
-import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -50,6 +48,9 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -63,9 +64,11 @@ import com.aceql.jdbc.commons.main.advanced.caller.BlobStreamParamsManagerCaller
 import com.aceql.jdbc.commons.main.batch.PrepStatementParamsHolder;
 import com.aceql.jdbc.commons.main.http.BlobUploader;
 import com.aceql.jdbc.commons.main.http.HttpManager;
+import com.aceql.jdbc.commons.main.http.HttpResponse;
 import com.aceql.jdbc.commons.main.metadata.util.GsonWsUtil;
 import com.aceql.jdbc.commons.main.util.AceQLStatementUtil;
 import com.aceql.jdbc.commons.main.util.AceQLTypes;
+import com.aceql.jdbc.commons.main.util.AsyncCallUtil;
 import com.aceql.jdbc.commons.main.util.framework.FrameworkDebug;
 import com.aceql.jdbc.commons.main.util.framework.FrameworkFileUtil;
 import com.aceql.jdbc.commons.main.util.framework.HtmlConverter;
@@ -73,6 +76,9 @@ import com.aceql.jdbc.commons.main.util.framework.Tag;
 import com.aceql.jdbc.commons.main.util.framework.UniqueIDBuilder;
 import com.aceql.jdbc.commons.main.util.json.PrepStatementParametersBuilder;
 import com.aceql.jdbc.commons.main.util.json.SqlParameter;
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.ScanningOutputStream;
+import com.aceql.jdbc.commons.main.util.json.SpillOutputStream;
 import com.aceql.jdbc.commons.main.util.json.StreamResultAnalyzer;
 
 /**
@@ -542,26 +548,30 @@ public class AceQLPreparedStatement extends AceQLStatement implements PreparedSt
 	    aceQLHttpApi.trace("file: " + file);
 	    boolean isPreparedStatement = true;
 
-	    try (InputStream in = aceQLHttpApi.execute(sql, isPreparedStatement, statementParameters, maxRows);
-		    OutputStream out = new BufferedOutputStream(new FileOutputStream(file));) {
+	    JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	    SpillOutputStream resultOut = buildResultOutputStream(file);
+	    HttpResponse response = aceQLHttpApi.execute(sql, isPreparedStatement, statementParameters, maxRows);
+	    try (InputStream in = response.getBody();
+		    OutputStream out = new ScanningOutputStream(resultOut, jsonResultScanner);) {
 
 		if (in != null) {
 		    IOUtils.copy(in, out);
 		}
 	    }
 
-	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(file, aceQLHttpApi.getHttpStatusCode(),
-		    aceQLHttpApi.getHttpStatusMessage());
+	    byte[] jsonContent = getJsonContent(resultOut);
+	    StreamResultAnalyzer streamResultAnalyzer = buildStreamResultAnalyzer(file, jsonContent, jsonResultScanner,
+		    response);
 	    if (!streamResultAnalyzer.isStatusOk()) {
 		throw new AceQLException(streamResultAnalyzer.getErrorMessage(), streamResultAnalyzer.getErrorId(),
-			null, streamResultAnalyzer.getStackTrace(), aceQLHttpApi.getHttpStatusCode());
+			null, streamResultAnalyzer.getStackTrace(), streamResultAnalyzer.getHttpStatusCode());
 	    }
 
 	    boolean isResultSet = streamResultAnalyzer.isResultSet();
 	    int rowCount = streamResultAnalyzer.getRowCount();
 
 	    if (isResultSet) {
-		aceQLResultSet = new AceQLResultSet(file, this, rowCount);
+		aceQLResultSet = buildResultSet(file, jsonContent, rowCount, jsonResultScanner);
 		return true;
 	    } else {
 		this.updateCount = rowCount;
@@ -588,6 +598,13 @@ public class AceQLPreparedStatement extends AceQLStatement implements PreparedSt
 
 	try {
 
+	    // Stored procedures OUT parameters are analyzed from the full result: always use a file
+	    if (isForwardOnlyResultSet() && !isStoredProcedure) {
+		HttpResponse response = aceQLHttpApi.executeQuery(sql, true, false,
+			builder.getHttpFormattedStatementParameters(), maxRows);
+		return buildStreamingResultSet(response);
+	    }
+
 	    File file = AceQLStatement.buildtResultSetFile();
 	    this.localResultSetFiles.add(file);
 
@@ -602,9 +619,14 @@ public class AceQLPreparedStatement extends AceQLStatement implements PreparedSt
 	    // isPreparedStatement, isStoredProcedure, aceQLHttpApi.isGzipResult(),
 	    // aceQLHttpApi.isPrettyPrinting());
 
-	    try (InputStream in = aceQLHttpApi.executeQuery(sql, isPreparedStatement, isStoredProcedure,
-		    statementParameters, maxRows);
-		    OutputStream out = new BufferedOutputStream(new FileOutputStream(file));) {
+	    JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	    SpillOutputStream resultOut = buildResultOutputStream(file);
+	    // Stored procedures OUT parameters are sent with the first rows: no paging
+	    int pageSize = isStoredProcedure ? 0 : getPageSize();
+	    HttpResponse response = aceQLHttpApi.executeQuery(sql, isPreparedStatement, isStoredProcedure,
+		    statementParameters, maxRows, pageSize);
+	    try (InputStream in = response.getBody();
+		    OutputStream out = new ScanningOutputStream(resultOut, jsonResultScanner);) {
 
 		if (in != null) {
 		    // Do not use resource try {} ==> We don't want to create an
@@ -616,19 +638,22 @@ public class AceQLPreparedStatement extends AceQLStatement implements PreparedSt
 		}
 	    }
 
-	    if (DUMP_FILE_DEBUG) {
+	    if (DUMP_FILE_DEBUG && file.exists()) {
 		System.out.println("STATEMENT_FILE_BEGIN");
 		System.out.println(FileUtils.readFileToString(file, Charset.forName("UTF-8")));
 		System.out.println("STATEMENT_FILE_END");
 	    }
 
-	    int httpStatusCode = aceQLHttpApi.getHttpStatusCode();
+	    byte[] jsonContent = getJsonContent(resultOut);
+	    if (!isStoredProcedure && isBinaryResult(file, jsonContent)) {
+		return buildBinaryResultSet(file, jsonContent);
+	    }
 
-	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(file, httpStatusCode,
-		    aceQLHttpApi.getHttpStatusMessage());
+	    StreamResultAnalyzer streamResultAnalyzer = buildStreamResultAnalyzer(file, jsonContent, jsonResultScanner,
+		    response);
 	    if (!streamResultAnalyzer.isStatusOk()) {
 		throw new AceQLException(streamResultAnalyzer.getErrorMessage(), streamResultAnalyzer.getErrorId(),
-			null, streamResultAnalyzer.getStackTrace(), httpStatusCode);
+			null, streamResultAnalyzer.getStackTrace(), streamResultAnalyzer.getHttpStatusCode());
 	    }
 
 	    if (isStoredProcedure) {
@@ -645,7 +670,7 @@ public class AceQLPreparedStatement extends AceQLStatement implements PreparedSt
 	    int rowCount = streamResultAnalyzer.getRowCountWithParse();
 	    debug("rowCount: " + rowCount);
 	    
-	    AceQLResultSet aceQLResultSet = new AceQLResultSet(file, this, rowCount);
+	    AceQLResultSet aceQLResultSet = buildResultSet(file, jsonContent, rowCount, jsonResultScanner);
 	    return aceQLResultSet;
 
 	} catch (AceQLException aceQlException) {
@@ -688,6 +713,81 @@ public class AceQLPreparedStatement extends AceQLStatement implements PreparedSt
 
     }
 
+    /**
+     * Executes asynchronously the SQL query of this {@code PreparedStatement} on
+     * the executor of the Connection. <br>
+     * The parameters are read when the call runs: they must not be changed
+     * until the returned future is complete. The asynchronous calls of all the
+     * statements of a Connection are run one after the other.
+     *
+     * @return the future {@code ResultSet}. Completes exceptionally with the
+     *         {@code SQLException} thrown by {@link #executeQuery()}.
+     * @see AceQLConnection#setAsyncExecutor(Executor)
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync() {
+	return executeQueryAsync(aceQLConnection.getAsyncExecutor());
+    }
+
+    /**
+     * Executes asynchronously the SQL query of this {@code PreparedStatement} on
+     * the passed executor. The parameters must not be changed until the returned
+     * future is complete.
+     *
+     * @param executor the executor to use for this call
+     * @return the future {@code ResultSet}. Completes exceptionally with the
+     *         {@code SQLException} thrown by {@link #executeQuery()}.
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync(Executor executor) {
+	return AsyncCallUtil.supplyAsync(new Callable<ResultSet>() {
+
+	    @Override
+	    public ResultSet call() throws SQLException {
+		// The statements share the server connection and its transaction
+		synchronized (aceQLConnection) {
+		    return executeQuery();
+		}
+	    }
+	}, executor);
+    }
+
+    /**
+     * Executes asynchronously the SQL statement of this
+     * {@code PreparedStatement} on the executor of the Connection. The statement
+     * must be an SQL Data Manipulation Language (DML) statement or an SQL
+     * statement that returns nothing. <br>
+     * The parameters are read when the call runs: they must not be changed
+     * until the returned future is complete. The asynchronous calls of all the
+     * statements of a Connection are run one after the other.
+     *
+     * @return the future row count. Completes exceptionally with the
+     *         {@code SQLException} thrown by {@link #executeUpdate()}.
+     * @see AceQLConnection#setAsyncExecutor(Executor)
+     */
+    public CompletableFuture<Integer> executeUpdateAsync() {
+	return executeUpdateAsync(aceQLConnection.getAsyncExecutor());
+    }
+
+    /**
+     * Executes asynchronously the SQL statement of this
+     * {@code PreparedStatement} on the passed executor. The parameters must not
+     * be changed until the returned future is complete.
+     *
+     * @param executor the executor to use for this call
+     * @return the future row count. Completes exceptionally with the
+     *         {@code SQLException} thrown by {@link #executeUpdate()}.
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(Executor executor) {
+	return AsyncCallUtil.supplyAsync(new Callable<Integer>() {
+
+	    @Override
+	    public Integer call() throws SQLException {
+		synchronized (aceQLConnection) {
+		    return executeUpdate();
+		}
+	    }
+	}, executor);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -698,6 +798,30 @@ public class AceQLPreparedStatement extends AceQLStatement implements PreparedSt
 	super.close();
     }
 
+    /**
+     * @return the SQL statement with its '?' IN parameter placeholders
+     */
+    public String getSql() {
+	return sql;
+    }
+
+    /**
+     * Gets the parameters set on this statement, in the HTTP format of the
+     * /execute_update and /execute_query APIs, so that the statement can be
+     * sent with another API.
+     *
+     * @return the statement parameters
+     * @throws SQLException if a parameter is a BLOB, whose upload is done only by
+     *                      the execute methods of this statement
+     */
+    public Map<String, String> getHttpStatementParameters() throws SQLException {
+	if (this.paramsContainBlob) {
+	    throw new SQLException(Tag.PRODUCT + " "
+		    + "Cannot send a statement with BLOB parameter outside of its execute methods.");
+	}
+	return builder.getHttpFormattedStatementParameters();
+    }
+
     private void debug(String s) {
 	if (DEBUG) {
 	    System.out.println(new java.util.Date() + " " + s);
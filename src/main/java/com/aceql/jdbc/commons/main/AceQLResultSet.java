@@ -55,10 +55,17 @@ import com.aceql.jdbc.commons.main.http.AceQLHttpApi;
 import com.aceql.jdbc.commons.main.util.AceQLConnectionUtil;
 import com.aceql.jdbc.commons.main.util.AceQLResultSetUtil;
 import com.aceql.jdbc.commons.main.util.BlobUtil;
+import com.aceql.jdbc.commons.main.util.ColumnLabelMap;
 import com.aceql.jdbc.commons.main.util.TimestampUtil;
+import com.aceql.jdbc.commons.main.util.binary.ColumnarRowReader;
 import com.aceql.jdbc.commons.main.util.framework.FrameworkDebug;
 import com.aceql.jdbc.commons.main.util.framework.Tag;
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.MappedRowReader;
+import com.aceql.jdbc.commons.main.util.json.PagedRowReader;
+import com.aceql.jdbc.commons.main.util.json.RowOffsetIndex;
 import com.aceql.jdbc.commons.main.util.json.RowParser;
+import com.aceql.jdbc.commons.main.util.json.RowReader;
 
 /**
  * Class that allows to built a {@code ResultSet} from a JSON file or JSON
@@ -79,14 +86,11 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
     private int rowCount = 0;
     private int currentRowNum = 0;
 
-    // public Map<String, String> valuesPerColName;
-    public Map<Integer, String> valuesPerColIndex;
-
     private boolean isClosed;
 
     private Statement statement;
 
-    private RowParser rowParser;
+    private RowReader rowReader;
 
     // Futur usage
     private AceQLConnection aceQLConnection;
@@ -95,11 +99,35 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
     /** Says if the last accessed value was null */
     private boolean wasNull = false;
 
-    // Futur usage
+    /** The ResultSetMetaData, built on first access */
     private ResultSetMetaData resultSetMetaData;
 
+    /** The column types per column index, index 0 unused. Built on first access */
+    private int[] columnTypes;
+
+    /** The column index per label, built on first access by label */
+    private ColumnLabelMap columnLabelMap;
+
     private int fetchSize = 0;
 
+    /** The scanner of the jsonFile content, may be null */
+    private JsonResultScanner jsonResultScanner;
+
+    /** Says if the server version supports the Driver. Read once, not on each next() */
+    private final boolean serverVersionSupported;
+
+    /** The result set content if held in memory. jsonFile is then null */
+    private byte[] jsonContent;
+
+    /** Says if rows are read directly from the HTTP response. jsonFile is then null */
+    private boolean streaming = false;
+
+    /** The ResultSet MetaData read in the header of a streaming ResultSet */
+    private String streamingResultSetMetaDataJson;
+
+    /** The reader of a binary columnar result, null for a JSON result */
+    private ColumnarRowReader columnarRowReader;
+
     /**
      * Constructor.
      *
@@ -110,6 +138,23 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
      * @throws SQLException if file is null or does no exist
      */
     public AceQLResultSet(File jsonFile, Statement statement, int rowCount) throws SQLException {
+	this(jsonFile, statement, rowCount, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jsonFile       A file containing the result set returned by an
+     *                       /execute_query call
+     * @param statement      the calling Statement
+     * @param rowCount       the numbers of row in the Json result set file
+     * @param jsonResultScanner the scanner that has read the file content while
+     *                          downloading, with the row offsets and the
+     *                          ResultSet MetaData. May be null.
+     * @throws SQLException if file is null or does no exist
+     */
+    public AceQLResultSet(File jsonFile, Statement statement, int rowCount, JsonResultScanner jsonResultScanner)
+	    throws SQLException {
 
 	if (jsonFile == null) {
 	    throw new SQLException("jsonFile is null!");
@@ -134,11 +179,127 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
 	aceQLConnection = (AceQLConnection) this.getStatement().getConnection();
 	this.aceQLHttpApi = InternalWrapper.getAceQLHttpApi(aceQLConnection);
+	this.serverVersionSupported = AceQLConnectionUtil.isVersion12_2OrHigher(aceQLConnection);
+
+	this.jsonResultScanner = jsonResultScanner;
+	this.rowReader = buildRowReader(jsonFile, jsonResultScanner);
+	this.rowCount = rowCount;
+    }
+
+    /**
+     * Constructor for a result set small enough to be held in memory. No local
+     * file is used.
+     *
+     * @param jsonContent       the result set returned by an /execute_query call
+     * @param statement         the calling Statement
+     * @param rowCount          the numbers of row in the Json result set
+     * @param jsonResultScanner the scanner that has read the content while
+     *                          downloading, with the row offsets and the
+     *                          ResultSet MetaData.
+     * @throws SQLException if content is null
+     */
+    public AceQLResultSet(byte[] jsonContent, Statement statement, int rowCount, JsonResultScanner jsonResultScanner)
+	    throws SQLException {
+
+	if (jsonContent == null) {
+	    throw new SQLException("jsonContent is null!");
+	}
+
+	this.jsonContent = jsonContent;
+	this.statement = statement;
+
+	aceQLConnection = (AceQLConnection) this.getStatement().getConnection();
+	this.aceQLHttpApi = InternalWrapper.getAceQLHttpApi(aceQLConnection);
+	this.serverVersionSupported = AceQLConnectionUtil.isVersion12_2OrHigher(aceQLConnection);
 
-	this.rowParser = new RowParser(jsonFile);
+	this.jsonResultScanner = Objects.requireNonNull(jsonResultScanner, "jsonResultScanner cannot be null!");
+	this.rowReader = buildRowReader(null, jsonResultScanner);
 	this.rowCount = rowCount;
     }
 
+    /**
+     * Constructor for a forward only {@code ResultSet} whose rows are read
+     * directly from the HTTP response. The row count is unknown.
+     *
+     * @param rowParser a streaming mode RowParser, positioned before the first row
+     *                  with {@link RowParser#readHeader()}
+     * @param statement the calling Statement
+     * @throws SQLException
+     */
+    public AceQLResultSet(RowParser rowParser, Statement statement) throws SQLException {
+	this.rowReader = Objects.requireNonNull(rowParser, "rowParser cannot be null!");
+	this.streamingResultSetMetaDataJson = rowParser.getResultSetMetaDataJson();
+	this.statement = statement;
+	this.streaming = true;
+	this.rowCount = -1;
+
+	aceQLConnection = (AceQLConnection) this.getStatement().getConnection();
+	this.aceQLHttpApi = InternalWrapper.getAceQLHttpApi(aceQLConnection);
+	this.serverVersionSupported = AceQLConnectionUtil.isVersion12_2OrHigher(aceQLConnection);
+    }
+
+    /**
+     * Constructor for a result set sent in binary columnar format, already
+     * decoded.
+     *
+     * @param columnarRowReader the reader of the decoded result
+     * @param statement         the calling Statement
+     * @throws SQLException
+     */
+    public AceQLResultSet(ColumnarRowReader columnarRowReader, Statement statement) throws SQLException {
+	this.columnarRowReader = Objects.requireNonNull(columnarRowReader, "columnarRowReader cannot be null!");
+	this.rowReader = columnarRowReader;
+	this.streamingResultSetMetaDataJson = columnarRowReader.getResultSetMetaDataJson();
+	this.statement = statement;
+	this.rowCount = columnarRowReader.getRowCount();
+
+	aceQLConnection = (AceQLConnection) this.getStatement().getConnection();
+	this.aceQLHttpApi = InternalWrapper.getAceQLHttpApi(aceQLConnection);
+	this.serverVersionSupported = AceQLConnectionUtil.isVersion12_2OrHigher(aceQLConnection);
+    }
+
+    /**
+     * Makes this {@code ResultSet} read by pages the rows of a server cursor. The
+     * rows already downloaded are the first page. The {@code ResultSet} becomes
+     * forward only, as the rows of the previous pages are not kept.
+     *
+     * @param cursorId    the cursor id returned with the first page
+     * @param fetchSize   the max number of rows of the next pages
+     * @param pageFetcher the fetcher of the next pages
+     */
+    void setPaged(String cursorId, int fetchSize, PagedRowReader.PageFetcher pageFetcher) {
+	this.rowReader = new PagedRowReader(rowReader, rowCount, cursorId, fetchSize, pageFetcher);
+	this.streamingResultSetMetaDataJson = jsonResultScanner.getResultSetMetaDataJson();
+	this.fetchSize = fetchSize;
+	// Held by the first page reader only, released with it
+	this.jsonContent = null;
+	this.streaming = true;
+	this.rowCount = -1;
+    }
+
+    /**
+     * Builds the reader of the rows of the ResultSet file, or of jsonContent if
+     * not null: a MappedRowReader if the memoryMappedResultSet property is set and
+     * the file can be mapped and deleted on close, else a RowParser.
+     */
+    private RowReader buildRowReader(File jsonFile, JsonResultScanner jsonResultScanner) throws SQLException {
+	RowOffsetIndex rowOffsetIndex = jsonResultScanner != null ? jsonResultScanner.getRowOffsetIndex() : null;
+
+	if (jsonContent != null) {
+	    if (aceQLHttpApi.getAceQLConnectionInfo().isMemoryMappedResultSet()) {
+		return new MappedRowReader(jsonContent, rowOffsetIndex);
+	    }
+	    return new RowParser(jsonContent, rowOffsetIndex);
+	}
+
+	if (aceQLHttpApi.getAceQLConnectionInfo().isMemoryMappedResultSet() && MappedRowReader.isMappable(jsonFile)
+		&& MappedRowReader.isDeletableWhileMapped()) {
+	    return new MappedRowReader(jsonFile, rowOffsetIndex);
+	}
+
+	return new RowParser(jsonFile, rowOffsetIndex);
+    }
+
     /**
      * Constructor. To be used when calling a remote DatabaseMetaData method that
      * returns a ResultSet.
@@ -149,6 +310,22 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
      * @throws SQLException
      */
     public AceQLResultSet(File jsonFile, AceQLConnection aceQLConnection, int rowCount) throws SQLException {
+	this(jsonFile, aceQLConnection, rowCount, null);
+    }
+
+    /**
+     * Constructor. To be used when calling a remote DatabaseMetaData method that
+     * returns a ResultSet.
+     * 
+     * @param jsonFile
+     * @param aceQLConnection
+     * @param rowCount
+     * @param jsonResultScanner the scanner that has read the file content while
+     *                          downloading. May be null.
+     * @throws SQLException
+     */
+    public AceQLResultSet(File jsonFile, AceQLConnection aceQLConnection, int rowCount,
+	    JsonResultScanner jsonResultScanner) throws SQLException {
 	if (jsonFile == null) {
 	    throw new SQLException("jsonFile is null!");
 	}
@@ -173,8 +350,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	this.statement = null;
 	this.aceQLConnection = aceQLConnection;
 	this.aceQLHttpApi = InternalWrapper.getAceQLHttpApi(aceQLConnection);
+	this.serverVersionSupported = AceQLConnectionUtil.isVersion12_2OrHigher(aceQLConnection);
 
-	this.rowParser = new RowParser(jsonFile);
+	this.jsonResultScanner = jsonResultScanner;
+	this.rowReader = buildRowReader(jsonFile, jsonResultScanner);
 
 	long begin = System.currentTimeMillis();
 	debug(new java.util.Date() + " Begin getRowCount");
@@ -199,14 +378,22 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	    throw new SQLException("ResultSet is closed.");
 	}
 
+	checkNotStreaming();
+
 	if (row < 0 || row > rowCount) {
 	    return false;
 	}
 
-	rowParser.resetParser();
+	if (row == 0) {
+	    // Before first row
+	    rowReader.resetParser();
+	    currentRowNum = 0;
+	    return false;
+	}
 
+	// RowParser seeks directly to row if offsets are known, else rereads from start
 	currentRowNum = row;
-	rowParser.buildRowNum(row);
+	rowReader.buildRowNum(row);
 	return true;
 
     }
@@ -222,19 +409,15 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	    throw new SQLException("ResultSet is closed.");
 	}
 
-	if (currentRowNum == 1) {
+	checkNotStreaming();
+
+	if (currentRowNum <= 1) {
 	    return false;
 	}
 
+	// RowParser restarts or seeks, as parser is already after current row
 	currentRowNum--;
-	rowParser.buildRowNum(currentRowNum);
-
-	valuesPerColIndex = rowParser.getValuesPerColIndex();
-	// valuesPerColName = rowParser.getValuesPerColName();
-
-	debug("");
-	debug("" + valuesPerColIndex);
-	// debug("" + valuesPerColName);
+	rowReader.buildRowNum(currentRowNum);
 
 	return true;
     }
@@ -242,7 +425,7 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
     @Override
     public boolean next() throws SQLException {
 
-	if (!AceQLConnectionUtil.isVersion12_2OrHigher(this.aceQLConnection)) {
+	if (!serverVersionSupported) {
 	    throw new SQLException("AceQL Server version must be >= " + AceQLConnectionUtil.SERVER_VERSION_12_2
 		    + " in order to use the AceQL Client JDBC Driver.");
 	}
@@ -251,22 +434,77 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	    throw new SQLException("ResltSetWrapper is closed.");
 	}
 
+	if (streaming) {
+	    return nextStreaming();
+	}
+
 	if (currentRowNum == rowCount) {
 	    return false;
 	}
 
 	currentRowNum++;
-	rowParser.buildRowNum(currentRowNum);
+	rowReader.buildRowNum(currentRowNum);
 
-	valuesPerColIndex = rowParser.getValuesPerColIndex();
-	// valuesPerColName = rowParser.getValuesPerColName();
+	return true;
 
-	debug("");
-	debug("valuesPerColIndex: " + valuesPerColIndex);
-	// debug("valuesPerColName :" + valuesPerColName);
+    }
 
+    /**
+     * next() for a streaming ResultSet: reads the next row from the HTTP
+     * response, and releases it at end of rows.
+     */
+    private boolean nextStreaming() throws SQLException {
+	// End already reached
+	if (rowCount >= 0) {
+	    return false;
+	}
+
+	if (!rowReader.buildRowNum(currentRowNum + 1)) {
+	    rowCount = currentRowNum;
+	    currentRowNum++; // After last
+	    rowReader.close();
+	    return false;
+	}
+
+	currentRowNum++;
 	return true;
+    }
 
+    private void checkOnRow() throws SQLException {
+	if (currentRowNum < 1 || (rowCount >= 0 && currentRowNum > rowCount)) {
+	    throw new SQLException("ResultSet is not positioned on a row.");
+	}
+    }
+
+    /**
+     * Says if a column of a binary result has fixed width values, that are read
+     * without text parsing. If true, the current row is checked and
+     * {@link #wasNull()} is set.
+     *
+     * @param columnIndex the column index, starting at 1
+     * @return true if the value is to be read from columnarRowReader
+     * @throws SQLException if the ResultSet is closed or not on a row
+     */
+    private boolean isFixedWidthColumn(int columnIndex) throws SQLException {
+	if (columnarRowReader == null || !columnarRowReader.isFixedWidth(columnIndex)) {
+	    return false;
+	}
+
+	if (isClosed) {
+	    throw new SQLException("ResultSet is closed.");
+	}
+
+	checkOnRow();
+	wasNull = columnarRowReader.isNull(columnIndex);
+	return true;
+    }
+
+    private void checkNotStreaming() throws SQLException {
+	if (streaming) {
+	    throw new SQLException(Tag.PRODUCT + " Operation not supported on a TYPE_FORWARD_ONLY streaming ResultSet. "
+		    + "Remove the resultSetStreaming=true, pipelinedResultSet=true and pagedResultSet=true "
+		    + "driver properties to scroll the ResultSet.");
+	}
     }
 
     /**
@@ -315,7 +553,8 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	    throw new SQLException("ResultSet is closed.");
 	}
 
-	String value = valuesPerColIndex.get(index);
+	checkOnRow();
+	String value = rowReader.getValue(index);
 
 	if (value == null) {
 	    throw new SQLException("Invalid column index: " + index);
@@ -339,25 +578,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	    throw new SQLException("Invalid column name: " + string);
 	}
 
-	if (rowParser.getIndexsPerColName().get(string) == null
-		&& rowParser.getIndexsPerColName().get(string.toLowerCase()) == null
-		&& rowParser.getIndexsPerColName().get(string.toUpperCase()) == null) {
-	    throw new SQLException("Invalid column name: " + string);
-	}
-
-	int index = -1;
-
-	if (rowParser.getIndexsPerColName().get(string) != null) {
-	    index = rowParser.getIndexsPerColName().get(string);
-	} else if (rowParser.getIndexsPerColName().get(string.toLowerCase()) != null) {
-	    index = rowParser.getIndexsPerColName().get(string.toLowerCase());
-	} else if (rowParser.getIndexsPerColName().get(string.toUpperCase()) != null) {
-	    index = rowParser.getIndexsPerColName().get(string.toUpperCase());
-	} else {
-	    throw new SQLException("(Impossible path) Invalid column name: " + string);
-	}
+	int index = getColumnIndex(string);
 
-	String value = valuesPerColIndex.get(index);
+	checkOnRow();
+	String value = rowReader.getValue(index);
 
 	if (value == null) {
 	    throw new SQLException("Invalid column name: " + string);
@@ -399,9 +623,21 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 		    + "Cannot get ResultSet.getMetaData(). Add to AceQL Driver the property resultSetMetaDataPolicy=on");
 	}
 
+	if (resultSetMetaData == null) {
+	    resultSetMetaData = buildMetaData();
+	}
+	return resultSetMetaData;
+    }
+
+    private ResultSetMetaData buildMetaData() throws SQLException {
 	ResultSetMetaDataGetter resultSetMetaDataGetter = new ResultSetMetaDataGetter();
+	if (streaming || columnarRowReader != null) {
+	    return resultSetMetaDataGetter.getMetaData(streamingResultSetMetaDataJson);
+	}
+	if (jsonResultScanner != null && jsonResultScanner.isStatusScanned()) {
+	    return resultSetMetaDataGetter.getMetaData(jsonResultScanner.getResultSetMetaDataJson());
+	}
 	return resultSetMetaDataGetter.getMetaData(this.jsonFile);
-
     }
 
     /*
@@ -633,6 +869,43 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	}
     }
 
+    /**
+     * Returns the index of a column label, exact or ignoring case.
+     *
+     * @param columnLabel the column label
+     * @return the index of the column, starting at 1
+     * @throws SQLException if the label is not a column of the ResultSet
+     */
+    private int getColumnIndex(String columnLabel) throws SQLException {
+	if (columnLabelMap == null) {
+	    // Column names are known once the first row is read
+	    Map<String, Integer> indexsPerColName = rowReader.getIndexsPerColName();
+	    if (indexsPerColName == null) {
+		throw new SQLException("Invalid column name: " + columnLabel);
+	    }
+	    columnLabelMap = new ColumnLabelMap(indexsPerColName);
+	}
+
+	int index = columnLabelMap.getIndex(columnLabel);
+	if (index < 0) {
+	    throw new SQLException("Invalid column name: " + columnLabel);
+	}
+	return index;
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+	if (isClosed) {
+	    throw new SQLException("ResultSet is closed.");
+	}
+
+	if (columnLabel == null) {
+	    throw new SQLException("Invalid column name: " + columnLabel);
+	}
+
+	return getColumnIndex(columnLabel);
+    }
+
     /**
      * Checks whether a string is a timestamp format 
      * @param columnLabel
@@ -648,11 +921,7 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	}
 	
 	// Deeper check
-	if (resultSetMetaData == null) {
-	    resultSetMetaData = getMetaData();
-	} 
-	
-	return TimestampUtil.isTimestamp(resultSetMetaData, columnLabel);
+	return isTimestampColumn(getColumnIndex(columnLabel));
 
     }
 
@@ -670,10 +939,34 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 	}
 	
 	// Deeper check
-	if (resultSetMetaData == null) {
-	    resultSetMetaData = getMetaData();
+	return isTimestampColumn(columnIndex);
+    }
+
+    /**
+     * Says if a column is of a timestamp type, using the column types read once
+     * from the ResultSetMetaData.
+     *
+     * @param columnIndex the column index, starting at 1
+     * @return true if the column is of a timestamp type
+     * @throws SQLException
+     */
+    private boolean isTimestampColumn(int columnIndex) throws SQLException {
+	if (columnTypes == null) {
+	    ResultSetMetaData metaData = getMetaData();
+	    int columnCount = metaData == null ? 0 : metaData.getColumnCount();
+
+	    // Index 0 unused
+	    int[] types = new int[columnCount + 1];
+	    for (int i = 1; i <= columnCount; i++) {
+		types[i] = metaData.getColumnType(i);
+	    }
+	    columnTypes = types;
 	}
-	return TimestampUtil.isTimestamp(resultSetMetaData, columnIndex);    
+
+	if (columnIndex < 1 || columnIndex >= columnTypes.length) {
+	    return false;
+	}
+	return TimestampUtil.isTimestampType(columnTypes[columnIndex]);
     }
     
     /**
@@ -821,6 +1114,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public int getInt(String columnLabel) throws SQLException {
+	if (columnarRowReader != null) {
+	    return getInt(findColumn(columnLabel));
+	}
+
 	String value = getStringValue(columnLabel);
 	if (value == null || value.equals("NULL")) {
 	    return 0;
@@ -870,6 +1167,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public short getShort(String columnLabel) throws SQLException {
+	if (columnarRowReader != null) {
+	    return getShort(findColumn(columnLabel));
+	}
+
 	String value = getStringValue(columnLabel);
 
 	if (value == null || value.equals("NULL")) {
@@ -880,6 +1181,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public float getFloat(String columnLabel) throws SQLException {
+	if (columnarRowReader != null) {
+	    return getFloat(findColumn(columnLabel));
+	}
+
 	String value = getStringValue(columnLabel);
 
 	if (value == null || value.equals("NULL")) {
@@ -890,6 +1195,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public double getDouble(String columnLabel) throws SQLException {
+	if (columnarRowReader != null) {
+	    return getDouble(findColumn(columnLabel));
+	}
+
 	String value = getStringValue(columnLabel);
 
 	if (value == null || value.equals("NULL")) {
@@ -926,6 +1235,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public int getInt(int columnIndex) throws SQLException {
+	if (isFixedWidthColumn(columnIndex)) {
+	    return (int) columnarRowReader.getLong(columnIndex);
+	}
+
 	String value = getStringValue(columnIndex);
 
 	if (value == null || value.equals("NULL")) {
@@ -976,6 +1289,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public short getShort(int columnIndex) throws SQLException {
+	if (isFixedWidthColumn(columnIndex)) {
+	    return (short) columnarRowReader.getLong(columnIndex);
+	}
+
 	String value = getStringValue(columnIndex);
 
 	if (value == null || value.equals("NULL")) {
@@ -986,6 +1303,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public float getFloat(int columnIndex) throws SQLException {
+	if (isFixedWidthColumn(columnIndex)) {
+	    return (float) columnarRowReader.getDouble(columnIndex);
+	}
+
 	String value = getStringValue(columnIndex);
 
 	if (value == null || value.equals("NULL")) {
@@ -996,6 +1317,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public double getDouble(int columnIndex) throws SQLException {
+	if (isFixedWidthColumn(columnIndex)) {
+	    return columnarRowReader.getDouble(columnIndex);
+	}
+
 	String value = getStringValue(columnIndex);
 
 	if (value == null || value.equals("NULL")) {
@@ -1011,6 +1336,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
      */
     @Override
     public long getLong(int columnIndex) throws SQLException {
+	if (isFixedWidthColumn(columnIndex)) {
+	    return columnarRowReader.getLong(columnIndex);
+	}
+
 	String value = getStringValue(columnIndex);
 
 	if (value == null || value.equals("NULL")) {
@@ -1028,6 +1357,10 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
      */
     @Override
     public long getLong(String columnName) throws SQLException {
+	if (columnarRowReader != null) {
+	    return getLong(findColumn(columnName));
+	}
+
 	String value = getStringValue(columnName);
 	if (value == null || value.equals("NULL")) {
 	    return 0;
@@ -1110,6 +1443,11 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
     @Override
     public void setFetchSize(int rows) throws SQLException {
 	this.fetchSize = rows;
+
+	// Applies to the next pages of a server cursor
+	if (rowReader instanceof PagedRowReader && rows > 0) {
+	    ((PagedRowReader) rowReader).setFetchSize(rows);
+	}
     }
 
     /*
@@ -1168,11 +1506,14 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
 
     @Override
     public void close() {
-	rowParser.close();
+	rowReader.close();
 	isClosed = true;
 
-	if (!AceQLStatement.KEEP_EXECUTION_FILES_DEBUG) {
-	    jsonFile.delete();
+	if (jsonFile != null && !AceQLStatement.KEEP_EXECUTION_FILES_DEBUG) {
+	    // The file may still be locked, e.g. by a mapping not yet released
+	    if (!jsonFile.delete()) {
+		jsonFile.deleteOnExit();
+	    }
 	}
 
     }
@@ -1183,7 +1524,7 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
      * @return true if trace is on
      */
     public boolean isTraceOn() {
-	return rowParser.isTraceOn();
+	return rowReader.isTraceOn();
     }
 
     /**
@@ -1192,7 +1533,7 @@ public class AceQLResultSet extends AbstractResultSet implements ResultSet, Clos
      * @param traceOn if true, trace will be on
      */
     public void setTraceOn(boolean traceOn) {
-	rowParser.setTraceOn(traceOn);
+	rowReader.setTraceOn(traceOn);
     }
 
     private void debug(String s) {
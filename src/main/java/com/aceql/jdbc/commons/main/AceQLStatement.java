@@ -18,14 +18,16 @@
  */
 package com.aceql.jdbc.commons.main;
 
-import java.io.BufferedOutputStream;
+import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -36,6 +38,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -45,11 +50,20 @@ import com.aceql.jdbc.commons.AceQLException;
 import com.aceql.jdbc.commons.InternalWrapper;
 import com.aceql.jdbc.commons.main.abstracts.AbstractStatement;
 import com.aceql.jdbc.commons.main.http.AceQLHttpApi;
+import com.aceql.jdbc.commons.main.http.HttpResponse;
 import com.aceql.jdbc.commons.main.util.AceQLStatementUtil;
+import com.aceql.jdbc.commons.main.util.AsyncCallUtil;
+import com.aceql.jdbc.commons.main.util.PrefetchInputStream;
 import com.aceql.jdbc.commons.main.util.SimpleTimer;
 import com.aceql.jdbc.commons.main.util.TimeUtil;
+import com.aceql.jdbc.commons.main.util.binary.ColumnarRowReader;
 import com.aceql.jdbc.commons.main.util.framework.FrameworkDebug;
 import com.aceql.jdbc.commons.main.util.framework.HtmlConverter;
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.PagedRowReader;
+import com.aceql.jdbc.commons.main.util.json.RowParser;
+import com.aceql.jdbc.commons.main.util.json.ScanningOutputStream;
+import com.aceql.jdbc.commons.main.util.json.SpillOutputStream;
 import com.aceql.jdbc.commons.main.util.json.StreamResultAnalyzer;
 
 /**
@@ -74,6 +88,9 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 
     protected List<File> localResultSetFiles = new ArrayList<File>();
 
+    /** The streaming ResultSets, to be closed with the Statement */
+    protected List<AceQLResultSet> localStreamingResultSets = new ArrayList<AceQLResultSet>();
+
     // For execute() command
     protected AceQLResultSet aceQLResultSet;
     protected int updateCount = -1;
@@ -125,8 +142,12 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 	    simpleTimer = new SimpleTimer();
 	    TimeUtil.printTimeStamp("Before Execute");
 	    
-	    try (InputStream in = aceQLHttpApi.execute(sql, isPreparedStatement, statementParameters, maxRows);
-		    OutputStream out = new FileOutputStream(file);) {
+	    // Row offsets are indexed while writing the file
+	    JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	    SpillOutputStream resultOut = buildResultOutputStream(file);
+	    HttpResponse response = aceQLHttpApi.execute(sql, isPreparedStatement, statementParameters, maxRows);
+	    try (InputStream in = response.getBody();
+		    OutputStream out = new ScanningOutputStream(resultOut, jsonResultScanner);) {
 
 		TimeUtil.printTimeStamp("After  Execute " + simpleTimer.getElapsedMs());
 		simpleTimer = new SimpleTimer();
@@ -137,11 +158,12 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 		TimeUtil.printTimeStamp("After  copy " + simpleTimer.getElapsedMs());
 	    }
 
-	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(file, aceQLHttpApi.getHttpStatusCode(),
-		    aceQLHttpApi.getHttpStatusMessage());
+	    byte[] jsonContent = getJsonContent(resultOut);
+	    StreamResultAnalyzer streamResultAnalyzer = buildStreamResultAnalyzer(file, jsonContent, jsonResultScanner,
+		    response);
 	    if (!streamResultAnalyzer.isStatusOk()) {
 		throw new AceQLException(streamResultAnalyzer.getErrorMessage(), streamResultAnalyzer.getErrorId(),
-			null, streamResultAnalyzer.getStackTrace(), aceQLHttpApi.getHttpStatusCode());
+			null, streamResultAnalyzer.getStackTrace(), streamResultAnalyzer.getHttpStatusCode());
 	    }
 
 	    TimeUtil.printTimeStamp("After  streamResultAnalyzer.isStatusOk()");
@@ -166,7 +188,7 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 
 	    if (isResultSet) {
 		TimeUtil.printTimeStamp("Before new AceQLResultSet(file, this, rowCount)");
-		aceQLResultSet = new AceQLResultSet(file, this, rowCount);
+		aceQLResultSet = buildResultSet(file, jsonContent, rowCount, jsonResultScanner);
 		TimeUtil.printTimeStamp("After  new AceQLResultSet(file, this, rowCount)");
 		return true;
 	    } else {
@@ -250,6 +272,11 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 
 	try {
 
+	    if (isForwardOnlyResultSet()) {
+		HttpResponse response = aceQLHttpApi.executeQuery(sql, false, false, null, maxRows);
+		return buildStreamingResultSet(response);
+	    }
+
 	    File file = buildtResultSetFile();
 
 	    this.localResultSetFiles.add(file);
@@ -261,9 +288,12 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 	    boolean isStoredProcedure = false;
 	    Map<String, String> statementParameters = null;
 
-	    try (InputStream in = aceQLHttpApi.executeQuery(sql, isPreparedStatement, isStoredProcedure,
-		    statementParameters, maxRows);
-		    OutputStream out = new BufferedOutputStream(new FileOutputStream(file));) {
+	    JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	    SpillOutputStream resultOut = buildResultOutputStream(file);
+	    HttpResponse response = aceQLHttpApi.executeQuery(sql, isPreparedStatement, isStoredProcedure,
+		    statementParameters, maxRows, getPageSize());
+	    try (InputStream in = response.getBody();
+		    OutputStream out = new ScanningOutputStream(resultOut, jsonResultScanner);) {
 
 		if (in != null) {
 		    InputStream inFinal = AceQLStatementUtil.getFinalInputStream(in, aceQLHttpApi.getAceQLConnectionInfo().isGzipResult());
@@ -271,21 +301,26 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 		}
 	    }
 
-	    if (DUMP_FILE_DEBUG) {
+	    if (DUMP_FILE_DEBUG && file.exists()) {
 		System.out.println("STATEMENT_FILE_BEGIN");
 		System.out.println(FileUtils.readFileToString(file, Charset.forName("UTF-8")));
 		System.out.println("STATEMENT_FILE_END");
 	    }
 
-	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(file, aceQLHttpApi.getHttpStatusCode(),
-		    aceQLHttpApi.getHttpStatusMessage());
+	    byte[] jsonContent = getJsonContent(resultOut);
+	    if (isBinaryResult(file, jsonContent)) {
+		return buildBinaryResultSet(file, jsonContent);
+	    }
+
+	    StreamResultAnalyzer streamResultAnalyzer = buildStreamResultAnalyzer(file, jsonContent, jsonResultScanner,
+		    response);
 	    if (!streamResultAnalyzer.isStatusOk()) {
 		throw new AceQLException(streamResultAnalyzer.getErrorMessage(), streamResultAnalyzer.getErrorId(),
-			null, streamResultAnalyzer.getStackTrace(), aceQLHttpApi.getHttpStatusCode());
+			null, streamResultAnalyzer.getStackTrace(), streamResultAnalyzer.getHttpStatusCode());
 	    }
 
 	    int rowCount = streamResultAnalyzer.getRowCount();
-	    AceQLResultSet aceQLResultSet = new AceQLResultSet(file, this, rowCount);
+	    AceQLResultSet aceQLResultSet = buildResultSet(file, jsonContent, rowCount, jsonResultScanner);
 	    return aceQLResultSet;
 
 	} catch (AceQLException aceQlException) {
@@ -296,6 +331,85 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 
     }
 
+    /**
+     * Executes asynchronously the given SQL statement, which returns a single
+     * {@code ResultSet} object, on the executor of the Connection. <br>
+     * The asynchronous calls of all the statements of a Connection are run one
+     * after the other, as they share its server connection and transaction.
+     * Independent queries run in parallel only on separate Connections.
+     *
+     * @param sql an SQL statement to be sent to the database, typically a static
+     *            SQL <code>SELECT</code> statement
+     * @return the future {@code ResultSet}. Completes exceptionally with the
+     *         {@code SQLException} thrown by {@link #executeQuery(String)}.
+     * @see AceQLConnection#setAsyncExecutor(Executor)
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync(String sql) {
+	return executeQueryAsync(sql, aceQLConnection.getAsyncExecutor());
+    }
+
+    /**
+     * Executes asynchronously the given SQL statement, which returns a single
+     * {@code ResultSet} object, on the passed executor.
+     *
+     * @param sql      an SQL statement to be sent to the database, typically a
+     *                 static SQL <code>SELECT</code> statement
+     * @param executor the executor to use for this call
+     * @return the future {@code ResultSet}. Completes exceptionally with the
+     *         {@code SQLException} thrown by {@link #executeQuery(String)}.
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync(final String sql, Executor executor) {
+	return AsyncCallUtil.supplyAsync(new Callable<ResultSet>() {
+
+	    @Override
+	    public ResultSet call() throws SQLException {
+		// The statements share the server connection and its transaction
+		synchronized (aceQLConnection) {
+		    return executeQuery(sql);
+		}
+	    }
+	}, executor);
+    }
+
+    /**
+     * Executes asynchronously the given SQL statement, which may be an
+     * <code>INSERT</code>, <code>UPDATE</code>, or <code>DELETE</code>
+     * statement or an SQL statement that returns nothing, on the executor of the
+     * Connection. The asynchronous calls of all the statements of a Connection
+     * are run one after the other.
+     *
+     * @param sql an SQL Data Manipulation Language (DML) statement
+     * @return the future row count. Completes exceptionally with the
+     *         {@code SQLException} thrown by {@link #executeUpdate(String)}.
+     * @see AceQLConnection#setAsyncExecutor(Executor)
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(String sql) {
+	return executeUpdateAsync(sql, aceQLConnection.getAsyncExecutor());
+    }
+
+    /**
+     * Executes asynchronously the given SQL statement, which may be an
+     * <code>INSERT</code>, <code>UPDATE</code>, or <code>DELETE</code>
+     * statement or an SQL statement that returns nothing, on the passed
+     * executor.
+     *
+     * @param sql      an SQL Data Manipulation Language (DML) statement
+     * @param executor the executor to use for this call
+     * @return the future row count. Completes exceptionally with the
+     *         {@code SQLException} thrown by {@link #executeUpdate(String)}.
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(final String sql, Executor executor) {
+	return AsyncCallUtil.supplyAsync(new Callable<Integer>() {
+
+	    @Override
+	    public Integer call() throws SQLException {
+		synchronized (aceQLConnection) {
+		    return executeUpdate(sql);
+		}
+	    }
+	}, executor);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -303,6 +417,11 @@ public class AceQLStatement extends AbstractStatement implements Statement {
      */
     @Override
     public void close() throws SQLException {
+	for (AceQLResultSet streamingResultSet : localStreamingResultSets) {
+	    streamingResultSet.close();
+	}
+	localStreamingResultSets.clear();
+
 	for (File file : localResultSetFiles) {
 	    if (! KEEP_EXECUTION_FILES_DEBUG) {
 		file.delete();
@@ -310,6 +429,207 @@ public class AceQLStatement extends AbstractStatement implements Statement {
 	}
     }
 
+    /**
+     * Says if executeQuery() returns a forward only {@code ResultSet} that reads
+     * the rows directly from the HTTP response.
+     *
+     * @return true if the resultSetStreaming or the pipelinedResultSet property is
+     *         set
+     */
+    protected boolean isForwardOnlyResultSet() {
+	return aceQLHttpApi.getAceQLConnectionInfo().isResultSetStreaming()
+		|| aceQLHttpApi.getAceQLConnectionInfo().isPipelinedResultSet();
+    }
+
+    /**
+     * Gets the number of rows of the pages to ask to the server. The fetch size
+     * is only a hint: the result is paged only if the pagedResultSet property
+     * is set, as a paged {@code ResultSet} is forward only.
+     *
+     * @return the fetch size if the pagedResultSet property is set, else 0
+     * @throws SQLException if any Exception occurs
+     */
+    protected int getPageSize() throws SQLException {
+	return aceQLHttpApi.getAceQLConnectionInfo().isPagedResultSet() ? getFetchSize() : 0;
+    }
+
+    /**
+     * Builds a forward only {@code ResultSet} that reads the rows directly from
+     * the HTTP response of an /execute_query call. No local file is created.
+     *
+     * @param response the HTTP response of the /execute_query call
+     * @return the streaming {@code ResultSet}
+     * @throws SQLException if the server returns an error status
+     * @throws IOException
+     */
+    protected AceQLResultSet buildStreamingResultSet(HttpResponse response) throws SQLException, IOException {
+	RowParser rowParser = buildStreamingRowParser(response);
+	AceQLResultSet aceQLResultSet = new AceQLResultSet(rowParser, this);
+	localStreamingResultSets.add(aceQLResultSet);
+	return aceQLResultSet;
+    }
+
+    /**
+     * Builds a streaming mode RowParser on the HTTP response of an /execute_query
+     * or /fetch_cursor call, positioned before the first row.
+     *
+     * @param response the HTTP response
+     * @return the RowParser, after the read of the header
+     * @throws SQLException if the server returns an error status
+     * @throws IOException
+     */
+    private RowParser buildStreamingRowParser(HttpResponse response) throws SQLException, IOException {
+
+	int httpStatusCode = response.getStatusCode();
+	String httpFailureMessage = "HTTP FAILURE " + httpStatusCode + " (" + response.getStatusMessage() + ")";
+
+	InputStream in = response.getBody();
+	if (in == null) {
+	    throw new AceQLException(httpFailureMessage, 0, null, null, httpStatusCode);
+	}
+
+	InputStream inFinal = AceQLStatementUtil.getFinalInputStream(in,
+		aceQLHttpApi.getAceQLConnectionInfo().isGzipResult());
+
+	// Download and decompression are done in background while rows are read
+	if (aceQLHttpApi.getAceQLConnectionInfo().isPipelinedResultSet()) {
+	    inFinal = new PrefetchInputStream(inFinal);
+	}
+
+	RowParser rowParser = new RowParser(inFinal);
+
+	if (!rowParser.readHeader()) {
+	    rowParser.close();
+	    String errorMessage = rowParser.getErrorMessage();
+	    if (errorMessage == null) {
+		errorMessage = httpStatusCode != HttpURLConnection.HTTP_OK ? httpFailureMessage : "Unknown error.";
+	    }
+	    throw new AceQLException(errorMessage, rowParser.getErrorId(), null, rowParser.getStackTrace(),
+		    httpStatusCode);
+	}
+
+	return rowParser;
+    }
+
+    /**
+     * Builds the stream an /execute or /execute_query result is downloaded to.
+     * The result is kept in memory while its size does not exceed the
+     * resultSetMemoryThreshold property value, else it is written to the file.
+     *
+     * @param file the file to write the result to if too big
+     * @return the stream to download the result to
+     * @throws IOException
+     */
+    protected SpillOutputStream buildResultOutputStream(File file) throws IOException {
+	int threshold = aceQLHttpApi.getAceQLConnectionInfo().getResultSetMemoryThreshold() * 1024;
+	return new SpillOutputStream(file, threshold);
+    }
+
+    /**
+     * @param resultOut the stream the result has been downloaded to
+     * @return the result if kept in memory, null if written to file or empty
+     */
+    protected static byte[] getJsonContent(SpillOutputStream resultOut) {
+	if (!resultOut.isInMemory()) {
+	    return null;
+	}
+	byte[] jsonContent = resultOut.toByteArray();
+	return jsonContent.length > 0 ? jsonContent : null;
+    }
+
+    /**
+     * Builds the analyzer of the downloaded result, from memory if jsonContent is
+     * not null, else from file.
+     */
+    protected StreamResultAnalyzer buildStreamResultAnalyzer(File file, byte[] jsonContent,
+	    JsonResultScanner jsonResultScanner, HttpResponse response) {
+	if (jsonContent != null) {
+	    return new StreamResultAnalyzer(jsonContent, jsonResultScanner, response);
+	}
+	return new StreamResultAnalyzer(file, jsonResultScanner, response);
+    }
+
+    /**
+     * Says if the downloaded result is in binary columnar format. Servers that
+     * do not support it return a JSON result.
+     *
+     * @param file        the result file
+     * @param jsonContent the result if kept in memory, else null
+     * @return true if the result starts with the binary format magic bytes
+     * @throws IOException if the file can not be read
+     */
+    protected static boolean isBinaryResult(File file, byte[] jsonContent) throws IOException {
+	if (jsonContent != null) {
+	    return ColumnarRowReader.isBinaryResult(jsonContent, jsonContent.length);
+	}
+
+	if (!file.exists()) {
+	    return false;
+	}
+
+	byte[] head = new byte[ColumnarRowReader.MAGIC.length];
+	try (InputStream in = new FileInputStream(file)) {
+	    int length = IOUtils.read(in, head);
+	    return ColumnarRowReader.isBinaryResult(head, length);
+	}
+    }
+
+    /**
+     * Builds the ResultSet of a binary columnar result, decoded at once from
+     * memory if content is not null, else from file.
+     */
+    protected AceQLResultSet buildBinaryResultSet(File file, byte[] content) throws SQLException, IOException {
+	ColumnarRowReader columnarRowReader;
+	try (InputStream in = content != null ? new ByteArrayInputStream(content)
+		: new BufferedInputStream(new FileInputStream(file))) {
+	    columnarRowReader = ColumnarRowReader.read(in);
+	}
+	return new AceQLResultSet(columnarRowReader, this);
+    }
+
+    /**
+     * Builds the ResultSet of the downloaded result, from memory if jsonContent
+     * is not null, else from file. If paging has been asked, see
+     * {@link #getPageSize()}, and the server has returned a cursor id, the
+     * result is the first page of rows, and the ResultSet fetches the next ones
+     * when needed.
+     */
+    protected AceQLResultSet buildResultSet(File file, byte[] jsonContent, int rowCount,
+	    JsonResultScanner jsonResultScanner) throws SQLException {
+	AceQLResultSet aceQLResultSet = jsonContent != null
+		? new AceQLResultSet(jsonContent, this, rowCount, jsonResultScanner)
+		: new AceQLResultSet(file, this, rowCount, jsonResultScanner);
+
+	String cursorId = jsonResultScanner.getCursorId();
+	int pageSize = getPageSize();
+	if (cursorId != null && pageSize > 0) {
+	    aceQLResultSet.setPaged(cursorId, pageSize, new CursorPageFetcher());
+	    localStreamingResultSets.add(aceQLResultSet);
+	}
+	return aceQLResultSet;
+    }
+
+    /**
+     * Fetches the next pages of a server cursor with /fetch_cursor calls.
+     */
+    private class CursorPageFetcher implements PagedRowReader.PageFetcher {
+
+	@Override
+	public RowParser fetchPage(String cursorId, int fetchSize) throws SQLException {
+	    try {
+		HttpResponse response = aceQLHttpApi.fetchCursor(cursorId, fetchSize);
+		return buildStreamingRowParser(response);
+	    } catch (IOException e) {
+		throw new AceQLException(e.getMessage(), 0, e, null, aceQLHttpApi.getHttpStatusCode());
+	    }
+	}
+
+	@Override
+	public void closeCursor(String cursorId) throws SQLException {
+	    aceQLHttpApi.closeCursor(cursorId);
+	}
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -49,6 +49,19 @@ final public class ResultSetMetaDataGetter {
 	String jsonString = resultSetMetaDataParser.getJsonString();
 	resultSetMetaDataParser.close(); // Otw file won't be delete at ResultSet.close()
 
+	return getMetaData(jsonString);
+    }
+
+    /**
+     * Builds the ResultSetMetaData from its JSON string, as sent by the AceQL Http
+     * Server in the "ResultSetMetaData" value.
+     *
+     * @param jsonString the ResultSetMetaData JSON string. May be null.
+     * @return the ResultSet ResultSetMetaData, or null if jsonString is null
+     * @throws SQLException
+     */
+    public ResultSetMetaData getMetaData(String jsonString) throws SQLException {
+
 	ResultSetMetaData resultSetMetaData = null;
 
 	if (jsonString != null) {
@@ -41,6 +41,7 @@ import com.aceql.jdbc.commons.InternalWrapper;
 import com.aceql.jdbc.commons.main.AceQLResultSet;
 import com.aceql.jdbc.commons.main.advanced.jdbc.metadata.DatabaseMetaDataParamsBuilder;
 import com.aceql.jdbc.commons.main.http.AceQLHttpApi;
+import com.aceql.jdbc.commons.main.http.HttpResponse;
 import com.aceql.jdbc.commons.main.metadata.util.GsonWsUtil;
 import com.aceql.jdbc.commons.main.util.framework.FrameworkFileUtil;
 import com.aceql.jdbc.commons.main.util.framework.UniqueIDBuilder;
@@ -95,15 +96,13 @@ public class DatabaseMetaDataCaller {
 	    String jsonDatabaseMetaDataMethodCallDTO = GsonWsUtil.getJSonString(databaseMetaDataMethodCallDTO);
 
 	    // Build the Http Call and get the result as a file
-	    File file = callServerdAndBuildResultFile(jsonDatabaseMetaDataMethodCallDTO);
+	    File file = createResultFile();
+	    HttpResponse response = callServerdAndBuildResultFile(jsonDatabaseMetaDataMethodCallDTO, file);
 
-	    int httpStatusCode = aceQLHttpApi.getHttpStatusCode();
-
-	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(file, httpStatusCode,
-		    aceQLHttpApi.getHttpStatusMessage());
+	    StreamResultAnalyzer streamResultAnalyzer = new StreamResultAnalyzer(file, null, response);
 	    if (!streamResultAnalyzer.isStatusOk()) {
 		throw new AceQLException(streamResultAnalyzer.getErrorMessage(), streamResultAnalyzer.getErrorId(),
-			null, streamResultAnalyzer.getStackTrace(), httpStatusCode);
+			null, streamResultAnalyzer.getStackTrace(), streamResultAnalyzer.getHttpStatusCode());
 	    }
 
 
@@ -134,17 +133,17 @@ public class DatabaseMetaDataCaller {
     /**
      * Call the server and build a file from the result stream
      * @param jsonDatabaseMetaDataMethodCallDTO
-     * @return the create file
+     * @param file the file to write the result to
+     * @return the response of the call, with its body consumed
      * @throws IOException
      * @throws AceQLException
      * @throws FileNotFoundException
      */
-    private File callServerdAndBuildResultFile(String jsonDatabaseMetaDataMethodCallDTO)
+    private HttpResponse callServerdAndBuildResultFile(String jsonDatabaseMetaDataMethodCallDTO, File file)
 	    throws IOException, AceQLException, FileNotFoundException {
 
-	File file = createResultFile();
-
-	try (InputStream in = aceQLHttpApi.callDatabaseMetaDataMethod(jsonDatabaseMetaDataMethodCallDTO);
+	HttpResponse response = aceQLHttpApi.callDatabaseMetaDataMethod(jsonDatabaseMetaDataMethodCallDTO);
+	try (InputStream in = response.getBody();
 		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));) {
 	    if (in != null) {
 		// Do not use resource try {} ==> We don't want to create an
@@ -155,7 +154,7 @@ public class DatabaseMetaDataCaller {
 	    }
 	}
 
-	return file;
+	return response;
     }
 
     private static File createResultFile() {
@@ -1,14 +1,11 @@
 package com.aceql.jdbc.commons.main.http;
 
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
-import org.apache.commons.io.IOUtils;
-
 import com.aceql.jdbc.commons.AceQLException;
 
 /**
@@ -47,33 +44,15 @@ public class AceQLBlobApi {
 	    Map<String, String> parameters = new HashMap<String, String>();
 	    parameters.put("blob_id", blobId);
 
-	    ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-	    String result = null;
-	    InputStream in = null;
-	    try {
-		URL theUrl = new URL(url + action);
-		in = httpManager.callWithPost(theUrl, parameters);
-		if (in != null) {
-		    IOUtils.copy(in, out);
-		    result = out.toString("UTF-8");
-		}
-	    } finally {
-		if (in != null) {
-		    try {
-			in.close();
-		    } catch (Exception ignore) {
-			// ignore
-		    }
-		}
-	    }
+	    URL theUrl = new URL(url + action);
+	    HttpResponse response = httpManager.post(theUrl, parameters);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    String lengthStr = resultAnalyzer.getValue("length");
@@ -147,7 +126,7 @@ public class AceQLBlobApi {
 	    InputStream in = null;
 
 	    URL theUrl = new URL(url + action);
-	    in = httpManager.callWithPost(theUrl, parameters);
+	    in = httpManager.post(theUrl, parameters).getBody();
 
 	    // if (httpStatusCode != HttpURLConnection.HTTP_OK) {
 	    // throw new AceQLException("HTTP_FAILURE" + " " + httpStatusCode
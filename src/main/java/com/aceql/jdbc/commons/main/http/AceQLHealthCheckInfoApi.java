@@ -28,13 +28,13 @@ public class AceQLHealthCheckInfoApi {
     public HealthCheckInfoDto getHealthCheckInfoDto() throws AceQLException {
 	try {
 	    String action = "health_check_info";
-	    String result = httpManager.callWithGet(url + action);
+	    HttpResponse response = httpManager.get(url + action);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    debug("HealthCheckInfoDto url+action: " + url+action);
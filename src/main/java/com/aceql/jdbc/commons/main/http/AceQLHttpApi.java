@@ -34,14 +34,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.aceql.jdbc.commons.AceQLException;
 import com.aceql.jdbc.commons.ConnectionInfo;
 import com.aceql.jdbc.commons.InternalWrapper;
+import com.aceql.jdbc.commons.ServerCapabilities;
 import com.aceql.jdbc.commons.main.AceQLSavepoint;
 import com.aceql.jdbc.commons.main.batch.UpdateCountsArrayDto;
 import com.aceql.jdbc.commons.main.metadata.dto.DatabaseInfoDto;
@@ -80,8 +84,8 @@ public class AceQLHttpApi {
     private String sessionId;
     private String database;
 
-    /** Always true and can not be changed */
-    private final boolean prettyPrinting = true;
+    /** False if the compact row format is asked */
+    private boolean prettyPrinting = true;
 
     private String url = null;
 
@@ -101,6 +105,15 @@ public class AceQLHttpApi {
 
     private ConnectionInfo connectionInfo;
 
+    /** The local copy of the server connection state */
+    private ConnectionStateCache connectionStateCache;
+
+    /** Set when the server has confirmed that it applies deferred changes */
+    private volatile boolean deferredConnectionStateConfirmed = false;
+
+    /** Set if the server has not confirmed deferred connection state changes */
+    private volatile boolean deferredConnectionStateUnconfirmed = false;
+
     /**
      * Login on the AceQL server and connect to a database
      * 
@@ -111,6 +124,8 @@ public class AceQLHttpApi {
 	try {
 
 	    this.connectionInfo = Objects.requireNonNull(connectionInfo, "connectionInfo can not be null!");
+	    this.prettyPrinting = !connectionInfo.isCompactResultSet();
+	    this.connectionStateCache = new ConnectionStateCache(connectionInfo.isConnectionStateCache());
 
 	    this.serverUrl = Objects.requireNonNull(connectionInfo.getUrl(), "serverUrl can not be null!");
 	    this.username = Objects.requireNonNull(connectionInfo.getAuthentication().getUserName(),
@@ -127,69 +142,127 @@ public class AceQLHttpApi {
 
 	    UserLoginStore userLoginStore = new UserLoginStore(serverUrl, username, database);
 
-	    if (sessionId != null) {
+	    String connectionId;
+	    if (password == null) {
+		// The session id is passed instead of the password: no login possible
 		userLoginStore.setSessionId(sessionId);
+		connectionId = getConnection(sessionId);
+	    } else {
+		connectionId = connect(userLoginStore);
 	    }
 
-	    if (userLoginStore.isAlreadyLogged()) {
-		trace("Get a new connection with get_connection");
-		sessionId = userLoginStore.getSessionId();
+	    this.url = serverUrl + "/session/" + sessionId + "/connection/" + connectionId + "/";
 
-		String theUrl = serverUrl + "/session/" + sessionId + "/get_connection";
-		String result = httpManager.callWithGet(theUrl);
+	} catch (AceQLException aceQlException) {
+	    throw aceQlException;
+	} catch (Exception e) {
+	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
+	}
+    }
 
-		trace("result: " + result);
+    /**
+     * Gets a new server connection on the stored session of the user. If there
+     * is none, a single /login is done for all the concurrent callers, and the
+     * caller that has logged in uses the connection created by the login. A
+     * stored session rejected by the server is replaced by a new login.
+     *
+     * @param userLoginStore the store of the user sessions
+     * @return the connection id
+     * @throws Exception if the login or the /get_connection call fails
+     */
+    private String connect(UserLoginStore userLoginStore) throws Exception {
+	final AtomicReference<String> loginConnectionId = new AtomicReference<String>();
+	Callable<String> login = new Callable<String>() {
 
-		ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-			httpManager.getHttpStatusMessage());
+	    @Override
+	    public String call() throws Exception {
+		return login(loginConnectionId);
+	    }
+	};
 
-		if (!resultAnalyzer.isStatusOk()) {
-		    throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			    resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
-		}
+	sessionId = userLoginStore.getSessionId(login);
+	if (loginConnectionId.get() != null) {
+	    return loginConnectionId.get();
+	}
 
-		String connectionId = resultAnalyzer.getValue("connection_id");
-		trace("Ok. New Connection created: " + connectionId);
+	try {
+	    return getConnection(sessionId);
+	} catch (AceQLException aceQlException) {
+	    // Session expired or closed on server side: log in again, once
+	    trace("Stored session rejected: " + aceQlException.getMessage());
+	    userLoginStore.invalidate(sessionId);
+	}
 
-		this.url = serverUrl + "/session/" + sessionId + "/connection/" + connectionId + "/";
+	sessionId = userLoginStore.getSessionId(login);
+	if (loginConnectionId.get() != null) {
+	    return loginConnectionId.get();
+	}
+	return getConnection(sessionId);
+    }
 
-	    } else {
-		String url = serverUrl + "/database/" + database + "/username/" + username + "/login";
+    /**
+     * Calls /login API.
+     *
+     * @param connectionId set with the id of the connection created by the login
+     * @return the new session id
+     * @throws Exception if any Exception occurs
+     */
+    private String login(AtomicReference<String> connectionId) throws Exception {
+	String url = serverUrl + "/database/" + database + "/username/" + username + "/login";
 
-		Map<String, String> parameters = new HashMap<String, String>();
-		parameters.put("password", new String(password));
-		parameters.put("client_version", VersionValues.VERSION);
+	Map<String, String> parameters = new HashMap<String, String>();
+	parameters.put("password", new String(password));
+	parameters.put("client_version", VersionValues.VERSION);
 
-		String result = httpManager.callWithPostReturnString(new URL(url), parameters);
+	HttpResponse response = httpManager.post(new URL(url), parameters);
+	String result = response.readString();
 
-		InternalWrapper.setCreationDateTime(connectionInfo, Instant.now());
+	InternalWrapper.setCreationDateTime(connectionInfo, Instant.now());
 
-		trace("result: " + result);
+	trace("result: " + result);
 
-		ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-			httpManager.getHttpStatusMessage());
+	ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 
-		if (!resultAnalyzer.isStatusOk()) {
-		    throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			    resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
-		}
+	if (!resultAnalyzer.isStatusOk()) {
+	    throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
+		    resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
+	}
 
-		trace("Ok. Connected! ");
-		sessionId = resultAnalyzer.getValue("session_id");
-		String connectionId = resultAnalyzer.getValue("connection_id");
-		trace("sessionId   : " + sessionId);
-		trace("connectionId: " + connectionId);
+	trace("Ok. Connected! ");
+	String newSessionId = resultAnalyzer.getValue("session_id");
+	connectionId.set(resultAnalyzer.getValue("connection_id"));
+	trace("sessionId   : " + newSessionId);
+	trace("connectionId: " + connectionId.get());
+	return newSessionId;
+    }
 
-		this.url = serverUrl + "/session/" + sessionId + "/connection/" + connectionId + "/";
+    /**
+     * Calls /get_connection API on an existing session.
+     *
+     * @param sessionId the session id
+     * @return the id of the new connection
+     * @throws AceQLException if the server rejects the session
+     * @throws IOException    if any I/O error occurs
+     */
+    private String getConnection(String sessionId) throws AceQLException, IOException {
+	trace("Get a new connection with get_connection");
 
-		userLoginStore.setSessionId(sessionId);
-	    }
+	String theUrl = serverUrl + "/session/" + sessionId + "/get_connection";
+	HttpResponse response = httpManager.get(theUrl);
+	String result = response.readString();
 
-	} catch (AceQLException aceQlException) {
-	    throw aceQlException;
-	} catch (Exception e) {
-	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
+	trace("result: " + result);
+
+	ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
+
+	if (!resultAnalyzer.isStatusOk()) {
+	    throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
+		    resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	}
+
+	String connectionId = resultAnalyzer.getValue("connection_id");
+	trace("Ok. New Connection created: " + connectionId);
+	return connectionId;
     }
 
     /**
@@ -256,19 +329,20 @@ public class AceQLHttpApi {
     }
 
     private void callApiNoResult(String commandName, String commandOption) throws AceQLException {
+	flushPendingStateChanges();
 	try {
 
 	    if (commandName == null) {
 		Objects.requireNonNull(commandName, "commandName cannot be null!");
 	    }
 
-	    String result = callWithGet(commandName, commandOption);
+	    HttpResponse response = callWithGet(commandName, commandOption);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	} catch (AceQLException aceQlException) {
@@ -279,20 +353,20 @@ public class AceQLHttpApi {
     }
 
     private String callApiWithResult(String commandName, String commandOption) throws AceQLException {
-
+	flushPendingStateChanges();
 	try {
 
 	    if (commandName == null) {
 		Objects.requireNonNull(commandName, "commandName cannot be null!");
 	    }
 
-	    String result = callWithGet(commandName, commandOption);
+	    HttpResponse response = callWithGet(commandName, commandOption);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    return resultAnalyzer.getResult();
@@ -304,7 +378,7 @@ public class AceQLHttpApi {
 	}
     }
 
-    private String callWithGet(String action, String actionParameter) throws IOException {
+    private HttpResponse callWithGet(String action, String actionParameter) throws IOException {
 
 	String urlWithaction = url + action;
 
@@ -312,7 +386,7 @@ public class AceQLHttpApi {
 	    urlWithaction += "/" + actionParameter;
 	}
 
-	return httpManager.callWithGet(urlWithaction);
+	return httpManager.get(urlWithaction);
     }
 
     /*
@@ -437,7 +511,28 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public void commit() throws AceQLException {
-	callApiNoResult("commit", null);
+	if (!connectionStateCache.hasPendingChanges()) {
+	    callApiNoResult("commit", null);
+	    return;
+	}
+
+	try {
+	    // The deferred connection state changes are sent along
+	    URL theUrl = new URL(url + "commit");
+	    HttpResponse response = postWithPendingStateChanges(theUrl, new HashMap<String, String>());
+	    String result = response.readString();
+
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
+	    if (!resultAnalyzer.isStatusOk()) {
+		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
+	    }
+
+	} catch (AceQLException aceQlException) {
+	    throw aceQlException;
+	} catch (Exception e) {
+	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
+	}
     }
 
     /**
@@ -456,19 +551,20 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public Savepoint setSavepoint() throws AceQLException {
+	flushPendingStateChanges();
 	try {
 
 	    URL theUrl = new URL(url + "set_savepoint");
-	    String result = httpManager.callWithGet(theUrl.toString());
+	    HttpResponse response = httpManager.get(theUrl.toString());
+	    String result = response.readString();
 
 	    // Keep for debug:
 	    // System.out.println(result);
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    // If result is OK, it's a DTO
@@ -489,6 +585,7 @@ public class AceQLHttpApi {
      * @throws AceQLException
      */
     public Savepoint setSavePoint(String name) throws AceQLException {
+	flushPendingStateChanges();
 	try {
 	    Objects.requireNonNull(name, "Savepoint name cannot be null!");
 	    name = name.trim();
@@ -497,15 +594,15 @@ public class AceQLHttpApi {
 	    parametersMap.put("name", "" + name);
 
 	    URL theUrl = new URL(url + "set_named_savepoint");
-	    String result = httpManager.callWithPostReturnString(theUrl, parametersMap);
+	    HttpResponse response = httpManager.post(theUrl, parametersMap);
+	    String result = response.readString();
 
 	    // Keep for debug:System.out.println(result);
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    // If result is OK, it's a DTO
@@ -546,6 +643,7 @@ public class AceQLHttpApi {
      * @throws AceQLException
      */
     private void callSavepointAction(String action, Savepoint savepoint) throws AceQLException {
+	flushPendingStateChanges();
 	try {
 	    Objects.requireNonNull(savepoint, "savepoint cannot be null!");
 	    Map<String, String> parametersMap = new HashMap<String, String>();
@@ -570,13 +668,13 @@ public class AceQLHttpApi {
 	    parametersMap.put("name", "" + name);
 
 	    URL theUrl = new URL(url + action);
-	    String result = httpManager.callWithPostReturnString(theUrl, parametersMap);
+	    HttpResponse response = httpManager.post(theUrl, parametersMap);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	} catch (Exception e) {
@@ -591,7 +689,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public void setTransactionIsolation(String level) throws AceQLException {
-	callApiNoResult("set_transaction_isolation_level", level);
+	callApiSetState(ConnectionStateCache.SET_TRANSACTION_ISOLATION_LEVEL, level);
     }
 
     /**
@@ -601,7 +699,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public void setHoldability(String holdability) throws AceQLException {
-	callApiNoResult("set_holdability", holdability);
+	callApiSetState(ConnectionStateCache.SET_HOLDABILITY, holdability);
     }
 
     /**
@@ -612,7 +710,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public void setAutoCommit(boolean autoCommit) throws AceQLException {
-	callApiNoResult("set_auto_commit", autoCommit + "");
+	callApiSetState(ConnectionStateCache.SET_AUTO_COMMIT, autoCommit + "");
     }
 
     /**
@@ -625,7 +723,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public boolean getAutoCommit() throws AceQLException {
-	String result = callApiWithResult("get_auto_commit", null);
+	String result = callApiWithCachedResult(ConnectionStateCache.GET_AUTO_COMMIT);
 	return Boolean.parseBoolean(result);
     }
 
@@ -637,7 +735,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public boolean isReadOnly() throws AceQLException {
-	String result = callApiWithResult("is_read_only", null);
+	String result = callApiWithCachedResult(ConnectionStateCache.IS_READ_ONLY);
 	return Boolean.parseBoolean(result);
     }
 
@@ -649,7 +747,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public void setReadOnly(boolean readOnly) throws AceQLException {
-	callApiNoResult("set_read_only", readOnly + "");
+	callApiSetState(ConnectionStateCache.SET_READ_ONLY, readOnly + "");
     }
 
     /**
@@ -660,7 +758,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public String getHoldability() throws AceQLException {
-	String result = callApiWithResult("get_holdability", null);
+	String result = callApiWithCachedResult(ConnectionStateCache.GET_HOLDABILITY);
 	return result;
     }
 
@@ -676,7 +774,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public String getTransactionIsolation() throws AceQLException {
-	String result = callApiWithResult("get_transaction_isolation_level", null);
+	String result = callApiWithCachedResult(ConnectionStateCache.GET_TRANSACTION_ISOLATION_LEVEL);
 	return result;
     }
 
@@ -686,7 +784,7 @@ public class AceQLHttpApi {
      * @return
      */
     public String getCatalog() throws AceQLException {
-	String result = callApiWithResult("get_catalog", null);
+	String result = callApiWithCachedResult(ConnectionStateCache.GET_CATALOG);
 	return result;
     }
 
@@ -696,10 +794,215 @@ public class AceQLHttpApi {
      * @return
      */
     public String getSchema() throws AceQLException {
-	String result = callApiWithResult("get_schema", null);
+	String result = callApiWithCachedResult(ConnectionStateCache.GET_SCHEMA);
+	return result;
+    }
+
+    /**
+     * Forgets the local copy of the connection state: the next getters will call
+     * the server.
+     */
+    public void invalidateConnectionState() {
+	connectionStateCache.invalidate();
+    }
+
+    /**
+     * Calls a connection state getter API, or returns the value cached by a
+     * previous getter or setter call.
+     *
+     * @param getterName the getter API name, e.g. "get_auto_commit"
+     * @return the connection state value
+     * @throws AceQLException if any Exception occurs
+     */
+    private String callApiWithCachedResult(String getterName) throws AceQLException {
+	Optional<String> cached = connectionStateCache.get(getterName);
+	if (cached != null) {
+	    return cached.orElse(null);
+	}
+
+	String result = callApiWithResult(getterName, null);
+	connectionStateCache.put(getterName, result);
 	return result;
     }
 
+    /**
+     * Says if the connection state changes may be deferred: the
+     * deferredConnectionState property is set, the server version supports it,
+     * and the server has not failed to confirm previous changes. The changes are
+     * actually deferred once the server has confirmed them, see
+     * {@link #callApiSetStateWithConfirmation(String, String)}.
+     *
+     * @return true if the setters may only record the changes
+     */
+    private boolean isDeferredConnectionState() {
+	if (!connectionInfo.isDeferredConnectionState() || deferredConnectionStateUnconfirmed) {
+	    return false;
+	}
+
+	// Not negotiated means unknown support
+	ServerCapabilities serverCapabilities = connectionInfo.getServerCapabilities();
+	return serverCapabilities != null && serverCapabilities.isDeferredConnectionStateSupported();
+    }
+
+    /**
+     * Calls a connection state setter API, and caches the new value. The call is
+     * skipped if the value is known to be unchanged. If the changes are deferred,
+     * see {@link #isDeferredConnectionState()}, and the server has confirmed that
+     * it applies them, the change is only recorded, to be sent with the next
+     * call. Until then, the changes are always applied before the next call.
+     *
+     * @param setterName the setter API name, e.g. "set_auto_commit"
+     * @param value      the new value
+     * @throws AceQLException if any Exception occurs
+     */
+    private void callApiSetState(String setterName, String value) throws AceQLException {
+	String getterName = ConnectionStateCache.getGetterName(setterName);
+	if (connectionStateCache.isCached(getterName, value)) {
+	    return;
+	}
+
+	if (isDeferredConnectionState() && deferredConnectionStateConfirmed) {
+	    connectionStateCache.addPendingChange(setterName, value);
+	    return;
+	}
+
+	// The server state is unknown if the call fails
+	connectionStateCache.remove(getterName);
+	if (isDeferredConnectionState()) {
+	    callApiSetStateWithConfirmation(setterName, value);
+	} else {
+	    callApiNoResult(setterName, value);
+	}
+	connectionStateCache.put(getterName, value);
+    }
+
+    /**
+     * Calls a connection state setter API, with the change also passed as a
+     * deferred change parameter. The change is applied by the call in any case.
+     * If the server confirms the deferred change in the
+     * {@link HttpTransportResponse#APPLIED_STATE_HEADER} response header, the
+     * next changes are deferred. Otherwise, they are never deferred on this
+     * connection.
+     *
+     * @param setterName the setter API name, e.g. "set_auto_commit"
+     * @param value      the new value
+     * @throws AceQLException if any Exception occurs
+     */
+    private void callApiSetStateWithConfirmation(String setterName, String value) throws AceQLException {
+	flushPendingStateChanges();
+	try {
+	    Map<String, String> change = new HashMap<String, String>();
+	    change.put(setterName, value);
+
+	    URL theUrl = new URL(url + setterName + "/" + value);
+	    HttpResponse response = httpManager.post(theUrl, change);
+	    String result = response.readString();
+
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
+	    if (!resultAnalyzer.isStatusOk()) {
+		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
+	    }
+
+	    if (ConnectionStateCache.isApplied(change, response.getAppliedState())) {
+		deferredConnectionStateConfirmed = true;
+	    } else {
+		trace("Deferred connection state changes not confirmed by server: " + setterName);
+		deferredConnectionStateUnconfirmed = true;
+	    }
+
+	} catch (AceQLException aceQlException) {
+	    throw aceQlException;
+	} catch (Exception e) {
+	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
+	}
+    }
+
+    /**
+     * Sends the deferred connection state changes with their setter APIs. To be
+     * called before the calls that do not carry them.
+     *
+     * @throws AceQLException if any Exception occurs
+     */
+    private void flushPendingStateChanges() throws AceQLException {
+	sendStateChanges(connectionStateCache.takePendingChanges());
+    }
+
+    /**
+     * Sends connection state changes with their setter APIs. Their values are
+     * forgotten if a call fails.
+     *
+     * @param changes the values per setter API name
+     * @throws AceQLException if any Exception occurs
+     */
+    private void sendStateChanges(Map<String, String> changes) throws AceQLException {
+	if (changes.isEmpty()) {
+	    return;
+	}
+
+	try {
+	    for (Map.Entry<String, String> change : changes.entrySet()) {
+		callApiNoResult(change.getKey(), change.getValue());
+	    }
+	} catch (AceQLException aceQlException) {
+	    connectionStateCache.forget(changes);
+	    throw aceQlException;
+	}
+    }
+
+    /**
+     * Calls a statement or commit API, with the deferred connection state changes
+     * added to the parameters. The server applies them before the action, and
+     * lists them in the {@link HttpTransportResponse#APPLIED_STATE_HEADER}
+     * response header. <br>
+     * Changes are deferred only after the server has confirmed that it applies
+     * them. As they can not be safely applied after the action, a call that
+     * succeeds without confirming them fails, and the next setters are called
+     * immediately.
+     *
+     * @param theUrl        the API URL
+     * @param parametersMap the parameters of the call
+     * @return the response
+     * @throws IOException    if any I/O error occurs
+     * @throws AceQLException if the server has not confirmed the changes
+     */
+    private HttpResponse postWithPendingStateChanges(URL theUrl, Map<String, String> parametersMap)
+	    throws IOException, AceQLException {
+	Map<String, String> changes = connectionStateCache.takePendingChanges();
+	parametersMap.putAll(changes);
+
+	HttpResponse response;
+	try {
+	    response = httpManager.post(theUrl, parametersMap);
+	} catch (IOException | RuntimeException e) {
+	    connectionStateCache.forget(changes);
+	    throw e;
+	}
+
+	if (ConnectionStateCache.isApplied(changes, response.getAppliedState())) {
+	    return response;
+	}
+
+	// The server state is unknown
+	connectionStateCache.forget(changes);
+	if (!response.isStatusOk()) {
+	    // The failure of the action is reported by the caller
+	    return response;
+	}
+
+	deferredConnectionStateUnconfirmed = true;
+	if (response.getBody() != null) {
+	    try {
+		response.getBody().close();
+	    } catch (IOException ignore) {
+		// Ignore
+	    }
+	}
+	throw new AceQLException(
+		"Deferred connection state changes not confirmed by AceQL Server: " + changes.keySet(), 4, null,
+		null, response.getStatusCode());
+    }
+
     /**
      * Calls /execute API
      *
@@ -711,11 +1014,11 @@ public class AceQLHttpApi {
      * @param statementParameters the statement parameters in JSON format. Maybe
      *                            null for simple statement call.
      * @param maxRows             as set by Statement.setMaxRows(int)
-     * @return the input stream containing either an error, or the result set in
-     *         JSON format. See user documentation.
+     * @return the response, with a body containing either an error, or the
+     *         result set in JSON format. See user documentation.
      * @throws AceQLException if any Exception occurs
      */
-    public InputStream execute(String sql, boolean isPreparedStatement, Map<String, String> statementParameters,
+    public HttpResponse execute(String sql, boolean isPreparedStatement, Map<String, String> statementParameters,
 	    int maxRows) throws AceQLException {
 
 	try {
@@ -732,6 +1035,7 @@ public class AceQLHttpApi {
 	    parametersMap.put("gzip_result", "" + false); // Always false
 	    parametersMap.put("fill_result_set_meta_data", "" + fillResultSetMetaData);
 	    parametersMap.put("pretty_printing", "" + prettyPrinting);
+	    addRowFormat(parametersMap);
 	    parametersMap.put("max_rows", "" + maxRows);
 
 	    // Add the statement parameters map
@@ -745,9 +1049,10 @@ public class AceQLHttpApi {
 	    URL theUrl = new URL(url + action);
 	    debug("execute url: " + url);
 
-	    InputStream in = httpManager.callWithPost(theUrl, parametersMap);
-	    return in;
+	    return postWithPendingStateChanges(theUrl, parametersMap);
 
+	} catch (AceQLException aceQlException) {
+	    throw aceQlException;
 	} catch (Exception e) {
 	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
 	}
@@ -818,13 +1123,13 @@ public class AceQLHttpApi {
 
 	    URL theUrl = new URL(url + action);
 
-	    String result = httpManager.callWithPostReturnString(theUrl, parametersMap);
+	    HttpResponse response = postWithPendingStateChanges(theUrl, parametersMap);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    if (isStoredProcedure) {
@@ -843,7 +1148,7 @@ public class AceQLHttpApi {
     }
 
     public int[] executeBatch(File batchFileSqlOrders) throws AceQLException {
-
+	flushPendingStateChanges();
 	try {
 	    Objects.requireNonNull(batchFileSqlOrders, "batchFileSqlOrders cannot be null!");
 
@@ -864,13 +1169,13 @@ public class AceQLHttpApi {
 	    parametersMap.put("blob_id", blobId);
 	    debug("blobId: " + blobId);
 
-	    String result = httpManager.callWithPostReturnString(theUrl, parametersMap);
+	    HttpResponse response = httpManager.post(theUrl, parametersMap);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    UpdateCountsArrayDto updateCountsArrayDto = GsonWsUtil.fromJson(result, UpdateCountsArrayDto.class);
@@ -883,6 +1188,7 @@ public class AceQLHttpApi {
     }
 
     public int[] executePreparedStatementBatch(String sql, File batchFileParameters) throws AceQLException {
+	flushPendingStateChanges();
 	try {
 	    Objects.requireNonNull(sql, "sql cannot be null!");
 	    Objects.requireNonNull(batchFileParameters, "batchFileSqlOrders cannot be null!");
@@ -905,13 +1211,13 @@ public class AceQLHttpApi {
 	    parametersMap.put("blob_id", blobId);
 	    debug("blobId: " + blobId);
 
-	    String result = httpManager.callWithPostReturnString(theUrl, parametersMap);
+	    HttpResponse response = httpManager.post(theUrl, parametersMap);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    UpdateCountsArrayDto updateCountsArrayDto = GsonWsUtil.fromJson(result, UpdateCountsArrayDto.class);
@@ -928,13 +1234,13 @@ public class AceQLHttpApi {
      * 
      * @param serverQueryExecutorClassName	the class name to execute
      * @param params				the parameters to pass to the class name only method 
-     * @return the input stream containing either an error, or the result set in
-     *         JSON format. See user documentation.
+     * @return the response, with a body containing either an error, or the
+     *         result set in JSON format. See user documentation.
      * @throws AceQLException
      */
-    public InputStream executeServerQuery(String serverQueryExecutorClassName, List<Object> params)
+    public HttpResponse executeServerQuery(String serverQueryExecutorClassName, List<Object> params)
 	    throws AceQLException {
-
+	flushPendingStateChanges();
 	try {
 
 	    Objects.requireNonNull(serverQueryExecutorClassName, "serverQueryExecutorClassName cannot be null!");
@@ -952,6 +1258,7 @@ public class AceQLHttpApi {
 	    parametersMap.put("gzip_result", "" + connectionInfo.isGzipResult());
 	    parametersMap.put("fill_result_set_meta_data", "" + fillResultSetMetaData);
 	    parametersMap.put("pretty_printing", "" + prettyPrinting);
+	    addRowFormat(parametersMap);
 	    parametersMap.put("server_query_executor_dto", jsonString);
 
 	    trace("serverQueryExecutorClassName: " + serverQueryExecutorClassName);
@@ -960,14 +1267,50 @@ public class AceQLHttpApi {
 	    URL theUrl = new URL(url + action);
 	    debug("executeQuery url: " + url);
 
-	    InputStream in = httpManager.callWithPost(theUrl, parametersMap);
-	    return in;
+	    return httpManager.post(theUrl, parametersMap);
 
 	} catch (Exception e) {
 	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
 	}
     }
 
+    /**
+     * Calls /execute_pipeline API: the commands are run in order by the server,
+     * which stops at the first failing one.
+     * 
+     * @param jsonPipelineDto the {@code PipelineDto} in JSON format
+     * @return the response, with a body containing either an error, or the
+     *         ordered results of the commands in a <code>"results"</code> array.
+     *         Each result is the JSON returned by the API of the command.
+     * @throws AceQLException if any Exception occurs
+     */
+    public HttpResponse executePipeline(String jsonPipelineDto) throws AceQLException {
+
+	try {
+	    Objects.requireNonNull(jsonPipelineDto, "jsonPipelineDto cannot be null!");
+
+	    String action = "execute_pipeline";
+
+	    Map<String, String> parametersMap = new HashMap<String, String>();
+	    parametersMap.put("fill_result_set_meta_data", "" + fillResultSetMetaData);
+	    parametersMap.put("pretty_printing", "" + prettyPrinting);
+	    addRowFormat(parametersMap);
+	    parametersMap.put("pipeline_dto", jsonPipelineDto);
+
+	    trace("pipeline_dto: " + jsonPipelineDto);
+
+	    URL theUrl = new URL(url + action);
+	    debug("executePipeline url: " + url);
+
+	    return postWithPendingStateChanges(theUrl, parametersMap);
+
+	} catch (AceQLException aceQlException) {
+	    throw aceQlException;
+	} catch (Exception e) {
+	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
+	}
+    }
+
     /**
      * Calls /execute_query API
      *
@@ -980,12 +1323,37 @@ public class AceQLHttpApi {
      * @param statementParameters the statement parameters in JSON format. Maybe
      *                            null for simple statement call.
      * @param maxRows             as set by Statement.setMaxRows(int)
-     * @return the input stream containing either an error, or the result set in
-     *         JSON format. See user documentation.
+     * @return the response, with a body containing either an error, or the
+     *         result set in JSON format. See user documentation.
      * @throws AceQLException if any Exception occurs
      */
-    public InputStream executeQuery(String sql, boolean isPreparedStatement, boolean isStoredProcedure,
+    public HttpResponse executeQuery(String sql, boolean isPreparedStatement, boolean isStoredProcedure,
 	    Map<String, String> statementParameters, int maxRows) throws AceQLException {
+	return executeQuery(sql, isPreparedStatement, isStoredProcedure, statementParameters, maxRows, 0);
+    }
+
+    /**
+     * Calls /execute_query API, asking the server to send the result by pages.
+     *
+     * @param sql                 an SQL <code>SELECT</code> statement
+     * @param isPreparedStatement if true, the server will generate a prepared
+     *                            statement, else a simple statement
+     * @param isStoredProcedure   true if the call is a stored procedure
+     * @param statementParameters the statement parameters in JSON format. Maybe
+     *                            null for simple statement call.
+     * @param maxRows             as set by Statement.setMaxRows(int)
+     * @param fetchSize           the page size: Statement.getFetchSize() if the
+     *                            pagedResultSet property is set, else 0. If &gt;
+     *                            0, the server may return only the first
+     *                            <code>fetchSize</code> rows with a
+     *                            <code>"cursor_id"</code> to fetch the next
+     *                            ones with {@link #fetchCursor(String, int)}
+     * @return the response, with a body containing either an error, or the
+     *         result set in JSON format. See user documentation.
+     * @throws AceQLException if any Exception occurs
+     */
+    public HttpResponse executeQuery(String sql, boolean isPreparedStatement, boolean isStoredProcedure,
+	    Map<String, String> statementParameters, int maxRows, int fetchSize) throws AceQLException {
 
 	try {
 	    if (sql == null) {
@@ -1001,8 +1369,19 @@ public class AceQLHttpApi {
 	    parametersMap.put("gzip_result", "" + connectionInfo.isGzipResult());
 	    parametersMap.put("fill_result_set_meta_data", "" + fillResultSetMetaData);
 	    parametersMap.put("pretty_printing", "" + prettyPrinting);
+	    addRowFormat(parametersMap);
 	    parametersMap.put("max_rows", "" + maxRows);
 
+	    // Servers without cursor support ignore it and return all rows
+	    if (fetchSize > 0) {
+		parametersMap.put("fetch_size", "" + fetchSize);
+	    }
+
+	    // Servers without binary support ignore it and return JSON
+	    if (isBinaryResultAsked(isStoredProcedure, fetchSize)) {
+		parametersMap.put("format", "binary");
+	    }
+
 	    // Add the statement parameters map
 	    if (statementParameters != null) {
 		parametersMap.putAll(statementParameters);
@@ -1014,13 +1393,87 @@ public class AceQLHttpApi {
 	    URL theUrl = new URL(url + action);
 	    debug("executeQuery url: " + url);
 
-	    InputStream in = httpManager.callWithPost(theUrl, parametersMap);
-	    return in;
+	    return postWithPendingStateChanges(theUrl, parametersMap);
+
+	} catch (AceQLException aceQlException) {
+	    throw aceQlException;
+	} catch (Exception e) {
+	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
+	}
+
+    }
+
+    /**
+     * Calls /fetch_cursor API
+     *
+     * @param cursorId  the cursor id returned with the previous rows
+     * @param fetchSize the max number of rows to return
+     * @return the response, with a body containing either an error, or the next
+     *         rows in JSON format, numbered from 1, with a
+     *         <code>"cursor_id"</code> if more rows remain.
+     * @throws AceQLException if any Exception occurs
+     */
+    public HttpResponse fetchCursor(String cursorId, int fetchSize) throws AceQLException {
+	flushPendingStateChanges();
+	try {
+	    Objects.requireNonNull(cursorId, "cursorId cannot be null!");
+
+	    String action = "fetch_cursor";
+
+	    Map<String, String> parametersMap = new HashMap<String, String>();
+	    parametersMap.put("cursor_id", cursorId);
+	    parametersMap.put("fetch_size", "" + fetchSize);
+	    parametersMap.put("gzip_result", "" + connectionInfo.isGzipResult());
+	    parametersMap.put("pretty_printing", "" + prettyPrinting);
+	    addRowFormat(parametersMap);
+
+	    trace("cursor_id: " + cursorId);
+
+	    URL theUrl = new URL(url + action);
+	    debug("fetchCursor url: " + url);
+
+	    return httpManager.post(theUrl, parametersMap);
 
 	} catch (Exception e) {
 	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
 	}
+    }
+
+    /**
+     * Calls /close_cursor API: releases a server cursor whose rows have not all
+     * been fetched.
+     *
+     * @param cursorId the cursor id
+     * @throws AceQLException if any Exception occurs
+     */
+    public void closeCursor(String cursorId) throws AceQLException {
+	callApiNoResult("close_cursor", cursorId);
+    }
+
+    /**
+     * Asks the compact row format if the compactResultSet property is set.
+     * Servers that do not support it ignore the parameter.
+     *
+     * @param parametersMap the parameters of the call
+     */
+    private void addRowFormat(Map<String, String> parametersMap) {
+	if (connectionInfo.isCompactResultSet()) {
+	    parametersMap.put("row_format", "compact");
+	}
+    }
 
+    /**
+     * Says if the binary columnar result format is to be asked: only for the
+     * result sets that are fully downloaded before being read.
+     *
+     * @param isStoredProcedure true if the call is a stored procedure
+     * @param fetchSize         the page size, 0 if the result is not paged
+     * @return true if the binaryResultSet property is set and the result is
+     *         neither streamed nor paged
+     */
+    private boolean isBinaryResultAsked(boolean isStoredProcedure, int fetchSize) {
+	return connectionInfo.isBinaryResultSet() && !isStoredProcedure && fetchSize <= 0
+		&& !connectionInfo.isResultSetStreaming() && !connectionInfo.isPipelinedResultSet();
     }
 
     /**
@@ -1062,6 +1515,7 @@ public class AceQLHttpApi {
     }
 
     public void blobUpload(String blobId, List<Byte> bytes, long totalLength) throws AceQLException {
+	flushPendingStateChanges();
 	byte[] byteArray = new byte[bytes.size()];
 	for (int i = 0; i < bytes.size(); i++) {
 	    byteArray[i] = bytes.get(i);
@@ -1180,6 +1634,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public long getBlobLength(String blobId) throws AceQLException {
+	flushPendingStateChanges();
 	AceQLBlobApi aceQLBlobApi = new AceQLBlobApi(httpManager, url);
 	return aceQLBlobApi.getBlobLength(blobId);
     }
@@ -1193,6 +1648,7 @@ public class AceQLHttpApi {
      * @throws AceQLException if any Exception occurs
      */
     public byte[] blobDownloadGetBytes(String blobId) throws AceQLException {
+	flushPendingStateChanges();
 	AceQLBlobApi aceQLBlobApi = new AceQLBlobApi(httpManager, url);
 	return aceQLBlobApi.blobDownloadGetBytes(blobId);
     }
@@ -1227,7 +1683,7 @@ public class AceQLHttpApi {
 	return aceQLMetadataApi.getTable(tableName);
     }
 
-    public InputStream callDatabaseMetaDataMethod(String jsonDatabaseMetaDataMethodCallDTO) throws AceQLException {
+    public HttpResponse callDatabaseMetaDataMethod(String jsonDatabaseMetaDataMethodCallDTO) throws AceQLException {
 	AceQLMetadataApi aceQLMetadataApi = new AceQLMetadataApi(httpManager, url);
 	return aceQLMetadataApi.callDatabaseMetaDataMethod(jsonDatabaseMetaDataMethodCallDTO);
     }
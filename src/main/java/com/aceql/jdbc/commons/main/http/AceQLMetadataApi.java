@@ -31,7 +31,7 @@ public class AceQLMetadataApi {
 	this.url = url;
     }
 
-    public InputStream callDatabaseMetaDataMethod(String jsonDatabaseMetaDataMethodCallDTO) throws AceQLException {
+    public HttpResponse callDatabaseMetaDataMethod(String jsonDatabaseMetaDataMethodCallDTO) throws AceQLException {
 	try {
 
 	    Objects.requireNonNull(jsonDatabaseMetaDataMethodCallDTO, "jsonDatabaseMetaDataMethodCallDTO cannot be null!");
@@ -42,12 +42,8 @@ public class AceQLMetadataApi {
 	    parameters.put("json_database_meta_data_method_call_dto", jsonDatabaseMetaDataMethodCallDTO);
 	    parameters.put("fill_result_set_meta_data", "" + true);
 
-	    InputStream in = null;
-
 	    URL theUrl = new URL(url + action);
-
-	    in = httpManager.callWithPost(theUrl, parameters);
-	    return in;
+	    return httpManager.post(theUrl, parameters);
 
 	} catch (Exception e) {
 	    throw new AceQLException(e.getMessage(), 0, e, null, httpManager.getHttpStatusCode());
@@ -72,7 +68,7 @@ public class AceQLMetadataApi {
 
 	    URL theUrl = new URL(url + action);
 
-	    in = httpManager.callWithPost(theUrl, parameters);
+	    in = httpManager.post(theUrl, parameters).getBody();
 	    return in;
 
 	} catch (Exception e) {
@@ -84,13 +80,13 @@ public class AceQLMetadataApi {
     public JdbcDatabaseMetaDataDto getDbMetadata() throws AceQLException {
 	try {
 	    String action = "metadata_query/get_db_metadata";
-	    String result = httpManager.callWithGet(url + action);
+	    HttpResponse response = httpManager.get(url + action);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    // If result is OK, it's a DTO
@@ -115,13 +111,13 @@ public class AceQLMetadataApi {
 		parameters.put("table_type", tableType);
 	    }
 
-	    String result = httpManager.callWithPostReturnString(new URL(url + action), parameters);
+	    HttpResponse response = httpManager.post(new URL(url + action), parameters);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    // If result is OK, it's a DTO
@@ -143,13 +139,13 @@ public class AceQLMetadataApi {
 	    Map<String, String> parameters = new HashMap<String, String>();
 	    parameters.put("table_name", tableName);
 
-	    String result = httpManager.callWithPostReturnString(new URL(url + action), parameters);
+	    HttpResponse response = httpManager.post(new URL(url + action), parameters);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    // If result is OK, it's a DTO
@@ -167,13 +163,13 @@ public class AceQLMetadataApi {
     public DatabaseInfoDto getDatabaseInfoDto() throws AceQLException {
 	try {
 	    String action = "get_database_info";
-	    String result = httpManager.callWithGet(url + action);
+	    HttpResponse response = httpManager.get(url + action);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    // If result is OK, it's a DTO
@@ -192,13 +188,13 @@ public class AceQLMetadataApi {
     public LimitsInfoDto getLimitsInfoDto() throws AceQLException {
 	try {
 	    String action = "get_limits_info";
-	    String result = httpManager.callWithGet(url + action);
+	    HttpResponse response = httpManager.get(url + action);
+	    String result = response.readString();
 
-	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, httpManager.getHttpStatusCode(),
-		    httpManager.getHttpStatusMessage());
+	    ResultAnalyzer resultAnalyzer = new ResultAnalyzer(result, response);
 	    if (!resultAnalyzer.isStatusOk()) {
 		throw new AceQLException(resultAnalyzer.getErrorMessage(), resultAnalyzer.getErrorType(), null,
-			resultAnalyzer.getStackTrace(), httpManager.getHttpStatusCode());
+			resultAnalyzer.getStackTrace(), resultAnalyzer.getHttpStatusCode());
 	    }
 
 	    // If result is OK, it's a DTO
@@ -2,8 +2,9 @@ package com.aceql.jdbc.commons.main.http;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,8 +21,6 @@ public class BlobUploader {
 
     private AceQLHttpApi aceQLHttpApi;
     private String url;
-    private int connectTimeout = 0;
-    private int readTimeout = 0;
 
     private HttpManager httpManager;
     private AtomicBoolean cancelled;
@@ -36,8 +35,6 @@ public class BlobUploader {
 
 	this.aceQLHttpApi = Objects.requireNonNull(aceQLHttpApi, "aceQLHttpApi can not be null!");
 	this.url = aceQLHttpApi.getUrl();
-	connectTimeout = aceQLHttpApi.getAceQLConnectionInfo().getConnectTimeout();
-	readTimeout = aceQLHttpApi.getAceQLConnectionInfo().getReadTimeout();
 
 	this.httpManager = aceQLHttpApi.getHttpManager();
 	this.cancelled = aceQLHttpApi.getCancelled();
@@ -78,58 +75,58 @@ public class BlobUploader {
 	    URL theURL = new URL(url + "blob_upload");
 
 	    aceQLHttpApi.trace("request : " + theURL);
-	    HttpURLConnection conn = null;
 
-	    if (httpManager.getProxy() == null) {
-		conn = (HttpURLConnection) theURL.openConnection();
-	    } else {
-		conn = (HttpURLConnection) theURL.openConnection(httpManager.getProxy());
+	    final String boundary = MultipartUtility.buildBoundary();
+	    Map<String, String> headers = httpManager.buildRequestHeaders();
+	    headers.put("Content-Type", "multipart/form-data; boundary=" + boundary);
+
+	    // A zero or negative totalLength means unknown length
+	    final boolean compressed = HttpCompression.isUploadCompressed(aceQLHttpApi.getAceQLConnectionInfo(),
+		    totalLength > 0 ? totalLength : -1);
+	    if (compressed) {
+		HttpCompression.setContentEncoding(headers);
 	    }
 
-	    conn.setRequestProperty("Accept-Charset", "UTF-8");
-	    conn.setRequestMethod("POST");
-	    conn.setReadTimeout(readTimeout);
-	    conn.setDoOutput(true);
-	    AceQLHttpApi.addUserRequestProperties(conn, aceQLHttpApi.getAceQLConnectionInfo());
+	    HttpTransport.RequestBody requestBody = new HttpTransport.RequestBody() {
 
-	    final MultipartUtility http = new MultipartUtility(theURL, conn, connectTimeout, progress, cancelled,
-		    totalLength);
+		@Override
+		public void writeTo(OutputStream out) throws IOException, InterruptedException {
+		    OutputStream finalOut = compressed ? HttpCompression.compress(out) : out;
+		    MultipartUtility http = new MultipartUtility(finalOut, boundary, progress, cancelled, totalLength);
 
-	    Map<String, String> parameters = new HashMap<String, String>();
-	    parameters.put("blob_id", blobId);
+		    Map<String, String> parameters = new HashMap<String, String>();
+		    parameters.put("blob_id", blobId);
 
-	    for (Map.Entry<String, String> entry : parameters.entrySet()) {
-		// trace(entry.getKey() + "/" + entry.getValue());
-		http.addFormField(entry.getKey(), entry.getValue());
-	    }
+		    for (Map.Entry<String, String> entry : parameters.entrySet()) {
+			http.addFormField(entry.getKey(), entry.getValue());
+		    }
+
+		    // Server needs a unique file name to store the blob
+		    String fileName = UUID.randomUUID().toString() + ".blob";
 
-	    // Server needs a unique file name to store the blob
-	    String fileName = UUID.randomUUID().toString() + ".blob";
+		    http.addFilePart("file", inputStream, fileName);
+		    http.finish();
+		}
 
-	    http.addFilePart("file", inputStream, fileName);
-	    http.finish();
+		@Override
+		public long getContentLength() {
+		    return -1;
+		}
+	    };
 
-	    conn = http.getConnection();
+	    HttpTransportResponse response = httpManager.getHttpTransport().post(theURL, headers, requestBody);
 
 	    // Analyze the error after request execution
-	    int httpStatusCode = conn.getResponseCode();
-	    String httpStatusMessage = conn.getResponseMessage();
+	    int httpStatusCode = response.getStatusCode();
+	    String httpStatusMessage = response.getStatusMessage();
 
 	    aceQLHttpApi.trace("blob_id          : " + blobId);
 	    aceQLHttpApi.trace("httpStatusCode   : " + httpStatusCode);
 	    aceQLHttpApi.trace("httpStatusMessage: " + httpStatusMessage);
 
-	    InputStream inConn = null;
-
-	    String result;
-
-	    if (httpStatusCode == HttpURLConnection.HTTP_OK) {
-		inConn = conn.getInputStream();
-	    } else {
-		inConn = conn.getErrorStream();
-	    }
+	    InputStream inConn = HttpCompression.decode(response.getBody(), response.getContentEncoding());
 
-	    result = null;
+	    String result = null;
 
 	    if (inConn != null) {
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
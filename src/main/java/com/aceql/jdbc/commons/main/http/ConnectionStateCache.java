@@ -0,0 +1,250 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.http;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Local copy of the state of a server connection: auto-commit, read-only,
+ * holdability, transaction isolation, catalog and schema. <br>
+ * Values are stored as returned by the getter APIs, with the getter API name
+ * as key, e.g. "get_auto_commit". A value is filled by the first getter call,
+ * then updated by each successful setter call, so that the next getters do
+ * not call the server. <br>
+ * <br>
+ * The state changed on the server side by SQL statements, such as
+ * <code>SET TRANSACTION ISOLATION LEVEL</code> or <code>USE</code>, is not
+ * seen: {@link #invalidate()} must then be called. <br>
+ * <br>
+ * The cache also holds the deferred changes, with the setter API name as key,
+ * e.g. "set_auto_commit". They are sent as extra parameters of the next
+ * statement or commit call, or with their setter APIs before any other call.
+ * The server confirms the changes it has applied with the
+ * {@link HttpTransportResponse#APPLIED_STATE_HEADER} response header, see
+ * {@link #isApplied(Map, String)}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ConnectionStateCache {
+
+    public static final String GET_AUTO_COMMIT = "get_auto_commit";
+    public static final String IS_READ_ONLY = "is_read_only";
+    public static final String GET_HOLDABILITY = "get_holdability";
+    public static final String GET_TRANSACTION_ISOLATION_LEVEL = "get_transaction_isolation_level";
+    public static final String GET_CATALOG = "get_catalog";
+    public static final String GET_SCHEMA = "get_schema";
+
+    public static final String SET_AUTO_COMMIT = "set_auto_commit";
+    public static final String SET_READ_ONLY = "set_read_only";
+    public static final String SET_HOLDABILITY = "set_holdability";
+    public static final String SET_TRANSACTION_ISOLATION_LEVEL = "set_transaction_isolation_level";
+
+    private static final Map<String, String> GETTER_PER_SETTER;
+    static {
+	Map<String, String> map = new HashMap<>();
+	map.put(SET_AUTO_COMMIT, GET_AUTO_COMMIT);
+	map.put(SET_READ_ONLY, IS_READ_ONLY);
+	map.put(SET_HOLDABILITY, GET_HOLDABILITY);
+	map.put(SET_TRANSACTION_ISOLATION_LEVEL, GET_TRANSACTION_ISOLATION_LEVEL);
+	GETTER_PER_SETTER = Collections.unmodifiableMap(map);
+    }
+
+    /** The values per getter API name. Empty if the server value is null */
+    private final ConcurrentMap<String, Optional<String>> values = new ConcurrentHashMap<>();
+
+    /** The changes not yet sent to the server, per setter API name */
+    private final Map<String, String> pendingChanges = new LinkedHashMap<>();
+
+    private final boolean enabled;
+
+    /**
+     * Constructor.
+     *
+     * @param enabled if false, no value is kept and all getters call the server
+     */
+    public ConnectionStateCache(boolean enabled) {
+	this.enabled = enabled;
+    }
+
+    /**
+     * Gets a cached value.
+     *
+     * @param getterName the getter API name, e.g. "get_auto_commit"
+     * @return the cached value, empty if the server value is null, or null if
+     *         the value is not known
+     */
+    public Optional<String> get(String getterName) {
+	Objects.requireNonNull(getterName, "getterName cannot be null!");
+	return values.get(getterName);
+    }
+
+    /**
+     * Stores a value returned by a getter API or sent with a setter API.
+     *
+     * @param getterName the getter API name, e.g. "get_auto_commit"
+     * @param value      the value, may be null
+     */
+    public void put(String getterName, String value) {
+	Objects.requireNonNull(getterName, "getterName cannot be null!");
+	if (enabled) {
+	    values.put(getterName, Optional.ofNullable(value));
+	}
+    }
+
+    /**
+     * Says if a value is known and equal to the passed one. Setter calls with an
+     * unchanged value may then be skipped.
+     *
+     * @param getterName the getter API name, e.g. "get_auto_commit"
+     * @param value      the value to compare to
+     * @return true if the cached value is equal to the passed value
+     */
+    public boolean isCached(String getterName, String value) {
+	Optional<String> cached = get(getterName);
+	return cached != null && Objects.equals(cached.orElse(null), value);
+    }
+
+    /**
+     * Forgets a value, whose server state is not known anymore.
+     *
+     * @param getterName the getter API name, e.g. "get_auto_commit"
+     */
+    public void remove(String getterName) {
+	Objects.requireNonNull(getterName, "getterName cannot be null!");
+	values.remove(getterName);
+    }
+
+    /**
+     * Forgets all values: the next getters will call the server.
+     */
+    public void invalidate() {
+	values.clear();
+    }
+
+    /**
+     * Gets the getter API name of a setter API.
+     *
+     * @param setterName the setter API name, e.g. "set_auto_commit"
+     * @return the getter API name, e.g. "get_auto_commit"
+     */
+    public static String getGetterName(String setterName) {
+	String getterName = GETTER_PER_SETTER.get(Objects.requireNonNull(setterName, "setterName cannot be null!"));
+	if (getterName == null) {
+	    throw new IllegalArgumentException("Not a connection state setter API: " + setterName);
+	}
+	return getterName;
+    }
+
+    /**
+     * Records a change to be sent later to the server. The new value is
+     * immediately returned by {@link #get(String)}.
+     *
+     * @param setterName the setter API name, e.g. "set_auto_commit"
+     * @param value      the new value
+     */
+    public synchronized void addPendingChange(String setterName, String value) {
+	String getterName = getGetterName(setterName);
+	pendingChanges.put(setterName, value);
+	put(getterName, value);
+    }
+
+    /**
+     * @return true if some changes have not been sent to the server
+     */
+    public synchronized boolean hasPendingChanges() {
+	return !pendingChanges.isEmpty();
+    }
+
+    /**
+     * Removes the changes not yet sent to the server, to send them.
+     *
+     * @return the values per setter API name, in order of the setter calls.
+     *         Empty if none.
+     */
+    public synchronized Map<String, String> takePendingChanges() {
+	if (pendingChanges.isEmpty()) {
+	    return Collections.emptyMap();
+	}
+	Map<String, String> changes = new LinkedHashMap<>(pendingChanges);
+	pendingChanges.clear();
+	return changes;
+    }
+
+    /**
+     * Forgets the values of changes whose sending has failed: their server state
+     * is not known anymore.
+     *
+     * @param changes the values per setter API name
+     */
+    public void forget(Map<String, String> changes) {
+	for (String setterName : changes.keySet()) {
+	    remove(getGetterName(setterName));
+	}
+    }
+
+    /**
+     * Says if the server has confirmed that it has applied all the changes sent
+     * with a call.
+     *
+     * @param changes      the values per setter API name sent with the call
+     * @param appliedState the setter API names applied by the server, comma
+     *                     separated, as returned in the
+     *                     {@link HttpTransportResponse#APPLIED_STATE_HEADER}
+     *                     header. May be null.
+     * @return true if all the changes are listed in appliedState
+     */
+    public static boolean isApplied(Map<String, String> changes, String appliedState) {
+	if (changes.isEmpty()) {
+	    return true;
+	}
+	if (appliedState == null) {
+	    return false;
+	}
+
+	Set<String> applied = new HashSet<>();
+	for (String setterName : appliedState.split(",")) {
+	    applied.add(setterName.trim());
+	}
+	return applied.containsAll(changes.keySet());
+    }
+
+    /**
+     * @return true if values are kept
+     */
+    public boolean isEnabled() {
+	return enabled;
+    }
+
+    @Override
+    public synchronized String toString() {
+	return "ConnectionStateCache [enabled=" + enabled + ", values=" + values + ", pendingChanges="
+		+ pendingChanges + "]";
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes the parameters of a POST request in
+ * <code>application/x-www-form-urlencoded</code> format directly to the
+ * request output stream. <br>
+ * The output is the same as {@code URLEncoder.encode(s, "UTF-8")} on each
+ * name and value, but the chars are encoded one by one into a single bounded
+ * buffer: no intermediate String or byte array of the size of the body is
+ * created, whatever the size of the SQL text and parameter values.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class FormUrlEncoder {
+
+    /** The max size of the encode buffer */
+    public static final int BUFFER_SIZE = 8 * 1024;
+
+    /** The max number of bytes of an encoded char: 4 UTF-8 bytes as %XX */
+    private static final int MAX_ENCODED_CHAR_LENGTH = 12;
+
+    /** The ASCII chars that are not encoded */
+    private static final boolean[] SAFE_CHARS = new boolean[128];
+
+    private static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D',
+	    'E', 'F' };
+
+    static {
+	for (char c = 'a'; c <= 'z'; c++) {
+	    SAFE_CHARS[c] = true;
+	}
+	for (char c = 'A'; c <= 'Z'; c++) {
+	    SAFE_CHARS[c] = true;
+	}
+	for (char c = '0'; c <= '9'; c++) {
+	    SAFE_CHARS[c] = true;
+	}
+	SAFE_CHARS['.'] = true;
+	SAFE_CHARS['-'] = true;
+	SAFE_CHARS['*'] = true;
+	SAFE_CHARS['_'] = true;
+    }
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param out        the stream to write the encoded parameters to
+     * @param bufferSize the size of the encode buffer, at least
+     *                   {@value #MAX_ENCODED_CHAR_LENGTH}
+     */
+    public FormUrlEncoder(OutputStream out, int bufferSize) {
+	this.out = Objects.requireNonNull(out, "out cannot be null!");
+	this.buffer = new byte[Math.max(bufferSize, MAX_ENCODED_CHAR_LENGTH)];
+    }
+
+    /**
+     * Writes the parameters to the stream, with a buffer sized to the encoded
+     * length up to {@link #BUFFER_SIZE}. The stream is flushed but not closed.
+     *
+     * @param parameters the parameter names and values
+     * @param out        the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(Map<String, String> parameters, OutputStream out) throws IOException {
+	long length = getEncodedLength(parameters);
+	FormUrlEncoder formUrlEncoder = new FormUrlEncoder(out, (int) Math.min(length, BUFFER_SIZE));
+	formUrlEncoder.write(parameters);
+	formUrlEncoder.flush();
+    }
+
+    /**
+     * Returns the number of bytes written by {@link #write(Map)} for the
+     * parameters, without encoding them.
+     *
+     * @param parameters the parameter names and values
+     * @return the length of the encoded parameters
+     */
+    public static long getEncodedLength(Map<String, String> parameters) {
+	long length = 0;
+	boolean first = true;
+
+	for (Map.Entry<String, String> entry : parameters.entrySet()) {
+	    if (first) {
+		first = false;
+	    } else {
+		length++;
+	    }
+
+	    if (entry.getValue() != null) {
+		length += getEncodedLength(entry.getKey()) + 1 + getEncodedLength(entry.getValue());
+	    }
+	}
+	return length;
+    }
+
+    private static long getEncodedLength(String s) {
+	long length = 0;
+	int size = s.length();
+	for (int i = 0; i < size; i++) {
+	    char c = s.charAt(i);
+	    if (c < 0x80) {
+		length += SAFE_CHARS[c] || c == ' ' ? 1 : 3;
+	    } else if (c < 0x800) {
+		length += 6;
+	    } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(s.charAt(i + 1))) {
+		length += 12;
+		i++;
+	    } else if (Character.isSurrogate(c)) {
+		// Malformed: encoded as '?'
+		length += 3;
+	    } else {
+		length += 9;
+	    }
+	}
+	return length;
+    }
+
+    /**
+     * Encodes and writes the parameters. A parameter with a null value is
+     * skipped.
+     *
+     * @param parameters the parameter names and values
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Map<String, String> parameters) throws IOException {
+	boolean first = true;
+
+	for (Map.Entry<String, String> entry : parameters.entrySet()) {
+	    if (first) {
+		first = false;
+	    } else {
+		writeByte('&');
+	    }
+
+	    if (entry.getValue() != null) {
+		encode(entry.getKey());
+		writeByte('=');
+		encode(entry.getValue());
+	    }
+	}
+    }
+
+    /**
+     * Encodes and writes a string.
+     *
+     * @param s the string to encode
+     * @throws IOException if an I/O error occurs
+     */
+    public void encode(String s) throws IOException {
+	int size = s.length();
+	for (int i = 0; i < size; i++) {
+	    if (count > buffer.length - MAX_ENCODED_CHAR_LENGTH) {
+		flushBuffer();
+	    }
+
+	    char c = s.charAt(i);
+	    if (c < 0x80) {
+		if (SAFE_CHARS[c]) {
+		    buffer[count++] = (byte) c;
+		} else if (c == ' ') {
+		    buffer[count++] = '+';
+		} else {
+		    percentEncode(c);
+		}
+	    } else if (c < 0x800) {
+		percentEncode(0xC0 | (c >> 6));
+		percentEncode(0x80 | (c & 0x3F));
+	    } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(s.charAt(i + 1))) {
+		int codePoint = Character.toCodePoint(c, s.charAt(++i));
+		percentEncode(0xF0 | (codePoint >> 18));
+		percentEncode(0x80 | ((codePoint >> 12) & 0x3F));
+		percentEncode(0x80 | ((codePoint >> 6) & 0x3F));
+		percentEncode(0x80 | (codePoint & 0x3F));
+	    } else if (Character.isSurrogate(c)) {
+		// Same replacement as the UTF-8 encoder of URLEncoder
+		percentEncode('?');
+	    } else {
+		percentEncode(0xE0 | (c >> 12));
+		percentEncode(0x80 | ((c >> 6) & 0x3F));
+		percentEncode(0x80 | (c & 0x3F));
+	    }
+	}
+    }
+
+    private void percentEncode(int b) {
+	buffer[count++] = '%';
+	buffer[count++] = HEX_DIGITS[(b >> 4) & 0x0F];
+	buffer[count++] = HEX_DIGITS[b & 0x0F];
+    }
+
+    private void writeByte(char c) throws IOException {
+	if (count == buffer.length) {
+	    flushBuffer();
+	}
+	buffer[count++] = (byte) c;
+    }
+
+    private void flushBuffer() throws IOException {
+	if (count > 0) {
+	    out.write(buffer, 0, count);
+	    count = 0;
+	}
+    }
+
+    /**
+     * Writes the buffered bytes and flushes the stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+	flushBuffer();
+	out.flush();
+    }
+
+}
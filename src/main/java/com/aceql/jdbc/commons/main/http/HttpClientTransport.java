@@ -0,0 +1,484 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.aceql.jdbc.commons.main.util.AsyncCallUtil;
+import com.aceql.jdbc.commons.main.util.framework.FrameworkDebug;
+import com.aceql.jdbc.commons.main.util.framework.Tag;
+
+/**
+ * The {@link HttpTransport} backed by the {@code java.net.http.HttpClient} of
+ * Java 11+, using HTTP/2 when the server supports it. The requests of all the
+ * connections to a server share the same {@code HttpClient}, which multiplexes
+ * them on its connections instead of opening one connection per request. <br>
+ * <br>
+ * The driver is compiled for Java 8: the {@code java.net.http} API is called
+ * by reflection, and this transport is only available on Java 11+.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class HttpClientTransport implements HttpTransport {
+
+    /** The max length of a streamed body that is sent from memory */
+    static final int MAX_MEMORY_BODY_LENGTH = 1024 * 1024;
+
+    /**
+     * The shared clients, per proxy, proxy credentials and connect timeout. The
+     * proxy password is part of the key as a digest.
+     */
+    private static final ConcurrentMap<String, Object> clients = new ConcurrentHashMap<>();
+
+    public static boolean DEBUG = FrameworkDebug.isSet(HttpClientTransport.class);
+
+    /** Created once by {@link #getApi()}, then read without lock */
+    private static volatile Api api;
+
+    private final Object httpClient;
+    private final int readTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param proxy               the proxy to use, null if none
+     * @param proxyAuthentication the proxy credentials, null if none
+     * @param connectTimeout      the connect timeout in milliseconds, 0 for none
+     * @param readTimeout         the timeout in milliseconds to receive the
+     *                            response headers, 0 for none
+     * @throws IOException if the Java version is older than 11, or if the proxy
+     *                     is not an HTTP proxy
+     */
+    public HttpClientTransport(Proxy proxy, PasswordAuthentication proxyAuthentication, int connectTimeout,
+	    int readTimeout) throws IOException {
+	this.readTimeout = readTimeout;
+
+	String key = proxy + "|" + (proxyAuthentication != null ? proxyAuthentication.getUserName() : null) + "|"
+		+ digest(proxyAuthentication) + "|" + connectTimeout;
+	Object client = clients.get(key);
+	if (client == null) {
+	    client = getApi().newHttpClient(proxy, proxyAuthentication, connectTimeout);
+	    Object previous = clients.putIfAbsent(key, client);
+	    if (previous != null) {
+		client = previous;
+	    }
+	}
+	this.httpClient = client;
+    }
+
+    /**
+     * Returns the hex SHA-256 digest of the password of the proxy credentials, so
+     * that the password itself is not kept in the clients keys.
+     *
+     * @param proxyAuthentication the proxy credentials, null if none
+     * @return the digest, null if there are no credentials
+     * @throws IOException if SHA-256 is not available
+     */
+    private static String digest(PasswordAuthentication proxyAuthentication) throws IOException {
+	if (proxyAuthentication == null) {
+	    return null;
+	}
+
+	ByteBuffer password = StandardCharsets.UTF_8.encode(CharBuffer.wrap(proxyAuthentication.getPassword()));
+	try {
+	    MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+	    messageDigest.update(password);
+	    StringBuilder digest = new StringBuilder();
+	    for (byte b : messageDigest.digest()) {
+		digest.append(String.format("%02x", b));
+	    }
+	    return digest.toString();
+	} catch (NoSuchAlgorithmException e) {
+	    throw new IOException(Tag.PRODUCT + " Can not digest the proxy password: " + e.toString(), e);
+	} finally {
+	    if (password.hasArray()) {
+		Arrays.fill(password.array(), (byte) 0);
+	    }
+	}
+    }
+
+    /**
+     * Says if this transport may be used with the running Java version.
+     *
+     * @return true if java.net.http.HttpClient is available
+     */
+    public static boolean isAvailable() {
+	try {
+	    getApi();
+	    return true;
+	} catch (IOException e) {
+	    return false;
+	}
+    }
+
+    private static synchronized Api getApi() throws IOException {
+	if (api == null) {
+	    try {
+		api = new Api();
+	    } catch (ReflectiveOperationException e) {
+		throw new IOException(
+			Tag.PRODUCT + " The HttpClient transport requires Java 11 or higher. Cause: " + e.toString());
+	    }
+	}
+	return api;
+    }
+
+    @Override
+    public HttpTransportResponse get(URL url, Map<String, String> headers) throws IOException {
+	return send(url, headers, "GET", api.noBody());
+    }
+
+    @Override
+    public HttpTransportResponse post(URL url, Map<String, String> headers, byte[] body) throws IOException {
+	return send(url, headers, "POST", api.ofByteArray(body));
+    }
+
+    /**
+     * Sends a body of known length up to {@link #MAX_MEMORY_BODY_LENGTH} from
+     * memory. Streams the other bodies through a pipe, written on the shared
+     * daemon executor of {@link AsyncCallUtil} while the client sends them.
+     */
+    @Override
+    public HttpTransportResponse post(URL url, Map<String, String> headers, final RequestBody requestBody)
+	    throws IOException, InterruptedException {
+
+	long contentLength = requestBody.getContentLength();
+	if (contentLength >= 0 && contentLength <= MAX_MEMORY_BODY_LENGTH) {
+	    ByteArrayOutputStream out = new ByteArrayOutputStream((int) contentLength);
+	    requestBody.writeTo(out);
+	    return post(url, headers, out.toByteArray());
+	}
+
+	final PipedInputStream pipeIn = new PipedInputStream(64 * 1024);
+	final PipedOutputStream pipeOut = new PipedOutputStream(pipeIn);
+	final AtomicReference<Exception> writeException = new AtomicReference<>();
+
+	Runnable writer = new Runnable() {
+	    @Override
+	    public void run() {
+		try {
+		    requestBody.writeTo(pipeOut);
+		} catch (Exception e) {
+		    writeException.set(e);
+		} finally {
+		    // Ends the body, even if truncated by a failure
+		    closeQuietly(pipeOut);
+		}
+	    }
+	};
+	Supplier<InputStream> supplier = new Supplier<InputStream>() {
+	    @Override
+	    public InputStream get() {
+		return pipeIn;
+	    }
+	};
+
+	try {
+	    AsyncCallUtil.getDefaultExecutor().execute(writer);
+	} catch (RejectedExecutionException e) {
+	    closeQuietly(pipeIn);
+	    throw new IOException(Tag.PRODUCT + " Can not stream the request body: " + e.toString(), e);
+	}
+
+	try {
+	    HttpTransportResponse response = send(url, headers, "POST", api.ofInputStream(supplier));
+
+	    // The response of a truncated body is not used
+	    Exception e = writeException.get();
+	    if (e != null) {
+		closeQuietly(response.getBody());
+		rethrowWriteException(e);
+	    }
+	    return response;
+	} catch (IOException e) {
+	    // A failed or cancelled body write is the cause of the client failure
+	    rethrowWriteException(writeException.get());
+	    throw e;
+	} finally {
+	    closeQuietly(pipeIn);
+	}
+    }
+
+    private HttpTransportResponse send(URL url, Map<String, String> headers, String method, Object bodyPublisher)
+	    throws IOException {
+	try {
+	    URI uri = url.toURI();
+	    Object request = api.newRequest(uri, headers, method, bodyPublisher, readTimeout);
+	    return api.send(httpClient, request);
+	} catch (URISyntaxException e) {
+	    throw new IOException(e.getMessage(), e);
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new InterruptedIOException(url + " call interrupted.");
+	}
+    }
+
+    private static void rethrowWriteException(Exception e) throws IOException, InterruptedException {
+	if (e instanceof IOException) {
+	    throw (IOException) e;
+	}
+	if (e instanceof InterruptedException) {
+	    throw (InterruptedException) e;
+	}
+	if (e instanceof RuntimeException) {
+	    throw (RuntimeException) e;
+	}
+    }
+
+    private static void debug(String s) {
+	if (DEBUG) {
+	    System.out.println(new Date() + " " + s);
+	}
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+	if (closeable == null) {
+	    return;
+	}
+	try {
+	    closeable.close();
+	} catch (IOException ignore) {
+	    // Ignore
+	}
+    }
+
+    /**
+     * The reflective calls to the java.net.http API.
+     */
+    private static class Api {
+
+	private final Class<?> versionClass;
+	private final Class<?> redirectClass;
+	private final Method newClientBuilder;
+	private final Method clientVersion;
+	private final Method clientFollowRedirects;
+	private final Method clientConnectTimeout;
+	private final Method clientProxy;
+	private final Method clientAuthenticator;
+	private final Method clientBuild;
+	private final Method proxySelectorOf;
+
+	private final Method newRequestBuilder;
+	private final Method requestHeader;
+	private final Method requestTimeout;
+	private final Method requestMethod;
+	private final Method requestBuild;
+
+	private final Method noBody;
+	private final Method ofByteArray;
+	private final Method ofInputStream;
+	private final Object ofInputStreamHandler;
+
+	private final Method send;
+	private final Method responseStatusCode;
+	private final Method responseHeaders;
+	private final Method responseBody;
+	private final Method headersFirstValue;
+
+	private final Method durationOfMillis;
+
+	Api() throws ReflectiveOperationException {
+	    Class<?> clientClass = Class.forName("java.net.http.HttpClient");
+	    Class<?> clientBuilderClass = Class.forName("java.net.http.HttpClient$Builder");
+	    Class<?> requestClass = Class.forName("java.net.http.HttpRequest");
+	    Class<?> requestBuilderClass = Class.forName("java.net.http.HttpRequest$Builder");
+	    Class<?> bodyPublisherClass = Class.forName("java.net.http.HttpRequest$BodyPublisher");
+	    Class<?> bodyPublishersClass = Class.forName("java.net.http.HttpRequest$BodyPublishers");
+	    Class<?> responseClass = Class.forName("java.net.http.HttpResponse");
+	    Class<?> bodyHandlerClass = Class.forName("java.net.http.HttpResponse$BodyHandler");
+	    Class<?> bodyHandlersClass = Class.forName("java.net.http.HttpResponse$BodyHandlers");
+	    Class<?> headersClass = Class.forName("java.net.http.HttpHeaders");
+	    Class<?> durationClass = Class.forName("java.time.Duration");
+	    Class<?> proxySelectorClass = Class.forName("java.net.ProxySelector");
+
+	    versionClass = Class.forName("java.net.http.HttpClient$Version");
+	    redirectClass = Class.forName("java.net.http.HttpClient$Redirect");
+	    newClientBuilder = clientClass.getMethod("newBuilder");
+	    clientVersion = clientBuilderClass.getMethod("version", versionClass);
+	    clientFollowRedirects = clientBuilderClass.getMethod("followRedirects", redirectClass);
+	    clientConnectTimeout = clientBuilderClass.getMethod("connectTimeout", durationClass);
+	    clientProxy = clientBuilderClass.getMethod("proxy", proxySelectorClass);
+	    clientAuthenticator = clientBuilderClass.getMethod("authenticator", Authenticator.class);
+	    clientBuild = clientBuilderClass.getMethod("build");
+	    proxySelectorOf = proxySelectorClass.getMethod("of", InetSocketAddress.class);
+
+	    newRequestBuilder = requestClass.getMethod("newBuilder", URI.class);
+	    requestHeader = requestBuilderClass.getMethod("header", String.class, String.class);
+	    requestTimeout = requestBuilderClass.getMethod("timeout", durationClass);
+	    requestMethod = requestBuilderClass.getMethod("method", String.class, bodyPublisherClass);
+	    requestBuild = requestBuilderClass.getMethod("build");
+
+	    noBody = bodyPublishersClass.getMethod("noBody");
+	    ofByteArray = bodyPublishersClass.getMethod("ofByteArray", byte[].class);
+	    ofInputStream = bodyPublishersClass.getMethod("ofInputStream", Supplier.class);
+	    ofInputStreamHandler = bodyHandlersClass.getMethod("ofInputStream").invoke(null);
+
+	    send = clientClass.getMethod("send", requestClass, bodyHandlerClass);
+	    responseStatusCode = responseClass.getMethod("statusCode");
+	    responseHeaders = responseClass.getMethod("headers");
+	    responseBody = responseClass.getMethod("body");
+	    headersFirstValue = headersClass.getMethod("firstValue", String.class);
+
+	    durationOfMillis = durationClass.getMethod("ofMillis", long.class);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	Object newHttpClient(Proxy proxy, final PasswordAuthentication proxyAuthentication, int connectTimeout)
+		throws IOException {
+	    Object builder = invoke(newClientBuilder, null);
+	    invoke(clientVersion, builder, Enum.valueOf((Class) versionClass, "HTTP_2"));
+	    invoke(clientFollowRedirects, builder, Enum.valueOf((Class) redirectClass, "NORMAL"));
+
+	    if (connectTimeout > 0) {
+		invoke(clientConnectTimeout, builder, invoke(durationOfMillis, null, (long) connectTimeout));
+	    }
+
+	    if (proxy != null && proxy.type() != Proxy.Type.DIRECT) {
+		if (proxy.type() != Proxy.Type.HTTP) {
+		    throw new IOException(Tag.PRODUCT + " The HttpClient transport supports only HTTP proxies.");
+		}
+		invoke(clientProxy, builder, invoke(proxySelectorOf, null, (InetSocketAddress) proxy.address()));
+	    }
+
+	    if (proxyAuthentication != null) {
+		Authenticator authenticator = new Authenticator() {
+		    @Override
+		    protected PasswordAuthentication getPasswordAuthentication() {
+			return proxyAuthentication;
+		    }
+		};
+		invoke(clientAuthenticator, builder, authenticator);
+	    }
+
+	    return invoke(clientBuild, builder);
+	}
+
+	Object noBody() throws IOException {
+	    return invoke(noBody, null);
+	}
+
+	Object ofByteArray(byte[] body) throws IOException {
+	    return invoke(ofByteArray, null, (Object) body);
+	}
+
+	Object ofInputStream(Supplier<InputStream> supplier) throws IOException {
+	    return invoke(ofInputStream, null, supplier);
+	}
+
+	Object newRequest(URI uri, Map<String, String> headers, String method, Object bodyPublisher,
+		int readTimeout) throws IOException {
+	    Object builder = invoke(newRequestBuilder, null, uri);
+	    for (Map.Entry<String, String> entry : headers.entrySet()) {
+		try {
+		    invoke(requestHeader, builder, entry.getKey(), entry.getValue());
+		} catch (IllegalArgumentException e) {
+		    // Restricted header, e.g. Connection or Host, set by the client itself
+		    debug("Request header ignored: " + entry.getKey() + ". Cause: " + e.getMessage());
+		}
+	    }
+	    if (readTimeout > 0) {
+		invoke(requestTimeout, builder, invoke(durationOfMillis, null, (long) readTimeout));
+	    }
+
+	    invoke(requestMethod, builder, method, bodyPublisher);
+	    return invoke(requestBuild, builder);
+	}
+
+	HttpTransportResponse send(Object httpClient, Object request) throws IOException, InterruptedException {
+	    Object response;
+	    try {
+		response = send.invoke(httpClient, request, ofInputStreamHandler);
+	    } catch (InvocationTargetException e) {
+		if (e.getCause() instanceof InterruptedException) {
+		    throw (InterruptedException) e.getCause();
+		}
+		throw unwrap(e);
+	    } catch (IllegalAccessException e) {
+		throw new IOException(e.toString(), e);
+	    }
+
+	    int statusCode = (Integer) invoke(responseStatusCode, response);
+	    Object headers = invoke(responseHeaders, response);
+	    Optional<?> contentEncoding = (Optional<?>) invoke(headersFirstValue, headers, "Content-Encoding");
+	    Optional<?> appliedState = (Optional<?>) invoke(headersFirstValue, headers,
+		    HttpTransportResponse.APPLIED_STATE_HEADER);
+	    InputStream body = (InputStream) invoke(responseBody, response);
+
+	    // HTTP/2 has no status message
+	    return new HttpTransportResponse(statusCode, null, (String) contentEncoding.orElse(null),
+		    (String) appliedState.orElse(null), body);
+	}
+
+	private static Object invoke(Method method, Object target, Object... args) throws IOException {
+	    try {
+		return method.invoke(target, args);
+	    } catch (InvocationTargetException e) {
+		throw unwrap(e);
+	    } catch (IllegalAccessException e) {
+		throw new IOException(e.toString(), e);
+	    }
+	}
+
+	private static IOException unwrap(InvocationTargetException e) {
+	    Throwable cause = Objects.requireNonNull(e.getCause());
+	    if (cause instanceof IOException) {
+		return (IOException) cause;
+	    }
+	    if (cause instanceof RuntimeException) {
+		throw (RuntimeException) cause;
+	    }
+	    if (cause instanceof Error) {
+		throw (Error) cause;
+	    }
+	    return new IOException(cause.toString(), cause);
+	}
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.aceql.jdbc.commons.ConnectionInfo;
+import com.aceql.jdbc.commons.main.util.framework.Tag;
+
+/**
+ * HTTP level compression of the API calls: responses are negotiated with the
+ * {@code Accept-Encoding} header and decompressed while read, request bodies
+ * and uploads are optionally sent with {@code Content-Encoding: gzip}. <br>
+ * This is independent of the <code>gzip_result</code> parameter of
+ * /execute_query, that compresses the result content itself.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class HttpCompression {
+
+    public static final String GZIP = "gzip";
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Protected constructor, no instanciation.
+     */
+    protected HttpCompression() {
+
+    }
+
+    /**
+     * Asks compressed responses if the httpCompression property is set.
+     *
+     * @param headers        the request headers
+     * @param connectionInfo the connection info
+     */
+    public static void setAcceptEncoding(Map<String, String> headers, ConnectionInfo connectionInfo) {
+	if (connectionInfo.isHttpCompression()) {
+	    headers.put("Accept-Encoding", ACCEPT_ENCODING);
+	}
+    }
+
+    /**
+     * Says if a request body or an upload is to be sent compressed.
+     *
+     * @param connectionInfo the connection info
+     * @param length         the length of the body, -1 if unknown
+     * @return true if the uploadCompression property is set and the body is not
+     *         smaller than the compressionThreshold property
+     */
+    public static boolean isUploadCompressed(ConnectionInfo connectionInfo, long length) {
+	return connectionInfo.isUploadCompression()
+		&& (length < 0 || length >= connectionInfo.getCompressionThreshold());
+    }
+
+    /**
+     * Sets the {@code Content-Encoding} header of a compressed upload.
+     *
+     * @param headers the request headers
+     */
+    public static void setContentEncoding(Map<String, String> headers) {
+	headers.put("Content-Encoding", GZIP);
+    }
+
+    /**
+     * Wraps the output stream of a compressed upload. The returned stream must
+     * be closed to write the end of the compressed data.
+     *
+     * @param out the connection output stream
+     * @return the compressing output stream
+     * @throws IOException
+     */
+    public static OutputStream compress(OutputStream out) throws IOException {
+	return new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+
+    /**
+     * Decompresses a response body as said by its {@code Content-Encoding}
+     * header. Responses that are not compressed are returned as is, so small
+     * responses sent uncompressed by the server skip the codec.
+     *
+     * @param in              the response body, may be null
+     * @param contentEncoding the {@code Content-Encoding} header value, may be
+     *                        null
+     * @return the decompressed response body
+     * @throws IOException if the encoding is not supported
+     */
+    public static InputStream decode(InputStream in, String contentEncoding) throws IOException {
+	if (in == null || contentEncoding == null) {
+	    return in;
+	}
+
+	String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+	if (encoding.isEmpty() || encoding.equals("identity")) {
+	    return in;
+	}
+
+	boolean gzip = encoding.equals(GZIP) || encoding.equals("x-gzip");
+	if (!gzip && !encoding.equals("deflate")) {
+	    throw new IOException(Tag.PRODUCT + " Unsupported response Content-Encoding: " + contentEncoding);
+	}
+
+	// An empty body, as for some errors, has no compression header
+	PushbackInputStream pushbackIn = new PushbackInputStream(in, 2);
+	int b0 = pushbackIn.read();
+	if (b0 == -1) {
+	    return pushbackIn;
+	}
+	int b1 = pushbackIn.read();
+	if (b1 != -1) {
+	    pushbackIn.unread(b1);
+	}
+	pushbackIn.unread(b0);
+
+	if (gzip) {
+	    return new GZIPInputStream(pushbackIn, BUFFER_SIZE);
+	}
+
+	// "deflate" should be zlib wrapped (RFC 1950), but some servers send raw
+	// RFC 1951 data
+	final Inflater inflater = new Inflater(!isZlibHeader(b0, b1));
+	return new InflaterInputStream(pushbackIn, inflater, BUFFER_SIZE) {
+
+	    @Override
+	    public void close() throws IOException {
+		try {
+		    super.close();
+		} finally {
+		    // A passed Inflater is not released by close()
+		    inflater.end();
+		}
+	    }
+	};
+    }
+
+    /**
+     * Says if the two first bytes of a body are a zlib header: deflate
+     * compression method, window size up to 32K, and header checksum.
+     *
+     * @param cmf the first byte
+     * @param flg the second byte, -1 if none
+     * @return true if the body is zlib wrapped
+     */
+    private static boolean isZlibHeader(int cmf, int flg) {
+	return flg != -1 && (cmf & 0x0F) == 8 && (cmf >> 4) <= 7 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+}
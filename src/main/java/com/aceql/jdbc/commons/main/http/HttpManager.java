@@ -3,12 +3,11 @@
  */
 package com.aceql.jdbc.commons.main.http;
 
-import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.Authenticator;
 import java.net.HttpURLConnection;
@@ -18,12 +17,13 @@ import java.net.ProtocolException;
 import java.net.Proxy;
 import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.net.URLEncoder;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 
 import com.aceql.jdbc.commons.ConnectionInfo;
+import com.aceql.jdbc.commons.HttpTransportType;
 import com.aceql.jdbc.commons.main.util.framework.Tag;
 
 /**
@@ -35,8 +35,12 @@ public class HttpManager {
 
     private boolean TRACE_ON;
 
-    private int httpStatusCode = HttpURLConnection.HTTP_OK;
-    private String httpStatusMessage;
+    /**
+     * The status of the last response received by each thread, for the error
+     * reports of the callers. Results are analyzed with the HttpResponse returned
+     * by each call.
+     */
+    private final ThreadLocal<HttpResponse> lastResponseStatus = new ThreadLocal<HttpResponse>();
 
     /** Proxy to use with HttpUrlConnection */
     private Proxy proxy;
@@ -48,15 +52,25 @@ public class HttpManager {
 
     private ConnectionInfo connectionInfo;
 
+    /** The transport of the requests, HttpURLConnection or HTTP/2 HttpClient */
+    private HttpTransport httpTransport;
+
     public static final int MEDIUMB_BLOB_LENGTH_MB = 16;
     public static final int MEDIUM_BLOB_LENGTH = MEDIUMB_BLOB_LENGTH_MB * 1024 * 1024;
 
+    /**
+     * The encoded length above which a compressed POST body is streamed with
+     * chunked transfer encoding instead of being compressed in memory
+     */
+    public static final int CHUNKED_POST_LENGTH = 1024 * 1024;
+
     
     /**
      * Constructor
      * @param connectionInfo
+     * @throws IOException if the HttpClient transport is not available
      */
-    public HttpManager(ConnectionInfo connectionInfo) {
+    public HttpManager(ConnectionInfo connectionInfo) throws IOException {
 	this.connectionInfo = connectionInfo;
 	
 	this.proxy = connectionInfo.getProxy();
@@ -65,6 +79,12 @@ public class HttpManager {
 	this.readTimeout = connectionInfo.getReadTimeout();
 
 	setProxyCredentials();
+
+	if (connectionInfo.getHttpTransportType() == HttpTransportType.httpClient) {
+	    httpTransport = new HttpClientTransport(proxy, proxyAuthentication, connectTimeout, readTimeout);
+	} else {
+	    httpTransport = new UrlConnectionTransport(proxy, proxyAuthentication, connectTimeout, readTimeout);
+	}
     }
 
     /**
@@ -122,122 +142,38 @@ public class HttpManager {
 
     }
 
-    // FUTUR USAGE: HTTP/2 with HttpClient
-
-    // private int httpVersion = 1;
-    // OkHttpClient client = new OkHttpClient();
-    //
-    // private InputStream callWithGetInputStreamHttp2(String url)
-    // throws MalformedURLException, IOException, ProtocolException {
-    //
-    // Request request = new Request.Builder().url(url).build();
-    //
-    // Response response = client.newCall(request).execute();
-    // return response.body().byteStream();
-    //
-    // }
-
-
-    public InputStream callWithGetReturnStream(String url)
-	    throws MalformedURLException, IOException, UnsupportedEncodingException {
-
-	/*
-	 * if (httpVersion == 1) { return callWithGetInputStreamHttp11(url); } else {
-	 * return callWithGetInputStreamHttp2(url); }
-	 */
-
-	return callWithGetInputStreamHttp11(url);
-
-    }
-
-    public InputStream callWithGetInputStreamHttp11(String url)
-	    throws MalformedURLException, IOException, ProtocolException {
+    /**
+     * Calls the URL with GET, using the transport selected by the httpTransport
+     * property.
+     *
+     * @param url the URL to call
+     * @return the response of this call
+     */
+    public HttpResponse get(String url) throws MalformedURLException, IOException, ProtocolException {
 	URL theUrl = new URL(url);
-	HttpURLConnection conn = null;
-
-	if (this.proxy == null) {
-	    conn = (HttpURLConnection) theUrl.openConnection();
-	} else {
-	    conn = (HttpURLConnection) theUrl.openConnection(proxy);
-	}
-
-	conn.setRequestProperty("Accept-Charset", "UTF-8");
-	conn.setReadTimeout(readTimeout);
-	conn.setRequestMethod("GET");
-	conn.setDoOutput(true);
-	AceQLHttpApi.addUserRequestProperties(conn, connectionInfo);
 
 	trace();
 	trace("Executing request " + url);
 
-	httpStatusCode = conn.getResponseCode();
-	httpStatusMessage = conn.getResponseMessage();
-
-	InputStream in = null;
-	// if (httpStatusCode == HttpURLConnection.HTTP_OK || httpStatusCode ==
-	// HttpURLConnection.HTTP_MOVED_TEMP) {
-	if (httpStatusCode == HttpURLConnection.HTTP_OK) {
-	    in = conn.getInputStream();
-	} else {
-	    in = conn.getErrorStream();
-	}
-
-	return in;
-    }
-
-
-
-    public String callWithGet(String url)
-	    throws MalformedURLException, IOException, ProtocolException, UnsupportedEncodingException {
-
-	String responseBody;
-
-	try (InputStream in = callWithGetReturnStream(url)) {
-	    if (in == null)
-		return null;
-
-	    ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-	    IOUtils.copy(in, out);
-
-	    responseBody = out.toString("UTF-8");
-	    if (responseBody != null) {
-		responseBody = responseBody.trim();
-	    }
-
-	    trace("----------------------------------------");
-	    trace(responseBody);
-	    trace("----------------------------------------");
-
-	    return responseBody;
-	}
-
+	HttpTransportResponse response = httpTransport.get(theUrl, buildRequestHeaders());
+	return readResponse(response);
     }
 
-    public InputStream callWithPost(URL theUrl, Map<String, String> parameters)
+    /**
+     * Calls the URL with POST. The parameters are URL encoded while they are
+     * written to the request, without building the body in memory, except when
+     * a small body is compressed.
+     */
+    public HttpResponse post(URL theUrl, final Map<String, String> parameters)
 	    throws IOException, ProtocolException, SocketTimeoutException, UnsupportedEncodingException {
-	HttpURLConnection conn = null;
 
-	if (this.proxy == null) {
-	    conn = (HttpURLConnection) theUrl.openConnection();
-	} else {
-	    conn = (HttpURLConnection) theUrl.openConnection(proxy);
-	}
-
-	conn.setRequestProperty("Accept-Charset", "UTF-8");
-	conn.setReadTimeout(readTimeout);
-	conn.setRequestMethod("POST");
-	conn.setDoOutput(true);
-	AceQLHttpApi.addUserRequestProperties(conn, connectionInfo);
-	
-	TimeoutConnector timeoutConnector = new TimeoutConnector(conn, connectTimeout);
+	Map<String, String> headers = buildRequestHeaders();
+	headers.put("Content-Type", "application/x-www-form-urlencoded");
 
-	try (OutputStream connOut = timeoutConnector.getOutputStream();) {
-	    BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(connOut, "UTF-8"));
-	    writer.write(getPostDataString(parameters));
-
-	    // writer.flush();
-	    writer.close();
+	long length = FormUrlEncoder.getEncodedLength(parameters);
+	final boolean compressed = HttpCompression.isUploadCompressed(connectionInfo, length);
+	if (compressed) {
+	    HttpCompression.setContentEncoding(headers);
 	}
 
 	trace();
@@ -249,24 +185,77 @@ public class HttpManager {
 
 	trace("parameters.......: " + parameters);
 
-	// Analyze the error after request execution
-	httpStatusCode = conn.getResponseCode();
-	httpStatusMessage = conn.getResponseMessage();
-	
-	InputStream in = null;
-	if (httpStatusCode == HttpURLConnection.HTTP_OK) {
-	    in = conn.getInputStream();
+	HttpTransportResponse response = null;
+	if (compressed && length <= CHUNKED_POST_LENGTH) {
+	    ByteArrayOutputStream out = new ByteArrayOutputStream();
+	    try (OutputStream compressedOut = HttpCompression.compress(out)) {
+		FormUrlEncoder.write(parameters, compressedOut);
+	    }
+	    response = httpTransport.post(theUrl, headers, out.toByteArray());
 	} else {
-	    in = conn.getErrorStream();
+	    final long contentLength = compressed ? -1 : length;
+	    HttpTransport.RequestBody requestBody = new HttpTransport.RequestBody() {
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+		    if (compressed) {
+			try (OutputStream compressedOut = HttpCompression.compress(out)) {
+			    FormUrlEncoder.write(parameters, compressedOut);
+			}
+		    } else {
+			FormUrlEncoder.write(parameters, out);
+		    }
+		}
+
+		@Override
+		public long getContentLength() {
+		    return contentLength;
+		}
+	    };
+
+	    try {
+		response = httpTransport.post(theUrl, headers, requestBody);
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new InterruptedIOException(theUrl + " call interrupted.");
+	    }
 	}
 
-	return in;
+	return readResponse(response);
+    }
+
+    /**
+     * Builds the headers common to all the requests: charset, accepted
+     * compression and user request properties.
+     *
+     * @return the headers of a new request, that may be completed by the caller
+     */
+    public Map<String, String> buildRequestHeaders() {
+	Map<String, String> headers = new LinkedHashMap<String, String>();
+	headers.put("Accept-Charset", "UTF-8");
+	HttpCompression.setAcceptEncoding(headers, connectionInfo);
+	headers.putAll(connectionInfo.getRequestProperties());
+	return headers;
+    }
+
+    /**
+     * Builds the response of a call, with the decompressed body.
+     *
+     * @param response the response of the transport
+     * @return the response of the call
+     * @throws IOException
+     */
+    HttpResponse readResponse(HttpTransportResponse response) throws IOException {
+	lastResponseStatus.set(new HttpResponse(response.getStatusCode(), response.getStatusMessage(), null));
+	InputStream body = HttpCompression.decode(response.getBody(), response.getContentEncoding());
+	return new HttpResponse(response.getStatusCode(), response.getStatusMessage(), response.getAppliedState(),
+		body);
     }
 
     public byte [] callWithPostReturnBytes(URL theUrl, Map<String, String> parametersMap)
 	    throws IOException, ProtocolException, SocketTimeoutException, UnsupportedEncodingException {
 
-	try (InputStream in = callWithPost(theUrl, parametersMap);) {
+	try (InputStream in = post(theUrl, parametersMap).getBody();) {
 
 	    if (in != null) {
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -293,33 +282,37 @@ public class HttpManager {
 	}
     }
 
-    public String callWithPostReturnString(URL theUrl, Map<String, String> parametersMap)
-	    throws IOException, ProtocolException, SocketTimeoutException, UnsupportedEncodingException {
-
-	String result = null;
-
-	try (InputStream in = callWithPost(theUrl, parametersMap);) {
-
-	    if (in != null) {
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		IOUtils.copy(in, out);
-
-		result = out.toString("UTF-8");
-		trace("result: " + result);
-	    }
-	}
-	return result;
-    }
-
+    /**
+     * Returns the status code of the last response received by the calling
+     * thread, for error reports. Use {@link HttpResponse#getStatusCode()} to
+     * analyze the result of a call.
+     *
+     * @return the last status code of the calling thread, 200 if none
+     */
     public int getHttpStatusCode() {
-        return httpStatusCode;
+	HttpResponse response = lastResponseStatus.get();
+	return response != null ? response.getStatusCode() : HttpURLConnection.HTTP_OK;
     }
 
+    /**
+     * Returns the status message of the last response received by the calling
+     * thread, for error reports.
+     *
+     * @return the last status message of the calling thread, null if none
+     */
     public String getHttpStatusMessage() {
-        return httpStatusMessage;
+	HttpResponse response = lastResponseStatus.get();
+	return response != null ? response.getStatusMessage() : null;
     }
 
 
+    /**
+     * @return the transport of the requests
+     */
+    public HttpTransport getHttpTransport() {
+	return httpTransport;
+    }
+
     public int getConnectTimeout() {
         return connectTimeout;
     }
@@ -335,35 +328,5 @@ public class HttpManager {
     public PasswordAuthentication getPasswordAuthentication() {
         return proxyAuthentication;
     }
-
-    /**
-     * Formats & URL encode the the post data for POST.
-     *
-     * @param params the parameter names and values
-     * @return the formated and URL encoded string for the POST.
-     * @throws UnsupportedEncodingException
-     */
-    private static String getPostDataString(Map<String, String> requestParams) throws UnsupportedEncodingException {
-	StringBuilder result = new StringBuilder();
-	boolean first = true;
-
-	for (Map.Entry<String, String> entry : requestParams.entrySet()) {
-
-	    // trace(entry.getKey() + "/" + entry.getValue());
-
-	    if (first)
-		first = false;
-	    else
-		result.append("&");
-
-	    if (entry.getValue() != null) {
-		result.append(URLEncoder.encode(entry.getKey(), "UTF-8"));
-		result.append("=");
-		result.append(URLEncoder.encode(entry.getValue(), "UTF-8"));
-	    }
-	}
-
-	return result.toString();
-    }
 }
 
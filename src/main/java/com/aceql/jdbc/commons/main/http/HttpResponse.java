@@ -0,0 +1,135 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * The response of a call made by {@link HttpManager}: the HTTP status and the
+ * decompressed body. <br>
+ * A new instance is returned by each call, so the status read by a caller is
+ * always the one of its own request, even if other statements use the same
+ * Connection concurrently.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class HttpResponse {
+
+    private final int statusCode;
+    private final String statusMessage;
+    private final String appliedState;
+    private final InputStream body;
+
+    /**
+     * Constructor.
+     *
+     * @param statusCode    the HTTP status code
+     * @param statusMessage the HTTP status message, null if none (HTTP/2)
+     * @param body          the decompressed response or error body, null if
+     *                      none
+     */
+    public HttpResponse(int statusCode, String statusMessage, InputStream body) {
+	this(statusCode, statusMessage, null, body);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param statusCode    the HTTP status code
+     * @param statusMessage the HTTP status message, null if none (HTTP/2)
+     * @param appliedState  the connection state setter APIs applied by the
+     *                      server with the call, comma separated, null if none
+     * @param body          the decompressed response or error body, null if
+     *                      none
+     */
+    public HttpResponse(int statusCode, String statusMessage, String appliedState, InputStream body) {
+	this.statusCode = statusCode;
+	this.statusMessage = statusMessage;
+	this.appliedState = appliedState;
+	this.body = body;
+    }
+
+    /**
+     * @return the HTTP status code
+     */
+    public int getStatusCode() {
+	return statusCode;
+    }
+
+    /**
+     * @return the HTTP status message, null if none
+     */
+    public String getStatusMessage() {
+	return statusMessage;
+    }
+
+    /**
+     * @return the connection state setter APIs applied by the server with the
+     *         call, comma separated, as sent in the
+     *         {@link HttpTransportResponse#APPLIED_STATE_HEADER} header. Null if
+     *         none.
+     */
+    public String getAppliedState() {
+	return appliedState;
+    }
+
+    /**
+     * @return true if the HTTP status code is 200
+     */
+    public boolean isStatusOk() {
+	return statusCode == HttpURLConnection.HTTP_OK;
+    }
+
+    /**
+     * @return the response body, to be closed by the caller. Null if none.
+     */
+    public InputStream getBody() {
+	return body;
+    }
+
+    /**
+     * Reads all the response body as an UTF-8 string and closes it.
+     *
+     * @return the response body, null if none
+     * @throws IOException if the body can not be read
+     */
+    public String readString() throws IOException {
+	if (body == null) {
+	    return null;
+	}
+
+	try (InputStream in = body) {
+	    ByteArrayOutputStream out = new ByteArrayOutputStream();
+	    IOUtils.copy(in, out);
+	    return out.toString("UTF-8");
+	}
+    }
+
+    @Override
+    public String toString() {
+	return "HttpResponse [statusCode=" + statusCode + ", statusMessage=" + statusMessage + "]";
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * The HTTP client layer used by {@link HttpManager} and {@link BlobUploader}
+ * to send the requests to the AceQL server. <br>
+ * Implementations must be thread safe: the same instance may be used by the
+ * concurrent statements of several connections.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public interface HttpTransport {
+
+    /**
+     * Writes a request body that is streamed to the server.
+     */
+    interface RequestBody {
+
+	/**
+	 * Writes the request body. The stream may be closed, for example to
+	 * terminate a compressing stream that wraps it.
+	 *
+	 * @param out the request body output stream
+	 * @throws IOException
+	 * @throws InterruptedException if the upload is cancelled
+	 */
+	void writeTo(OutputStream out) throws IOException, InterruptedException;
+
+	/**
+	 * Returns the number of bytes written by {@link #writeTo(OutputStream)}.
+	 *
+	 * @return the length of the body, or -1 if not known in advance: the body
+	 *         is then sent with chunked transfer encoding
+	 */
+	long getContentLength();
+    }
+
+    /**
+     * Sends a GET request.
+     *
+     * @param url     the URL to call
+     * @param headers the request headers
+     * @return the response, whose body must be closed by the caller
+     * @throws IOException if the request fails
+     */
+    HttpTransportResponse get(URL url, Map<String, String> headers) throws IOException;
+
+    /**
+     * Sends a POST request with a body already in memory.
+     *
+     * @param url     the URL to call
+     * @param headers the request headers
+     * @param body    the request body
+     * @return the response, whose body must be closed by the caller
+     * @throws IOException if the request fails
+     */
+    HttpTransportResponse post(URL url, Map<String, String> headers, byte[] body) throws IOException;
+
+    /**
+     * Sends a POST request with a streamed body, for uploads.
+     *
+     * @param url         the URL to call
+     * @param headers     the request headers
+     * @param requestBody the writer of the request body
+     * @return the response, whose body must be closed by the caller
+     * @throws IOException          if the request fails
+     * @throws InterruptedException if the upload is cancelled
+     */
+    HttpTransportResponse post(URL url, Map<String, String> headers, RequestBody requestBody)
+	    throws IOException, InterruptedException;
+
+}
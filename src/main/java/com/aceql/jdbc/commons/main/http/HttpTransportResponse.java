@@ -0,0 +1,98 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.http;
+
+import java.io.InputStream;
+
+/**
+ * The response of a request sent by a {@link HttpTransport}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class HttpTransportResponse {
+
+    /**
+     * The response header that lists the connection state setter APIs applied
+     * by the server with a call, comma separated, e.g.
+     * {@code set_auto_commit,set_read_only}
+     */
+    public static final String APPLIED_STATE_HEADER = "AceQL-Applied-State";
+
+    private final int statusCode;
+    private final String statusMessage;
+    private final String contentEncoding;
+    private final String appliedState;
+    private final InputStream body;
+
+    /**
+     * Constructor.
+     *
+     * @param statusCode      the HTTP status code
+     * @param statusMessage   the HTTP status message, null if none (HTTP/2)
+     * @param contentEncoding the {@code Content-Encoding} header, null if none
+     * @param body            the raw response or error body, null if none
+     */
+    public HttpTransportResponse(int statusCode, String statusMessage, String contentEncoding, InputStream body) {
+	this(statusCode, statusMessage, contentEncoding, null, body);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param statusCode      the HTTP status code
+     * @param statusMessage   the HTTP status message, null if none (HTTP/2)
+     * @param contentEncoding the {@code Content-Encoding} header, null if none
+     * @param appliedState    the {@link #APPLIED_STATE_HEADER} header, null if
+     *                        none
+     * @param body            the raw response or error body, null if none
+     */
+    public HttpTransportResponse(int statusCode, String statusMessage, String contentEncoding, String appliedState,
+	    InputStream body) {
+	this.statusCode = statusCode;
+	this.statusMessage = statusMessage;
+	this.contentEncoding = contentEncoding;
+	this.appliedState = appliedState;
+	this.body = body;
+    }
+
+    public int getStatusCode() {
+	return statusCode;
+    }
+
+    public String getStatusMessage() {
+	return statusMessage;
+    }
+
+    public String getContentEncoding() {
+	return contentEncoding;
+    }
+
+    public String getAppliedState() {
+	return appliedState;
+    }
+
+    /**
+     * @return the raw response body, not decompressed. May be null.
+     */
+    public InputStream getBody() {
+	return body;
+    }
+
+}
@@ -87,20 +87,44 @@ class MultipartUtility {
 	this.totalLength = totalLength;
 	this.connection = connection;
 
-	boundary = "---------------------------" + currentTimeMillis();
+	boundary = buildBoundary();
 
 	this.connection.setRequestProperty("Accept-Charset", CHARSET);
 	this.connection.setRequestProperty("Content-Type",
 		"multipart/form-data; boundary=" + boundary);
 
-	// outputStream = connection.getOutputStream();
-	TimeoutConnector timeoutConnector = new TimeoutConnector(connection,
-		connectTimeout);
-	outputStream = timeoutConnector.getOutputStream();
+	this.connection.setConnectTimeout(connectTimeout);
+	outputStream = connection.getOutputStream();
 
 	writer = new PrintWriter(new OutputStreamWriter(outputStream, CHARSET));
     }
 
+    /**
+     * Constructor for a multipart body written to a stream provided by a
+     * {@link HttpTransport}. The caller sets the request Content-Type header to
+     * <code>"multipart/form-data; boundary=" + boundary</code>.
+     */
+    public MultipartUtility(OutputStream outputStream, String boundary,
+	    AtomicInteger progress, AtomicBoolean cancelled, long totalLength)
+	    throws IOException {
+	this.outputStream = Objects.requireNonNull(outputStream,
+		"outputStream cannot be null!");
+	this.boundary = Objects.requireNonNull(boundary,
+		"boundary cannot be null!");
+	this.progress = progress;
+	this.cancelled = cancelled;
+	this.totalLength = totalLength;
+
+	writer = new PrintWriter(new OutputStreamWriter(outputStream, CHARSET));
+    }
+
+    /**
+     * @return a new multipart boundary
+     */
+    public static String buildBoundary() {
+	return "---------------------------" + currentTimeMillis();
+    }
+
     public void addFormField(final String name, final String value)
 	    throws IOException {
 	writer.append("--").append(boundary).append(CRLF)
@@ -77,6 +77,23 @@ public class ResultAnalyzer {
 	}
     }
 
+    /**
+     * Constructor
+     *
+     * @param jsonResult
+     * @param response   the response of the call that returned jsonResult
+     */
+    public ResultAnalyzer(String jsonResult, HttpResponse response) {
+	this(jsonResult, response.getStatusCode(), response.getStatusMessage());
+    }
+
+    /**
+     * @return the HTTP status code of the analyzed response
+     */
+    public int getHttpStatusCode() {
+	return httpStatusCode;
+    }
+
     /**
      * Says if status is OK
      *
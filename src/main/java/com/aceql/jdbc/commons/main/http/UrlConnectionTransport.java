@@ -0,0 +1,150 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * The {@link HttpTransport} that opens a {@code HttpURLConnection} per
+ * request, over HTTP/1.1. Works on all Java versions.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private final Proxy proxy;
+    private final PasswordAuthentication proxyAuthentication;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param proxy          the proxy to use, null if none
+     * @param connectTimeout the connect timeout in milliseconds, 0 for none
+     * @param readTimeout    the read timeout in milliseconds, 0 for none
+     */
+    public UrlConnectionTransport(Proxy proxy, int connectTimeout, int readTimeout) {
+	this(proxy, null, connectTimeout, readTimeout);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param proxy               the proxy to use, null if none
+     * @param proxyAuthentication the proxy credentials, null if none
+     * @param connectTimeout      the connect timeout in milliseconds, 0 for none
+     * @param readTimeout         the read timeout in milliseconds, 0 for none
+     */
+    public UrlConnectionTransport(Proxy proxy, PasswordAuthentication proxyAuthentication, int connectTimeout,
+	    int readTimeout) {
+	this.proxy = proxy;
+	this.proxyAuthentication = proxyAuthentication;
+	this.connectTimeout = connectTimeout;
+	this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public HttpTransportResponse get(URL url, Map<String, String> headers) throws IOException {
+	HttpURLConnection conn = openConnection(url, headers, "GET");
+	return buildResponse(conn);
+    }
+
+    @Override
+    public HttpTransportResponse post(URL url, Map<String, String> headers, byte[] body) throws IOException {
+	HttpURLConnection conn = openConnection(url, headers, "POST");
+
+	try (OutputStream connOut = conn.getOutputStream();) {
+	    connOut.write(body);
+	}
+
+	return buildResponse(conn);
+    }
+
+    @Override
+    public HttpTransportResponse post(URL url, Map<String, String> headers, RequestBody requestBody)
+	    throws IOException, InterruptedException {
+	HttpURLConnection conn = openConnection(url, headers, "POST");
+
+	// Streams the body instead of buffering it all in HttpURLConnection. Not
+	// done with an authenticated proxy, that may require to send it again.
+	if (proxyAuthentication == null) {
+	    long contentLength = requestBody.getContentLength();
+	    if (contentLength >= 0) {
+		conn.setFixedLengthStreamingMode(contentLength);
+	    } else {
+		// Default chunk size
+		conn.setChunkedStreamingMode(0);
+	    }
+	}
+
+	try (OutputStream connOut = conn.getOutputStream();) {
+	    requestBody.writeTo(connOut);
+	}
+
+	return buildResponse(conn);
+    }
+
+    private HttpURLConnection openConnection(URL url, Map<String, String> headers, String method)
+	    throws IOException {
+	HttpURLConnection conn = null;
+
+	if (this.proxy == null) {
+	    conn = (HttpURLConnection) url.openConnection();
+	} else {
+	    conn = (HttpURLConnection) url.openConnection(proxy);
+	}
+
+	for (Map.Entry<String, String> entry : headers.entrySet()) {
+	    conn.addRequestProperty(entry.getKey(), entry.getValue());
+	}
+
+	// The connect timeout is enforced by the socket connect itself, on the
+	// calling thread
+	conn.setConnectTimeout(connectTimeout);
+	conn.setReadTimeout(readTimeout);
+	conn.setRequestMethod(method);
+	conn.setDoOutput(true);
+	return conn;
+    }
+
+    private static HttpTransportResponse buildResponse(HttpURLConnection conn) throws IOException {
+	int httpStatusCode = conn.getResponseCode();
+	String httpStatusMessage = conn.getResponseMessage();
+
+	InputStream in = null;
+	if (httpStatusCode == HttpURLConnection.HTTP_OK) {
+	    in = conn.getInputStream();
+	} else {
+	    in = conn.getErrorStream();
+	}
+
+	return new HttpTransportResponse(httpStatusCode, httpStatusMessage, conn.getContentEncoding(),
+		conn.getHeaderField(HttpTransportResponse.APPLIED_STATE_HEADER), in);
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.pipeline;
+
+import java.util.Map;
+
+/**
+ * A command of a pipeline: an update, a query, a commit, a rollback or a
+ * savepoint action.
+ * 
+ * @author Nicolas de Pomereu
+ *
+ */
+public class PipelineCommandDto {
+
+    public static final String UPDATE = "update";
+    public static final String QUERY = "query";
+    public static final String COMMIT = "commit";
+    public static final String ROLLBACK = "rollback";
+    public static final String SET_SAVEPOINT = "set_savepoint";
+    public static final String ROLLBACK_SAVEPOINT = "rollback_savepoint";
+    public static final String RELEASE_SAVEPOINT = "release_savepoint";
+
+    private String type;
+    private String sql;
+    private boolean preparedStatement;
+    private Map<String, String> statementParameters;
+    private String savepointName;
+
+    /**
+     * Constructor.
+     * 
+     * @param type                the command type, e.g. "update"
+     * @param sql                 the SQL statement of an update or a query, else
+     *                            null
+     * @param preparedStatement   if true, the server will generate a prepared
+     *                            statement, else a simple statement
+     * @param statementParameters the prepared statement parameters in HTTP
+     *                            format, may be null
+     * @param savepointName       the savepoint name of a savepoint action, else
+     *                            null
+     */
+    public PipelineCommandDto(String type, String sql, boolean preparedStatement,
+	    Map<String, String> statementParameters, String savepointName) {
+	this.type = type;
+	this.sql = sql;
+	this.preparedStatement = preparedStatement;
+	this.statementParameters = statementParameters;
+	this.savepointName = savepointName;
+    }
+
+    public String getType() {
+	return type;
+    }
+
+    public String getSql() {
+	return sql;
+    }
+
+    public boolean isPreparedStatement() {
+	return preparedStatement;
+    }
+
+    public Map<String, String> getStatementParameters() {
+	return statementParameters;
+    }
+
+    public String getSavepointName() {
+	return savepointName;
+    }
+
+    @Override
+    public String toString() {
+	return "PipelineCommandDto [type=" + type + ", sql=" + sql + ", preparedStatement=" + preparedStatement
+		+ ", statementParameters=" + statementParameters + ", savepointName=" + savepointName + "]";
+    }
+
+}
@@ -21,12 +21,15 @@ package com.aceql.jdbc.commons.main.util;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
 import java.util.Objects;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.aceql.jdbc.commons.AceQLConnection;
 import com.aceql.jdbc.commons.AceQLException;
+import com.aceql.jdbc.commons.ConnectionInfo;
+import com.aceql.jdbc.commons.InternalWrapper;
+import com.aceql.jdbc.commons.ServerCapabilities;
 
 public class AceQLConnectionUtil {
 
@@ -36,9 +39,10 @@ public class AceQLConnectionUtil {
     private static final String TRANSACTION_READ_COMMITTED_TEXT = "read_committed";
     private static final String TRANSACTION_READ_UNCOMMITTED_TEXT = "read_uncommitted";
 
-    public static final String SERVER_VERSION_12_2 = "12.2";
-    
-    private static String SERVER_VERSION_NUMBER = null;
+    public static final String SERVER_VERSION_12_2 = ServerCapabilities.SERVER_VERSION_12_2;
+
+    /** The capabilities per server URL */
+    private static final Map<String, ServerCapabilities> SERVER_CAPABILITIES = new ConcurrentHashMap<>();
 
     protected AceQLConnectionUtil() {
 
@@ -111,46 +115,53 @@ public class AceQLConnectionUtil {
     }
 
     /**
-     * Gets the Raw server version as 
-     * @param connection
-     * @return
-     * @throws AceQLException
+     * Gets the capabilities of the server of a Connection. The server version is
+     * asked once per server URL, and the capabilities are then stored in the
+     * ConnectionInfo.
+     *
+     * @param connection the AceQL Connection
+     * @return the capabilities of the server
+     * @throws AceQLException if the server version can not be read
      */
-    public static String getServerRawVersion(Connection connection) throws AceQLException {
-	Objects.requireNonNull(connection, "version cannot be null!");
-	
-	AceQLConnection aceqlConnection = (AceQLConnection)connection;
-	if (SERVER_VERSION_NUMBER == null) {
-	    SERVER_VERSION_NUMBER =  aceqlConnection.getServerVersion();
+    public static ServerCapabilities getServerCapabilities(Connection connection) throws AceQLException {
+	Objects.requireNonNull(connection, "connection cannot be null!");
+
+	AceQLConnection aceqlConnection = (AceQLConnection) connection;
+	ConnectionInfo connectionInfo = InternalWrapper.getAceQLHttpApi(aceqlConnection).getAceQLConnectionInfo();
+
+	ServerCapabilities serverCapabilities = connectionInfo.getServerCapabilities();
+	if (serverCapabilities != null) {
+	    return serverCapabilities;
 	}
-	
-	String newVersion = StringUtils.substringBetween(SERVER_VERSION_NUMBER, "v", "-");
-	return newVersion.trim();
+
+	serverCapabilities = SERVER_CAPABILITIES.get(connectionInfo.getUrl());
+	if (serverCapabilities == null) {
+	    serverCapabilities = InternalWrapper.serverCapabilitiesBuilder(aceqlConnection.getServerVersion());
+	    SERVER_CAPABILITIES.put(connectionInfo.getUrl(), serverCapabilities);
+	}
+
+	InternalWrapper.setServerCapabilities(connectionInfo, serverCapabilities);
+	return serverCapabilities;
     }
-    
+
     /**
-     * Says if the current version is OK , that is >= to the minimum required server version
-     * @param rawServerVersion		the current server version
-     * @param minServerVersion		the minimum version for feature execution
-     * @return true if rawServerVersion is OK for execution
-     * @throws NumberFormatException
+     * Gets the Raw server version as "major.minor"
+     * @param connection
+     * @return the server version number
+     * @throws AceQLException
      */
-    private static boolean isCurrentVersionOk(String rawServerVersion, String minServerVersion)
-	    throws NumberFormatException {
-	Double rawServerVersionDouble = Double.valueOf(rawServerVersion);
-	Double minServerVersionDouble =  Double.valueOf(minServerVersion);
-	return rawServerVersionDouble >= minServerVersionDouble;
+    public static String getServerRawVersion(Connection connection) throws AceQLException {
+	return getServerCapabilities(connection).getVersionNumber();
     }
-        
+
     /**
-     * Says it the server version supports greater or equal 12.0
+     * Says it the server version supports greater or equal 12.2
      * @param connection
-     * @return true if server version greater or equal 12.0
+     * @return true if server version greater or equal 12.2
      * @throws SQLException
      */
     public static boolean isVersion12_2OrHigher(Connection connection) throws SQLException{
-	String rawServerVersion = getServerRawVersion(connection);	
-	return isCurrentVersionOk(rawServerVersion, SERVER_VERSION_12_2);
+	return getServerCapabilities(connection).isVersion12_2OrHigher();
     }
     
    
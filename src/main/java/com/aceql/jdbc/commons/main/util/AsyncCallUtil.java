@@ -0,0 +1,104 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the blocking JDBC calls of the asynchronous API of the statements on an
+ * executor.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class AsyncCallUtil {
+
+    protected AsyncCallUtil() {
+
+    }
+
+    /**
+     * The default executor: a cached pool of daemon threads, as the calls wait
+     * for the network and must not hold the threads of the common ForkJoinPool.
+     * Created on first use.
+     */
+    private static class DefaultExecutorHolder {
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+
+	    private final AtomicInteger threadNumber = new AtomicInteger();
+
+	    @Override
+	    public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, "AceQL-async-" + threadNumber.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	    }
+	});
+    }
+
+    /**
+     * Returns the executor used when none is set on the Connection.
+     *
+     * @return the shared default executor
+     */
+    public static Executor getDefaultExecutor() {
+	return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * Runs a call on an executor.
+     *
+     * @param call     the call to run
+     * @param executor the executor to run the call on
+     * @return the future result of the call. If the call fails, the future
+     *         completes exceptionally with the thrown {@code SQLException}.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(final Callable<T> call, Executor executor) {
+	Objects.requireNonNull(call, "call cannot be null!");
+	Objects.requireNonNull(executor, "executor cannot be null!");
+
+	final CompletableFuture<T> future = new CompletableFuture<T>();
+	try {
+	    executor.execute(new Runnable() {
+
+		@Override
+		public void run() {
+		    try {
+			future.complete(call.call());
+		    } catch (Throwable throwable) {
+			future.completeExceptionally(throwable);
+		    }
+		}
+	    });
+	} catch (RuntimeException e) {
+	    // Executor shut down or saturated
+	    future.completeExceptionally(new SQLException("Can not run the asynchronous call: " + e.toString(), e));
+	}
+	return future;
+    }
+
+}
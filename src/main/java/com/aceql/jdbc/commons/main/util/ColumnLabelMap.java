@@ -0,0 +1,82 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The column index per column label of a {@code ResultSet}, built once from
+ * the column names of the first row. <br>
+ * A label is first searched as is, then ignoring case. A label found ignoring
+ * case is remembered, so that the next lookups of the same label are exact
+ * hits. No {@code String} is allocated by a lookup.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ColumnLabelMap {
+
+    /** Exact labels, and labels already found ignoring case */
+    private final Map<String, Integer> exactIndexes;
+
+    /** The first index of each label, ignoring case */
+    private final Map<String, Integer> caseInsensitiveIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Constructor.
+     *
+     * @param indexsPerColName the index per column name, as read on the first row
+     */
+    public ColumnLabelMap(Map<String, Integer> indexsPerColName) {
+	this.exactIndexes = new HashMap<>(indexsPerColName);
+
+	List<Map.Entry<String, Integer>> entries = new ArrayList<>(indexsPerColName.entrySet());
+	Collections.sort(entries, Map.Entry.comparingByValue());
+	for (Map.Entry<String, Integer> entry : entries) {
+	    caseInsensitiveIndexes.putIfAbsent(entry.getKey(), entry.getValue());
+	}
+    }
+
+    /**
+     * Returns the index of a column label.
+     *
+     * @param columnLabel the column label, whatever its case
+     * @return the index of the column, starting at 1. -1 if the label is not found.
+     */
+    public int getIndex(String columnLabel) {
+	Integer index = exactIndexes.get(columnLabel);
+	if (index != null) {
+	    return index;
+	}
+
+	index = caseInsensitiveIndexes.get(columnLabel);
+	if (index == null) {
+	    return -1;
+	}
+
+	exactIndexes.put(columnLabel, index);
+	return index;
+    }
+
+}
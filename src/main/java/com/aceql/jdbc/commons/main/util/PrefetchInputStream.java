@@ -0,0 +1,263 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@code InputStream} whose content is read in advance from an underlying
+ * stream by a background thread. <br>
+ * The background thread puts the bytes read in a bounded queue of chunks: it
+ * waits when the queue is full, so that at most
+ * {@code chunkSize * maxChunks} bytes are held in memory. Consumed chunks are
+ * reused. <br>
+ * This allows to overlap the download of a result with its processing by the
+ * caller.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class PrefetchInputStream extends InputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_CHUNKS = 32;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /** The background threads are shared by all the instances, and do not prevent JVM exit */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+	Thread thread = new Thread(runnable, "aceql-prefetch-" + THREAD_NUMBER.incrementAndGet());
+	thread.setDaemon(true);
+	return thread;
+    });
+
+    /** A part of the content */
+    private static final class Chunk {
+	private final byte[] data;
+	private int length;
+
+	private Chunk(int size) {
+	    this.data = new byte[size];
+	}
+    }
+
+    /** Put in the queue at end of content */
+    private static final Chunk END = new Chunk(0);
+
+    private final InputStream in;
+    private final int chunkSize;
+
+    /** The chunks read, to be consumed */
+    private final BlockingQueue<Chunk> chunks;
+    /** The chunks consumed, to be reused */
+    private final BlockingQueue<Chunk> freeChunks;
+
+    private final Future<?> producer;
+
+    /** The exception thrown by the underlying stream, if any */
+    private volatile IOException failure = null;
+    private volatile boolean closed = false;
+
+    private Chunk current = null;
+    private int position = 0;
+    private boolean endReached = false;
+
+    /**
+     * Constructor with default chunk size and default max chunks.
+     *
+     * @param in the underlying stream
+     */
+    public PrefetchInputStream(InputStream in) {
+	this(in, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNKS);
+    }
+
+    /**
+     * Constructor. The background read starts at once.
+     *
+     * @param in        the underlying stream
+     * @param chunkSize the size of a chunk in bytes
+     * @param maxChunks the max number of chunks held in memory
+     */
+    public PrefetchInputStream(InputStream in, int chunkSize, int maxChunks) {
+	this.in = Objects.requireNonNull(in, "in cannot be null!");
+	if (chunkSize <= 0 || maxChunks <= 0) {
+	    throw new IllegalArgumentException("chunkSize and maxChunks must be > 0!");
+	}
+
+	this.chunkSize = chunkSize;
+	// + 1 for the END marker
+	this.chunks = new ArrayBlockingQueue<>(maxChunks + 1);
+	this.freeChunks = new ArrayBlockingQueue<>(maxChunks + 1);
+	this.producer = EXECUTOR.submit(this::produce);
+    }
+
+    /**
+     * Reads the underlying stream until its end, or until this stream is closed.
+     */
+    private void produce() {
+	try {
+	    while (!closed) {
+		Chunk chunk = freeChunks.poll();
+		if (chunk == null) {
+		    chunk = new Chunk(chunkSize);
+		}
+
+		int length = in.read(chunk.data, 0, chunkSize);
+		if (length < 0) {
+		    break;
+		}
+
+		if (length > 0) {
+		    chunk.length = length;
+		    put(chunk);
+		}
+	    }
+	} catch (IOException e) {
+	    failure = e;
+	} catch (InterruptedException e) {
+	    // Closed
+	    return;
+	}
+
+	try {
+	    put(END);
+	} catch (InterruptedException e) {
+	    // Closed
+	}
+    }
+
+    /**
+     * Puts a chunk in the queue, waiting for space while not closed.
+     */
+    private void put(Chunk chunk) throws InterruptedException {
+	while (!closed) {
+	    if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+		return;
+	    }
+	}
+    }
+
+    /**
+     * Makes available the next chunk if the current one is consumed.
+     *
+     * @return false if the end of the content is reached
+     */
+    private boolean nextChunk() throws IOException {
+	if (closed) {
+	    throw new IOException("Stream closed.");
+	}
+
+	if (current != null && position < current.length) {
+	    return true;
+	}
+
+	if (endReached) {
+	    return false;
+	}
+
+	if (current != null) {
+	    freeChunks.offer(current);
+	    current = null;
+	}
+
+	Chunk chunk;
+	try {
+	    chunk = chunks.take();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new InterruptedIOException("Interrupted while waiting for content.");
+	}
+
+	if (chunk == END) {
+	    endReached = true;
+	    if (failure != null) {
+		throw failure;
+	    }
+	    return false;
+	}
+
+	current = chunk;
+	position = 0;
+	return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+	if (!nextChunk()) {
+	    return -1;
+	}
+	return current.data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+	if (off < 0 || len < 0 || len > b.length - off) {
+	    throw new IndexOutOfBoundsException();
+	}
+
+	if (len == 0) {
+	    return 0;
+	}
+
+	if (!nextChunk()) {
+	    return -1;
+	}
+
+	int length = Math.min(len, current.length - position);
+	System.arraycopy(current.data, position, b, off, length);
+	position += length;
+	return length;
+    }
+
+    @Override
+    public int available() throws IOException {
+	if (closed || current == null) {
+	    return 0;
+	}
+	return current.length - position;
+    }
+
+    /**
+     * Stops the background read and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+	if (closed) {
+	    return;
+	}
+
+	closed = true;
+	producer.cancel(true);
+	chunks.clear();
+	freeChunks.clear();
+	current = null;
+	in.close();
+    }
+
+}
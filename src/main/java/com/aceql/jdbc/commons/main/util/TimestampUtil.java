@@ -29,39 +29,34 @@ import java.sql.Types;
 public class TimestampUtil {
 
     public static boolean isLong(String value) {
-	try {
-	    Long.parseLong(value);
-	    return true;
-	} catch (NumberFormatException e) {
+	// Avoid the cost of a NumberFormatException for the non numeric values
+	if (value == null || value.isEmpty() || value.length() > 20) {
 	    return false;
 	}
-    }
 
-    public static boolean isTimestamp(ResultSetMetaData resultSetMetaData, String columnLabel)
-	    throws SQLException {
-
-	int count = resultSetMetaData.getColumnCount();
-
-	for (int i = 1; i < count + 1; i++) {
-	    int columnType = resultSetMetaData.getColumnType(i);
-	    String metaDataColumnLabel = resultSetMetaData.getColumnLabel(i);
-
-	    if (!metaDataColumnLabel.equalsIgnoreCase(columnLabel)) {
-		continue;
-	    }
-
-	    if (columnType == Types.TIMESTAMP || columnType == Types.TIMESTAMP_WITH_TIMEZONE) {
-		return true;
+	for (int i = 0; i < value.length(); i++) {
+	    char c = value.charAt(i);
+	    if ((c < '0' || c > '9') && !(i == 0 && (c == '-' || c == '+') && value.length() > 1)) {
+		return false;
 	    }
 	}
 
-	return false;
+	try {
+	    Long.parseLong(value);
+	    return true;
+	} catch (NumberFormatException e) {
+	    return false;
+	}
     }
 
     public static boolean isTimestamp(ResultSetMetaData resultSetMetaData, int columnIndex)
 	    throws SQLException {
 	int columnType = resultSetMetaData.getColumnType(columnIndex);	
-	return (columnType == Types.TIMESTAMP || columnType == Types.TIMESTAMP_WITH_TIMEZONE);
+	return isTimestampType(columnType);
+    }
+
+    public static boolean isTimestampType(int columnType) {
+	return columnType == Types.TIMESTAMP || columnType == Types.TIMESTAMP_WITH_TIMEZONE;
     }
 
 }
@@ -18,25 +18,49 @@
  */
 package com.aceql.jdbc.commons.main.util;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Stores the session Id per serverUrl/username/database triplet in order to
- * get new AceQL Connection with /get_connection without new login action.
+ * get new AceQL Connection with /get_connection without new login action. <br>
+ * The store is shared by all threads. When there is no valid session for a
+ * triplet, {@link #getSessionId(Callable)} runs a single login, and the
+ * concurrent callers for the same triplet wait for its result. Sessions expire
+ * after {@link #getSessionTimeToLive()} milliseconds.
  *
  * @author Nicolas de Pomereu
  *
  */
 public class UserLoginStore {
 
+    /** The default time to live of a stored session: 1 hour */
+    public static final long DEFAULT_SESSION_TIME_TO_LIVE = 60 * 60 * 1000L;
+
+    private static volatile long sessionTimeToLive = DEFAULT_SESSION_TIME_TO_LIVE;
+
     private String serverUrl = null;
     private String username = null;
     private String database = null;
 
-    /** The map of logged users (serverUrl/username/database, session_id) */
-    private static Map<String, String> loggedUsers = new HashMap<>();
+    /** The map of logged users (serverUrl/username/database, session) */
+    private static final ConcurrentMap<String, Session> loggedUsers = new ConcurrentHashMap<String, Session>();
+
+    /**
+     * A session id, being obtained by a login or stored, with its creation time.
+     */
+    private static class Session {
+	private final CompletableFuture<String> sessionId = new CompletableFuture<String>();
+	private final long creationTime = System.currentTimeMillis();
+
+	boolean isExpired() {
+	    return sessionId.isDone() && System.currentTimeMillis() - creationTime > sessionTimeToLive;
+	}
+    }
 
     /**
      * Constructor
@@ -55,18 +79,69 @@ public class UserLoginStore {
      * @return true if user is already logged
      */
     public boolean isAlreadyLogged() {
-	String key = buildKey();
-	return loggedUsers.containsKey(key);
+	return getSessionId() != null;
     }
 
     /**
      * Returns the session Id of logged user with (serverUrl, username, database) triplet.
-     * @return	the stored session Id for the (serverUrl, username, database) triplet.
+     * @return	the stored session Id for the (serverUrl, username, database) triplet, null if none or if a login is running.
      */
     public String getSessionId() {
+	Session session = loggedUsers.get(buildKey());
+	if (session == null || session.isExpired() || !session.sessionId.isDone()
+		|| session.sessionId.isCompletedExceptionally()) {
+	    return null;
+	}
+	return session.sessionId.getNow(null);
+    }
+
+    /**
+     * Returns the session Id of the (serverUrl, username, database) triplet. If
+     * there is none, or if it has expired, the login is called by this thread,
+     * and the other threads asking for the same triplet wait for its result.
+     *
+     * @param login the login call, that returns the new session Id
+     * @return the stored or new session Id
+     * @throws Exception the Exception thrown by the login call
+     */
+    public String getSessionId(Callable<String> login) throws Exception {
 	String key = buildKey();
-	String sessionId = loggedUsers.get(key);
-	return sessionId;
+
+	while (true) {
+	    Session session = loggedUsers.get(key);
+
+	    if (session == null || session.isExpired()) {
+		Session newSession = new Session();
+		boolean added = session == null ? loggedUsers.putIfAbsent(key, newSession) == null
+			: loggedUsers.replace(key, session, newSession);
+		if (!added) {
+		    // Another thread has started a login
+		    continue;
+		}
+		return login(key, newSession, login);
+	    }
+
+	    try {
+		return session.sessionId.get();
+	    } catch (ExecutionException e) {
+		// The login of another thread has failed: same error for all waiters
+		Throwable cause = e.getCause();
+		throw cause instanceof Exception ? (Exception) cause : e;
+	    }
+	}
+    }
+
+    private static String login(String key, Session session, Callable<String> login) throws Exception {
+	try {
+	    String sessionId = login.call();
+	    session.sessionId.complete(sessionId);
+	    return sessionId;
+	} catch (Throwable throwable) {
+	    // Removed first, so that next callers log in again
+	    loggedUsers.remove(key, session);
+	    session.sessionId.completeExceptionally(throwable);
+	    throw throwable;
+	}
     }
 
     /**
@@ -74,8 +149,25 @@ public class UserLoginStore {
      * @param sessionId  the session Id of a logged user
      */
     public void setSessionId(String sessionId) {
+	Session session = new Session();
+	session.sessionId.complete(sessionId);
+	loggedUsers.put(buildKey(), session);
+    }
+
+    /**
+     * Removes the session Id if it is still the stored one. This is to be called
+     * when the server rejects a session Id, so that next
+     * {@link #getSessionId(Callable)} call logs in again.
+     *
+     * @param sessionId the rejected session Id
+     */
+    public void invalidate(String sessionId) {
 	String key = buildKey();
-	loggedUsers.put(key, sessionId);
+	Session session = loggedUsers.get(key);
+	if (session != null && session.sessionId.isDone() && !session.sessionId.isCompletedExceptionally()
+		&& Objects.equals(session.sessionId.getNow(null), sessionId)) {
+	    loggedUsers.remove(key, session);
+	}
     }
 
     /**
@@ -98,7 +190,25 @@ public class UserLoginStore {
      * Clean all loggedUsers static Map.
      */
     public static void resetAll() {
-	loggedUsers = new HashMap<>();
+	loggedUsers.clear();
+    }
+
+    /**
+     * @return the time in milliseconds after which a stored session Id is
+     *         replaced by a new login
+     */
+    public static long getSessionTimeToLive() {
+	return sessionTimeToLive;
+    }
+
+    /**
+     * Sets the time in milliseconds after which a stored session Id is replaced
+     * by a new login.
+     *
+     * @param sessionTimeToLive the time to live in milliseconds
+     */
+    public static void setSessionTimeToLive(long sessionTimeToLive) {
+	UserLoginStore.sessionTimeToLive = sessionTimeToLive;
     }
 
 }
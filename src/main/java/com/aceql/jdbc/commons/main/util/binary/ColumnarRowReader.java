@@ -0,0 +1,354 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util.binary;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.aceql.jdbc.commons.main.util.json.RowReader;
+
+/**
+ * Reads a result set sent by the server in the binary columnar format, asked
+ * with the <code>format=binary</code> parameter of /execute_query. <br>
+ * Values are decoded once per column: fixed width values are available without
+ * any text parsing with {@link #getLong(int)} and {@link #getDouble(int)}. <br>
+ * <br>
+ * Layout, with numbers in big endian order as written by
+ * {@code DataOutputStream}:
+ *
+ * <pre>
+ * magic        4 bytes: "AQLB"
+ * version      1 byte: 1
+ * metadata     int length, -1 if none, followed by the UTF-8 ResultSetMetaData JSON
+ * column count int
+ * columns      per column: int length and UTF-8 name, then 1 byte type
+ * row count    int
+ * data         per column: null bitmap of (row count + 7) / 8 bytes, bit set if
+ *              NULL, then a value per row, 0 or empty if NULL:
+ *              INT    4 bytes
+ *              LONG   8 bytes
+ *              DOUBLE 8 bytes
+ *              STRING int length and UTF-8 bytes
+ * </pre>
+ *
+ * A result that does not start with the magic bytes is a JSON result.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ColumnarRowReader implements RowReader {
+
+    /** The first bytes of a binary result */
+    public static final byte[] MAGIC = { 'A', 'Q', 'L', 'B' };
+    public static final int VERSION = 1;
+
+    public static final byte TYPE_STRING = 0;
+    public static final byte TYPE_INT = 1;
+    public static final byte TYPE_LONG = 2;
+    public static final byte TYPE_DOUBLE = 3;
+
+    private final String resultSetMetaDataJson;
+    private final int rowCount;
+    private final int columnCount;
+
+    /** Column types, index 0 unused */
+    private final byte[] types;
+    /** Column values: int[], long[], double[] or String[], index 0 unused */
+    private Object[] columns;
+    /** Column null bitmaps, index 0 unused */
+    private byte[][] nullBitmaps;
+
+    private final Map<String, Integer> indexsPerColName;
+
+    /** The current row index, starting at 0. -1 if none */
+    private int rowIndex = -1;
+
+    private boolean traceOn;
+
+    private ColumnarRowReader(String resultSetMetaDataJson, int rowCount, String[] names, byte[] types) {
+	this.resultSetMetaDataJson = resultSetMetaDataJson;
+	this.rowCount = rowCount;
+	this.columnCount = names.length - 1;
+	this.types = types;
+	this.columns = new Object[names.length];
+	this.nullBitmaps = new byte[names.length][];
+
+	this.indexsPerColName = new HashMap<String, Integer>();
+	for (int col = 1; col <= columnCount; col++) {
+	    indexsPerColName.put(names[col], col);
+	}
+    }
+
+    /**
+     * Says if a downloaded result is in binary format.
+     *
+     * @param head   the first bytes of the result
+     * @param length the number of bytes in head
+     * @return true if the result starts with the magic bytes
+     */
+    public static boolean isBinaryResult(byte[] head, int length) {
+	if (head == null || length < MAGIC.length) {
+	    return false;
+	}
+	for (int i = 0; i < MAGIC.length; i++) {
+	    if (head[i] != MAGIC[i]) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Decodes a binary result.
+     *
+     * @param in the binary result. Not closed by this method.
+     * @return the reader of the decoded result
+     * @throws IOException if the content is not a valid binary result
+     */
+    public static ColumnarRowReader read(InputStream in) throws IOException {
+	Objects.requireNonNull(in, "in cannot be null!");
+	DataInputStream din = new DataInputStream(in);
+
+	byte[] magic = new byte[MAGIC.length];
+	din.readFully(magic);
+	if (!isBinaryResult(magic, magic.length)) {
+	    throw new IOException("Not a binary result.");
+	}
+
+	int version = din.readUnsignedByte();
+	if (version != VERSION) {
+	    throw new IOException("Unsupported binary result version: " + version);
+	}
+
+	String resultSetMetaDataJson = readString(din);
+
+	int columnCount = din.readInt();
+	checkCount("column count", columnCount);
+	String[] names = new String[columnCount + 1];
+	byte[] types = new byte[columnCount + 1];
+	for (int col = 1; col <= columnCount; col++) {
+	    names[col] = readString(din);
+	    types[col] = din.readByte();
+	    if (types[col] < TYPE_STRING || types[col] > TYPE_DOUBLE) {
+		throw new IOException("Unknown type " + types[col] + " for column " + names[col]);
+	    }
+	}
+
+	int rowCount = din.readInt();
+	checkCount("row count", rowCount);
+
+	ColumnarRowReader reader = new ColumnarRowReader(resultSetMetaDataJson, rowCount, names, types);
+	for (int col = 1; col <= columnCount; col++) {
+	    byte[] nullBitmap = new byte[(rowCount + 7) / 8];
+	    din.readFully(nullBitmap);
+	    reader.nullBitmaps[col] = nullBitmap;
+	    reader.columns[col] = readColumn(din, types[col], rowCount);
+	}
+
+	return reader;
+    }
+
+    private static void checkCount(String name, int count) throws IOException {
+	if (count < 0) {
+	    throw new IOException("Invalid " + name + ": " + count);
+	}
+    }
+
+    /**
+     * Reads the values of a column. Fixed width values are read in bulk.
+     */
+    private static Object readColumn(DataInputStream din, byte type, int rowCount) throws IOException {
+	if (type == TYPE_STRING) {
+	    String[] values = new String[rowCount];
+	    for (int i = 0; i < rowCount; i++) {
+		values[i] = readString(din);
+	    }
+	    return values;
+	}
+
+	int width = type == TYPE_INT ? 4 : 8;
+	if ((long) rowCount * width > Integer.MAX_VALUE) {
+	    throw new IOException("Column too large to be decoded: " + rowCount + " rows.");
+	}
+	byte[] block = new byte[rowCount * width];
+	din.readFully(block);
+	ByteBuffer buffer = ByteBuffer.wrap(block);
+
+	if (type == TYPE_INT) {
+	    int[] values = new int[rowCount];
+	    buffer.asIntBuffer().get(values);
+	    return values;
+	} else if (type == TYPE_LONG) {
+	    long[] values = new long[rowCount];
+	    buffer.asLongBuffer().get(values);
+	    return values;
+	} else {
+	    double[] values = new double[rowCount];
+	    buffer.asDoubleBuffer().get(values);
+	    return values;
+	}
+    }
+
+    private static String readString(DataInputStream din) throws IOException {
+	int length = din.readInt();
+	if (length < 0) {
+	    return null;
+	}
+	byte[] bytes = new byte[length];
+	din.readFully(bytes);
+	return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean buildRowNum(int rowNum) {
+	if (columns == null || rowNum < 1 || rowNum > rowCount) {
+	    return false;
+	}
+	rowIndex = rowNum - 1;
+	return true;
+    }
+
+    /**
+     * Returns a value of the current row as text, "NULL" if the value is NULL.
+     */
+    @Override
+    public String getValue(int colIndex) {
+	if (rowIndex < 0 || colIndex < 1 || colIndex > columnCount) {
+	    return null;
+	}
+
+	if (isNull(colIndex)) {
+	    return "NULL";
+	}
+
+	switch (types[colIndex]) {
+	case TYPE_INT:
+	    return Integer.toString(((int[]) columns[colIndex])[rowIndex]);
+	case TYPE_LONG:
+	    return Long.toString(((long[]) columns[colIndex])[rowIndex]);
+	case TYPE_DOUBLE:
+	    return Double.toString(((double[]) columns[colIndex])[rowIndex]);
+	default:
+	    String value = ((String[]) columns[colIndex])[rowIndex];
+	    return value != null ? value : "NULL";
+	}
+    }
+
+    /**
+     * Says if a column has fixed width values, readable with
+     * {@link #getLong(int)} and {@link #getDouble(int)}.
+     *
+     * @param colIndex the column index, starting at 1
+     * @return true if the column is an INT, LONG or DOUBLE column
+     */
+    public boolean isFixedWidth(int colIndex) {
+	return colIndex >= 1 && colIndex <= columnCount && types[colIndex] != TYPE_STRING;
+    }
+
+    /**
+     * @param colIndex the column index, starting at 1
+     * @return true if the value of the current row is NULL
+     */
+    public boolean isNull(int colIndex) {
+	return (nullBitmaps[colIndex][rowIndex >> 3] & (1 << (rowIndex & 7))) != 0;
+    }
+
+    /**
+     * @param colIndex the index of a fixed width column, starting at 1
+     * @return the value of the current row, 0 if NULL
+     */
+    public long getLong(int colIndex) {
+	switch (types[colIndex]) {
+	case TYPE_INT:
+	    return ((int[]) columns[colIndex])[rowIndex];
+	case TYPE_LONG:
+	    return ((long[]) columns[colIndex])[rowIndex];
+	case TYPE_DOUBLE:
+	    return (long) ((double[]) columns[colIndex])[rowIndex];
+	default:
+	    throw new IllegalArgumentException("Not a fixed width column: " + colIndex);
+	}
+    }
+
+    /**
+     * @param colIndex the index of a fixed width column, starting at 1
+     * @return the value of the current row, 0 if NULL
+     */
+    public double getDouble(int colIndex) {
+	if (types[colIndex] == TYPE_DOUBLE) {
+	    return ((double[]) columns[colIndex])[rowIndex];
+	}
+	return getLong(colIndex);
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int getRowCount() {
+	return rowCount;
+    }
+
+    /**
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+	return columnCount;
+    }
+
+    /**
+     * @return the ResultSetMetaData JSON string, or null if none
+     */
+    public String getResultSetMetaDataJson() {
+	return resultSetMetaDataJson;
+    }
+
+    @Override
+    public Map<String, Integer> getIndexsPerColName() {
+	return indexsPerColName;
+    }
+
+    @Override
+    public void resetParser() {
+	rowIndex = -1;
+    }
+
+    @Override
+    public void close() {
+	columns = null;
+	nullBitmaps = null;
+	rowIndex = -1;
+    }
+
+    @Override
+    public boolean isTraceOn() {
+	return traceOn;
+    }
+
+    @Override
+    public void setTraceOn(boolean traceOn) {
+	this.traceOn = traceOn;
+    }
+
+}
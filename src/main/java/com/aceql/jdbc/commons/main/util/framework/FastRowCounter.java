@@ -24,59 +24,84 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
-import org.apache.commons.lang3.StringUtils;
-
 /**
- * A fast Result Set rows counter, does not use JSON parse...
+ * A fast Result Set rows counter, does not use JSON parse... <br>
+ * The "row_count" key is always at the end of the Json Result Set, so only
+ * the tail of the content is read.
  * @author Nicolas de Pomereu
  *
  */
 public class FastRowCounter {
 
     public static boolean DEBUG = FrameworkDebug.isSet(FastRowCounter.class);
-    
+
+    /** The "row_count" and its value are always in the last bytes */
+    private static final int TAIL_SIZE = 64;
+
+    /** Max tail size to read in case of unusual trailing blanks */
+    private static final int MAX_TAIL_SIZE = 4096;
+
+    private static final byte[] ROW_COUNT = "\"row_count\"".getBytes(StandardCharsets.US_ASCII);
+
     /**
-     * Returns the Result Set rows count without parsing the Json file.
-     * @param file the Json Result Set file to counts the rows from
+     * Returns the Result Set rows count without parsing the Json stream. The
+     * stream is read until the end, only the last bytes are kept in a ring buffer.
+     * @param inputStream the Json Result Set stream to counts the rows from
+     * @param size the stream size. Not used anymore, kept for compatibility
      * @return  the Json Result Set rows count
-     * @throws IOException if any I/O Exception or file does not exist
+     * @throws IOException if any I/O Exception or "row_count" not found
      */
     public static int getRowCount(InputStream inputStream, long size) throws IOException {
+	return getRowCount(inputStream);
+    }
 
-	StringBuffer sb = new StringBuffer();
-
-	//long size = file.length();
+    /**
+     * Returns the Result Set rows count without parsing the Json stream. The
+     * stream is read until the end, only the last bytes are kept in a ring buffer.
+     * @param inputStream the Json Result Set stream to counts the rows from
+     * @return  the Json Result Set rows count
+     * @throws IOException if any I/O Exception or "row_count" not found
+     */
+    public static int getRowCount(InputStream inputStream) throws IOException {
+	Objects.requireNonNull(inputStream, "inputStream cannot be null!");
 
-	try (InputStream is = new BufferedInputStream(inputStream)) {
-	    byte[] c = new byte[1024];
+	byte[] ring = new byte[MAX_TAIL_SIZE];
+	long total = 0;
 
+	try (InputStream is = inputStream) {
+	    byte[] c = new byte[8192];
 	    int readChars = 0;
-	    long cpt = 0;
 	    while ((readChars = is.read(c)) != -1) {
-
-		for (int i = 0; i < readChars; ++i) {
-		    cpt++;
-		    if (cpt > size - 40 && cpt < size - 1) {
-			sb.append((char) c[i]);
-		    }
+		// Only the last ring.length bytes of the buffer can be kept
+		int from = Math.max(0, readChars - ring.length);
+		for (int i = from; i < readChars; i++) {
+		    ring[(int) ((total + i) % ring.length)] = c[i];
 		}
+		total += readChars;
 	    }
+	}
 
-	} 
+	// Unroll the ring in order
+	int length = (int) Math.min(total, ring.length);
+	byte[] tail = new byte[length];
+	for (int i = 0; i < length; i++) {
+	    tail[i] = ring[(int) ((total - length + i) % ring.length)];
+	}
 
-	String line = sb.toString();
-	debug("!" + line + "!");
-	line = StringUtils.substringAfter(line, ",");
-	line = StringUtils.substringAfter(line, ":").trim();
-	debug("!" + line + "!");
-	return Integer.parseInt(line);
+	int rowCount = parseRowCount(tail, length);
+	if (rowCount < 0) {
+	    throw new IOException("\"row_count\" not found at end of stream.");
+	}
+	return rowCount;
     }
 
-    
     /**
-     * Returns the Result Set rows count without parsing the Json file.
+     * Returns the Result Set rows count without parsing the Json file. Seeks
+     * directly to the tail of the file, so time does not depend on file size.
      * @param file the Json Result Set file to counts the rows from
      * @return  the Json Result Set rows count
      * @throws IOException if any I/O Exception or file does not exist
@@ -88,33 +113,76 @@ public class FastRowCounter {
 	    throw new FileNotFoundException("file does not exist: " + file);
 	}
 
-	StringBuffer sb = new StringBuffer();
-
-	long size = file.length();
+	try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+	    long size = raf.length();
 
-	try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
-	    byte[] c = new byte[1024];
+	    int tailSize = TAIL_SIZE;
+	    while (true) {
+		int length = (int) Math.min(size, tailSize);
+		byte[] tail = new byte[length];
+		raf.seek(size - length);
+		raf.readFully(tail);
 
-	    int readChars = 0;
-	    long cpt = 0;
-	    while ((readChars = is.read(c)) != -1) {
+		int rowCount = parseRowCount(tail, length);
+		if (rowCount >= 0) {
+		    return rowCount;
+		}
 
-		for (int i = 0; i < readChars; ++i) {
-		    cpt++;
-		    if (cpt > size - 40 && cpt < size - 1) {
-			sb.append((char) c[i]);
-		    }
+		if (length == size || tailSize >= MAX_TAIL_SIZE) {
+		    throw new IOException("\"row_count\" not found at end of file: " + file);
 		}
+		tailSize *= 4;
 	    }
+	}
+    }
 
-	} 
+    /**
+     * Parses the value of the last "row_count" key in the tail of a Json Result
+     * Set.
+     * @param tail the last bytes of the Json Result Set
+     * @param length the number of bytes in tail
+     * @return the row count, or -1 if the last "row_count" key is not found
+     * @throws IOException if the "row_count" value is not numeric
+     */
+    static int parseRowCount(byte[] tail, int length) throws IOException {
+	int keyIndex = lastIndexOf(tail, length, ROW_COUNT);
+	if (keyIndex < 0) {
+	    return -1;
+	}
 
-	String line = sb.toString();
-	debug("!" + line + "!");
-	line = StringUtils.substringAfter(line, ",");
-	line = StringUtils.substringAfter(line, ":").trim();
-	debug("!" + line + "!");
-	return Integer.parseInt(line);
+	int i = keyIndex + ROW_COUNT.length;
+	while (i < length && (tail[i] == ' ' || tail[i] == ':' || tail[i] == '\t' || tail[i] == '\r' || tail[i] == '\n')) {
+	    i++;
+	}
+
+	int rowCount = 0;
+	int digits = 0;
+	while (i < length && tail[i] >= '0' && tail[i] <= '9') {
+	    rowCount = rowCount * 10 + (tail[i] - '0');
+	    digits++;
+	    i++;
+	}
+
+	if (digits == 0) {
+	    throw new IOException("Invalid \"row_count\" value: "
+		    + new String(tail, keyIndex, length - keyIndex, StandardCharsets.UTF_8));
+	}
+
+	debug("!" + rowCount + "!");
+	return rowCount;
+    }
+
+    private static int lastIndexOf(byte[] bytes, int length, byte[] key) {
+	for (int i = length - key.length; i >= 0; i--) {
+	    int j = 0;
+	    while (j < key.length && bytes[i + j] == key[j]) {
+		j++;
+	    }
+	    if (j == key.length) {
+		return i;
+	    }
+	}
+	return -1;
     }
 
     /**
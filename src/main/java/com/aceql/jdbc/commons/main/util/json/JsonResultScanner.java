@@ -0,0 +1,494 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util.json;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonReader;
+
+/**
+ * Incremental byte scanner of a JSON result returned by the AceQL server. <br>
+ * The bytes are passed with {@link #update(byte[], int, int)} while the
+ * response is being written to disk, so that all the info needed before
+ * reading the rows is available without any further read of the file:
+ * <ul>
+ * <li>The "status" value, and the "error_type", "error_message" and
+ * "stack_trace" values in case of failure.</li>
+ * <li>The "row_count" value.</li>
+ * <li>The "ResultSetMetaData" JSON string.</li>
+ * <li>The "cursor_id" value, if the server has more rows to send.</li>
+ * <li>The "column_names" array of the compact row format.</li>
+ * <li>The presence of "query_rows", and the {@link RowOffsetIndex} of its
+ * rows, either objects or arrays of values in compact format.</li>
+ * <li>The objects of the "results" array of a pipeline response, each scanned
+ * by its own {@code JsonResultScanner}, with its offset in the response.</li>
+ * </ul>
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class JsonResultScanner {
+
+    private static final byte[] QUERY_ROWS = bytes("query_rows");
+    private static final byte[] STATUS = bytes("status");
+    private static final byte[] ROW_COUNT = bytes("row_count");
+    private static final byte[] ERROR_TYPE = bytes("error_type");
+    private static final byte[] ERROR_MESSAGE = bytes("error_message");
+    private static final byte[] STACK_TRACE = bytes("stack_trace");
+    private static final byte[] RESULT_SET_META_DATA = bytes("ResultSetMetaData");
+    private static final byte[] CURSOR_ID = bytes("cursor_id");
+    private static final byte[] COLUMN_NAMES = bytes("column_names");
+    private static final byte[] RESULTS = bytes("results");
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    // The top level keys whose values are captured
+    private static final int KEY_OTHER = 0;
+    private static final int KEY_QUERY_ROWS = 1;
+    private static final int KEY_STATUS = 2;
+    private static final int KEY_ROW_COUNT = 3;
+    private static final int KEY_ERROR_TYPE = 4;
+    private static final int KEY_ERROR_MESSAGE = 5;
+    private static final int KEY_STACK_TRACE = 6;
+    private static final int KEY_RESULT_SET_META_DATA = 7;
+    private static final int KEY_CURSOR_ID = 8;
+    private static final int KEY_COLUMN_NAMES = 9;
+    private static final int KEY_RESULTS = 10;
+
+    private final RowOffsetIndex rowOffsetIndex = new RowOffsetIndex();
+
+    /** The scanners of the "results" objects, and their offsets */
+    private final List<JsonResultScanner> resultScanners = new ArrayList<>();
+    private final RowOffsetIndex resultOffsetIndex = new RowOffsetIndex();
+
+    /** The scanner of the "results" object being scanned, null if none */
+    private JsonResultScanner resultScanner = null;
+
+    /** Position in stream of the first byte of the next update */
+    private long position = 0;
+
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+
+    /** Says if next string at depth 1 is a key of the top level object */
+    private boolean expectKey = false;
+    private boolean capturingKey = false;
+    private final byte[] keyBuffer = new byte[MAX_KEY_LENGTH];
+    private int keyLength = 0;
+
+    /** The last top level key read */
+    private int currentKey = KEY_OTHER;
+
+    /** Says if next non blank char at depth 1 starts the value of currentKey */
+    private boolean expectValue = false;
+
+    /** Raw capture of a top level string or number value */
+    private boolean capturingString = false;
+    private boolean capturingNumber = false;
+    /** Raw capture of the top level "column_names" array */
+    private boolean capturingArray = false;
+    private byte[] valueBuffer = new byte[MAX_KEY_LENGTH];
+    private int valueLength = 0;
+
+    private boolean queryRowsFound = false;
+
+    // Captured values. Strings are raw JSON, still escaped
+    private String status = null;
+    private String rowCount = null;
+    private String errorType = null;
+    private String errorMessage = null;
+    private String stackTrace = null;
+    private String resultSetMetaData = null;
+    private String cursorId = null;
+    private String columnNames = null;
+
+    /**
+     * Scans the passed bytes, that must follow the previously scanned ones.
+     *
+     * @param b   the data
+     * @param off the start offset in the data
+     * @param len the number of bytes to scan
+     */
+    public void update(byte[] b, int off, int len) {
+	// Start of the bytes of the current "results" object in b
+	int resultOff = off;
+
+	for (int i = off; i < off + len; i++) {
+	    byte c = b[i];
+
+	    if (capturingArray) {
+		appendValue(c);
+	    }
+
+	    if (inString) {
+		if (escaped) {
+		    escaped = false;
+		    if (capturingString) {
+			appendValue(c);
+		    }
+		} else if (c == '\\') {
+		    escaped = true;
+		    if (capturingString) {
+			appendValue(c);
+		    }
+		} else if (c == '"') {
+		    inString = false;
+		    if (capturingKey) {
+			endKey();
+		    } else if (capturingString) {
+			capturingString = false;
+			endValue();
+		    }
+		} else if (capturingKey) {
+		    if (keyLength < MAX_KEY_LENGTH) {
+			keyBuffer[keyLength++] = c;
+		    }
+		} else if (capturingString) {
+		    appendValue(c);
+		}
+		continue;
+	    }
+
+	    if (capturingNumber) {
+		if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+		    appendValue(c);
+		    continue;
+		}
+		capturingNumber = false;
+		endValue();
+	    }
+
+	    if (expectValue && depth == 1 && c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != ':') {
+		expectValue = false;
+		if (currentKey != KEY_OTHER && currentKey != KEY_QUERY_ROWS) {
+		    valueLength = 0;
+		    if (c == '"') {
+			capturingString = true;
+		    } else if (c == '[' && currentKey == KEY_COLUMN_NAMES) {
+			capturingArray = true;
+			appendValue(c);
+		    } else if ((c >= '0' && c <= '9') || c == '-') {
+			capturingNumber = true;
+			appendValue(c);
+			continue;
+		    }
+		}
+	    }
+
+	    switch (c) {
+	    case '"':
+		inString = true;
+		capturingKey = depth == 1 && expectKey;
+		keyLength = 0;
+		break;
+	    case ':':
+		if (depth == 1) {
+		    expectValue = true;
+		}
+		break;
+	    case '{':
+		if (depth == 2 && currentKey == KEY_QUERY_ROWS) {
+		    rowOffsetIndex.add(position + (i - off));
+		} else if (depth == 2 && currentKey == KEY_RESULTS) {
+		    resultOffsetIndex.add(position + (i - off));
+		    resultScanner = new JsonResultScanner();
+		    resultOff = i;
+		}
+		depth++;
+		if (depth == 1) {
+		    expectKey = true;
+		}
+		break;
+	    case '[':
+		// A row of the compact format
+		if (depth == 2 && currentKey == KEY_QUERY_ROWS) {
+		    rowOffsetIndex.add(position + (i - off));
+		}
+		depth++;
+		break;
+	    case '}':
+	    case ']':
+		depth--;
+		if (capturingArray && depth == 1) {
+		    capturingArray = false;
+		    endValue();
+		}
+		if (resultScanner != null && depth == 2) {
+		    resultScanner.update(b, resultOff, i - resultOff + 1);
+		    resultScanners.add(resultScanner);
+		    resultScanner = null;
+		}
+		break;
+	    case ',':
+		if (depth == 1) {
+		    expectKey = true;
+		}
+		break;
+	    default:
+		// Whitespaces and values chars
+	    }
+	}
+
+	if (resultScanner != null) {
+	    resultScanner.update(b, resultOff, off + len - resultOff);
+	}
+	position += len;
+    }
+
+    private void endKey() {
+	capturingKey = false;
+	expectKey = false;
+
+	if (keyEquals(QUERY_ROWS)) {
+	    currentKey = KEY_QUERY_ROWS;
+	    queryRowsFound = true;
+	} else if (keyEquals(STATUS)) {
+	    currentKey = KEY_STATUS;
+	} else if (keyEquals(ROW_COUNT)) {
+	    currentKey = KEY_ROW_COUNT;
+	} else if (keyEquals(ERROR_TYPE)) {
+	    currentKey = KEY_ERROR_TYPE;
+	} else if (keyEquals(ERROR_MESSAGE)) {
+	    currentKey = KEY_ERROR_MESSAGE;
+	} else if (keyEquals(STACK_TRACE)) {
+	    currentKey = KEY_STACK_TRACE;
+	} else if (keyEquals(RESULT_SET_META_DATA)) {
+	    currentKey = KEY_RESULT_SET_META_DATA;
+	} else if (keyEquals(CURSOR_ID)) {
+	    currentKey = KEY_CURSOR_ID;
+	} else if (keyEquals(COLUMN_NAMES)) {
+	    currentKey = KEY_COLUMN_NAMES;
+	} else if (keyEquals(RESULTS)) {
+	    currentKey = KEY_RESULTS;
+	} else {
+	    currentKey = KEY_OTHER;
+	}
+    }
+
+    private boolean keyEquals(byte[] key) {
+	if (keyLength != key.length) {
+	    return false;
+	}
+	for (int i = 0; i < keyLength; i++) {
+	    if (keyBuffer[i] != key[i]) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    private void appendValue(byte c) {
+	if (valueLength == valueBuffer.length) {
+	    valueBuffer = Arrays.copyOf(valueBuffer, valueLength * 2);
+	}
+	valueBuffer[valueLength++] = c;
+    }
+
+    private void endValue() {
+	String value = new String(valueBuffer, 0, valueLength, StandardCharsets.UTF_8);
+
+	switch (currentKey) {
+	case KEY_STATUS:
+	    status = value;
+	    break;
+	case KEY_ROW_COUNT:
+	    rowCount = value;
+	    break;
+	case KEY_ERROR_TYPE:
+	    errorType = value;
+	    break;
+	case KEY_ERROR_MESSAGE:
+	    errorMessage = value;
+	    break;
+	case KEY_STACK_TRACE:
+	    stackTrace = value;
+	    break;
+	case KEY_RESULT_SET_META_DATA:
+	    resultSetMetaData = value;
+	    break;
+	case KEY_CURSOR_ID:
+	    cursorId = value;
+	    break;
+	case KEY_COLUMN_NAMES:
+	    columnNames = value;
+	    break;
+	default:
+	    // Not captured
+	}
+
+	// Do not keep a large buffer after a ResultSetMetaData or stack trace
+	if (valueBuffer.length > MAX_KEY_LENGTH) {
+	    valueBuffer = new byte[MAX_KEY_LENGTH];
+	}
+	valueLength = 0;
+    }
+
+    /**
+     * Unescapes a raw JSON string value.
+     *
+     * @param raw the raw JSON string value, without the enclosing quotes
+     * @return the unescaped value, or null if raw is null
+     */
+    private static String unescape(String raw) {
+	if (raw == null || raw.indexOf('\\') < 0) {
+	    return raw;
+	}
+	try (JsonReader jsonReader = Json.createReader(new StringReader("[\"" + raw + "\"]"))) {
+	    return jsonReader.readArray().getString(0);
+	}
+    }
+
+    private static byte[] bytes(String s) {
+	return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Says if the top level "status" key has been scanned. If not, the content is
+     * not a complete AceQL JSON result and must be analyzed with a parser.
+     *
+     * @return true if the "status" value has been scanned
+     */
+    public boolean isStatusScanned() {
+	return status != null;
+    }
+
+    /**
+     * @return the "status" value, or null if not scanned
+     */
+    public String getStatus() {
+	return unescape(status);
+    }
+
+    /**
+     * @return true if the result contains the "query_rows" key, aka is a ResultSet
+     */
+    public boolean isQueryRowsFound() {
+	return queryRowsFound;
+    }
+
+    /**
+     * @return the "row_count" value, or -1 if not scanned
+     */
+    public int getRowCount() {
+	if (rowCount == null) {
+	    return -1;
+	}
+	try {
+	    return Integer.parseInt(rowCount);
+	} catch (NumberFormatException e) {
+	    return -1;
+	}
+    }
+
+    /**
+     * @return the "error_type" value, or null if not scanned
+     */
+    public String getErrorType() {
+	return unescape(errorType);
+    }
+
+    /**
+     * @return the "error_message" value, or null if not scanned
+     */
+    public String getErrorMessage() {
+	return unescape(errorMessage);
+    }
+
+    /**
+     * @return the "stack_trace" value, or null if not scanned
+     */
+    public String getStackTrace() {
+	return unescape(stackTrace);
+    }
+
+    /**
+     * @return the "ResultSetMetaData" JSON string, or null if not scanned
+     */
+    public String getResultSetMetaDataJson() {
+	return unescape(resultSetMetaData);
+    }
+
+    /**
+     * @return the "cursor_id" value, or null if not scanned. A cursor id says that
+     *         the server holds more rows, to be fetched by pages
+     */
+    public String getCursorId() {
+	return unescape(cursorId);
+    }
+
+    /**
+     * @return the column names of the compact row format, in column order, or
+     *         null if not scanned
+     */
+    public List<String> getColumnNames() {
+	if (columnNames == null) {
+	    return null;
+	}
+
+	List<String> names = new ArrayList<>();
+	try (JsonReader jsonReader = Json.createReader(new StringReader(columnNames))) {
+	    JsonArray jsonArray = jsonReader.readArray();
+	    for (int i = 0; i < jsonArray.size(); i++) {
+		names.add(jsonArray.getString(i));
+	    }
+	}
+	return names;
+    }
+
+    /**
+     * @return the scanners of the objects of the "results" array of a pipeline
+     *         response, fully scanned so far, in order
+     */
+    public List<JsonResultScanner> getResultScanners() {
+	return resultScanners;
+    }
+
+    /**
+     * Returns the byte offset of an object of the "results" array. Its length is
+     * the {@link #getPosition()} of its scanner.
+     *
+     * @param index the index of the object in the array, starting at 0
+     * @return the byte offset of the object, or -1 if not scanned
+     */
+    public long getResultOffset(int index) {
+	return resultOffsetIndex.getOffset(index + 1);
+    }
+
+    /**
+     * @return the offsets of the rows scanned so far
+     */
+    public RowOffsetIndex getRowOffsetIndex() {
+	return rowOffsetIndex;
+    }
+
+    /**
+     * @return the number of bytes scanned so far
+     */
+    public long getPosition() {
+	return position;
+    }
+
+}
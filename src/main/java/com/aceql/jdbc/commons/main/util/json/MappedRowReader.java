@@ -0,0 +1,519 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util.json;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.SystemUtils;
+
+/**
+ * A {@link RowReader} that tokenizes the UTF-8 bytes of a memory mapped JSON
+ * result set file, or of a JSON result set held in memory. <br>
+ * A row read only stores the byte positions of its values: a value is decoded
+ * to a {@code String} only when requested with {@link #getValue(int)}, and
+ * column names are decoded once, on the first row read.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class MappedRowReader implements RowReader {
+
+    private static final int INITIAL_COLUMNS = 16;
+
+    /** The mapped file, null if the content is held in memory */
+    private final File jsonFile;
+    private final RowOffsetIndex rowOffsetIndex;
+
+    /** The mapped file content, null when closed */
+    private ByteBuffer buffer;
+    /** Used for bulk copies of values */
+    private ByteBuffer view;
+    private int limit;
+
+    // The current row, as [start, end[ slices of buffer. Index 0 is unused
+    private int currentRowNum = 0;
+    private int columnCount = 0;
+    private int[] valueStarts = new int[INITIAL_COLUMNS + 1];
+    private int[] valueEnds = new int[INITIAL_COLUMNS + 1];
+    private boolean[] valueEscaped = new boolean[INITIAL_COLUMNS + 1];
+    /** Values of the current row already decoded */
+    private String[] values = new String[INITIAL_COLUMNS + 1];
+
+    /** Says if the last string skipped contains escaped chars */
+    private boolean lastStringEscaped = false;
+
+    private byte[] scratch = new byte[256];
+
+    private Map<String, Integer> indexsPerColName = null;
+
+    private boolean traceOn;
+
+    /**
+     * Constructor. Maps the file in memory.
+     *
+     * @param jsonFile       the JSON result set file. Must be less than 2 GB, see
+     *                       {@link #isMappable(File)}
+     * @param rowOffsetIndex the byte offsets of the rows in the file. If null, the
+     *                       offsets are built by scanning the mapped file.
+     * @throws SQLException if the file does not exist or can not be mapped
+     */
+    public MappedRowReader(File jsonFile, RowOffsetIndex rowOffsetIndex) throws SQLException {
+
+	if (jsonFile == null) {
+	    throw new SQLException("jsonFile is null!");
+	}
+
+	if (!jsonFile.exists()) {
+	    throw new SQLException(new FileNotFoundException("jsonFile does not exist: " + jsonFile));
+	}
+
+	if (!isMappable(jsonFile)) {
+	    throw new SQLException("jsonFile is too large to be mapped: " + jsonFile);
+	}
+
+	this.jsonFile = jsonFile;
+
+	// The mapping stays valid after the channel is closed
+	try (FileChannel channel = FileChannel.open(jsonFile.toPath(), StandardOpenOption.READ)) {
+	    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+	} catch (IOException e) {
+	    throw new SQLException(e);
+	}
+
+	view = buffer.duplicate();
+	limit = buffer.limit();
+
+	this.rowOffsetIndex = rowOffsetIndex != null ? rowOffsetIndex : buildRowOffsetIndex();
+    }
+
+    /**
+     * Constructor for a JSON result set held in memory. The content is not
+     * copied.
+     *
+     * @param jsonContent    the JSON result set content
+     * @param rowOffsetIndex the byte offsets of the rows in the content. If null,
+     *                       the offsets are built by scanning the content.
+     * @throws SQLException if the content is null
+     */
+    public MappedRowReader(byte[] jsonContent, RowOffsetIndex rowOffsetIndex) throws SQLException {
+
+	if (jsonContent == null) {
+	    throw new SQLException("jsonContent is null!");
+	}
+
+	this.jsonFile = null;
+	buffer = ByteBuffer.wrap(jsonContent);
+	view = buffer.duplicate();
+	limit = buffer.limit();
+
+	this.rowOffsetIndex = rowOffsetIndex != null ? rowOffsetIndex : buildRowOffsetIndex();
+    }
+
+    /**
+     * Says if a file can be mapped by a {@code MappedRowReader}.
+     *
+     * @param jsonFile the JSON result set file
+     * @return true if the file size is less than 2 GB
+     */
+    public static boolean isMappable(File jsonFile) {
+	return jsonFile.length() <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Says if a mapped file can be deleted once the reader is closed. The mapping
+     * is released only when the buffer is garbage collected, and Windows refuses
+     * to delete a file that is still mapped.
+     *
+     * @return true if the mapped file can be deleted on close
+     */
+    public static boolean isDeletableWhileMapped() {
+	return !SystemUtils.IS_OS_WINDOWS;
+    }
+
+    private RowOffsetIndex buildRowOffsetIndex() {
+	JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	byte[] chunk = new byte[8192];
+	view.position(0);
+	while (view.hasRemaining()) {
+	    int length = Math.min(chunk.length, view.remaining());
+	    view.get(chunk, 0, length);
+	    jsonResultScanner.update(chunk, 0, length);
+	}
+	return jsonResultScanner.getRowOffsetIndex();
+    }
+
+    @Override
+    public boolean buildRowNum(int rowNum) throws SQLException {
+
+	if (buffer == null) {
+	    throw new SQLException("Reader is closed.");
+	}
+
+	long offset = rowOffsetIndex.getOffset(rowNum);
+	if (offset < 0) {
+	    return false;
+	}
+
+	try {
+	    parseRow((int) offset);
+	} catch (IndexOutOfBoundsException | IllegalStateException e) {
+	    throw new SQLException("Invalid JSON for row " + rowNum + (jsonFile != null ? " in " + jsonFile : "")
+		    + ": " + e.getMessage(), e);
+	}
+
+	currentRowNum = rowNum;
+	trace("row " + rowNum + " columns: " + columnCount);
+	return true;
+    }
+
+    /**
+     * Tokenizes a <code>{"row_n":[{"col1":"value1"},{"col2":"value2"}]}</code>
+     * object, or a <code>["value1","value2"]</code> array of the compact format,
+     * and stores the position of each value.
+     *
+     * @param offset the position of the row object
+     */
+    private void parseRow(int offset) {
+
+	int start = skipBlanks(offset);
+	if (buffer.get(start) == '[') {
+	    parseCompactRow(start);
+	    return;
+	}
+
+	boolean buildNames = indexsPerColName == null;
+	Map<String, Integer> names = buildNames ? new HashMap<String, Integer>() : null;
+
+	int i = expect(skipBlanks(offset), '{');
+	i = skipString(skipBlanks(i)); // "row_n"
+	i = expect(skipBlanks(i), ':');
+	i = expect(skipBlanks(i), '[');
+	i = skipBlanks(i);
+
+	int col = 0;
+
+	if (buffer.get(i) != ']') {
+	    while (true) {
+		i = expect(skipBlanks(i), '{');
+		i = skipBlanks(i);
+		int keyStart = i + 1;
+		i = skipString(i);
+		int keyEnd = i - 1;
+		boolean keyEscaped = lastStringEscaped;
+		i = expect(skipBlanks(i), ':');
+		i = skipBlanks(i);
+
+		col++;
+		ensureCapacity(col);
+		i = tokenizeValue(i, col);
+
+		if (buildNames) {
+		    names.put(decode(keyStart, keyEnd, keyEscaped), col);
+		}
+
+		i = expect(skipBlanks(i), '}');
+		i = skipBlanks(i);
+
+		byte c = buffer.get(i);
+		if (c == ',') {
+		    i++;
+		} else if (c == ']') {
+		    break;
+		} else {
+		    throw new IllegalStateException("unexpected char '" + (char) c + "' at position " + i);
+		}
+	    }
+	}
+
+	columnCount = col;
+	Arrays.fill(values, null);
+
+	if (buildNames) {
+	    indexsPerColName = names;
+	}
+    }
+
+    /**
+     * Tokenizes a <code>["value1","value2"]</code> row of the compact format.
+     *
+     * @param start the position of the row array
+     */
+    private void parseCompactRow(int start) {
+
+	if (indexsPerColName == null) {
+	    indexsPerColName = readColumnNames();
+	}
+
+	int i = expect(start, '[');
+	i = skipBlanks(i);
+
+	int col = 0;
+
+	if (buffer.get(i) != ']') {
+	    while (true) {
+		i = skipBlanks(i);
+		col++;
+		ensureCapacity(col);
+		i = tokenizeValue(i, col);
+		i = skipBlanks(i);
+
+		byte c = buffer.get(i);
+		if (c == ',') {
+		    i++;
+		} else if (c == ']') {
+		    break;
+		} else {
+		    throw new IllegalStateException("unexpected char '" + (char) c + "' at position " + i);
+		}
+	    }
+	}
+
+	columnCount = col;
+	Arrays.fill(values, null);
+    }
+
+    /**
+     * Stores the position of the value that starts at i.
+     *
+     * @return the position after the value
+     */
+    private int tokenizeValue(int i, int col) {
+	if (buffer.get(i) == '"') {
+	    valueStarts[col] = i + 1;
+	    i = skipString(i);
+	    valueEnds[col] = i - 1;
+	    valueEscaped[col] = lastStringEscaped;
+	} else {
+	    // Number or literal
+	    valueStarts[col] = i;
+	    while (i < limit && !isDelimiter(buffer.get(i))) {
+		i++;
+	    }
+	    valueEnds[col] = i;
+	    valueEscaped[col] = false;
+	}
+	return i;
+    }
+
+    /**
+     * Reads the "column_names" array of the compact format, before the rows.
+     */
+    private Map<String, Integer> readColumnNames() {
+	JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	byte[] chunk = new byte[1024];
+	view.position(0);
+	while (view.hasRemaining() && !jsonResultScanner.isQueryRowsFound()) {
+	    int length = Math.min(chunk.length, view.remaining());
+	    view.get(chunk, 0, length);
+	    jsonResultScanner.update(chunk, 0, length);
+	}
+
+	List<String> columnNames = jsonResultScanner.getColumnNames();
+	if (columnNames == null) {
+	    throw new IllegalStateException("\"column_names\" not found before compact rows.");
+	}
+
+	Map<String, Integer> names = new HashMap<String, Integer>();
+	for (int col = 1; col <= columnNames.size(); col++) {
+	    names.put(columnNames.get(col - 1), col);
+	}
+	return names;
+    }
+
+    private void ensureCapacity(int col) {
+	if (col < valueStarts.length) {
+	    return;
+	}
+	int newLength = valueStarts.length * 2;
+	valueStarts = Arrays.copyOf(valueStarts, newLength);
+	valueEnds = Arrays.copyOf(valueEnds, newLength);
+	valueEscaped = Arrays.copyOf(valueEscaped, newLength);
+	values = Arrays.copyOf(values, newLength);
+    }
+
+    private int skipBlanks(int i) {
+	while (i < limit) {
+	    byte c = buffer.get(i);
+	    if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+		break;
+	    }
+	    i++;
+	}
+	return i;
+    }
+
+    private int expect(int i, char expected) {
+	byte c = buffer.get(i);
+	if (c != expected) {
+	    throw new IllegalStateException(
+		    "expected '" + expected + "' but found '" + (char) c + "' at position " + i);
+	}
+	return i + 1;
+    }
+
+    /**
+     * Skips a JSON string.
+     *
+     * @param i the position of the opening quote
+     * @return the position after the closing quote
+     */
+    private int skipString(int i) {
+	if (buffer.get(i) != '"') {
+	    throw new IllegalStateException("expected '\"' but found '" + (char) buffer.get(i) + "' at position " + i);
+	}
+
+	lastStringEscaped = false;
+	int j = i + 1;
+	while (true) {
+	    byte c = buffer.get(j);
+	    if (c == '\\') {
+		lastStringEscaped = true;
+		j += 2;
+	    } else if (c == '"') {
+		return j + 1;
+	    } else {
+		j++;
+	    }
+	}
+    }
+
+    private static boolean isDelimiter(byte c) {
+	return c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /**
+     * Decodes a slice of the buffer as an UTF-8 string.
+     */
+    private String decode(int start, int end, boolean escaped) {
+	int length = end - start;
+	if (length > scratch.length) {
+	    scratch = new byte[Math.max(length, scratch.length * 2)];
+	}
+	view.position(start);
+	view.get(scratch, 0, length);
+	String s = new String(scratch, 0, length, StandardCharsets.UTF_8);
+	return escaped ? unescape(s) : s;
+    }
+
+    /**
+     * Unescapes the content of a JSON string.
+     *
+     * @param s the content of a JSON string, without the enclosing quotes
+     * @return the unescaped string
+     */
+    static String unescape(String s) {
+	StringBuilder sb = new StringBuilder(s.length());
+	for (int i = 0; i < s.length(); i++) {
+	    char c = s.charAt(i);
+	    if (c != '\\' || i + 1 >= s.length()) {
+		sb.append(c);
+		continue;
+	    }
+
+	    char next = s.charAt(++i);
+	    switch (next) {
+	    case 'b':
+		sb.append('\b');
+		break;
+	    case 'f':
+		sb.append('\f');
+		break;
+	    case 'n':
+		sb.append('\n');
+		break;
+	    case 'r':
+		sb.append('\r');
+		break;
+	    case 't':
+		sb.append('\t');
+		break;
+	    case 'u':
+		sb.append((char) Integer.parseInt(s.substring(i + 1, i + 5), 16));
+		i += 4;
+		break;
+	    default:
+		// '"', '\\' and '/'
+		sb.append(next);
+	    }
+	}
+	return sb.toString();
+    }
+
+    @Override
+    public String getValue(int colIndex) {
+	if (currentRowNum == 0 || colIndex < 1 || colIndex > columnCount) {
+	    return null;
+	}
+
+	String value = values[colIndex];
+	if (value == null) {
+	    value = decode(valueStarts[colIndex], valueEnds[colIndex], valueEscaped[colIndex]).trim();
+	    values[colIndex] = value;
+	}
+	return value;
+    }
+
+    @Override
+    public Map<String, Integer> getIndexsPerColName() {
+	return indexsPerColName;
+    }
+
+    @Override
+    public void resetParser() {
+	currentRowNum = 0;
+	columnCount = 0;
+    }
+
+    @Override
+    public void close() {
+	// Mapping is released when buffer is garbage collected
+	buffer = null;
+	view = null;
+	currentRowNum = 0;
+	columnCount = 0;
+    }
+
+    @Override
+    public boolean isTraceOn() {
+	return traceOn;
+    }
+
+    @Override
+    public void setTraceOn(boolean traceOn) {
+	this.traceOn = traceOn;
+    }
+
+    private void trace(String s) {
+	if (traceOn) {
+	    System.out.println(s);
+	}
+    }
+
+}
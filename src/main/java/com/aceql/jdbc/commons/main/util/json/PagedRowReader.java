@@ -0,0 +1,204 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util.json;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads forward the rows of a result set sent by pages by the server. <br>
+ * The first page is the result of the /execute_query call. While the server
+ * returns a cursor id, the next page is fetched when all the rows of the
+ * current one have been read. <br>
+ * Rows are numbered from 1 in each page, and from 1 across all pages for the
+ * callers of {@link #buildRowNum(int)}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class PagedRowReader implements RowReader {
+
+    /**
+     * Fetches the pages of a server cursor.
+     */
+    public interface PageFetcher {
+
+	/**
+	 * Fetches the next page of the cursor.
+	 *
+	 * @param cursorId  the cursor id returned with the previous page
+	 * @param fetchSize the max number of rows of the page
+	 * @return a streaming mode RowParser, positioned before the first row with
+	 *         {@link RowParser#readHeader()}
+	 * @throws SQLException if the server returns an error
+	 */
+	RowParser fetchPage(String cursorId, int fetchSize) throws SQLException;
+
+	/**
+	 * Releases the cursor on the server before all its rows have been read.
+	 *
+	 * @param cursorId the cursor id
+	 * @throws SQLException if the server returns an error
+	 */
+	void closeCursor(String cursorId) throws SQLException;
+    }
+
+    private final PageFetcher pageFetcher;
+    private int fetchSize;
+
+    /** The reader of the current page */
+    private RowReader page;
+    /** The number of rows of the current page, -1 if not known */
+    private int pageRowCount;
+    /** The number of rows of the previous pages */
+    private int pageOffset = 0;
+
+    /** The cursor id to fetch the next page with, null if current page is the last */
+    private String cursorId;
+
+    private int lastRowNum = 0;
+    private boolean traceOn;
+
+    /**
+     * Constructor.
+     *
+     * @param firstPage         the reader of the first page
+     * @param firstPageRowCount the number of rows of the first page
+     * @param cursorId          the cursor id returned with the first page
+     * @param fetchSize         the max number of rows of the next pages
+     * @param pageFetcher       the fetcher of the next pages
+     */
+    public PagedRowReader(RowReader firstPage, int firstPageRowCount, String cursorId, int fetchSize,
+	    PageFetcher pageFetcher) {
+	this.page = Objects.requireNonNull(firstPage, "firstPage cannot be null!");
+	this.pageRowCount = firstPageRowCount;
+	this.cursorId = Objects.requireNonNull(cursorId, "cursorId cannot be null!");
+	this.fetchSize = fetchSize;
+	this.pageFetcher = Objects.requireNonNull(pageFetcher, "pageFetcher cannot be null!");
+    }
+
+    /**
+     * Builds the values of the passed row num, after fetching the next page if
+     * the current one is consumed.
+     *
+     * @param rowNum the row number, that must follow the previous one
+     * @return true if the row has been found
+     * @throws SQLException if rowNum does not follow the previous row, or if the
+     *                      next page can not be fetched
+     */
+    @Override
+    public boolean buildRowNum(int rowNum) throws SQLException {
+	if (rowNum != lastRowNum + 1) {
+	    throw new SQLException("Rows can only be read forward in sequence in a paged ResultSet.");
+	}
+
+	while (true) {
+	    int pageRowNum = rowNum - pageOffset;
+	    if ((pageRowCount < 0 || pageRowNum <= pageRowCount) && page.buildRowNum(pageRowNum)) {
+		lastRowNum = rowNum;
+		return true;
+	    }
+
+	    // Current page is consumed
+	    if (cursorId == null) {
+		return false;
+	    }
+
+	    page.close();
+	    pageOffset = rowNum - 1;
+
+	    RowParser rowParser = pageFetcher.fetchPage(cursorId, fetchSize);
+	    rowParser.setTraceOn(traceOn);
+	    page = rowParser;
+	    pageRowCount = -1;
+	    cursorId = rowParser.getCursorId();
+	}
+    }
+
+    @Override
+    public String getValue(int colIndex) {
+	return page.getValue(colIndex);
+    }
+
+    @Override
+    public Map<String, Integer> getIndexsPerColName() {
+	return page.getIndexsPerColName();
+    }
+
+    /**
+     * Not supported: rows of the previous pages are not kept.
+     */
+    @Override
+    public void resetParser() throws SQLException {
+	throw new SQLException("A paged ResultSet can not be reset.");
+    }
+
+    /**
+     * Closes the current page, and releases the server cursor if all rows have
+     * not been read.
+     */
+    @Override
+    public void close() {
+	page.close();
+
+	if (cursorId != null) {
+	    String cursorIdToClose = cursorId;
+	    cursorId = null;
+	    try {
+		pageFetcher.closeCursor(cursorIdToClose);
+	    } catch (SQLException e) {
+		// The server releases the cursor anyway at end of session
+		trace("closeCursor: " + e);
+	    }
+	}
+    }
+
+    /**
+     * @return the max number of rows of the next pages
+     */
+    public int getFetchSize() {
+	return fetchSize;
+    }
+
+    /**
+     * @param fetchSize the max number of rows of the next pages
+     */
+    public void setFetchSize(int fetchSize) {
+	this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public boolean isTraceOn() {
+	return traceOn;
+    }
+
+    @Override
+    public void setTraceOn(boolean traceOn) {
+	this.traceOn = traceOn;
+	page.setTraceOn(traceOn);
+    }
+
+    private void trace(String s) {
+	if (traceOn) {
+	    System.out.println(s);
+	}
+    }
+
+}
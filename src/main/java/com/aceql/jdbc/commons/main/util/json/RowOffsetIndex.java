@@ -0,0 +1,77 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util.json;
+
+import java.util.Arrays;
+
+/**
+ * Byte offsets of each row object of a JSON result set file. <br>
+ * Offset of row {@code n} is the position of the <code>{</code> that opens the
+ * <code>{"row_n":[...]}</code> object in the {@code "query_rows"} array. Allows
+ * {@link RowParser} to seek directly to a row instead of re-parsing the file
+ * from the beginning.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class RowOffsetIndex {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long[] offsets = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Adds the offset of the next row.
+     *
+     * @param offset the byte offset of the row object in the file
+     */
+    void add(long offset) {
+	if (size == offsets.length) {
+	    offsets = Arrays.copyOf(offsets, size * 2);
+	}
+	offsets[size++] = offset;
+    }
+
+    /**
+     * Returns the byte offset of a row.
+     *
+     * @param rowNum the row number, starting at 1
+     * @return the byte offset of the row object, or -1 if row is not indexed
+     */
+    public long getOffset(int rowNum) {
+	if (rowNum < 1 || rowNum > size) {
+	    return -1;
+	}
+	return offsets[rowNum - 1];
+    }
+
+    /**
+     * @return the number of indexed rows
+     */
+    public int size() {
+	return size;
+    }
+
+    @Override
+    public String toString() {
+	return "RowOffsetIndex [size=" + size + "]";
+    }
+
+}
@@ -19,30 +19,80 @@
 package com.aceql.jdbc.commons.main.util.json;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.SequenceInputStream;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import javax.json.Json;
+import javax.json.JsonException;
 import javax.json.stream.JsonParser;
 
 /**
+ * Reads the rows of a JSON result set with a streaming JSON parser. <br>
+ * Two row formats are supported:
+ * <ul>
+ * <li>The default format, where each row is an object of column name and value
+ * pairs: <code>{"row_1":[{"col1":"value1"},{"col2":"value2"}]}</code>.</li>
+ * <li>The compact format, where the column names are sent once in a
+ * <code>"column_names"</code> array before <code>"query_rows"</code>, and each
+ * row is an array of values: <code>["value1","value2"]</code>.</li>
+ * </ul>
+ *
  * @author Nicolas de Pomereu
  *
  */
-public class RowParser {
+public class RowParser implements RowReader {
+
+    /** Prepended to the file content read from a row offset, so that the parser sees an array of rows */
+    private static final byte[] ROWS_ARRAY_START = { '[' };
 
     private Reader reader;
     private JsonParser parser = null;
 
     private File jsonFile;
 
-    private Map<Integer, String> valuesPerColIndex = null;
+    /** The JSON result set content if held in memory instead of jsonFile */
+    private byte[] jsonContent;
+
+    /** The row offsets in file, may be null */
+    private RowOffsetIndex rowOffsetIndex;
+
+    /** The last row built by the current parser, 0 if none */
+    private int lastRowNum = 0;
+
+    /** Says if rows are read from a stream. Only forward access is then possible */
+    private boolean streaming = false;
+
+    /** Says if the rows are in compact format, known once the header is read */
+    private boolean compact = false;
+    /** Says if the current parser is after the "query_rows" key */
+    private boolean headerPassed = false;
+    /** The number of compact rows read by the current parser */
+    private int compactRowNum = 0;
+
+    // Values read by readHeader() in streaming mode
+    private String status = null;
+    private String errorType = null;
+    private String errorMessage = null;
+    private String stackTrace = null;
+    private String resultSetMetaDataJson = null;
+    private String cursorId = null;
+
+    /** The values of the current row per column index, index 0 unused. Reused from row to row */
+    private String[] values = null;
+    /** The number of columns of the current row */
+    private int columnCount = 0;
+
     private Map<String, Integer> indexsPerColName = null;
 
     private boolean traceOn;
@@ -54,6 +104,18 @@ public class RowParser {
      * @throws SQLException
      */
     public RowParser(File jsonFile) throws SQLException {
+	this(jsonFile, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jsonFile       the JSON result set file
+     * @param rowOffsetIndex the byte offsets of the rows in the file. If null,
+     *                       rows are searched from the beginning of the file.
+     * @throws SQLException
+     */
+    public RowParser(File jsonFile, RowOffsetIndex rowOffsetIndex) throws SQLException {
 
 	if (jsonFile == null) {
 	    throw new SQLException("jsonFile is null!");
@@ -64,21 +126,185 @@ public class RowParser {
 	}
 
 	this.jsonFile = jsonFile;
+	this.rowOffsetIndex = rowOffsetIndex;
+    }
+
+    /**
+     * Constructor for a JSON result set held in memory.
+     *
+     * @param jsonContent    the JSON result set content
+     * @param rowOffsetIndex the byte offsets of the rows in the content. If null,
+     *                       rows are searched from the beginning of the content.
+     * @throws SQLException
+     */
+    public RowParser(byte[] jsonContent, RowOffsetIndex rowOffsetIndex) throws SQLException {
+
+	if (jsonContent == null) {
+	    throw new SQLException("jsonContent is null!");
+	}
+
+	this.jsonContent = jsonContent;
+	this.rowOffsetIndex = rowOffsetIndex;
+    }
+
+    /**
+     * Constructor for streaming mode: rows are read in sequence directly from the
+     * passed stream, which must be positioned by {@link #readHeader()} before the
+     * first {@link #buildRowNum(int)} call.
+     *
+     * @param in the JSON result set stream
+     * @throws SQLException
+     */
+    public RowParser(InputStream in) throws SQLException {
+	Objects.requireNonNull(in, "in cannot be null!");
+	try {
+	    reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+	} catch (Exception e) {
+	    throw new SQLException(e);
+	}
+	parser = Json.createParser(reader);
+	streaming = true;
     }
 
     /**
-     * Builds the valuesPerColName & valuesPerColIndex for the passed row num
+     * Reads in streaming mode the beginning of the JSON result set until the
+     * "query_rows" key. Stores the status, the error info if status is not "OK",
+     * the ResultSet MetaData and the cursor id if any.
+     *
+     * @return true if status is "OK", else false. Error info is then available
+     *         with {@link #getErrorId()}, {@link #getErrorMessage()} and
+     *         {@link #getStackTrace()}
+     * @throws SQLException if parser is not in streaming mode
+     */
+    public boolean readHeader() throws SQLException {
+
+	if (!streaming) {
+	    throw new SQLException("readHeader() is only supported in streaming mode.");
+	}
+
+	try {
+	    while (parser.hasNext()) {
+		JsonParser.Event event = parser.next();
+		if (event != JsonParser.Event.KEY_NAME) {
+		    continue;
+		}
+
+		String key = parser.getString();
+		if (key.equals("query_rows")) {
+		    headerPassed = true;
+		    if (compact) {
+			parser.next(); // Start of rows array
+		    }
+		    break;
+		}
+
+		if (key.equals("column_names")) {
+		    readColumnNames();
+		    continue;
+		}
+
+		if (!key.equals("status") && !key.equals("error_type") && !key.equals("error_message")
+			&& !key.equals("stack_trace") && !key.equals("ResultSetMetaData") && !key.equals("cursor_id")) {
+		    continue;
+		}
+
+		if (!parser.hasNext()) {
+		    break;
+		}
+		event = parser.next();
+		String value = event == JsonParser.Event.VALUE_NULL ? null : parser.getString();
+
+		if (key.equals("status")) {
+		    status = value;
+		} else if (key.equals("error_type")) {
+		    errorType = value;
+		} else if (key.equals("error_message")) {
+		    errorMessage = value;
+		} else if (key.equals("stack_trace")) {
+		    stackTrace = value;
+		} else if (key.equals("cursor_id")) {
+		    cursorId = value;
+		} else {
+		    resultSetMetaDataJson = value;
+		}
+	    }
+	} catch (JsonException | IllegalStateException e) {
+	    // Not a JSON result: HTTP failure
+	    trace("readHeader: " + e);
+	    status = null;
+	}
+
+	return "OK".equals(status);
+    }
+
+    /**
+     * Builds the values of the passed row num
      *
-     * @param parser
      * @param rowNum
+     * @return true if the row has been found
      * @throws SQLException
      */
-    public void buildRowNum(int rowNum) throws SQLException {
+    @Override
+    public boolean buildRowNum(int rowNum) throws SQLException {
+
+	if (streaming) {
+	    if (parser == null || rowNum != lastRowNum + 1) {
+		throw new SQLException("Rows can only be read forward in sequence in streaming mode.");
+	    }
+	    return buildNextRow(rowNum);
+	}
+
+	// All rows are indexed: do not parse after the last one
+	if (rowOffsetIndex != null && rowNum > rowOffsetIndex.size()) {
+	    return false;
+	}
+
+	// Column names are built on first row only
+	if (indexsPerColName == null && rowNum != 1 && rowOffsetIndex != null) {
+	    buildRowNum(1);
+	}
+
+	// Backward move: current parser is already after the row
+	if (parser != null && rowNum <= lastRowNum) {
+	    close();
+	}
+
+	// Non sequential access: seek directly to the row if possible. The row
+	// format is known once the first row has been read from start
+	if (rowOffsetIndex != null && indexsPerColName != null && (parser == null || rowNum != lastRowNum + 1)) {
+	    long offset = rowOffsetIndex.getOffset(rowNum);
+	    if (offset >= 0) {
+		close();
+		reader = getReader(offset);
+		parser = Json.createParser(reader);
+		headerPassed = true;
+		if (compact) {
+		    parser.next(); // The prepended array start
+		    compactRowNum = rowNum - 1;
+		}
+	    }
+	}
 
 	// Open it
 	if (parser == null) {
 	    reader = getReader();
 	    parser = Json.createParser(reader);
+	    headerPassed = false;
+	    compactRowNum = 0;
+	}
+
+	return buildNextRow(rowNum);
+    }
+
+    /**
+     * Reads with the current parser until the passed row num and builds it.
+     *
+     * @param rowNum
+     * @return true if the row has been found
+     */
+    private boolean buildNextRow(int rowNum) {
+	if (compact && headerPassed) {
+	    return buildNextCompactRow(rowNum);
 	}
 
 	// Value needed because we don't want to take columns with "row_xxx"
@@ -109,26 +335,41 @@ public class RowParser {
 		trace();
 		trace(event.toString() + " " + parser.getString() + " - ");
 
+		if (!headerPassed) {
+		    if (parser.getString().equals("column_names")) {
+			readColumnNames();
+			break;
+		    }
+		    if (parser.getString().equals("query_rows")) {
+			headerPassed = true;
+			if (compact) {
+			    parser.next(); // Start of rows array
+			    return buildNextCompactRow(rowNum);
+			}
+		    }
+		}
+
 		if (parser.getString().equals("row_" + rowNum) && !isInsideRowValuesArray) {
 
 		    if (parser.hasNext())  {
 			parser.next();
 		    }
 		    else {
-			return;
+			return false;
 		    }
 
 		    if (indexsPerColName == null) {
 			indexsPerColName = new HashMap<String, Integer>();
 		    }
 
-		    valuesPerColIndex = new HashMap<Integer, String>();
+		    columnCount = 0;
 
 		    int colIndex = 0;
 
+		    lastRowNum = rowNum;
 		    boolean doContinue = treatWhile(rowNum, event, colIndex);
 		    if (! doContinue) {
-			return;
+			return true;
 		    }
 		}
 
@@ -143,6 +384,88 @@ public class RowParser {
 	    }
 	}
 
+	return false;
+    }
+
+    /**
+     * Reads the "column_names" array of the compact format, and builds the map of
+     * (column name, column index).
+     */
+    private void readColumnNames() {
+	parser.next(); // Start of array
+	indexsPerColName = new HashMap<String, Integer>();
+	int colIndex = 0;
+	while (parser.hasNext()) {
+	    JsonParser.Event event = parser.next();
+	    if (event == JsonParser.Event.END_ARRAY) {
+		break;
+	    }
+	    indexsPerColName.put(parser.getString(), ++colIndex);
+	}
+	compact = true;
+    }
+
+    /**
+     * Reads with the current parser, positioned inside the compact rows array,
+     * until the passed row num and builds it.
+     *
+     * @param rowNum
+     * @return true if the row has been found
+     */
+    private boolean buildNextCompactRow(int rowNum) {
+	while (parser.hasNext()) {
+	    JsonParser.Event event = parser.next();
+
+	    // End of rows
+	    if (event == JsonParser.Event.END_ARRAY) {
+		return false;
+	    }
+
+	    if (event != JsonParser.Event.START_ARRAY) {
+		continue;
+	    }
+
+	    compactRowNum++;
+	    boolean build = compactRowNum == rowNum;
+	    int colIndex = 0;
+
+	    while (parser.hasNext()) {
+		event = parser.next();
+		if (event == JsonParser.Event.END_ARRAY) {
+		    break;
+		}
+
+		if (!build) {
+		    continue;
+		}
+
+		// A JSON null is read as the "NULL" value of the default format
+		String colValue;
+		if (event == JsonParser.Event.VALUE_NULL) {
+		    colValue = "NULL";
+		} else if (event == JsonParser.Event.VALUE_TRUE || event == JsonParser.Event.VALUE_FALSE) {
+		    colValue = "" + (event == JsonParser.Event.VALUE_TRUE);
+		} else {
+		    colValue = parser.getString().trim();
+		}
+
+		colIndex++;
+		if (values == null || colIndex >= values.length) {
+		    values = values == null ? new String[Math.max(colIndex + 1, 16)]
+			    : Arrays.copyOf(values, values.length * 2);
+		}
+		values[colIndex] = colValue;
+		trace(colValue);
+	    }
+
+	    if (build) {
+		columnCount = colIndex;
+		lastRowNum = rowNum;
+		return true;
+	    }
+	}
+
+	return false;
     }
 
     /**
@@ -187,7 +510,12 @@ public class RowParser {
 
 		colIndex++;
 
-		valuesPerColIndex.put(colIndex, colValue);
+		if (values == null || colIndex >= values.length) {
+		    values = values == null ? new String[Math.max(colIndex + 1, 16)]
+			    : Arrays.copyOf(values, values.length * 2);
+		}
+		values[colIndex] = colValue;
+		columnCount = colIndex;
 
 		// Build the map of (column name, column index) on
 		// first row only
@@ -203,18 +531,64 @@ public class RowParser {
 	return true;
     }
 
+    /**
+     * @return the error id read by {@link #readHeader()}, 0 if none
+     */
+    public int getErrorId() {
+	if (errorType == null) {
+	    return 0;
+	}
+	try {
+	    return Integer.parseInt(errorType);
+	} catch (NumberFormatException e) {
+	    return 0;
+	}
+    }
+
+    /**
+     * @return the error message read by {@link #readHeader()}, null if none
+     */
+    public String getErrorMessage() {
+	return errorMessage;
+    }
+
+    /**
+     * @return the remote stack trace read by {@link #readHeader()}, null if none
+     */
+    public String getStackTrace() {
+	return stackTrace;
+    }
+
+    /**
+     * @return the ResultSet MetaData JSON string read by {@link #readHeader()},
+     *         null if none
+     */
+    public String getResultSetMetaDataJson() {
+	return resultSetMetaDataJson;
+    }
+
+    /**
+     * @return the cursor id read by {@link #readHeader()}, or null if the server
+     *         has no more rows to send
+     */
+    public String getCursorId() {
+	return cursorId;
+    }
+
     /**
      * @return the index per column names
      */
+    @Override
     public Map<String, Integer> getIndexsPerColName() {
 	return indexsPerColName;
     }
 
-    /**
-     * @return the values per column index for current row
-     */
-    public Map<Integer, String> getValuesPerColIndex() {
-	return valuesPerColIndex;
+    @Override
+    public String getValue(int colIndex) {
+	if (colIndex < 1 || colIndex > columnCount) {
+	    return null;
+	}
+	return values[colIndex];
     }
 
     private Reader getReader() throws SQLException {
@@ -222,7 +596,9 @@ public class RowParser {
 	Reader fileReader = null;
 	try {
 	    //fileReader = new InputStreamReader(new FileInputStream(jsonFile), "UTF-8");
-	    fileReader = new BufferedReader(new InputStreamReader(new FileInputStream(jsonFile), "UTF-8"));
+	    InputStream in = jsonContent != null ? new ByteArrayInputStream(jsonContent)
+		    : new FileInputStream(jsonFile);
+	    fileReader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
 	} catch (Exception e) {
 	    throw new SQLException(e);
 	}
@@ -230,7 +606,49 @@ public class RowParser {
 	return fileReader;
     }
 
-    public void resetParser() {
+    /**
+     * Returns a reader on the file content starting at a row object, prefixed by
+     * a "[" so that rows are parsed as the elements of an array.
+     *
+     * @param offset the byte offset of the row object in the file
+     * @return the reader positioned on the row
+     * @throws SQLException
+     */
+    private Reader getReader(long offset) throws SQLException {
+
+	if (jsonContent != null) {
+	    InputStream rowsIn = new SequenceInputStream(new ByteArrayInputStream(ROWS_ARRAY_START),
+		    new ByteArrayInputStream(jsonContent, (int) offset, jsonContent.length - (int) offset));
+	    try {
+		return new BufferedReader(new InputStreamReader(rowsIn, "UTF-8"));
+	    } catch (Exception e) {
+		throw new SQLException(e);
+	    }
+	}
+
+	FileInputStream in = null;
+	try {
+	    in = new FileInputStream(jsonFile);
+	    in.getChannel().position(offset);
+	    InputStream rowsIn = new SequenceInputStream(new ByteArrayInputStream(ROWS_ARRAY_START), in);
+	    return new BufferedReader(new InputStreamReader(rowsIn, "UTF-8"));
+	} catch (Exception e) {
+	    if (in != null) {
+		try {
+		    in.close();
+		} catch (Exception ignore) {
+		    // ignore
+		}
+	    }
+	    throw new SQLException(e);
+	}
+    }
+
+    @Override
+    public void resetParser() throws SQLException {
+	if (streaming) {
+	    throw new SQLException("Parser can not be reset in streaming mode.");
+	}
 	close(); // Same, as we don't maintain a isClosed state
     }
 
@@ -239,6 +657,7 @@ public class RowParser {
      *
      * @return true if trace is on
      */
+    @Override
     public boolean isTraceOn() {
 	return traceOn;
     }
@@ -248,6 +667,7 @@ public class RowParser {
      *
      * @param traceOn if true, trace will be on
      */
+    @Override
     public void setTraceOn(boolean traceOn) {
 	this.traceOn = traceOn;
     }
@@ -264,6 +684,7 @@ public class RowParser {
 	}
     }
 
+    @Override
     public void close() {
 	if (reader != null) {
 	    try {
@@ -275,6 +696,7 @@ public class RowParser {
 
 	// Reinit parser:
 	parser = null;
+	lastRowNum = 0;
     }
 
 }
@@ -0,0 +1,80 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util.json;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Reads the rows of a JSON result set for {@code AceQLResultSet}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public interface RowReader {
+
+    /**
+     * Reads the passed row, that becomes the current row.
+     *
+     * @param rowNum the row number, starting at 1
+     * @return true if the row has been found
+     * @throws SQLException if any I/O or parsing error occurs
+     */
+    boolean buildRowNum(int rowNum) throws SQLException;
+
+    /**
+     * Returns a value of the current row.
+     *
+     * @param colIndex the column index, starting at 1
+     * @return the trimmed value, or null if there is no such column
+     */
+    String getValue(int colIndex);
+
+    /**
+     * @return the index per column names, available once a row has been read
+     */
+    Map<String, Integer> getIndexsPerColName();
+
+    /**
+     * Resets the reader before the first row.
+     *
+     * @throws SQLException if the reader can not be reset
+     */
+    void resetParser() throws SQLException;
+
+    /**
+     * Releases the resources of the reader.
+     */
+    void close();
+
+    /**
+     * Says if trace is on
+     *
+     * @return true if trace is on
+     */
+    boolean isTraceOn();
+
+    /**
+     * Sets the trace on/off
+     *
+     * @param traceOn if true, trace will be on
+     */
+    void setTraceOn(boolean traceOn);
+
+}
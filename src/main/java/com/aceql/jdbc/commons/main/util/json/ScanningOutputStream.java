@@ -0,0 +1,69 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util.json;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * An {@code OutputStream} that passes all written bytes to a
+ * {@link JsonResultScanner} before writing them to the underlying stream.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ScanningOutputStream extends FilterOutputStream {
+
+    private final JsonResultScanner jsonResultScanner;
+    private final byte[] single = new byte[1];
+
+    /**
+     * Constructor.
+     *
+     * @param out               the underlying output stream
+     * @param jsonResultScanner the scanner of the written bytes
+     */
+    public ScanningOutputStream(OutputStream out, JsonResultScanner jsonResultScanner) {
+	super(Objects.requireNonNull(out, "out cannot be null!"));
+	this.jsonResultScanner = Objects.requireNonNull(jsonResultScanner, "jsonResultScanner cannot be null!");
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+	single[0] = (byte) b;
+	jsonResultScanner.update(single, 0, 1);
+	out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+	jsonResultScanner.update(b, off, len);
+	out.write(b, off, len);
+    }
+
+    /**
+     * @return the scanner of the written bytes
+     */
+    public JsonResultScanner getJsonResultScanner() {
+	return jsonResultScanner;
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.main.util.json;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * An {@code OutputStream} that keeps the written bytes in memory while their
+ * size does not exceed a threshold. When the threshold is exceeded, the bytes
+ * are written to a file, which then receives all the next bytes. <br>
+ * The file is never created if the threshold is not exceeded.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class SpillOutputStream extends OutputStream {
+
+    private final File file;
+    private final int threshold;
+
+    /** The bytes in memory, null once spilled to file */
+    private ByteArrayOutputStream memoryOut;
+    private OutputStream fileOut = null;
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param file      the file to write to if the threshold is exceeded
+     * @param threshold the max number of bytes kept in memory. If 0, the file is
+     *                  created at once and receives all the bytes.
+     * @throws IOException if the file can not be created
+     */
+    public SpillOutputStream(File file, int threshold) throws IOException {
+	this.file = Objects.requireNonNull(file, "file cannot be null!");
+	this.threshold = threshold;
+	this.memoryOut = new ByteArrayOutputStream(Math.max(0, Math.min(threshold, 8192)));
+
+	if (threshold <= 0) {
+	    spill();
+	}
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+	if (memoryOut != null && memoryOut.size() + 1 > threshold) {
+	    spill();
+	}
+
+	if (memoryOut != null) {
+	    memoryOut.write(b);
+	} else {
+	    fileOut.write(b);
+	}
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+	if (memoryOut != null && memoryOut.size() + len > threshold) {
+	    spill();
+	}
+
+	if (memoryOut != null) {
+	    memoryOut.write(b, off, len);
+	} else {
+	    fileOut.write(b, off, len);
+	}
+    }
+
+    /**
+     * Writes the bytes kept in memory to the file. The next bytes are written to
+     * the file. Does nothing if already done. <br>
+     * May be called after {@link #close()}: the file is then closed at once.
+     *
+     * @throws IOException
+     */
+    public void spill() throws IOException {
+	if (memoryOut == null) {
+	    return;
+	}
+
+	fileOut = new BufferedOutputStream(new FileOutputStream(file));
+	memoryOut.writeTo(fileOut);
+	memoryOut = null;
+
+	if (closed) {
+	    fileOut.close();
+	}
+    }
+
+    /**
+     * @return true if all the written bytes are in memory, false if they are in
+     *         the file
+     */
+    public boolean isInMemory() {
+	return memoryOut != null;
+    }
+
+    /**
+     * @return the bytes written, if in memory
+     * @throws IllegalStateException if the bytes have been written to the file
+     */
+    public byte[] toByteArray() {
+	if (memoryOut == null) {
+	    throw new IllegalStateException("Bytes have been written to file: " + file);
+	}
+	return memoryOut.toByteArray();
+    }
+
+    /**
+     * @return the file the bytes are written to if the threshold is exceeded
+     */
+    public File getFile() {
+	return file;
+    }
+
+    @Override
+    public void flush() throws IOException {
+	if (fileOut != null) {
+	    fileOut.flush();
+	}
+    }
+
+    @Override
+    public void close() throws IOException {
+	closed = true;
+	if (fileOut != null) {
+	    fileOut.close();
+	}
+    }
+
+}
@@ -19,8 +19,11 @@
 package com.aceql.jdbc.commons.main.util.json;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.HttpURLConnection;
@@ -31,6 +34,7 @@ import java.util.Map;
 import javax.json.Json;
 import javax.json.stream.JsonParser;
 
+import com.aceql.jdbc.commons.main.http.HttpResponse;
 import com.aceql.jdbc.commons.main.http.ResultAnalyzer;
 import com.aceql.jdbc.commons.main.util.framework.FastRowCounter;
 import com.aceql.jdbc.commons.main.util.framework.FrameworkDebug;
@@ -45,6 +49,12 @@ public class StreamResultAnalyzer {
 
     private File jsonFile = null;
 
+    /** The JSON content if held in memory instead of jsonFile */
+    private byte[] jsonContent = null;
+
+    /** The scanner of the file content, filled while downloading. May be null */
+    private JsonResultScanner jsonResultScanner = null;
+
     private String errorType = null;
     private String errorMessage = null;
     private String stackTrace = null;
@@ -64,11 +74,91 @@ public class StreamResultAnalyzer {
      *
      */
     public StreamResultAnalyzer(File jsonFile, int httpStatusCode, String httpStatusMessage) {
+	this(jsonFile, null, httpStatusCode, httpStatusMessage);
+    }
+
+    /**
+     * Constructor. The values captured by the scanner are used instead of parsing
+     * again the file, if the scanner has read a complete AceQL result.
+     *
+     * @param jsonFile
+     * @param jsonResultScanner the scanner that has read the file content while
+     *                          downloading. May be null.
+     * @param httpStatusCode
+     * @param httpStatusMessage
+     */
+    public StreamResultAnalyzer(File jsonFile, JsonResultScanner jsonResultScanner, int httpStatusCode,
+	    String httpStatusMessage) {
 	this.jsonFile = jsonFile;
+	this.jsonResultScanner = jsonResultScanner;
 	this.httpStatusCode = httpStatusCode;
 	this.httpStatusMessage = httpStatusMessage;
     }
 
+    /**
+     * Constructor for a JSON content held in memory.
+     *
+     * @param jsonContent
+     * @param jsonResultScanner the scanner that has read the content while
+     *                          downloading. May be null.
+     * @param httpStatusCode
+     * @param httpStatusMessage
+     */
+    public StreamResultAnalyzer(byte[] jsonContent, JsonResultScanner jsonResultScanner, int httpStatusCode,
+	    String httpStatusMessage) {
+	this.jsonContent = jsonContent;
+	this.jsonResultScanner = jsonResultScanner;
+	this.httpStatusCode = httpStatusCode;
+	this.httpStatusMessage = httpStatusMessage;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param jsonFile
+     * @param jsonResultScanner the scanner that has read the file content while
+     *                          downloading. May be null.
+     * @param response          the response of the call that returned the file
+     *                          content
+     */
+    public StreamResultAnalyzer(File jsonFile, JsonResultScanner jsonResultScanner, HttpResponse response) {
+	this(jsonFile, jsonResultScanner, response.getStatusCode(), response.getStatusMessage());
+    }
+
+    /**
+     * Constructor for a JSON content held in memory.
+     *
+     * @param jsonContent
+     * @param jsonResultScanner the scanner that has read the content while
+     *                          downloading. May be null.
+     * @param response          the response of the call that returned the
+     *                          content
+     */
+    public StreamResultAnalyzer(byte[] jsonContent, JsonResultScanner jsonResultScanner, HttpResponse response) {
+	this(jsonContent, jsonResultScanner, response.getStatusCode(), response.getStatusMessage());
+    }
+
+    /**
+     * Says if the JSON content exists. If not, there was an HTTP failure.
+     */
+    private boolean contentExists() {
+	return jsonContent != null || (jsonFile != null && jsonFile.exists());
+    }
+
+    /**
+     * Opens the JSON content, from memory or from file.
+     */
+    private InputStream openInputStream() throws IOException {
+	return jsonContent != null ? new ByteArrayInputStream(jsonContent) : new FileInputStream(jsonFile);
+    }
+
+    /**
+     * Says if the values captured while downloading can be used.
+     */
+    private boolean isScanned() {
+	return jsonResultScanner != null && jsonResultScanner.isStatusScanned() && contentExists();
+    }
+
     /**
      * Checks if the JSON content contains a valid {@code ResultSet} dumped by
      * server side /execute_query API. <br>
@@ -83,7 +173,7 @@ public class StreamResultAnalyzer {
     public boolean isStatusOk() throws SQLException {
 
 	// If file does not exist ==> http failure
-	if (!jsonFile.exists()) {
+	if (!contentExists()) {
 
 	    this.errorType = "0";
 	    errorMessage = "Unknown error.";
@@ -93,13 +183,23 @@ public class StreamResultAnalyzer {
 	    return false;
 	}
 
+	if (isScanned()) {
+	    if (jsonResultScanner.getStatus().equals("OK")) {
+		return true;
+	    }
+	    this.errorType = jsonResultScanner.getErrorType() != null ? jsonResultScanner.getErrorType() : "0";
+	    this.errorMessage = jsonResultScanner.getErrorMessage();
+	    this.stackTrace = jsonResultScanner.getStackTrace();
+	    return false;
+	}
+
 	debug("");
 	boolean isOk = false;
 	Reader reader = null;
 
 	try {
 	    try {
-		reader = new BufferedReader(new InputStreamReader(new FileInputStream(jsonFile), "UTF-8"));
+		reader = new BufferedReader(new InputStreamReader(openInputStream(), "UTF-8"));
 	    } catch (Exception e) {
 		throw new SQLException(e);
 	    }
@@ -259,6 +359,13 @@ public class StreamResultAnalyzer {
 	return stackTrace;
     }
 
+    /**
+     * @return the HTTP status code of the analyzed response
+     */
+    public int getHttpStatusCode() {
+	return httpStatusCode;
+    }
+
     /**
      * Returns the Exception raised when parsing JSON stream
      *
@@ -277,7 +384,7 @@ public class StreamResultAnalyzer {
     public Map<Integer, String> getParametersOutPerIndex() throws SQLException {
 
 	// If file does not exist ==> http failure
-	if (!jsonFile.exists()) {
+	if (!contentExists()) {
 
 	    this.errorType = "0";
 	    errorMessage = "Unknown error.";
@@ -293,8 +400,8 @@ public class StreamResultAnalyzer {
 
 	try {
 	    try {
-		//reader = new InputStreamReader(new FileInputStream(jsonFile), "UTF-8");
-		reader = new BufferedReader(new InputStreamReader(new FileInputStream(jsonFile), "UTF-8"));
+		//reader = new InputStreamReader(openInputStream(), "UTF-8");
+		reader = new BufferedReader(new InputStreamReader(openInputStream(), "UTF-8"));
 	    } catch (Exception e) {
 		throw new SQLException(e);
 	    }
@@ -334,7 +441,7 @@ public class StreamResultAnalyzer {
     public int getRowCount() throws SQLException {
 
 	// If file does not exist ==> http failure
-	if (!jsonFile.exists()) {
+	if (!contentExists()) {
 
 	    this.errorType = "0";
 	    errorMessage = "Unknown error.";
@@ -344,10 +451,17 @@ public class StreamResultAnalyzer {
 	    return 0;
 	}
 
+	if (isScanned() && jsonResultScanner.getRowCount() >= 0) {
+	    return jsonResultScanner.getRowCount();
+	}
+
 	debug("");
 	Reader reader = null;
 
 	try {
+	    if (jsonContent != null) {
+		return FastRowCounter.getRowCount(new ByteArrayInputStream(jsonContent));
+	    }
 	    return FastRowCounter.getRowCount(jsonFile);
 	} catch (Exception e) {
 	    this.parseException = e;
@@ -379,7 +493,7 @@ public class StreamResultAnalyzer {
     public int getRowCountWithParse() throws SQLException {
 
 	// If file does not exist ==> http failure
-	if (!jsonFile.exists()) {
+	if (!contentExists()) {
 
 	    this.errorType = "0";
 	    errorMessage = "Unknown error.";
@@ -389,13 +503,17 @@ public class StreamResultAnalyzer {
 	    return 0;
 	}
 
+	if (isScanned() && jsonResultScanner.getRowCount() >= 0) {
+	    return jsonResultScanner.getRowCount();
+	}
+
 	debug("");
 	Reader reader = null;
 
 	try {
 	    try {
-		//reader = new InputStreamReader(new FileInputStream(jsonFile), "UTF-8");
-		reader = new BufferedReader(new InputStreamReader(new FileInputStream(jsonFile), "UTF-8"));
+		//reader = new InputStreamReader(openInputStream(), "UTF-8");
+		reader = new BufferedReader(new InputStreamReader(openInputStream(), "UTF-8"));
 	    } catch (Exception e) {
 		throw new SQLException(e);
 	    }
@@ -477,7 +595,7 @@ public class StreamResultAnalyzer {
      */
     public boolean isResultSet() {
 	// If file does not exist ==> http failure
-	if (!jsonFile.exists()) {
+	if (!contentExists()) {
 
 	    this.errorType = "0";
 	    errorMessage = "Unknown error.";
@@ -487,13 +605,17 @@ public class StreamResultAnalyzer {
 	    return false;
 	}
 
+	if (isScanned()) {
+	    return jsonResultScanner.isQueryRowsFound();
+	}
+
 	debug("");
 	Reader reader = null;
 
 	try {
 	    try {
-		//reader = new InputStreamReader(new FileInputStream(jsonFile), "UTF-8");
-		reader = new BufferedReader(new InputStreamReader(new FileInputStream(jsonFile), "UTF-8"));
+		//reader = new InputStreamReader(openInputStream(), "UTF-8");
+		reader = new BufferedReader(new InputStreamReader(openInputStream(), "UTF-8"));
 	    } catch (Exception e) {
 		throw new SQLException(e);
 	    }
@@ -39,6 +39,7 @@ import java.util.logging.Logger;
 
 import com.aceql.jdbc.commons.AceQLConnection;
 import com.aceql.jdbc.commons.ConnectionInfo;
+import com.aceql.jdbc.commons.HttpTransportType;
 import com.aceql.jdbc.commons.InternalWrapper;
 import com.aceql.jdbc.commons.driver.util.DriverPropertyInfoBuilder;
 import com.aceql.jdbc.commons.driver.util.DriverUtil;
@@ -80,6 +81,62 @@ import com.aceql.jdbc.commons.metadata.ResultSetMetaDataPolicy;
  * timeout of zero is interpreted as an infinite timeout. Defaults to 0.
  * <li><b>gzipResult</b>: Boolean to say if the ResultSet is Gzipped before
  * download. Defaults to <code>true</code>.</li>
+ * <li><b>resultSetStreaming</b>: Boolean to say if the {@code ResultSet} rows
+ * of {@code executeQuery()} are read directly from the HTTP response instead of
+ * being first downloaded in a local file. A streaming {@code ResultSet} is
+ * forward only. Defaults to <code>false</code>.</li>
+ * <li><b>pipelinedResultSet</b>: Boolean to say if the {@code ResultSet} rows
+ * of {@code executeQuery()} are available while the result is downloaded by a
+ * background thread. A pipelined {@code ResultSet} is forward only. Defaults to
+ * <code>false</code>.</li>
+ * <li><b>pagedResultSet</b>: Boolean to say if the {@code ResultSet} rows of
+ * {@code executeQuery()} are fetched from a server cursor by pages of
+ * {@code Statement.getFetchSize()} rows, when the fetch size is set. A paged
+ * {@code ResultSet} is forward only. Defaults to <code>false</code>.</li>
+ * <li><b>memoryMappedResultSet</b>: Boolean to say if the downloaded
+ * {@code ResultSet} files are memory mapped and column values decoded only when
+ * accessed. Files larger than 2 GB are not mapped, and files are never mapped on
+ * Windows, where a mapped file can not be deleted. Defaults to
+ * <code>false</code>.</li>
+ * <li><b>resultSetMemoryThreshold</b>: Max size in KB of a result kept in
+ * memory. Bigger results are written to a local file. 0 means that all results
+ * are written to a local file. Defaults to 0.</li>
+ * <li><b>compactResultSet</b>: Boolean to say if the compact row format is
+ * asked to the server: column names are sent once, rows are arrays of values
+ * and the JSON is not pretty printed. Defaults to <code>true</code>.</li>
+ * <li><b>binaryResultSet</b>: Boolean to say if the binary columnar result
+ * format is asked to the server for the {@code ResultSet} that are not
+ * streamed. Numeric values are then read without text parsing. Servers that do
+ * not support it return a JSON result. Defaults to <code>false</code>.</li>
+ * <li><b>httpCompression</b>: Boolean to say if compressed responses are
+ * accepted for all the API calls, with the <code>Accept-Encoding</code> HTTP
+ * header. Responses are decompressed while read. Defaults to
+ * <code>true</code>.</li>
+ * <li><b>uploadCompression</b>: Boolean to say if the request bodies and the
+ * Blob/Clob uploads are sent compressed with the <code>Content-Encoding</code>
+ * HTTP header. The AceQL server must support it. Defaults to
+ * <code>false</code>.</li>
+ * <li><b>compressionThreshold</b>: Min size in bytes of a request body or of
+ * an upload to be compressed when <code>uploadCompression</code> is true.
+ * Smaller ones are sent as is. Defaults to 1024.</li>
+ * <li><b>httpTransport</b>: The HTTP client layer. "urlConnection" opens a
+ * {@code HttpURLConnection} per request over HTTP/1.1. "httpClient" shares a
+ * {@code java.net.http.HttpClient} per server, which multiplexes the requests
+ * of all the connections over HTTP/2, and requires Java 11+. Defaults to
+ * "urlConnection".</li>
+ * <li><b>connectionStateCache</b>: Boolean to say if the auto-commit,
+ * read-only, holdability, transaction isolation, catalog and schema values are
+ * kept locally after the first getter call and after each setter call, so that
+ * the {@code Connection} getters do not call the server. If these values are
+ * changed with SQL statements, {@code AceQLConnection.invalidateConnectionState()}
+ * must be called. Defaults to <code>true</code>.</li>
+ * <li><b>deferredConnectionState</b>: Boolean to say if the auto-commit,
+ * read-only, holdability and transaction isolation changes are sent as extra
+ * parameters of the next statement or commit call, instead of with a call per
+ * setter. Used only with AceQL servers 12.3 or higher, once the server has
+ * confirmed with the first setter call that it applies them: else, the setters
+ * call the server immediately. A call whose changes are not confirmed fails.
+ * Defaults to <code>false</code>.</li>
  * <li><b>resultSetMetaDataPolicy</b>: Defines the {@code ResultSet} metadata
  * policy. Says if the {@code ResultSet} metadata is to be downloaded along with
  * the ResultSet. Possible values are "on" and "off". Defaults to "on".</li>
@@ -234,6 +291,19 @@ final public class AceQLDriver implements java.sql.Driver {
 	debug("info.getProperty(\"clobWriteCharset\"): " + clobWriteCharset);
 	
 	boolean gzipResult = DriverUtil.getGzipResult(info);
+	boolean resultSetStreaming = DriverUtil.getResultSetStreaming(info);
+	boolean pipelinedResultSet = DriverUtil.getPipelinedResultSet(info);
+	boolean pagedResultSet = DriverUtil.getPagedResultSet(info);
+	boolean memoryMappedResultSet = DriverUtil.getMemoryMappedResultSet(info);
+	int resultSetMemoryThreshold = DriverUtil.getResultSetMemoryThreshold(info);
+	boolean compactResultSet = DriverUtil.getCompactResultSet(info);
+	boolean binaryResultSet = DriverUtil.getBinaryResultSet(info);
+	boolean httpCompression = DriverUtil.getHttpCompression(info);
+	boolean uploadCompression = DriverUtil.getUploadCompression(info);
+	int compressionThreshold = DriverUtil.getCompressionThreshold(info);
+	HttpTransportType httpTransportType = DriverUtil.getHttpTransportType(info);
+	boolean connectionStateCache = DriverUtil.getConnectionStateCache(info);
+	boolean deferredConnectionState = DriverUtil.getDeferredConnectionState(info);
 	int connectTimeout = DriverUtil.getConnectTimeout(info);
 	int readTimeout = DriverUtil.getReadTimeout(info);
 	ResultSetMetaDataPolicy resultSetMetaDataPolicy = DriverUtil.getResultSetMetaDataPolicy(info);
@@ -265,6 +335,19 @@ final public class AceQLDriver implements java.sql.Driver {
 	ConnectionInfo connectionInfo = InternalWrapper.connectionInfoBuilder(url, database, authentication, passwordIsSessionId,
 		proxy, proxyAuthentication, connectTimeout, readTimeout, gzipResult,
 		resultSetMetaDataPolicy, requestProperties, clobReadCharset, clobWriteCharset);
+	InternalWrapper.setResultSetStreaming(connectionInfo, resultSetStreaming);
+	InternalWrapper.setPipelinedResultSet(connectionInfo, pipelinedResultSet);
+	InternalWrapper.setPagedResultSet(connectionInfo, pagedResultSet);
+	InternalWrapper.setMemoryMappedResultSet(connectionInfo, memoryMappedResultSet);
+	InternalWrapper.setResultSetMemoryThreshold(connectionInfo, resultSetMemoryThreshold);
+	InternalWrapper.setCompactResultSet(connectionInfo, compactResultSet);
+	InternalWrapper.setBinaryResultSet(connectionInfo, binaryResultSet);
+	InternalWrapper.setHttpCompression(connectionInfo, httpCompression);
+	InternalWrapper.setUploadCompression(connectionInfo, uploadCompression);
+	InternalWrapper.setCompressionThreshold(connectionInfo, compressionThreshold);
+	InternalWrapper.setHttpTransportType(connectionInfo, httpTransportType);
+	InternalWrapper.setConnectionStateCache(connectionInfo, connectionStateCache);
+	InternalWrapper.setDeferredConnectionState(connectionInfo, deferredConnectionState);
 	
 	AceQLConnection connection = InternalWrapper.connectionBuilder(connectionInfo);
 	
@@ -0,0 +1,246 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.AceQLConnection;
+import com.aceql.jdbc.commons.AceQLPipeline;
+import com.aceql.jdbc.commons.ConnectionInfo;
+import com.aceql.jdbc.commons.InternalWrapper;
+import com.aceql.jdbc.commons.main.http.HttpTransportResponse;
+import com.aceql.jdbc.commons.main.util.AceQLConnectionUtil;
+import com.aceql.jdbc.commons.main.util.UserLoginStore;
+import com.aceql.jdbc.commons.metadata.ResultSetMetaDataPolicy;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests {@code AceQLPipeline} against a local stand-in server that records the
+ * calls. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class AceQLPipelineTest {
+
+    private static final String QUERY_RESULT = "{\"status\":\"OK\",\"column_names\":[\"id\",\"name\"],"
+	    + "\"query_rows\":[[\"1\",\"Jim\"],[\"2\",\"\u00c9mile\"]],\"row_count\":2}";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String url;
+
+    /** The response of the /execute_pipeline calls */
+    private volatile String pipelineResponse;
+
+    /** The parameters of the calls after the login, except /get_version */
+    private final List<Map<String, String>> calls = Collections
+	    .synchronizedList(new ArrayList<Map<String, String>>());
+
+    @Before
+    public void setUp() throws IOException {
+	server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+	serverExecutor = Executors.newFixedThreadPool(2);
+	server.setExecutor(serverExecutor);
+	server.createContext("/aceql", new HttpHandler() {
+
+	    @Override
+	    public void handle(HttpExchange exchange) throws IOException {
+		String body = new String(IOUtils.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+		String path = exchange.getRequestURI().getPath();
+
+		String response;
+		if (path.endsWith("/login")) {
+		    response = "{\"status\":\"OK\",\"session_id\":\"s1\",\"connection_id\":\"c1\"}";
+		} else if (path.endsWith("/get_version")) {
+		    response = "{\"status\":\"OK\",\"result\":\"AceQL HTTP v12.3 - 01-Jan-2024\"}";
+		} else {
+		    Map<String, String> parameters = decode(body);
+		    for (String parameter : parameters.keySet()) {
+			if (parameter.startsWith("set_")) {
+			    exchange.getResponseHeaders().add(HttpTransportResponse.APPLIED_STATE_HEADER, parameter);
+			}
+		    }
+		    parameters.put("action", path.substring(path.lastIndexOf('/') + 1));
+		    calls.add(parameters);
+		    response = pipelineResponse;
+		}
+
+		byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+		    out.write(bytes);
+		}
+	    }
+	});
+	server.start();
+	url = "http://127.0.0.1:" + server.getAddress().getPort() + "/aceql";
+    }
+
+    @After
+    public void tearDown() {
+	server.stop(0);
+	serverExecutor.shutdown();
+	UserLoginStore.resetAll();
+    }
+
+    private static Map<String, String> decode(String body) throws IOException {
+	Map<String, String> parameters = new HashMap<String, String>();
+	if (body.isEmpty()) {
+	    return parameters;
+	}
+	for (String pair : body.split("&")) {
+	    int index = pair.indexOf('=');
+	    parameters.put(URLDecoder.decode(pair.substring(0, index), "UTF-8"),
+		    URLDecoder.decode(pair.substring(index + 1), "UTF-8"));
+	}
+	return parameters;
+    }
+
+    private AceQLConnection connect() throws SQLException {
+	ConnectionInfo connectionInfo = InternalWrapper.connectionInfoBuilder(url, "db",
+		new PasswordAuthentication("user", "password".toCharArray()), false, null, null, 0, 0, false,
+		ResultSetMetaDataPolicy.off, new HashMap<String, String>(), null, null);
+	InternalWrapper.setDeferredConnectionState(connectionInfo, true);
+	AceQLConnection connection = InternalWrapper.connectionBuilder(connectionInfo);
+	// As done by the Driver
+	AceQLConnectionUtil.getServerCapabilities(connection);
+	return connection;
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+	pipelineResponse = "{\"status\":\"OK\",\"results\":[{\"status\":\"OK\",\"row_count\":3}," + QUERY_RESULT
+		+ ",{\"status\":\"OK\",\"id\":1,\"name\":\"sp1\"},{\"status\":\"OK\"}]}";
+
+	AceQLConnection connection = connect();
+	// The first change confirms the deferral of the next ones
+	connection.setReadOnly(false);
+	connection.setAutoCommit(false);
+
+	PreparedStatement preparedStatement = connection
+		.prepareStatement("update customer set fname = ? where customer_id = ?");
+	preparedStatement.setString(1, "Jim");
+	preparedStatement.setInt(2, 1);
+
+	AceQLPipeline pipeline = connection.pipeline();
+	pipeline.addUpdate(preparedStatement).addQuery("select id, name from customer").addSetSavepoint("sp1")
+		.addCommit();
+	Assert.assertEquals(4, pipeline.size());
+
+	List<Object> results = pipeline.execute();
+	Assert.assertEquals(0, pipeline.size());
+	Assert.assertEquals(4, results.size());
+	Assert.assertEquals(Integer.valueOf(3), results.get(0));
+
+	try (ResultSet rs = (ResultSet) results.get(1)) {
+	    Assert.assertTrue(rs.next());
+	    Assert.assertEquals(1, rs.getInt("id"));
+	    Assert.assertTrue(rs.next());
+	    Assert.assertEquals("\u00c9mile", rs.getString(2));
+	    Assert.assertFalse(rs.next());
+	}
+
+	Assert.assertEquals("sp1", ((Savepoint) results.get(2)).getSavepointName());
+	Assert.assertNull(results.get(3));
+
+	// One call, carrying the deferred auto-commit change
+	Assert.assertEquals(2, calls.size());
+	Map<String, String> parameters = calls.get(1);
+	Assert.assertEquals("execute_pipeline", parameters.get("action"));
+	Assert.assertEquals("false", parameters.get("set_auto_commit"));
+
+	JsonArray commands = JsonParser.parseString(parameters.get("pipeline_dto")).getAsJsonObject()
+		.getAsJsonArray("commands");
+	Assert.assertEquals(4, commands.size());
+	JsonObject update = commands.get(0).getAsJsonObject();
+	Assert.assertEquals("update", update.get("type").getAsString());
+	Assert.assertTrue(update.get("preparedStatement").getAsBoolean());
+	Assert.assertEquals("Jim", update.getAsJsonObject("statementParameters").get("param_value_1").getAsString());
+	Assert.assertEquals("query", commands.get(1).getAsJsonObject().get("type").getAsString());
+	Assert.assertEquals("sp1", commands.get(2).getAsJsonObject().get("savepointName").getAsString());
+	Assert.assertEquals("commit", commands.get(3).getAsJsonObject().get("type").getAsString());
+
+	pipeline.close();
+	Assert.assertEquals(0, pipeline.size());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+	pipelineResponse = "{\"status\":\"FAIL\",\"error_type\":2,\"error_message\":\"Table not found\"}";
+
+	AceQLConnection connection = connect();
+	AceQLPipeline pipeline = connection.pipeline().addUpdate("delete from nothing").addCommit();
+	try {
+	    pipeline.execute();
+	    Assert.fail("SQLException expected");
+	} catch (SQLException e) {
+	    Assert.assertTrue(e.getMessage(), e.getMessage().contains("Table not found"));
+	}
+	Assert.assertEquals(0, pipeline.size());
+    }
+
+    @Test
+    public void testMissingResults() throws Exception {
+	pipelineResponse = "{\"status\":\"OK\",\"results\":[{\"status\":\"OK\",\"row_count\":1}]}";
+
+	AceQLConnection connection = connect();
+	try {
+	    connection.pipeline().addUpdate("delete from customer").addCommit().execute();
+	    Assert.fail("SQLException expected");
+	} catch (SQLException e) {
+	    Assert.assertTrue(e.getMessage(), e.getMessage().contains("1 results for 2 commands"));
+	}
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+	AceQLConnection connection = connect();
+	Assert.assertTrue(connection.pipeline().execute().isEmpty());
+	Assert.assertTrue(calls.isEmpty());
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.http;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.http.ConnectionStateCache;
+
+/**
+ * Tests the local copy of the connection state kept by
+ * {@code ConnectionStateCache}. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ConnectionStateCacheTest {
+
+    @Test
+    public void testPutAndGet() {
+	ConnectionStateCache cache = new ConnectionStateCache(true);
+	Assert.assertNull(cache.get(ConnectionStateCache.GET_AUTO_COMMIT));
+	Assert.assertFalse(cache.isCached(ConnectionStateCache.GET_AUTO_COMMIT, "true"));
+
+	cache.put(ConnectionStateCache.GET_AUTO_COMMIT, "false");
+	Assert.assertEquals(Optional.of("false"), cache.get(ConnectionStateCache.GET_AUTO_COMMIT));
+	Assert.assertTrue(cache.isCached(ConnectionStateCache.GET_AUTO_COMMIT, "false"));
+	Assert.assertFalse(cache.isCached(ConnectionStateCache.GET_AUTO_COMMIT, "true"));
+
+	cache.remove(ConnectionStateCache.GET_AUTO_COMMIT);
+	Assert.assertNull(cache.get(ConnectionStateCache.GET_AUTO_COMMIT));
+    }
+
+    @Test
+    public void testNullValue() {
+	ConnectionStateCache cache = new ConnectionStateCache(true);
+	cache.put(ConnectionStateCache.GET_SCHEMA, null);
+	Assert.assertEquals(Optional.empty(), cache.get(ConnectionStateCache.GET_SCHEMA));
+	Assert.assertTrue(cache.isCached(ConnectionStateCache.GET_SCHEMA, null));
+    }
+
+    @Test
+    public void testInvalidate() {
+	ConnectionStateCache cache = new ConnectionStateCache(true);
+	cache.put(ConnectionStateCache.IS_READ_ONLY, "true");
+	cache.put(ConnectionStateCache.GET_CATALOG, "sampledb");
+	cache.invalidate();
+	Assert.assertNull(cache.get(ConnectionStateCache.IS_READ_ONLY));
+	Assert.assertNull(cache.get(ConnectionStateCache.GET_CATALOG));
+    }
+
+    @Test
+    public void testDisabled() {
+	ConnectionStateCache cache = new ConnectionStateCache(false);
+	cache.put(ConnectionStateCache.GET_HOLDABILITY, "hold_cursors_over_commit");
+	Assert.assertNull(cache.get(ConnectionStateCache.GET_HOLDABILITY));
+	Assert.assertFalse(cache.isCached(ConnectionStateCache.GET_HOLDABILITY, "hold_cursors_over_commit"));
+    }
+
+    @Test
+    public void testIsApplied() {
+	Map<String, String> changes = new LinkedHashMap<String, String>();
+	Assert.assertTrue(ConnectionStateCache.isApplied(changes, null));
+
+	changes.put(ConnectionStateCache.SET_AUTO_COMMIT, "false");
+	changes.put(ConnectionStateCache.SET_READ_ONLY, "true");
+	Assert.assertFalse(ConnectionStateCache.isApplied(changes, null));
+	Assert.assertFalse(ConnectionStateCache.isApplied(changes, "set_auto_commit"));
+	Assert.assertTrue(ConnectionStateCache.isApplied(changes, "set_read_only, set_auto_commit"));
+    }
+
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.AceQLException;
+import com.aceql.jdbc.commons.ConnectionInfo;
+import com.aceql.jdbc.commons.InternalWrapper;
+import com.aceql.jdbc.commons.main.http.AceQLHttpApi;
+import com.aceql.jdbc.commons.main.http.HttpTransportResponse;
+import com.aceql.jdbc.commons.main.util.UserLoginStore;
+import com.aceql.jdbc.commons.metadata.ResultSetMetaDataPolicy;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the connection state cache and the deferred connection state changes
+ * of {@code AceQLHttpApi}, against a local stand-in server that records the
+ * calls. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class DeferredConnectionStateTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String url;
+
+    /** The calls after the login: action, followed by the sorted POST parameters */
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+
+    /** Says if the stand-in server confirms the connection state changes */
+    private volatile boolean confirmState = true;
+
+    @Before
+    public void setUp() throws IOException {
+	server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+	serverExecutor = Executors.newFixedThreadPool(2);
+	server.setExecutor(serverExecutor);
+	server.createContext("/aceql", new HttpHandler() {
+
+	    @Override
+	    public void handle(HttpExchange exchange) throws IOException {
+		String body = new String(IOUtils.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+		String path = exchange.getRequestURI().getPath();
+
+		String response;
+		List<String> appliedState = new ArrayList<String>();
+		if (path.endsWith("/login")) {
+		    response = "{\"status\":\"OK\",\"session_id\":\"s1\",\"connection_id\":\"c1\"}";
+		} else {
+		    String action = path.substring(path.indexOf("/connection/c1/") + "/connection/c1/".length());
+		    calls.add(action + (body.isEmpty() ? "" : " " + decode(body)));
+		    if (!body.isEmpty()) {
+			for (String parameter : decode(body).keySet()) {
+			    if (parameter.startsWith("set_")) {
+				appliedState.add(parameter);
+			    }
+			}
+		    }
+		    if (action.startsWith("execute_update")) {
+			response = "{\"status\":\"OK\",\"row_count\":1}";
+		    } else if (action.startsWith("get_auto_commit")) {
+			response = "{\"status\":\"OK\",\"result\":\"true\"}";
+		    } else {
+			response = "{\"status\":\"OK\"}";
+		    }
+		}
+
+		if (confirmState && !appliedState.isEmpty()) {
+		    exchange.getResponseHeaders().add(HttpTransportResponse.APPLIED_STATE_HEADER,
+			    String.join(",", appliedState));
+		}
+
+		byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+		    out.write(bytes);
+		}
+	    }
+	});
+	server.start();
+	url = "http://127.0.0.1:" + server.getAddress().getPort() + "/aceql";
+    }
+
+    @After
+    public void tearDown() {
+	server.stop(0);
+	serverExecutor.shutdown();
+	UserLoginStore.resetAll();
+    }
+
+    private static Map<String, String> decode(String body) throws IOException {
+	Map<String, String> parameters = new TreeMap<String, String>();
+	for (String pair : body.split("&")) {
+	    int index = pair.indexOf('=');
+	    parameters.put(URLDecoder.decode(pair.substring(0, index), "UTF-8"),
+		    URLDecoder.decode(pair.substring(index + 1), "UTF-8"));
+	}
+	return parameters;
+    }
+
+    private AceQLHttpApi connect(boolean deferredConnectionState) throws Exception {
+	return connect(deferredConnectionState, "AceQL HTTP v12.3 - 01-Jan-2024");
+    }
+
+    private AceQLHttpApi connect(boolean deferredConnectionState, String serverVersion) throws Exception {
+	ConnectionInfo connectionInfo = InternalWrapper.connectionInfoBuilder(url, "db",
+		new PasswordAuthentication("user", "password".toCharArray()), false, null, null, 0, 0, false,
+		ResultSetMetaDataPolicy.off, new HashMap<String, String>(), null, null);
+	InternalWrapper.setDeferredConnectionState(connectionInfo, deferredConnectionState);
+	InternalWrapper.setServerCapabilities(connectionInfo, InternalWrapper.serverCapabilitiesBuilder(serverVersion));
+	return new AceQLHttpApi(connectionInfo);
+    }
+
+    @Test
+    public void testImmediateSetters() throws Exception {
+	AceQLHttpApi aceQLHttpApi = connect(false);
+
+	Assert.assertTrue(aceQLHttpApi.getAutoCommit());
+	Assert.assertTrue(aceQLHttpApi.getAutoCommit());
+	aceQLHttpApi.setAutoCommit(true);
+	aceQLHttpApi.setAutoCommit(false);
+	Assert.assertFalse(aceQLHttpApi.getAutoCommit());
+
+	aceQLHttpApi.invalidateConnectionState();
+	Assert.assertTrue(aceQLHttpApi.getAutoCommit());
+
+	// Getters are answered locally and unchanged values are not sent
+	Assert.assertEquals(3, calls.size());
+	Assert.assertEquals("get_auto_commit", calls.get(0));
+	Assert.assertEquals("set_auto_commit/false", calls.get(1));
+	Assert.assertEquals("get_auto_commit", calls.get(2));
+    }
+
+    @Test
+    public void testDeferredTransaction() throws Exception {
+	AceQLHttpApi aceQLHttpApi = connect(true);
+
+	// The first change is applied immediately, and confirms the deferral
+	aceQLHttpApi.setAutoCommit(false);
+	aceQLHttpApi.setTransactionIsolation("serializable");
+	Assert.assertFalse(aceQLHttpApi.getAutoCommit());
+	Assert.assertEquals(1, calls.size());
+	Assert.assertEquals("set_auto_commit/false {set_auto_commit=false}", calls.get(0));
+
+	Assert.assertEquals(1, aceQLHttpApi.executeUpdate("update t set c = 1", false, false, null, null));
+	aceQLHttpApi.commit();
+	aceQLHttpApi.setAutoCommit(true);
+
+	Assert.assertEquals(3, calls.size());
+	Assert.assertEquals("execute_update {prepared_statement=false, "
+		+ "set_transaction_isolation_level=serializable, sql=update t set c = 1, stored_procedure=false}",
+		calls.get(1));
+	Assert.assertEquals("commit", calls.get(2));
+
+	// A pending change is sent with the commit
+	aceQLHttpApi.setReadOnly(true);
+	aceQLHttpApi.commit();
+	Assert.assertEquals("commit {set_auto_commit=true, set_read_only=true}", calls.get(3));
+    }
+
+    @Test
+    public void testDeferredFlush() throws Exception {
+	AceQLHttpApi aceQLHttpApi = connect(true);
+
+	aceQLHttpApi.setAutoCommit(false);
+	aceQLHttpApi.setHoldability("hold_cursors_over_commit");
+	aceQLHttpApi.setReadOnly(true);
+	aceQLHttpApi.rollback();
+
+	// Calls that do not carry the changes send them first
+	Assert.assertEquals(4, calls.size());
+	Assert.assertEquals("set_auto_commit/false {set_auto_commit=false}", calls.get(0));
+	Assert.assertEquals("set_holdability/hold_cursors_over_commit", calls.get(1));
+	Assert.assertEquals("set_read_only/true", calls.get(2));
+	Assert.assertEquals("rollback", calls.get(3));
+    }
+
+    @Test
+    public void testDeferredNotSupportedByServer() throws Exception {
+	AceQLHttpApi aceQLHttpApi = connect(true, "AceQL HTTP v12.2 - 01-Jan-2023");
+
+	aceQLHttpApi.setAutoCommit(false);
+	aceQLHttpApi.executeUpdate("update t set c = 1", false, false, null, null);
+
+	// The server version does not apply deferred changes: setters are immediate
+	Assert.assertEquals(2, calls.size());
+	Assert.assertEquals("set_auto_commit/false", calls.get(0));
+	Assert.assertEquals("execute_update {prepared_statement=false, sql=update t set c = 1, stored_procedure=false}",
+		calls.get(1));
+    }
+
+    @Test
+    public void testDeferredUnconfirmed() throws Exception {
+	confirmState = false;
+	AceQLHttpApi aceQLHttpApi = connect(true);
+
+	aceQLHttpApi.setAutoCommit(false);
+	aceQLHttpApi.setReadOnly(true);
+	aceQLHttpApi.executeUpdate("update t set c = 1", false, false, null, null);
+	Assert.assertFalse(aceQLHttpApi.getAutoCommit());
+
+	// Without confirmation of the first change, the setters stay immediate
+	Assert.assertEquals(3, calls.size());
+	Assert.assertEquals("set_auto_commit/false {set_auto_commit=false}", calls.get(0));
+	Assert.assertEquals("set_read_only/true", calls.get(1));
+	Assert.assertEquals("execute_update {prepared_statement=false, sql=update t set c = 1, stored_procedure=false}",
+		calls.get(2));
+    }
+
+    @Test
+    public void testDeferredConfirmationMissing() throws Exception {
+	AceQLHttpApi aceQLHttpApi = connect(true);
+	aceQLHttpApi.setAutoCommit(false);
+	aceQLHttpApi.setReadOnly(true);
+
+	confirmState = false;
+	try {
+	    aceQLHttpApi.executeUpdate("update t set c = 1", false, false, null, null);
+	    Assert.fail("A call whose changes are not confirmed must fail");
+	} catch (AceQLException expected) {
+	    // Expected
+	}
+
+	// The changes are never sent again after the action, and the next setters
+	// are immediate
+	aceQLHttpApi.setAutoCommit(true);
+	Assert.assertEquals(3, calls.size());
+	Assert.assertEquals("execute_update {prepared_statement=false, set_read_only=true, "
+		+ "sql=update t set c = 1, stored_procedure=false}", calls.get(1));
+	Assert.assertEquals("set_auto_commit/true", calls.get(2));
+    }
+
+}
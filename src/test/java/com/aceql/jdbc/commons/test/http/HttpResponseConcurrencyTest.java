@@ -0,0 +1,148 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.ConnectionInfo;
+import com.aceql.jdbc.commons.InternalWrapper;
+import com.aceql.jdbc.commons.main.http.HttpManager;
+import com.aceql.jdbc.commons.main.http.HttpResponse;
+import com.aceql.jdbc.commons.main.http.ResultAnalyzer;
+import com.aceql.jdbc.commons.metadata.ResultSetMetaDataPolicy;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests that concurrent calls on one {@code HttpManager} each get the status of
+ * their own response. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class HttpResponseConcurrencyTest {
+
+    private static final int CALLS = 200;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String url;
+    private HttpManager httpManager;
+
+    @Before
+    public void setUp() throws IOException {
+	server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+	serverExecutor = Executors.newFixedThreadPool(8);
+	server.setExecutor(serverExecutor);
+	server.createContext("/status", new HttpHandler() {
+
+	    @Override
+	    public void handle(HttpExchange exchange) throws IOException {
+		IOUtils.toByteArray(exchange.getRequestBody());
+		String path = exchange.getRequestURI().getPath();
+		int status = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+		String response = status == 200 ? "{\"status\":\"OK\",\"result\":\"" + path + "\"}"
+			: "{\"status\":\"FAIL\",\"error_type\":0,\"error_message\":\"" + path + "\"}";
+		byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Connection", "close");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+		    out.write(bytes);
+		}
+	    }
+	});
+	server.start();
+	url = "http://127.0.0.1:" + server.getAddress().getPort() + "/status/";
+
+	ConnectionInfo connectionInfo = InternalWrapper.connectionInfoBuilder(url, "db", null, false, null, null, 0,
+		0, false, ResultSetMetaDataPolicy.on, new HashMap<String, String>(), null, null);
+	httpManager = new HttpManager(connectionInfo);
+    }
+
+    @After
+    public void tearDown() {
+	server.stop(0);
+	serverExecutor.shutdown();
+    }
+
+    @Test
+    public void testConcurrentCalls() throws Exception {
+	ExecutorService executor = Executors.newFixedThreadPool(8);
+	try {
+	    List<Future<String>> futures = new ArrayList<Future<String>>();
+	    for (int i = 0; i < CALLS; i++) {
+		final int status = i % 3 == 0 ? 500 : 200;
+		final String path = i + "/" + status;
+		final boolean usePost = i % 2 == 0;
+		futures.add(executor.submit(new Callable<String>() {
+
+		    @Override
+		    public String call() throws Exception {
+			HttpResponse response;
+			if (usePost) {
+			    Map<String, String> parameters = new HashMap<String, String>();
+			    parameters.put("sql", "select 1");
+			    response = httpManager.post(new URL(url + path), parameters);
+			} else {
+			    response = httpManager.get(url + path);
+			}
+
+			ResultAnalyzer resultAnalyzer = new ResultAnalyzer(response.readString(), response);
+			Assert.assertEquals(status, resultAnalyzer.getHttpStatusCode());
+			Assert.assertEquals(status, httpManager.getHttpStatusCode());
+			Assert.assertEquals(status == 200, resultAnalyzer.isStatusOk());
+			return status == 200 ? resultAnalyzer.getResult() : resultAnalyzer.getErrorMessage();
+		    }
+		}));
+	    }
+
+	    for (int i = 0; i < CALLS; i++) {
+		int status = i % 3 == 0 ? 500 : 200;
+		String message = futures.get(i).get();
+		if (status == 200) {
+		    Assert.assertEquals("/status/" + i + "/" + status, message);
+		} else {
+		    Assert.assertTrue(message, message.contains("/status/" + i + "/" + status));
+		}
+	    }
+	} finally {
+	    executor.shutdown();
+	}
+    }
+
+}
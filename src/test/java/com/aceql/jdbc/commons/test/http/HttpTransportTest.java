@@ -0,0 +1,170 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.http.HttpClientTransport;
+import com.aceql.jdbc.commons.main.http.HttpTransport;
+import com.aceql.jdbc.commons.main.http.HttpTransportResponse;
+import com.aceql.jdbc.commons.main.http.UrlConnectionTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the {@code HttpTransport} implementations against a local HTTP
+ * server that echoes the requests. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class HttpTransportTest {
+
+    private HttpServer server;
+    private URL url;
+
+    @Before
+    public void setUp() throws IOException {
+	server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+	server.createContext("/echo", new HttpHandler() {
+
+	    @Override
+	    public void handle(HttpExchange exchange) throws IOException {
+		byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+		String response = exchange.getRequestMethod() + " " + exchange.getRequestHeaders().getFirst("X-Test")
+			+ " " + new String(body, StandardCharsets.UTF_8);
+		byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+		int status = body.length > 0 && body[0] == '!' ? 500 : 200;
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+		    out.write(bytes);
+		}
+	    }
+	});
+	server.start();
+	url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/echo");
+    }
+
+    @After
+    public void tearDown() {
+	server.stop(0);
+    }
+
+    private static String read(HttpTransportResponse response) throws IOException {
+	try (InputStream in = response.getBody()) {
+	    return IOUtils.toString(in, StandardCharsets.UTF_8);
+	}
+    }
+
+    private void testTransport(HttpTransport httpTransport) throws Exception {
+	Map<String, String> headers = new HashMap<String, String>();
+	headers.put("X-Test", "h");
+	// Restricted by java.net.http: ignored by HttpClientTransport
+	headers.put("Connection", "keep-alive");
+
+	HttpTransportResponse response = httpTransport.get(url, headers);
+	Assert.assertEquals(200, response.getStatusCode());
+	Assert.assertEquals("GET h ", read(response));
+
+	response = httpTransport.post(url, headers, "a=1&b=\u00e9".getBytes(StandardCharsets.UTF_8));
+	Assert.assertEquals("POST h a=1&b=\u00e9", read(response));
+
+	response = httpTransport.post(url, headers, "!error".getBytes(StandardCharsets.UTF_8));
+	Assert.assertEquals(500, response.getStatusCode());
+	Assert.assertEquals("POST h !error", read(response));
+
+	// Fixed length, then chunked streamed bodies
+	final byte[] chunk = new byte[30000];
+	for (final long contentLength : new long[] { chunk.length * 100, -1 }) {
+	    HttpTransport.RequestBody requestBody = new HttpTransport.RequestBody() {
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+		    for (int i = 0; i < 100; i++) {
+			out.write(chunk);
+		    }
+		}
+
+		@Override
+		public long getContentLength() {
+		    return contentLength;
+		}
+	    };
+	    response = httpTransport.post(url, headers, requestBody);
+	    Assert.assertEquals(200, response.getStatusCode());
+	    Assert.assertEquals(7 + chunk.length * 100, read(response).length());
+	}
+    }
+
+    private void testCancelledUpload(HttpTransport httpTransport) throws Exception {
+	HttpTransport.RequestBody requestBody = new HttpTransport.RequestBody() {
+
+	    @Override
+	    public void writeTo(OutputStream out) throws IOException, InterruptedException {
+		out.write(new byte[100000]);
+		throw new InterruptedException("Blob upload cancelled by user.");
+	    }
+
+	    @Override
+	    public long getContentLength() {
+		return -1;
+	    }
+	};
+
+	try {
+	    httpTransport.post(url, new HashMap<String, String>(), requestBody);
+	    Assert.fail("A cancelled upload must not return a response.");
+	} catch (InterruptedException e) {
+	    Assert.assertEquals("Blob upload cancelled by user.", e.getMessage());
+	}
+    }
+
+    @Test
+    public void testUrlConnection() throws Exception {
+	testTransport(new UrlConnectionTransport(null, 10000, 10000));
+    }
+
+    @Test
+    public void testHttpClient() throws Exception {
+	Assume.assumeTrue(HttpClientTransport.isAvailable());
+	testTransport(new HttpClientTransport(null, null, 10000, 10000));
+    }
+
+    @Test
+    public void testHttpClientCancelledUpload() throws Exception {
+	Assume.assumeTrue(HttpClientTransport.isAvailable());
+	testCancelledUpload(new HttpClientTransport(null, null, 10000, 10000));
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.binary.ColumnarRowReader;
+import com.aceql.jdbc.commons.test.util.BinaryResultWriter;
+
+/**
+ * Tests the decoding of the binary columnar result format by
+ * {@code ColumnarRowReader}. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ColumnarRowReaderTest {
+
+    private static final String[] NAMES = { "id", "amount", "price", "name" };
+    private static final byte[] TYPES = { ColumnarRowReader.TYPE_INT, ColumnarRowReader.TYPE_LONG,
+	    ColumnarRowReader.TYPE_DOUBLE, ColumnarRowReader.TYPE_STRING };
+
+    private static ColumnarRowReader read(byte[] bytes) throws IOException {
+	return ColumnarRowReader.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+	Object[][] rows = new Object[20][];
+	for (int i = 0; i < rows.length; i++) {
+	    // Nulls on each column at different rows, across bitmap bytes
+	    rows[i] = new Object[] { i % 9 == 3 ? null : i, i % 7 == 1 ? null : (long) i * 10000000000L,
+		    i % 5 == 2 ? null : i + 0.5, i % 11 == 0 ? null : "\u00e9\"," + i };
+	}
+
+	byte[] bytes = BinaryResultWriter.write("{\"columnCount\":4}", NAMES, TYPES, rows);
+	Assert.assertTrue(ColumnarRowReader.isBinaryResult(bytes, bytes.length));
+
+	ColumnarRowReader reader = read(bytes);
+	Assert.assertEquals(rows.length, reader.getRowCount());
+	Assert.assertEquals(4, reader.getColumnCount());
+	Assert.assertEquals("{\"columnCount\":4}", reader.getResultSetMetaDataJson());
+	Assert.assertEquals(Integer.valueOf(4), reader.getIndexsPerColName().get("name"));
+
+	// Backward, as done by a scrollable ResultSet
+	for (int i = rows.length - 1; i >= 0; i--) {
+	    Assert.assertTrue(reader.buildRowNum(i + 1));
+	    for (int col = 1; col <= 4; col++) {
+		Object expected = rows[i][col - 1];
+		Assert.assertEquals(expected == null, reader.isNull(col));
+		Assert.assertEquals(expected == null ? "NULL" : expected.toString(), reader.getValue(col));
+	    }
+	    if (rows[i][0] != null) {
+		Assert.assertEquals(i, reader.getLong(1));
+	    }
+	    if (rows[i][2] != null) {
+		Assert.assertEquals(i + 0.5, reader.getDouble(3), 0);
+	    }
+	}
+
+	Assert.assertTrue(reader.isFixedWidth(3));
+	Assert.assertFalse(reader.isFixedWidth(4));
+	Assert.assertFalse(reader.buildRowNum(rows.length + 1));
+	Assert.assertNull(reader.getValue(5));
+	reader.close();
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+	ColumnarRowReader reader = read(BinaryResultWriter.write(null, NAMES, TYPES, new Object[0][]));
+	Assert.assertEquals(0, reader.getRowCount());
+	Assert.assertNull(reader.getResultSetMetaDataJson());
+	Assert.assertFalse(reader.buildRowNum(1));
+    }
+
+    @Test
+    public void testJsonResult() {
+	byte[] json = "{\"status\":\"OK\"}".getBytes(StandardCharsets.UTF_8);
+	Assert.assertFalse(ColumnarRowReader.isBinaryResult(json, json.length));
+	Assert.assertFalse(ColumnarRowReader.isBinaryResult(ColumnarRowReader.MAGIC, 2));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedVersion() throws IOException {
+	byte[] bytes = BinaryResultWriter.write(null, NAMES, TYPES, new Object[0][]);
+	bytes[ColumnarRowReader.MAGIC.length] = 99;
+	read(bytes);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+	byte[] bytes = BinaryResultWriter.write(null, NAMES, TYPES, new Object[][] { { 1, 2L, 3.0, "a" } });
+	read(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+}
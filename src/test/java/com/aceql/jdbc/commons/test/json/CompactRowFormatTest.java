@@ -0,0 +1,138 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.MappedRowReader;
+import com.aceql.jdbc.commons.main.util.json.RowParser;
+import com.aceql.jdbc.commons.main.util.json.RowReader;
+
+/**
+ * Tests the read of the compact row format, where column names are sent once
+ * and rows are arrays of values. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class CompactRowFormatTest {
+
+    private static final int ROWS = 30;
+
+    private static final String JSON = buildJson();
+
+    private static String buildJson() {
+	StringBuilder sb = new StringBuilder("{\"status\":\"OK\",\"ResultSetMetaData\":\"{\\\"columnCount\\\":3}\","
+		+ "\"column_names\":[\"id\",\"name\",\"row_1\"],\"query_rows\":[");
+	for (int i = 1; i <= ROWS; i++) {
+	    sb.append("[\"" + i + "\",\"[\\\"\u00e9,]" + i + "\"," + (i % 2 == 0 ? "null" : "\"x\"") + "]");
+	    sb.append(i < ROWS ? "," : "");
+	}
+	sb.append("],\"row_count\":" + ROWS + "}");
+	return sb.toString();
+    }
+
+    private static JsonResultScanner scan(byte[] bytes) {
+	JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	for (int i = 0; i < bytes.length; i += 5) {
+	    jsonResultScanner.update(bytes, i, Math.min(5, bytes.length - i));
+	}
+	return jsonResultScanner;
+    }
+
+    private static void checkRow(RowReader rowReader, int row) throws SQLException {
+	Assert.assertTrue(rowReader.buildRowNum(row));
+	Assert.assertEquals("" + row, rowReader.getValue(1));
+	Assert.assertEquals("[\"\u00e9,]" + row, rowReader.getValue(2));
+	// JSON null is read as the "NULL" value, as in the default row format
+	if (row % 2 == 0) {
+	    Assert.assertTrue(rowReader.getValue(3).equalsIgnoreCase("NULL"));
+	} else {
+	    Assert.assertEquals("x", rowReader.getValue(3));
+	}
+	Assert.assertEquals(Integer.valueOf(2), rowReader.getIndexsPerColName().get("name"));
+	Assert.assertEquals(Integer.valueOf(3), rowReader.getIndexsPerColName().get("row_1"));
+    }
+
+    private static void checkRandomAccess(RowReader rowReader) throws SQLException {
+	try {
+	    for (int row : new int[] { 17, 1, 2, 30, 29, 3, 4, 5, 12 }) {
+		checkRow(rowReader, row);
+	    }
+	    Assert.assertFalse(rowReader.buildRowNum(ROWS + 1));
+	} finally {
+	    rowReader.close();
+	}
+    }
+
+    @Test
+    public void testScanner() {
+	JsonResultScanner jsonResultScanner = scan(JSON.getBytes(StandardCharsets.UTF_8));
+	Assert.assertEquals("OK", jsonResultScanner.getStatus());
+	Assert.assertEquals(ROWS, jsonResultScanner.getRowCount());
+	Assert.assertEquals(Arrays.asList("id", "name", "row_1"), jsonResultScanner.getColumnNames());
+	Assert.assertEquals("{\"columnCount\":3}", jsonResultScanner.getResultSetMetaDataJson());
+	Assert.assertEquals(ROWS, jsonResultScanner.getRowOffsetIndex().size());
+	Assert.assertEquals(JSON.indexOf("[\"1\""), jsonResultScanner.getRowOffsetIndex().getOffset(1));
+    }
+
+    @Test
+    public void testRowParser() throws SQLException, IOException {
+	byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+	checkRandomAccess(new RowParser(bytes, scan(bytes).getRowOffsetIndex()));
+
+	File file = File.createTempFile("aceql-compact-", ".txt");
+	try {
+	    FileUtils.writeByteArrayToFile(file, bytes);
+	    checkRandomAccess(new RowParser(file));
+	} finally {
+	    file.delete();
+	}
+    }
+
+    @Test
+    public void testRowParserStreaming() throws SQLException {
+	RowParser rowParser = new RowParser(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)));
+	Assert.assertTrue(rowParser.readHeader());
+	Assert.assertEquals("{\"columnCount\":3}", rowParser.getResultSetMetaDataJson());
+	for (int row = 1; row <= ROWS; row++) {
+	    checkRow(rowParser, row);
+	}
+	Assert.assertFalse(rowParser.buildRowNum(ROWS + 1));
+	rowParser.close();
+    }
+
+    @Test
+    public void testMappedRowReader() throws SQLException {
+	byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+	checkRandomAccess(new MappedRowReader(bytes, scan(bytes).getRowOffsetIndex()));
+	checkRandomAccess(new MappedRowReader(bytes, null));
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.json;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+
+/**
+ * Tests the values captured by {@code JsonResultScanner} in a single pass.
+ * Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class JsonResultScannerTest {
+
+    private static JsonResultScanner scan(String json, int chunkSize) {
+	JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+	for (int i = 0; i < bytes.length; i += chunkSize) {
+	    jsonResultScanner.update(bytes, i, Math.min(chunkSize, bytes.length - i));
+	}
+	return jsonResultScanner;
+    }
+
+    @Test
+    public void testResultSet() {
+	String json = "{\n    \"status\": \"OK\",\n    \"ResultSetMetaData\": \"{\\\"columnCount\\\":1,\\\"name\\\":\\\"\u00e9\\\"}\",\n"
+		+ "    \"query_rows\": [\n        {\n            \"row_1\": [{\"row_count\": \"7\"}]\n        },\n"
+		+ "        {\n            \"row_2\": [{\"status\": \"KO\"}]\n        }\n    ],\n    \"row_count\": 2\n}";
+
+	for (int chunkSize : new int[] { 1, 3, 1024 }) {
+	    JsonResultScanner jsonResultScanner = scan(json, chunkSize);
+	    Assert.assertTrue(jsonResultScanner.isStatusScanned());
+	    Assert.assertEquals("OK", jsonResultScanner.getStatus());
+	    Assert.assertTrue(jsonResultScanner.isQueryRowsFound());
+	    Assert.assertEquals(2, jsonResultScanner.getRowCount());
+	    Assert.assertEquals("{\"columnCount\":1,\"name\":\"\u00e9\"}", jsonResultScanner.getResultSetMetaDataJson());
+	    Assert.assertEquals(2, jsonResultScanner.getRowOffsetIndex().size());
+	    // Offsets are in bytes
+	    String beforeRow2 = json.substring(0, json.indexOf("{\n            \"row_2\""));
+	    Assert.assertEquals(beforeRow2.getBytes(StandardCharsets.UTF_8).length,
+		    jsonResultScanner.getRowOffsetIndex().getOffset(2));
+	}
+    }
+
+    @Test
+    public void testUpdate() {
+	JsonResultScanner jsonResultScanner = scan("{\"status\":\"OK\",\"row_count\":12}", 5);
+	Assert.assertEquals("OK", jsonResultScanner.getStatus());
+	Assert.assertFalse(jsonResultScanner.isQueryRowsFound());
+	Assert.assertEquals(12, jsonResultScanner.getRowCount());
+	Assert.assertNull(jsonResultScanner.getResultSetMetaDataJson());
+    }
+
+    @Test
+    public void testError() {
+	String json = "{\"status\": \"FAIL\", \"error_type\": 2, \"error_message\": \"Table \\\"foo\\\" not found\", "
+		+ "\"stack_trace\": \"java.sql.SQLException\\n\\tat Foo\"}";
+	JsonResultScanner jsonResultScanner = scan(json, 2);
+	Assert.assertEquals("FAIL", jsonResultScanner.getStatus());
+	Assert.assertEquals("2", jsonResultScanner.getErrorType());
+	Assert.assertEquals("Table \"foo\" not found", jsonResultScanner.getErrorMessage());
+	Assert.assertEquals("java.sql.SQLException\n\tat Foo", jsonResultScanner.getStackTrace());
+	Assert.assertEquals(-1, jsonResultScanner.getRowCount());
+    }
+
+    @Test
+    public void testPipelineResults() {
+	String result1 = "{\"status\":\"OK\",\"row_count\":3}";
+	String result2 = "{\"status\":\"OK\",\"query_rows\":[{\"row_1\":[{\"name\":\"\u00c9mile }]\"}]}],\"row_count\":1}";
+	String result3 = "{\"status\":\"FAIL\",\"error_message\":\"Table not found\"}";
+	String json = "{\"status\":\"OK\",\"results\":[" + result1 + ", " + result2 + ",\n" + result3 + "]}";
+	byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+	for (int chunkSize : new int[] { 1, 3, 1024 }) {
+	    JsonResultScanner jsonResultScanner = scan(json, chunkSize);
+	    Assert.assertEquals("OK", jsonResultScanner.getStatus());
+	    Assert.assertFalse(jsonResultScanner.isQueryRowsFound());
+	    Assert.assertEquals(3, jsonResultScanner.getResultScanners().size());
+
+	    String[] results = { result1, result2, result3 };
+	    for (int i = 0; i < results.length; i++) {
+		JsonResultScanner resultScanner = jsonResultScanner.getResultScanners().get(i);
+		int offset = (int) jsonResultScanner.getResultOffset(i);
+		String slice = new String(bytes, offset, (int) resultScanner.getPosition(), StandardCharsets.UTF_8);
+		Assert.assertEquals(results[i], slice);
+	    }
+
+	    JsonResultScanner queryScanner = jsonResultScanner.getResultScanners().get(1);
+	    Assert.assertTrue(queryScanner.isQueryRowsFound());
+	    Assert.assertEquals(1, queryScanner.getRowCount());
+	    Assert.assertEquals(1, queryScanner.getRowOffsetIndex().size());
+	    Assert.assertEquals(result2.indexOf("{\"row_1\""), queryScanner.getRowOffsetIndex().getOffset(1));
+	    Assert.assertEquals("FAIL", jsonResultScanner.getResultScanners().get(2).getStatus());
+	    Assert.assertEquals(-1, jsonResultScanner.getResultOffset(3));
+	}
+    }
+
+    @Test
+    public void testNotJson() {
+	JsonResultScanner jsonResultScanner = scan("<html><body>502 Bad Gateway</body></html>", 4);
+	Assert.assertFalse(jsonResultScanner.isStatusScanned());
+    }
+
+}
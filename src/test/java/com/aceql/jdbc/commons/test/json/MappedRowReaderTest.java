@@ -0,0 +1,107 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.json;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.json.MappedRowReader;
+import com.aceql.jdbc.commons.main.util.json.RowParser;
+
+/**
+ * Tests that {@code MappedRowReader} returns the same values as
+ * {@code RowParser}. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class MappedRowReaderTest {
+
+    private static final int ROWS = 30;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+	StringBuilder sb = new StringBuilder();
+	sb.append("{\n    \"status\": \"OK\",\n    \"query_rows\": [\n");
+	for (int i = 1; i <= ROWS; i++) {
+	    sb.append("        {\n            \"row_" + i + "\": [\n");
+	    sb.append("                {\n                    \"id\": " + i + "\n                },\n");
+	    sb.append("                {\n                    \"na\\\"me\": \"  \u00e9\\u00e8\\\\\\/\\n\\t{[,}" + i + "  \"\n                },\n");
+	    sb.append("                {\n                    \"empty\": \"\"\n                },\n");
+	    sb.append("                {\n                    \"price\": \"NULL\"\n                }\n");
+	    sb.append("            ]\n        }");
+	    sb.append(i < ROWS ? ",\n" : "\n");
+	}
+	sb.append("    ],\n    \"row_count\": " + ROWS + "\n}");
+
+	file = File.createTempFile("aceql-mapped-row-reader-", ".txt");
+	FileUtils.writeStringToFile(file, sb.toString(), StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() {
+	file.delete();
+    }
+
+    @Test
+    public void testSameValuesAsRowParser() throws SQLException {
+	MappedRowReader mappedRowReader = new MappedRowReader(file, null);
+	RowParser rowParser = new RowParser(file);
+	try {
+	    int[] rows = { 1, 2, 30, 7, 1, 29, 30 };
+	    for (int row : rows) {
+		Assert.assertTrue(mappedRowReader.buildRowNum(row));
+		Assert.assertTrue(rowParser.buildRowNum(row));
+		for (int col = 1; col <= 4; col++) {
+		    Assert.assertEquals(rowParser.getValue(col), mappedRowReader.getValue(col));
+		}
+		Assert.assertEquals("\u00e9\u00e8\\/\n\t{[,}" + row, mappedRowReader.getValue(2));
+	    }
+	    Assert.assertEquals(rowParser.getIndexsPerColName(), mappedRowReader.getIndexsPerColName());
+	    Assert.assertEquals(Integer.valueOf(2), mappedRowReader.getIndexsPerColName().get("na\"me"));
+
+	    Assert.assertNull(mappedRowReader.getValue(0));
+	    Assert.assertNull(mappedRowReader.getValue(5));
+	    Assert.assertFalse(mappedRowReader.buildRowNum(ROWS + 1));
+	} finally {
+	    mappedRowReader.close();
+	    rowParser.close();
+	}
+    }
+
+    @Test
+    public void testEmptyResultSet() throws IOException, SQLException {
+	FileUtils.writeStringToFile(file, "{\"status\":\"OK\",\"query_rows\":[],\"row_count\":0}",
+		StandardCharsets.UTF_8);
+	MappedRowReader mappedRowReader = new MappedRowReader(file, null);
+	Assert.assertFalse(mappedRowReader.buildRowNum(1));
+	mappedRowReader.close();
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.json;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.PagedRowReader;
+import com.aceql.jdbc.commons.main.util.json.RowParser;
+
+/**
+ * Tests the read by pages of a server cursor with {@code PagedRowReader}. The
+ * server is replaced by a local page fetcher. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class PagedRowReaderTest {
+
+    private static final int ROWS = 23;
+
+    /**
+     * Stand-in of the server cursor: serves the rows by pages of fetchSize rows,
+     * numbered from 1 in each page.
+     */
+    private static class LocalCursor implements PagedRowReader.PageFetcher {
+
+	private int sent = 0;
+	private int pages = 0;
+	private final List<String> closedCursorIds = new ArrayList<>();
+
+	String nextPage(int fetchSize) {
+	    int size = Math.min(fetchSize, ROWS - sent);
+	    String cursor = sent + size < ROWS ? "\"cursor_id\":\"c1\"," : "";
+
+	    StringBuilder sb = new StringBuilder("{\"status\":\"OK\"," + cursor + "\"query_rows\":[");
+	    for (int i = 1; i <= size; i++) {
+		sb.append("{\"row_" + i + "\":[{\"id\":\"" + (sent + i) + "\"}]}");
+		sb.append(i < size ? "," : "");
+	    }
+	    sb.append("],\"row_count\":" + size + "}");
+
+	    sent += size;
+	    pages++;
+	    return sb.toString();
+	}
+
+	@Override
+	public RowParser fetchPage(String cursorId, int fetchSize) throws SQLException {
+	    Assert.assertEquals("c1", cursorId);
+	    byte[] bytes = nextPage(fetchSize).getBytes(StandardCharsets.UTF_8);
+	    RowParser rowParser = new RowParser(new ByteArrayInputStream(bytes));
+	    Assert.assertTrue(rowParser.readHeader());
+	    return rowParser;
+	}
+
+	@Override
+	public void closeCursor(String cursorId) throws SQLException {
+	    closedCursorIds.add(cursorId);
+	}
+    }
+
+    private static PagedRowReader buildReader(LocalCursor localCursor, int fetchSize) throws SQLException {
+	byte[] firstPage = localCursor.nextPage(fetchSize).getBytes(StandardCharsets.UTF_8);
+	JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	jsonResultScanner.update(firstPage, 0, firstPage.length);
+	Assert.assertEquals("c1", jsonResultScanner.getCursorId());
+
+	RowParser firstPageParser = new RowParser(firstPage, jsonResultScanner.getRowOffsetIndex());
+	return new PagedRowReader(firstPageParser, jsonResultScanner.getRowCount(), jsonResultScanner.getCursorId(),
+		fetchSize, localCursor);
+    }
+
+    @Test
+    public void testAllPages() throws SQLException {
+	for (int fetchSize : new int[] { 1, 5, 22 }) {
+	    LocalCursor localCursor = new LocalCursor();
+	    PagedRowReader pagedRowReader = buildReader(localCursor, fetchSize);
+
+	    for (int row = 1; row <= ROWS; row++) {
+		Assert.assertTrue(pagedRowReader.buildRowNum(row));
+		Assert.assertEquals("" + row, pagedRowReader.getValue(1));
+	    }
+	    Assert.assertFalse(pagedRowReader.buildRowNum(ROWS + 1));
+	    pagedRowReader.close();
+
+	    Assert.assertEquals((ROWS + fetchSize - 1) / fetchSize, localCursor.pages);
+	    Assert.assertTrue(localCursor.closedCursorIds.isEmpty());
+	}
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws SQLException {
+	LocalCursor localCursor = new LocalCursor();
+	PagedRowReader pagedRowReader = buildReader(localCursor, 5);
+	for (int row = 1; row <= 7; row++) {
+	    Assert.assertTrue(pagedRowReader.buildRowNum(row));
+	}
+
+	pagedRowReader.close();
+	pagedRowReader.close();
+	Assert.assertEquals(1, localCursor.closedCursorIds.size());
+    }
+
+    @Test(expected = SQLException.class)
+    public void testBackwardNotSupported() throws SQLException {
+	PagedRowReader pagedRowReader = buildReader(new LocalCursor(), 5);
+	Assert.assertTrue(pagedRowReader.buildRowNum(1));
+	Assert.assertTrue(pagedRowReader.buildRowNum(2));
+	pagedRowReader.buildRowNum(1);
+    }
+
+}
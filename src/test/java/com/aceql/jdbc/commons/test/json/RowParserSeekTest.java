@@ -0,0 +1,124 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.json;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.RowOffsetIndex;
+import com.aceql.jdbc.commons.main.util.json.RowParser;
+import com.aceql.jdbc.commons.main.util.json.ScanningOutputStream;
+
+/**
+ * Tests the row offsets built while writing a result set file, and the direct
+ * row access of {@code RowParser}. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class RowParserSeekTest {
+
+    private static final int ROWS = 50;
+
+    private File file;
+    private RowOffsetIndex rowOffsetIndex;
+
+    /**
+     * Builds a pretty printed result set file like the ones of the server, with
+     * a column named "row_1" and values containing JSON delimiters.
+     */
+    @Before
+    public void setUp() throws IOException {
+	StringBuilder sb = new StringBuilder();
+	sb.append("{\n    \"status\": \"OK\",\n    \"query_rows\": [\n");
+	for (int i = 1; i <= ROWS; i++) {
+	    sb.append("        {\n            \"row_" + i + "\": [\n");
+	    sb.append("                {\n                    \"id\": \"" + i + "\"\n                },\n");
+	    sb.append("                {\n                    \"row_1\": \"{[\\\"\u00e9,}" + i + "\"\n                }\n");
+	    sb.append("            ]\n        }");
+	    sb.append(i < ROWS ? ",\n" : "\n");
+	}
+	sb.append("    ],\n    \"row_count\": " + ROWS + "\n}");
+
+	file = File.createTempFile("aceql-row-parser-seek-", ".txt");
+
+	JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	try (OutputStream out = new ScanningOutputStream(new FileOutputStream(file), jsonResultScanner)) {
+	    byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+	    // Write in small chunks to test state kept between updates
+	    for (int i = 0; i < bytes.length; i += 7) {
+		out.write(bytes, i, Math.min(7, bytes.length - i));
+	    }
+	}
+	rowOffsetIndex = jsonResultScanner.getRowOffsetIndex();
+    }
+
+    @After
+    public void tearDown() {
+	file.delete();
+    }
+
+    @Test
+    public void testIndexSize() {
+	Assert.assertEquals(ROWS, rowOffsetIndex.size());
+	Assert.assertEquals(-1, rowOffsetIndex.getOffset(0));
+	Assert.assertEquals(-1, rowOffsetIndex.getOffset(ROWS + 1));
+    }
+
+    @Test
+    public void testRandomAccess() throws SQLException {
+	RowParser rowParser = new RowParser(file, rowOffsetIndex);
+	try {
+	    int[] rows = { 37, 2, 50, 1, 49, 50, 12, 13, 14, 3 };
+	    for (int row : rows) {
+		Assert.assertTrue(rowParser.buildRowNum(row));
+		Assert.assertEquals("" + row, rowParser.getValue(1));
+		Assert.assertEquals("{[\"\u00e9,}" + row, rowParser.getValue(2));
+	    }
+	    Assert.assertEquals(Integer.valueOf(1), rowParser.getIndexsPerColName().get("id"));
+	    Assert.assertEquals(Integer.valueOf(2), rowParser.getIndexsPerColName().get("row_1"));
+	} finally {
+	    rowParser.close();
+	}
+    }
+
+    @Test
+    public void testBackwardWithoutIndex() throws SQLException {
+	RowParser rowParser = new RowParser(file);
+	try {
+	    for (int row = ROWS; row >= 1; row--) {
+		Assert.assertTrue(rowParser.buildRowNum(row));
+		Assert.assertEquals("" + row, rowParser.getValue(1));
+	    }
+	} finally {
+	    rowParser.close();
+	}
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.json.RowParser;
+
+/**
+ * Tests the streaming mode of {@code RowParser}. Does not require an AceQL
+ * server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class RowParserStreamingTest {
+
+    private static InputStream toStream(String json) {
+	return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRowsInSequence() throws SQLException {
+	String json = "{\"status\":\"OK\",\"ResultSetMetaData\":\"{\\\"columnCount\\\":2}\",\"query_rows\":["
+		+ "{\"row_1\":[{\"id\":\"1\"},{\"name\":\"a\"}]},"
+		+ "{\"row_2\":[{\"id\":\"2\"},{\"name\":\"b\"}]}],\"row_count\":2}";
+
+	RowParser rowParser = new RowParser(toStream(json));
+	Assert.assertTrue(rowParser.readHeader());
+	Assert.assertEquals("{\"columnCount\":2}", rowParser.getResultSetMetaDataJson());
+
+	Assert.assertTrue(rowParser.buildRowNum(1));
+	Assert.assertEquals("a", rowParser.getValue(2));
+	Assert.assertEquals(Integer.valueOf(2), rowParser.getIndexsPerColName().get("name"));
+
+	Assert.assertTrue(rowParser.buildRowNum(2));
+	Assert.assertEquals("2", rowParser.getValue(1));
+
+	Assert.assertFalse(rowParser.buildRowNum(3));
+	rowParser.close();
+    }
+
+    @Test(expected = SQLException.class)
+    public void testBackwardNotSupported() throws SQLException {
+	String json = "{\"status\":\"OK\",\"query_rows\":[{\"row_1\":[{\"id\":\"1\"}]}],\"row_count\":1}";
+	RowParser rowParser = new RowParser(toStream(json));
+	Assert.assertTrue(rowParser.readHeader());
+	Assert.assertTrue(rowParser.buildRowNum(1));
+	rowParser.buildRowNum(1);
+    }
+
+    @Test
+    public void testErrorStatus() throws SQLException {
+	String json = "{\"status\":\"FAIL\",\"error_type\":2,\"error_message\":\"Table not found\",\"stack_trace\":\"st\"}";
+	RowParser rowParser = new RowParser(toStream(json));
+	Assert.assertFalse(rowParser.readHeader());
+	Assert.assertEquals(2, rowParser.getErrorId());
+	Assert.assertEquals("Table not found", rowParser.getErrorMessage());
+	Assert.assertEquals("st", rowParser.getStackTrace());
+    }
+
+    @Test
+    public void testNotJson() throws SQLException {
+	RowParser rowParser = new RowParser(toStream("<html>Internal Server Error</html>"));
+	Assert.assertFalse(rowParser.readHeader());
+	Assert.assertNull(rowParser.getErrorMessage());
+    }
+
+}
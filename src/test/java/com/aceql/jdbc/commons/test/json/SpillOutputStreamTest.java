@@ -0,0 +1,108 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.json;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.RowParser;
+import com.aceql.jdbc.commons.main.util.json.ScanningOutputStream;
+import com.aceql.jdbc.commons.main.util.json.SpillOutputStream;
+
+/**
+ * Tests that small results are kept in memory by {@code SpillOutputStream} and
+ * read from memory by {@code RowParser}. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class SpillOutputStreamTest {
+
+    private static final String JSON = "{\"status\":\"OK\",\"query_rows\":["
+	    + "{\"row_1\":[{\"id\":\"1\"},{\"name\":\"\u00e9\"}]},"
+	    + "{\"row_2\":[{\"id\":\"2\"},{\"name\":\"b\"}]}],\"row_count\":2}";
+
+    private File file;
+
+    @Before
+    public void setUp() {
+	file = new File(FileUtils.getTempDirectory(), "aceql-spill-" + System.nanoTime() + ".txt");
+    }
+
+    @After
+    public void tearDown() {
+	file.delete();
+    }
+
+    @Test
+    public void testInMemory() throws IOException, SQLException {
+	byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+	JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	SpillOutputStream spillOutputStream = new SpillOutputStream(file, 1024);
+	try (OutputStream out = new ScanningOutputStream(spillOutputStream, jsonResultScanner)) {
+	    out.write(bytes);
+	}
+
+	Assert.assertTrue(spillOutputStream.isInMemory());
+	Assert.assertFalse(file.exists());
+	Assert.assertArrayEquals(bytes, spillOutputStream.toByteArray());
+
+	RowParser rowParser = new RowParser(spillOutputStream.toByteArray(), jsonResultScanner.getRowOffsetIndex());
+	Assert.assertTrue(rowParser.buildRowNum(2));
+	Assert.assertEquals("b", rowParser.getValue(2));
+	Assert.assertTrue(rowParser.buildRowNum(1));
+	Assert.assertEquals("\u00e9", rowParser.getValue(2));
+	Assert.assertFalse(rowParser.buildRowNum(3));
+	rowParser.close();
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+	byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+	SpillOutputStream spillOutputStream = new SpillOutputStream(file, 16);
+	try (OutputStream out = spillOutputStream) {
+	    out.write(bytes, 0, 10);
+	    Assert.assertTrue(spillOutputStream.isInMemory());
+	    out.write(bytes[10]);
+	    out.write(bytes, 11, bytes.length - 11);
+	}
+
+	Assert.assertFalse(spillOutputStream.isInMemory());
+	Assert.assertArrayEquals(bytes, FileUtils.readFileToByteArray(file));
+    }
+
+    @Test
+    public void testNoThreshold() throws IOException {
+	SpillOutputStream spillOutputStream = new SpillOutputStream(file, 0);
+	spillOutputStream.close();
+	Assert.assertFalse(spillOutputStream.isInMemory());
+	Assert.assertTrue(file.exists());
+    }
+
+}
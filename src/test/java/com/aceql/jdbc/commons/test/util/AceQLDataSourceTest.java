@@ -0,0 +1,354 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.PooledConnection;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.AceQLDataSource;
+import com.aceql.jdbc.commons.AceQLPooledConnection;
+
+/**
+ * Tests the pool of {@code AceQLDataSource} with fake physical connections.
+ * Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class AceQLDataSourceTest {
+
+    /**
+     * A fake statement that records its closing. Its result sets return the
+     * statement that created them.
+     */
+    private static class FakeStatement implements InvocationHandler {
+	final AtomicBoolean closed = new AtomicBoolean();
+	private final Connection connection;
+
+	FakeStatement(Connection connection) {
+	    this.connection = connection;
+	}
+
+	@Override
+	public Object invoke(final Object proxy, Method method, Object[] args) throws Throwable {
+	    if (method.getName().equals("close")) {
+		closed.set(true);
+	    } else if (method.getName().equals("isClosed")) {
+		return closed.get();
+	    } else if (method.getName().equals("getConnection")) {
+		return connection;
+	    } else if (method.getName().equals("executeQuery")) {
+		return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+			new InvocationHandler() {
+
+			    @Override
+			    public Object invoke(Object resultSetProxy, Method method, Object[] args) {
+				return method.getName().equals("getStatement") ? proxy : null;
+			    }
+			});
+	    }
+	    return null;
+	}
+    }
+
+    /**
+     * A fake physical connection that records the calls and keeps its state.
+     */
+    private static class FakeConnection implements InvocationHandler {
+	final AtomicBoolean closed = new AtomicBoolean();
+	final AtomicBoolean valid = new AtomicBoolean(true);
+	final List<String> calls = new ArrayList<String>();
+	final List<FakeStatement> statements = new ArrayList<FakeStatement>();
+
+	/** The state properties, per name without the get/set/is prefix */
+	final Map<String, Object> state = new ConcurrentHashMap<String, Object>();
+
+	FakeConnection() {
+	    state.put("AutoCommit", true);
+	    state.put("ReadOnly", false);
+	    state.put("TransactionIsolation", Connection.TRANSACTION_READ_COMMITTED);
+	    state.put("Holdability", ResultSet.HOLD_CURSORS_OVER_COMMIT);
+	    state.put("Catalog", "catalog");
+	    state.put("Schema", "schema");
+	}
+
+	@Override
+	public Object invoke(final Object proxy, Method method, Object[] args) throws Throwable {
+	    String methodName = method.getName();
+	    calls.add(methodName);
+	    String property = methodName.replaceFirst("^(get|set|is)", "");
+	    if (methodName.equals("close")) {
+		closed.set(true);
+	    } else if (methodName.equals("isValid")) {
+		return valid.get();
+	    } else if (methodName.equals("isClosed")) {
+		return closed.get();
+	    } else if (state.containsKey(property) && methodName.startsWith("set")) {
+		state.put(property, args[0]);
+	    } else if (state.containsKey(property)) {
+		return state.get(property);
+	    } else if (methodName.equals("createStatement") || methodName.equals("prepareStatement")) {
+		FakeStatement fakeStatement = new FakeStatement((Connection) proxy);
+		statements.add(fakeStatement);
+		return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+			new Class<?>[] { method.getReturnType() }, fakeStatement);
+	    } else if (methodName.equals("getMetaData")) {
+		return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+			new Class<?>[] { DatabaseMetaData.class }, new InvocationHandler() {
+
+			    @Override
+			    public Object invoke(Object metaDataProxy, Method method, Object[] args) {
+				return method.getName().equals("getConnection") ? proxy : null;
+			    }
+			});
+	    } else if (methodName.equals("commit")) {
+		throw new SQLException("network failure", new IOException("Connection reset"));
+	    }
+	    return null;
+	}
+
+	Connection newProxy() {
+	    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+		    new Class<?>[] { Connection.class }, this);
+	}
+    }
+
+    private final List<FakeConnection> created = new ArrayList<FakeConnection>();
+    private final AtomicInteger createCount = new AtomicInteger();
+    private AceQLDataSource dataSource;
+
+    @Before
+    public void setUp() {
+	dataSource = new AceQLDataSource() {
+
+	    @Override
+	    public PooledConnection getPooledConnection() throws SQLException {
+		FakeConnection fakeConnection = new FakeConnection();
+		synchronized (created) {
+		    created.add(fakeConnection);
+		}
+		createCount.incrementAndGet();
+		return new AceQLPooledConnection(fakeConnection.newProxy());
+	    }
+	};
+	dataSource.setMaxIdleTime(0);
+    }
+
+    @After
+    public void tearDown() {
+	dataSource.close();
+    }
+
+    @Test
+    public void testReuse() throws SQLException {
+	Connection connection = dataSource.getConnection();
+	Assert.assertEquals("catalog", connection.getCatalog());
+	connection.close();
+	Assert.assertTrue(connection.isClosed());
+	Assert.assertFalse(created.get(0).closed.get());
+
+	try {
+	    connection.getCatalog();
+	    Assert.fail("A closed logical Connection must not be usable");
+	} catch (SQLException expected) {
+	    // Expected
+	}
+
+	for (int i = 0; i < 10; i++) {
+	    try (Connection reused = dataSource.getConnection()) {
+		Assert.assertEquals("catalog", reused.getCatalog());
+	    }
+	}
+	Assert.assertEquals(1, createCount.get());
+	Assert.assertEquals(1, dataSource.getIdleConnections());
+	// Validated on each borrow
+	Assert.assertTrue(created.get(0).calls.contains("isValid"));
+
+	dataSource.close();
+	Assert.assertTrue(created.get(0).closed.get());
+	Assert.assertEquals(0, dataSource.getTotalConnections());
+    }
+
+    @Test
+    public void testUnwrap() throws SQLException {
+	try (Connection connection = dataSource.getConnection()) {
+	    Connection physical = connection.unwrap(Connection.class);
+	    Assert.assertNotSame(connection, physical);
+	    Assert.assertTrue(Proxy.getInvocationHandler(physical) instanceof FakeConnection);
+	}
+    }
+
+    @Test
+    public void testMaxPoolSize() throws SQLException {
+	dataSource.setMaxPoolSize(2);
+	dataSource.setBorrowTimeout(200);
+
+	Connection connection1 = dataSource.getConnection();
+	Connection connection2 = dataSource.getConnection();
+	try {
+	    dataSource.getConnection();
+	    Assert.fail("Pool is full");
+	} catch (SQLException expected) {
+	    Assert.assertTrue(expected.getMessage(), expected.getMessage().contains("No Connection available"));
+	}
+
+	connection1.close();
+	Connection connection3 = dataSource.getConnection();
+	Assert.assertEquals(2, createCount.get());
+	connection2.close();
+	connection3.close();
+	Assert.assertEquals(2, dataSource.getIdleConnections());
+    }
+
+    @Test
+    public void testInvalidConnectionReplaced() throws SQLException {
+	dataSource.getConnection().close();
+	created.get(0).valid.set(false);
+
+	try (Connection connection = dataSource.getConnection()) {
+	    Assert.assertFalse(connection.isClosed());
+	    Assert.assertEquals(2, createCount.get());
+	    Assert.assertTrue(created.get(0).closed.get());
+	}
+	Assert.assertEquals(1, dataSource.getTotalConnections());
+    }
+
+    @Test
+    public void testBrokenConnectionDiscarded() throws SQLException {
+	Connection connection = dataSource.getConnection();
+	try {
+	    connection.commit();
+	    Assert.fail("commit must fail");
+	} catch (SQLException expected) {
+	    // Expected
+	}
+	connection.close();
+	Assert.assertTrue(created.get(0).closed.get());
+	Assert.assertEquals(0, dataSource.getTotalConnections());
+    }
+
+    @Test
+    public void testAutoCommitRestored() throws SQLException {
+	try (Connection connection = dataSource.getConnection()) {
+	    connection.setAutoCommit(false);
+	}
+	List<String> calls = created.get(0).calls;
+	Assert.assertEquals("rollback", calls.get(calls.size() - 2));
+	Assert.assertEquals("setAutoCommit", calls.get(calls.size() - 1));
+	Assert.assertEquals(true, created.get(0).state.get("AutoCommit"));
+	// Unchanged properties are not set
+	Assert.assertFalse(calls.contains("setReadOnly"));
+    }
+
+    @Test
+    public void testStateRestored() throws SQLException {
+	try (Connection connection = dataSource.getConnection()) {
+	    connection.setReadOnly(true);
+	    connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+	    connection.setHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT);
+	    connection.setCatalog("other_catalog");
+	    connection.setSchema("other_schema");
+	}
+
+	Map<String, Object> state = created.get(0).state;
+	Assert.assertEquals(false, state.get("ReadOnly"));
+	Assert.assertEquals(Connection.TRANSACTION_READ_COMMITTED, state.get("TransactionIsolation"));
+	Assert.assertEquals(ResultSet.HOLD_CURSORS_OVER_COMMIT, state.get("Holdability"));
+	Assert.assertEquals("catalog", state.get("Catalog"));
+	Assert.assertEquals("schema", state.get("Schema"));
+	// No transaction to roll back
+	Assert.assertFalse(created.get(0).calls.contains("rollback"));
+
+	try (Connection connection = dataSource.getConnection()) {
+	    Assert.assertFalse(connection.isReadOnly());
+	}
+	Assert.assertEquals(1, createCount.get());
+    }
+
+    @Test
+    public void testStatementsWrappedAndClosed() throws SQLException {
+	Connection connection = dataSource.getConnection();
+	Statement statement = connection.createStatement();
+	PreparedStatement preparedStatement = connection.prepareStatement("select * from customer");
+	Assert.assertSame(connection, statement.getConnection());
+	Assert.assertSame(connection, preparedStatement.getConnection());
+
+	List<FakeStatement> statements = created.get(0).statements;
+	statement.close();
+	Assert.assertTrue(statements.get(0).closed.get());
+	Assert.assertFalse(statements.get(1).closed.get());
+
+	connection.close();
+	Assert.assertTrue(statements.get(1).closed.get());
+    }
+
+    @Test
+    public void testResultSetsAndMetaDataWrapped() throws SQLException {
+	Connection connection = dataSource.getConnection();
+	Statement statement = connection.createStatement();
+	ResultSet resultSet = statement.executeQuery("select * from customer");
+	Assert.assertSame(statement, resultSet.getStatement());
+	Assert.assertSame(connection, resultSet.getStatement().getConnection());
+	Assert.assertSame(connection, connection.getMetaData().getConnection());
+	connection.close();
+    }
+
+    @Test
+    public void testMinPoolSizeAndIdleEviction() throws Exception {
+	dataSource.setMinPoolSize(1);
+	dataSource.setMaxIdleTime(1);
+
+	Connection connection1 = dataSource.getConnection();
+	Connection connection2 = dataSource.getConnection();
+	connection1.close();
+	connection2.close();
+	Assert.assertTrue(dataSource.getTotalConnections() >= 2);
+
+	// Housekeeper runs every second: idle connections are closed down to
+	// minPoolSize
+	long deadline = System.currentTimeMillis() + 10000;
+	while (dataSource.getTotalConnections() > 1 && System.currentTimeMillis() < deadline) {
+	    Thread.sleep(100);
+	}
+	Assert.assertEquals(1, dataSource.getTotalConnections());
+	Assert.assertEquals(1, dataSource.getIdleConnections());
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.AsyncCallUtil;
+
+/**
+ * Tests the executor calls of the asynchronous statement API. Does not require
+ * an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class AsyncCallUtilTest {
+
+    @Test
+    public void testParallelCalls() throws Exception {
+	List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+	long begin = System.currentTimeMillis();
+
+	// 20 calls of 200 ms, as 20 independent queries
+	for (int i = 0; i < 20; i++) {
+	    final int value = i;
+	    futures.add(AsyncCallUtil.supplyAsync(new Callable<Integer>() {
+
+		@Override
+		public Integer call() throws Exception {
+		    Assert.assertTrue(Thread.currentThread().isDaemon());
+		    Thread.sleep(200);
+		    return value;
+		}
+	    }, AsyncCallUtil.getDefaultExecutor()));
+	}
+
+	CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+	for (int i = 0; i < 20; i++) {
+	    Assert.assertEquals(Integer.valueOf(i), futures.get(i).get());
+	}
+	Assert.assertTrue(System.currentTimeMillis() - begin < 20 * 200 / 2);
+    }
+
+    @Test
+    public void testSqlException() throws InterruptedException {
+	CompletableFuture<Integer> future = AsyncCallUtil.supplyAsync(new Callable<Integer>() {
+
+	    @Override
+	    public Integer call() throws SQLException {
+		throw new SQLException("Table not found");
+	    }
+	}, AsyncCallUtil.getDefaultExecutor());
+
+	try {
+	    future.get();
+	    Assert.fail("The future must fail.");
+	} catch (ExecutionException e) {
+	    Assert.assertTrue(e.getCause() instanceof SQLException);
+	    Assert.assertEquals("Table not found", e.getCause().getMessage());
+	}
+    }
+
+    @Test
+    public void testRejectedCall() throws InterruptedException {
+	Executor executor = new Executor() {
+
+	    @Override
+	    public void execute(Runnable command) {
+		throw new RejectedExecutionException("shut down");
+	    }
+	};
+
+	CompletableFuture<Integer> future = AsyncCallUtil.supplyAsync(new Callable<Integer>() {
+
+	    @Override
+	    public Integer call() {
+		return 1;
+	    }
+	}, executor);
+
+	try {
+	    future.get();
+	    Assert.fail("The future must fail.");
+	} catch (ExecutionException e) {
+	    Assert.assertTrue(e.getCause() instanceof SQLException);
+	}
+    }
+
+}
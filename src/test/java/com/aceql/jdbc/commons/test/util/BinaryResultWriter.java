@@ -0,0 +1,111 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.aceql.jdbc.commons.main.util.binary.ColumnarRowReader;
+
+/**
+ * Encodes a result set in the binary columnar format, as the server does. Used
+ * by the tests and benchmarks of {@code ColumnarRowReader}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class BinaryResultWriter {
+
+    /**
+     * Protected constructor, no instanciation.
+     */
+    protected BinaryResultWriter() {
+
+    }
+
+    /**
+     * Encodes a result set.
+     *
+     * @param metaDataJson the ResultSetMetaData JSON, may be null
+     * @param names        the column names
+     * @param types        the column types, one of ColumnarRowReader.TYPE_XXX
+     * @param rows         the rows values: Integer, Long, Double, String or null
+     * @return the encoded result set
+     * @throws IOException
+     */
+    public static byte[] write(String metaDataJson, String[] names, byte[] types, Object[][] rows)
+	    throws IOException {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	DataOutputStream out = new DataOutputStream(bytes);
+
+	out.write(ColumnarRowReader.MAGIC);
+	out.writeByte(ColumnarRowReader.VERSION);
+	writeString(out, metaDataJson);
+
+	out.writeInt(names.length);
+	for (int col = 0; col < names.length; col++) {
+	    writeString(out, names[col]);
+	    out.writeByte(types[col]);
+	}
+
+	out.writeInt(rows.length);
+	for (int col = 0; col < names.length; col++) {
+	    byte[] nullBitmap = new byte[(rows.length + 7) / 8];
+	    for (int i = 0; i < rows.length; i++) {
+		if (rows[i][col] == null) {
+		    nullBitmap[i >> 3] |= 1 << (i & 7);
+		}
+	    }
+	    out.write(nullBitmap);
+
+	    for (int i = 0; i < rows.length; i++) {
+		Object value = rows[i][col];
+		switch (types[col]) {
+		case ColumnarRowReader.TYPE_INT:
+		    out.writeInt(value == null ? 0 : (Integer) value);
+		    break;
+		case ColumnarRowReader.TYPE_LONG:
+		    out.writeLong(value == null ? 0 : (Long) value);
+		    break;
+		case ColumnarRowReader.TYPE_DOUBLE:
+		    out.writeDouble(value == null ? 0 : (Double) value);
+		    break;
+		default:
+		    writeString(out, (String) value);
+		}
+	    }
+	}
+
+	out.flush();
+	return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+	if (s == null) {
+	    out.writeInt(-1);
+	    return;
+	}
+	byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+	out.writeInt(bytes.length);
+	out.write(bytes);
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.ColumnLabelMap;
+
+/**
+ * Tests the exact and case insensitive lookups of {@code ColumnLabelMap}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ColumnLabelMapTest {
+
+    @Test
+    public void testGetIndex() {
+	Map<String, Integer> indexsPerColName = new HashMap<>();
+	indexsPerColName.put("customer_id", 1);
+	indexsPerColName.put("FNAME", 2);
+	indexsPerColName.put("Fname", 3);
+
+	ColumnLabelMap columnLabelMap = new ColumnLabelMap(indexsPerColName);
+
+	Assert.assertEquals(1, columnLabelMap.getIndex("customer_id"));
+	Assert.assertEquals(1, columnLabelMap.getIndex("CUSTOMER_ID"));
+	Assert.assertEquals(1, columnLabelMap.getIndex("Customer_Id"));
+
+	// Exact hits first, then the first column ignoring case
+	Assert.assertEquals(3, columnLabelMap.getIndex("Fname"));
+	Assert.assertEquals(2, columnLabelMap.getIndex("FNAME"));
+	Assert.assertEquals(2, columnLabelMap.getIndex("fname"));
+	Assert.assertEquals(2, columnLabelMap.getIndex("fname"));
+
+	Assert.assertEquals(-1, columnLabelMap.getIndex("lname"));
+    }
+
+}
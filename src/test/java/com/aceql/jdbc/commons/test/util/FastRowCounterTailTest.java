@@ -0,0 +1,83 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.framework.FastRowCounter;
+
+/**
+ * Tests the tail read of {@code FastRowCounter}. Does not require an AceQL
+ * server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class FastRowCounterTailTest {
+
+    private static String buildContent(int rows, String trailer) {
+	StringBuilder sb = new StringBuilder("{\n    \"status\": \"OK\",\n    \"query_rows\": [\n");
+	for (int i = 1; i <= rows; i++) {
+	    sb.append("        {\n            \"row_" + i + "\": [{\"row_count\": \"" + (i * 7) + "\"}]\n        }");
+	    sb.append(i < rows ? ",\n" : "\n");
+	}
+	sb.append("    ],\n    \"row_count\": " + rows + "\n}" + trailer);
+	return sb.toString();
+    }
+
+    @Test
+    public void testFile() throws IOException {
+	File file = File.createTempFile("aceql-fast-row-counter-", ".txt");
+	try {
+	    FileUtils.writeStringToFile(file, buildContent(1000, ""), StandardCharsets.UTF_8);
+	    Assert.assertEquals(1000, FastRowCounter.getRowCount(file));
+
+	    // Unusual trailing blanks: the tail is extended
+	    FileUtils.writeStringToFile(file, buildContent(12, String.format("%200s", "")), StandardCharsets.UTF_8);
+	    Assert.assertEquals(12, FastRowCounter.getRowCount(file));
+
+	    FileUtils.writeStringToFile(file, "{\"status\":\"OK\",\"row_count\":0}", StandardCharsets.UTF_8);
+	    Assert.assertEquals(0, FastRowCounter.getRowCount(file));
+	} finally {
+	    file.delete();
+	}
+    }
+
+    @Test
+    public void testInputStream() throws IOException {
+	for (int rows : new int[] { 1, 10, 5000 }) {
+	    byte[] bytes = buildContent(rows, "").getBytes(StandardCharsets.UTF_8);
+	    Assert.assertEquals(rows, FastRowCounter.getRowCount(new ByteArrayInputStream(bytes)));
+	    Assert.assertEquals(rows, FastRowCounter.getRowCount(new ByteArrayInputStream(bytes), bytes.length));
+	}
+    }
+
+    @Test(expected = IOException.class)
+    public void testNoRowCount() throws IOException {
+	FastRowCounter.getRowCount(new ByteArrayInputStream("{\"status\":\"OK\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.http.FormUrlEncoder;
+
+/**
+ * Tests that {@code FormUrlEncoder} writes the same bytes as
+ * {@code URLEncoder}. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class FormUrlEncoderTest {
+
+    /** The previous HttpManager implementation */
+    private static String getPostDataString(Map<String, String> requestParams) throws IOException {
+	StringBuilder result = new StringBuilder();
+	boolean first = true;
+
+	for (Map.Entry<String, String> entry : requestParams.entrySet()) {
+	    if (first)
+		first = false;
+	    else
+		result.append("&");
+
+	    if (entry.getValue() != null) {
+		result.append(URLEncoder.encode(entry.getKey(), "UTF-8"));
+		result.append("=");
+		result.append(URLEncoder.encode(entry.getValue(), "UTF-8"));
+	    }
+	}
+	return result.toString();
+    }
+
+    private static void check(Map<String, String> parameters, int bufferSize) throws IOException {
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
+	FormUrlEncoder formUrlEncoder = new FormUrlEncoder(out, bufferSize);
+	formUrlEncoder.write(parameters);
+	formUrlEncoder.flush();
+
+	String expected = getPostDataString(parameters);
+	Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.US_ASCII));
+	Assert.assertEquals(expected.length(), FormUrlEncoder.getEncodedLength(parameters));
+    }
+
+    @Test
+    public void testSql() throws IOException {
+	Map<String, String> parameters = new LinkedHashMap<String, String>();
+	parameters.put("sql", "select * from customer where fname = ? and lname in ('\u00e9', 'x+y', '100%')");
+	parameters.put("param_type_1", "VARCHAR");
+	parameters.put("param_value_1", "\u03a9mega \ud83d\ude00 ~!*'();:@&=+$,/?#[]");
+	parameters.put("null_value", null);
+	parameters.put("", "");
+	check(parameters, FormUrlEncoder.BUFFER_SIZE);
+	check(parameters, 1);
+    }
+
+    @Test
+    public void testRandomChars() throws IOException {
+	Random random = new Random(42);
+	for (int i = 0; i < 200; i++) {
+	    StringBuilder sb = new StringBuilder();
+	    int length = random.nextInt(500);
+	    for (int j = 0; j < length; j++) {
+		// Mostly ASCII, with 2 and 3 bytes chars, surrogate pairs and lone
+		// surrogates
+		int kind = random.nextInt(10);
+		if (kind < 6) {
+		    sb.append((char) random.nextInt(0x80));
+		} else if (kind == 6) {
+		    sb.append((char) (0x80 + random.nextInt(0x780)));
+		} else if (kind == 7) {
+		    sb.appendCodePoint(0x10000 + random.nextInt(0x10000));
+		} else if (kind == 8) {
+		    sb.append((char) (0xD800 + random.nextInt(0x800)));
+		} else {
+		    sb.append((char) (0xE000 + random.nextInt(0x2000)));
+		}
+	    }
+
+	    Map<String, String> parameters = new LinkedHashMap<String, String>();
+	    parameters.put("value", sb.toString());
+	    check(parameters, 16 + random.nextInt(100));
+	}
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.http.HttpCompression;
+
+/**
+ * Tests the decompression of the responses by {@code HttpCompression}. Does not
+ * require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class HttpCompressionTest {
+
+    private static final String CONTENT = "{\"status\":\"OK\",\"row_count\":12}";
+
+    private static String decode(byte[] bytes, String contentEncoding) throws IOException {
+	try (InputStream in = HttpCompression.decode(new ByteArrayInputStream(bytes), contentEncoding)) {
+	    return IOUtils.toString(in, StandardCharsets.UTF_8);
+	}
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	try (OutputStream out = HttpCompression.compress(bytes)) {
+	    out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+	}
+	Assert.assertEquals(CONTENT, decode(bytes.toByteArray(), "gzip"));
+	Assert.assertEquals(CONTENT, decode(bytes.toByteArray(), " X-GZIP "));
+    }
+
+    @Test
+    public void testDeflate() throws IOException {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	try (OutputStream out = new DeflaterOutputStream(bytes)) {
+	    out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+	}
+	Assert.assertEquals(CONTENT, decode(bytes.toByteArray(), "deflate"));
+    }
+
+    @Test
+    public void testRawDeflate() throws IOException {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	try (OutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+	    out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+	}
+	Assert.assertEquals(CONTENT, decode(bytes.toByteArray(), "deflate"));
+    }
+
+    @Test
+    public void testNotCompressed() throws IOException {
+	byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+	Assert.assertEquals(CONTENT, decode(bytes, null));
+	Assert.assertEquals(CONTENT, decode(bytes, "identity"));
+	Assert.assertNull(HttpCompression.decode(null, "gzip"));
+
+	// Empty error body sent with a Content-Encoding header
+	Assert.assertEquals("", decode(new byte[0], "gzip"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupported() throws IOException {
+	decode(CONTENT.getBytes(StandardCharsets.UTF_8), "br");
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.PrefetchInputStream;
+
+/**
+ * Tests the background read of {@code PrefetchInputStream}. Does not require an
+ * AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class PrefetchInputStreamTest {
+
+    @Test
+    public void testContent() throws IOException {
+	byte[] bytes = new byte[1024 * 1024 + 17];
+	new Random(42).nextBytes(bytes);
+
+	// Small chunks and queue: the producer is blocked most of the time
+	try (InputStream in = new PrefetchInputStream(new ByteArrayInputStream(bytes), 1000, 2)) {
+	    ByteArrayOutputStream out = new ByteArrayOutputStream();
+	    out.write(in.read());
+	    byte[] buffer = new byte[777];
+	    int len;
+	    while ((len = in.read(buffer, 0, buffer.length)) != -1) {
+		out.write(buffer, 0, len);
+	    }
+	    Assert.assertArrayEquals(bytes, out.toByteArray());
+	    Assert.assertEquals(-1, in.read());
+	}
+    }
+
+    @Test
+    public void testFailure() throws IOException {
+	InputStream failing = new InputStream() {
+	    private int count = 0;
+
+	    @Override
+	    public int read() throws IOException {
+		if (count++ >= 5000) {
+		    throw new IOException("Connection reset");
+		}
+		return 'a';
+	    }
+	};
+
+	try (InputStream in = new PrefetchInputStream(failing, 1024, 4)) {
+	    byte[] buffer = new byte[100];
+	    int total = 0;
+	    int len;
+	    while ((len = in.read(buffer, 0, buffer.length)) != -1) {
+		total += len;
+	    }
+	    Assert.fail("IOException expected after " + total + " bytes");
+	} catch (IOException e) {
+	    Assert.assertEquals("Connection reset", e.getMessage());
+	}
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseWhileProducerBlocked() throws IOException {
+	InputStream endless = new InputStream() {
+	    @Override
+	    public int read() throws IOException {
+		return 'a';
+	    }
+	};
+
+	InputStream in = new PrefetchInputStream(endless, 512, 2);
+	Assert.assertEquals('a', in.read());
+	in.close();
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.InternalWrapper;
+import com.aceql.jdbc.commons.ServerCapabilities;
+
+/**
+ * Tests the server version comparisons of {@code ServerCapabilities}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ServerCapabilitiesTest {
+
+    @Test
+    public void testVersion() {
+	ServerCapabilities serverCapabilities = InternalWrapper
+		.serverCapabilitiesBuilder("AceQL HTTP v12.2 - 03-Apr-2023");
+	Assert.assertEquals("12.2", serverCapabilities.getVersionNumber());
+	Assert.assertTrue(serverCapabilities.isVersion12_2OrHigher());
+	Assert.assertFalse(serverCapabilities.isVersionOrHigher("12.3"));
+
+	// 12.10 is higher than 12.2
+	serverCapabilities = InternalWrapper.serverCapabilitiesBuilder("AceQL HTTP v12.10 - 01-Jan-2024");
+	Assert.assertTrue(serverCapabilities.isVersion12_2OrHigher());
+	Assert.assertTrue(serverCapabilities.isVersionOrHigher("12.9"));
+
+	serverCapabilities = InternalWrapper.serverCapabilitiesBuilder("AceQL HTTP v11.0 - 01-Jan-2022");
+	Assert.assertFalse(serverCapabilities.isVersion12_2OrHigher());
+
+	serverCapabilities = InternalWrapper.serverCapabilitiesBuilder("unknown");
+	Assert.assertFalse(serverCapabilities.isVersion12_2OrHigher());
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.commons.test.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aceql.jdbc.commons.main.util.UserLoginStore;
+
+/**
+ * Tests the single login per user of {@code UserLoginStore}, the expiry and
+ * the invalidation of the sessions. Does not require an AceQL server.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class UserLoginStoreTest {
+
+    private final AtomicInteger loginCount = new AtomicInteger();
+
+    private final Callable<String> login = new Callable<String>() {
+
+	@Override
+	public String call() throws Exception {
+	    Thread.sleep(100);
+	    return "session_" + loginCount.incrementAndGet();
+	}
+    };
+
+    private UserLoginStore userLoginStore;
+
+    @Before
+    public void setUp() {
+	UserLoginStore.resetAll();
+	userLoginStore = new UserLoginStore("http://localhost:9090/aceql", "user1", "sampledb");
+    }
+
+    @After
+    public void tearDown() {
+	UserLoginStore.setSessionTimeToLive(UserLoginStore.DEFAULT_SESSION_TIME_TO_LIVE);
+	UserLoginStore.resetAll();
+    }
+
+    @Test
+    public void testSingleLogin() throws Exception {
+	int threads = 20;
+	final CountDownLatch start = new CountDownLatch(1);
+	ExecutorService executor = Executors.newFixedThreadPool(threads);
+	try {
+	    List<Future<String>> futures = new ArrayList<Future<String>>();
+	    for (int i = 0; i < threads; i++) {
+		futures.add(executor.submit(new Callable<String>() {
+
+		    @Override
+		    public String call() throws Exception {
+			start.await();
+			return new UserLoginStore("http://localhost:9090/aceql", "user1", "sampledb")
+				.getSessionId(login);
+		    }
+		}));
+	    }
+	    start.countDown();
+
+	    for (Future<String> future : futures) {
+		Assert.assertEquals("session_1", future.get());
+	    }
+	} finally {
+	    executor.shutdown();
+	}
+
+	Assert.assertEquals(1, loginCount.get());
+	Assert.assertTrue(userLoginStore.isAlreadyLogged());
+
+	// Other user: other session
+	UserLoginStore otherUser = new UserLoginStore("http://localhost:9090/aceql", "user2", "sampledb");
+	Assert.assertFalse(otherUser.isAlreadyLogged());
+	Assert.assertEquals("session_2", otherUser.getSessionId(login));
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+	UserLoginStore.setSessionTimeToLive(50);
+	Assert.assertEquals("session_1", userLoginStore.getSessionId(login));
+	Thread.sleep(100);
+	Assert.assertNull(userLoginStore.getSessionId());
+	Assert.assertEquals("session_2", userLoginStore.getSessionId(login));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+	Assert.assertEquals("session_1", userLoginStore.getSessionId(login));
+
+	// Not the stored session: ignored
+	userLoginStore.invalidate("session_0");
+	Assert.assertEquals("session_1", userLoginStore.getSessionId(login));
+
+	userLoginStore.invalidate("session_1");
+	Assert.assertFalse(userLoginStore.isAlreadyLogged());
+	Assert.assertEquals("session_2", userLoginStore.getSessionId(login));
+    }
+
+    @Test
+    public void testFailedLogin() throws Exception {
+	Callable<String> failingLogin = new Callable<String>() {
+
+	    @Override
+	    public String call() throws Exception {
+		throw new IOException("Server unavailable");
+	    }
+	};
+
+	try {
+	    userLoginStore.getSessionId(failingLogin);
+	    Assert.fail("Login must fail");
+	} catch (IOException expected) {
+	    // Expected
+	}
+
+	// Failure is not stored
+	Assert.assertFalse(userLoginStore.isAlreadyLogged());
+	Assert.assertEquals("session_1", userLoginStore.getSessionId(login));
+    }
+
+    @Test
+    public void testStoredSession() throws Exception {
+	userLoginStore.setSessionId("given");
+	Assert.assertEquals("given", userLoginStore.getSessionId());
+	Assert.assertEquals("given", userLoginStore.getSessionId(login));
+	Assert.assertEquals(0, loginCount.get());
+
+	userLoginStore.remove();
+	Assert.assertNull(userLoginStore.getSessionId());
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.pro_ex.main.test.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import com.aceql.jdbc.commons.main.util.binary.ColumnarRowReader;
+import com.aceql.jdbc.commons.main.util.json.JsonResultScanner;
+import com.aceql.jdbc.commons.main.util.json.RowParser;
+import com.aceql.jdbc.commons.test.util.BinaryResultWriter;
+
+/**
+ * Compares the decoding of a result set in the binary columnar format with
+ * {@code ColumnarRowReader}, and in the compact JSON row format with
+ * {@code RowParser}. Each operation decodes the whole result and reads the
+ * numeric values of all rows. <br>
+ * Usage: {@code BinaryResultDecodeBenchmark [row counts...]}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class BinaryResultDecodeBenchmark {
+
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 10;
+
+    private static final String[] NAMES = { "customer_id", "amount", "price", "fname" };
+    private static final byte[] TYPES = { ColumnarRowReader.TYPE_INT, ColumnarRowReader.TYPE_LONG,
+	    ColumnarRowReader.TYPE_DOUBLE, ColumnarRowReader.TYPE_STRING };
+
+    public static void main(String[] args) throws Exception {
+
+	int[] rowCounts = { 10000, 100000, 1000000 };
+	if (args.length > 0) {
+	    rowCounts = new int[args.length];
+	    for (int i = 0; i < args.length; i++) {
+		rowCounts[i] = Integer.parseInt(args[i]);
+	    }
+	}
+
+	for (int rows : rowCounts) {
+	    Object[][] values = buildRows(rows);
+	    byte[] binary = BinaryResultWriter.write(null, NAMES, TYPES, values);
+	    byte[] json = buildCompactJson(values);
+
+	    System.out.println();
+	    System.out.println(rows + " rows. Binary: " + binary.length + " bytes, JSON: " + json.length + " bytes");
+
+	    long jsonNanos = measure(json, false);
+	    long binaryNanos = measure(binary, true);
+
+	    System.out.println("JSON RowParser          : " + jsonNanos / 1000 + " us/op");
+	    System.out.println("Binary ColumnarRowReader: " + binaryNanos / 1000 + " us/op");
+	}
+    }
+
+    private static long measure(byte[] content, boolean binary) throws IOException, SQLException {
+	double expected = binary ? decodeBinary(content) : decodeJson(content);
+
+	for (int i = 0; i < WARMUP; i++) {
+	    check(content, binary, expected);
+	}
+
+	long begin = System.nanoTime();
+	for (int i = 0; i < ITERATIONS; i++) {
+	    check(content, binary, expected);
+	}
+	return (System.nanoTime() - begin) / ITERATIONS;
+    }
+
+    private static void check(byte[] content, boolean binary, double expected) throws IOException, SQLException {
+	double sum = binary ? decodeBinary(content) : decodeJson(content);
+	if (sum != expected) {
+	    throw new IllegalStateException("sum: " + sum + " expected: " + expected);
+	}
+    }
+
+    private static double decodeBinary(byte[] content) throws IOException {
+	ColumnarRowReader reader = ColumnarRowReader.read(new ByteArrayInputStream(content));
+	double sum = 0;
+	for (int row = 1; reader.buildRowNum(row); row++) {
+	    sum += reader.getLong(1) + reader.getLong(2) + reader.getDouble(3);
+	}
+	reader.close();
+	return sum;
+    }
+
+    private static double decodeJson(byte[] content) throws SQLException {
+	JsonResultScanner jsonResultScanner = new JsonResultScanner();
+	jsonResultScanner.update(content, 0, content.length);
+	RowParser rowParser = new RowParser(content, jsonResultScanner.getRowOffsetIndex());
+	double sum = 0;
+	for (int row = 1; rowParser.buildRowNum(row); row++) {
+	    sum += Integer.parseInt(rowParser.getValue(1)) + Long.parseLong(rowParser.getValue(2))
+		    + Double.parseDouble(rowParser.getValue(3));
+	}
+	rowParser.close();
+	return sum;
+    }
+
+    private static Object[][] buildRows(int rows) {
+	Object[][] values = new Object[rows][];
+	for (int i = 0; i < rows; i++) {
+	    values[i] = new Object[] { i + 1, (i + 1) * 1000L, (i % 1000) + 0.25, "Firstname_" + (i + 1) };
+	}
+	return values;
+    }
+
+    private static byte[] buildCompactJson(Object[][] values) {
+	StringBuilder sb = new StringBuilder("{\"status\":\"OK\",\"column_names\":[");
+	for (int col = 0; col < NAMES.length; col++) {
+	    sb.append(col > 0 ? "," : "").append('"').append(NAMES[col]).append('"');
+	}
+	sb.append("],\"query_rows\":[");
+	for (int i = 0; i < values.length; i++) {
+	    sb.append(i > 0 ? ",[" : "[");
+	    for (int col = 0; col < NAMES.length; col++) {
+		sb.append(col > 0 ? "," : "").append('"').append(values[i][col]).append('"');
+	    }
+	    sb.append(']');
+	}
+	sb.append("],\"row_count\":" + values.length + "}");
+	return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
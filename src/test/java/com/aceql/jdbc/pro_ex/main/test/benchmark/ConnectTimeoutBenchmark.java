@@ -0,0 +1,209 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.pro_ex.main.test.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+
+import com.aceql.jdbc.commons.main.http.HttpTransportResponse;
+import com.aceql.jdbc.commons.main.http.UrlConnectionTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Compares the threads started and the CPU time used by POST requests sent
+ * with a connect timeout through {@code UrlConnectionTransport}, which uses
+ * {@code HttpURLConnection.setConnectTimeout}, and through the previous
+ * implementation that started a thread per request and polled it every
+ * millisecond. <br>
+ * Requests are sent to a local HTTP server started by the benchmark. <br>
+ * Usage: {@code ConnectTimeoutBenchmark [requests]}.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class ConnectTimeoutBenchmark {
+
+    private static final int WARMUP = 1000;
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final byte[] BODY = "action=execute_query&sql=select+1".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+
+	int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+	HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+	server.createContext("/", new HttpHandler() {
+
+	    @Override
+	    public void handle(HttpExchange exchange) throws IOException {
+		IOUtils.toByteArray(exchange.getRequestBody());
+		byte[] bytes = "{\"status\":\"OK\"}".getBytes(StandardCharsets.UTF_8);
+		// A new connection per request, so that each one goes through connect
+		exchange.getResponseHeaders().set("Connection", "close");
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+		    out.write(bytes);
+		}
+	    }
+	});
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+	server.setExecutor(executor);
+	server.start();
+
+	try {
+	    URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+	    UrlConnectionTransport transport = new UrlConnectionTransport(null, CONNECT_TIMEOUT, 0);
+
+	    run(url, transport, true, WARMUP);
+	    run(url, transport, false, WARMUP);
+
+	    System.out.println("Requests: " + requests + ", connect timeout: " + CONNECT_TIMEOUT + " ms");
+	    System.out.println();
+	    print("Legacy thread per request", run(url, transport, true, requests), requests);
+	    print("setConnectTimeout        ", run(url, transport, false, requests), requests);
+	} finally {
+	    server.stop(0);
+	    executor.shutdown();
+	}
+    }
+
+    private static void print(String name, long[] result, int requests) {
+	System.out.println(name + ": " + result[0] + " threads started, " + result[1] / 1000000 + " ms CPU, "
+		+ result[2] / requests / 1000 + " us/request");
+    }
+
+    /**
+     * @return the threads started, the CPU time of the client thread and its
+     *         helper threads in nanoseconds, and the elapsed time in nanoseconds
+     */
+    private static long[] run(URL url, UrlConnectionTransport transport, boolean legacy, int requests)
+	    throws IOException {
+	ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+	long threadsBegin = threadMXBean.getTotalStartedThreadCount();
+	long cpuBegin = threadMXBean.getCurrentThreadCpuTime();
+	long helperCpu = 0;
+	long begin = System.nanoTime();
+
+	Map<String, String> headers = new HashMap<String, String>();
+	for (int i = 0; i < requests; i++) {
+	    if (legacy) {
+		helperCpu += postLegacy(url);
+	    } else {
+		HttpTransportResponse response = transport.post(url, headers, BODY);
+		try (InputStream in = response.getBody()) {
+		    IOUtils.toByteArray(in);
+		}
+	    }
+	}
+
+	long elapsed = System.nanoTime() - begin;
+	long cpu = threadMXBean.getCurrentThreadCpuTime() - cpuBegin + helperCpu;
+	// The server executor threads are started at warmup
+	long threads = threadMXBean.getTotalStartedThreadCount() - threadsBegin;
+	return new long[] { threads, cpu, elapsed };
+    }
+
+    /**
+     * The previous TimeoutConnector implementation: gets the output stream in a
+     * new thread and polls it every millisecond.
+     *
+     * @return the CPU time of the helper thread in nanoseconds
+     */
+    private static long postLegacy(URL url) throws IOException {
+	final HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+	conn.setRequestMethod("POST");
+	conn.setDoOutput(true);
+
+	final OutputStream[] os = new OutputStream[1];
+	final IOException[] exception = new IOException[1];
+	final long[] helperCpu = new long[1];
+	final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	Thread t = new Thread() {
+	    @Override
+	    public void run() {
+		try {
+		    OutputStream connOut = conn.getOutputStream();
+		    synchronized (os) {
+			os[0] = connOut;
+		    }
+		} catch (IOException e) {
+		    synchronized (os) {
+			exception[0] = e;
+		    }
+		}
+		helperCpu[0] = threadMXBean.getCurrentThreadCpuTime();
+	    }
+	};
+	t.start();
+
+	long begin = System.currentTimeMillis();
+	while (true) {
+	    synchronized (os) {
+		if (os[0] != null) {
+		    break;
+		}
+		if (exception[0] != null) {
+		    throw exception[0];
+		}
+	    }
+	    if (System.currentTimeMillis() - begin > CONNECT_TIMEOUT) {
+		throw new SocketTimeoutException("Unable to establish connection in less than required "
+			+ CONNECT_TIMEOUT + " milliseconds.");
+	    }
+	    try {
+		Thread.sleep(1);
+	    } catch (InterruptedException ie) {
+		Thread.currentThread().interrupt();
+		throw new IOException(ie);
+	    }
+	}
+
+	try (OutputStream out = os[0]) {
+	    out.write(BODY);
+	}
+	try (InputStream in = conn.getInputStream()) {
+	    IOUtils.toByteArray(in);
+	}
+
+	try {
+	    t.join();
+	} catch (InterruptedException ie) {
+	    Thread.currentThread().interrupt();
+	}
+	return helperCpu[0];
+    }
+
+}
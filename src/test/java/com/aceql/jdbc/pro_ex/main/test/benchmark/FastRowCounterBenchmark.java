@@ -0,0 +1,159 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.pro_ex.main.test.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.aceql.jdbc.commons.main.util.framework.FastRowCounter;
+
+/**
+ * Compares the tail seek {@code FastRowCounter.getRowCount(File)} with the
+ * previous full read implementation on 1 MB, 100 MB and 1 GB result set files.
+ * <br>
+ * Usage: {@code FastRowCounterBenchmark [sizes in MB...]}. Files are created in
+ * java.io.tmpdir and deleted at end.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class FastRowCounterBenchmark {
+
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 5;
+
+    public static void main(String[] args) throws IOException {
+
+	long[] sizesMb = { 1, 100, 1024 };
+	if (args.length > 0) {
+	    sizesMb = new long[args.length];
+	    for (int i = 0; i < args.length; i++) {
+		sizesMb[i] = Long.parseLong(args[i]);
+	    }
+	}
+
+	for (long sizeMb : sizesMb) {
+	    File file = File.createTempFile("pc-result-set-benchmark-" + sizeMb + "mb-", ".txt");
+	    try {
+		int rows = buildResultSetFile(file, sizeMb * 1024 * 1024);
+		System.out.println();
+		System.out.println("File size: " + file.length() + " bytes, " + rows + " rows");
+
+		long legacyNanos = measure(file, true);
+		long tailNanos = measure(file, false);
+
+		System.out.println("Legacy full read  : " + legacyNanos / 1000 + " us/op");
+		System.out.println("Tail seek         : " + tailNanos / 1000 + " us/op");
+	    } finally {
+		file.delete();
+	    }
+	}
+    }
+
+    private static long measure(File file, boolean legacy) throws IOException {
+	int expected = FastRowCounter.getRowCount(file);
+
+	for (int i = 0; i < WARMUP; i++) {
+	    count(file, legacy, expected);
+	}
+
+	long begin = System.nanoTime();
+	for (int i = 0; i < ITERATIONS; i++) {
+	    count(file, legacy, expected);
+	}
+	return (System.nanoTime() - begin) / ITERATIONS;
+    }
+
+    private static void count(File file, boolean legacy, int expected) throws IOException {
+	int rowCount = legacy ? getRowCountLegacy(file) : FastRowCounter.getRowCount(file);
+	if (rowCount != expected) {
+	    throw new IllegalStateException("rowCount: " + rowCount + " expected: " + expected);
+	}
+    }
+
+    /**
+     * Writes a pretty printed result set file of about the passed size.
+     *
+     * @return the number of rows
+     */
+    private static int buildResultSetFile(File file, long size) throws IOException {
+	int rows = 0;
+	long written = 0;
+	try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+	    written += write(out, "{\n    \"status\": \"OK\",\n    \"query_rows\": [\n");
+	    while (written < size) {
+		rows++;
+		String row = (rows > 1 ? ",\n" : "") + "        {\n            \"row_" + rows + "\": [\n"
+			+ "                {\n                    \"customer_id\": \"" + rows + "\"\n                },\n"
+			+ "                {\n                    \"fname\": \"Firstname_" + rows + "\"\n                }\n"
+			+ "            ]\n        }";
+		written += write(out, row);
+	    }
+	    write(out, "\n    ],\n    \"row_count\": " + rows + "\n}");
+	}
+	return rows;
+    }
+
+    private static int write(OutputStream out, String s) throws IOException {
+	byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+	out.write(bytes);
+	return bytes.length;
+    }
+
+    /**
+     * The previous FastRowCounter implementation: reads all the file and keeps
+     * the last 40 chars.
+     */
+    private static int getRowCountLegacy(File file) throws IOException {
+	StringBuffer sb = new StringBuffer();
+
+	long size = file.length();
+
+	try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+	    byte[] c = new byte[1024];
+
+	    int readChars = 0;
+	    long cpt = 0;
+	    while ((readChars = is.read(c)) != -1) {
+
+		for (int i = 0; i < readChars; ++i) {
+		    cpt++;
+		    if (cpt > size - 40 && cpt < size - 1) {
+			sb.append((char) c[i]);
+		    }
+		}
+	    }
+	}
+
+	String line = sb.toString();
+	line = StringUtils.substringAfter(line, ",");
+	line = StringUtils.substringAfter(line, ":").trim();
+	return Integer.parseInt(line);
+    }
+
+}
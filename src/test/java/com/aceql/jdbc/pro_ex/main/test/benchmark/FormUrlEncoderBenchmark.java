@@ -0,0 +1,146 @@
+/*
+ * This file is part of AceQL JDBC Driver.
+ * AceQL JDBC Driver: Remote JDBC access over HTTP with AceQL HTTP.
+ * Copyright (c) 2023,  KawanSoft SAS
+ * (http://www.kawansoft.com). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aceql.jdbc.pro_ex.main.test.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.net.URLEncoder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.aceql.jdbc.commons.main.http.FormUrlEncoder;
+
+/**
+ * Compares the heap allocated and the time to write a POST body with
+ * {@code FormUrlEncoder} and with the previous {@code URLEncoder} and
+ * {@code StringBuilder} implementation, for SQL texts with long IN lists.
+ * <br>
+ * Usage: {@code FormUrlEncoderBenchmark [IN list sizes...]}. Requires a
+ * HotSpot JVM for the allocated bytes.
+ *
+ * @author Nicolas de Pomereu
+ *
+ */
+public class FormUrlEncoderBenchmark {
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 20;
+
+    /** Discards the body, as a network stream would */
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+	@Override
+	public void write(int b) {
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+	}
+    };
+
+    public static void main(String[] args) throws IOException {
+
+	int[] sizes = { 100, 10000, 1000000 };
+	if (args.length > 0) {
+	    sizes = new int[args.length];
+	    for (int i = 0; i < args.length; i++) {
+		sizes[i] = Integer.parseInt(args[i]);
+	    }
+	}
+
+	for (int size : sizes) {
+	    StringBuilder sql = new StringBuilder("select * from customer where customer_id in (");
+	    for (int i = 0; i < size; i++) {
+		sql.append(i > 0 ? ", " : "").append(i);
+	    }
+	    sql.append(") and fname <> 'H\u00e9l\u00e8ne'");
+
+	    Map<String, String> parameters = new LinkedHashMap<String, String>();
+	    parameters.put("sql", sql.toString());
+	    parameters.put("prepared_statement", "false");
+
+	    System.out.println();
+	    System.out.println("SQL length: " + sql.length() + " chars, body: "
+		    + FormUrlEncoder.getEncodedLength(parameters) + " bytes");
+	    print("Legacy URLEncoder", measure(parameters, true));
+	    print("FormUrlEncoder   ", measure(parameters, false));
+	}
+    }
+
+    private static void print(String name, long[] result) {
+	System.out.println(name + ": " + result[0] + " bytes allocated/op, " + result[1] / 1000 + " us/op");
+    }
+
+    /**
+     * @return the bytes allocated and the time in nanoseconds per operation
+     */
+    private static long[] measure(Map<String, String> parameters, boolean legacy) throws IOException {
+	for (int i = 0; i < WARMUP; i++) {
+	    write(parameters, legacy);
+	}
+
+	long allocatedBegin = getAllocatedBytes();
+	long begin = System.nanoTime();
+	for (int i = 0; i < ITERATIONS; i++) {
+	    write(parameters, legacy);
+	}
+	long elapsed = System.nanoTime() - begin;
+	long allocated = getAllocatedBytes() - allocatedBegin;
+	return new long[] { allocated / ITERATIONS, elapsed / ITERATIONS };
+    }
+
+    private static void write(Map<String, String> parameters, boolean legacy) throws IOException {
+	if (legacy) {
+	    // The previous HttpManager code
+	    try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(NULL_OUTPUT, "UTF-8"))) {
+		writer.write(getPostDataString(parameters));
+	    }
+	} else {
+	    FormUrlEncoder.write(parameters, NULL_OUTPUT);
+	}
+    }
+
+    private static String getPostDataString(Map<String, String> requestParams) throws IOException {
+	StringBuilder result = new StringBuilder();
+	boolean first = true;
+
+	for (Map.Entry<String, String> entry : requestParams.entrySet()) {
+	    if (first)
+		first = false;
+	    else
+		result.append("&");
+
+	    if (entry.getValue() != null) {
+		result.append(URLEncoder.encode(entry.getKey(), "UTF-8"));
+		result.append("=");
+		result.append(URLEncoder.encode(entry.getValue(), "UTF-8"));
+	    }
+	}
+	return result.toString();
+    }
+
+    private static long getAllocatedBytes() {
+	com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+		.getThreadMXBean();
+	return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}